@@ -0,0 +1,64 @@
+package nju.quadra.hms.benchmark;
+
+import nju.quadra.hms.data.DataServiceFactory;
+import nju.quadra.hms.data.cache.CachingDataServiceProvider;
+import nju.quadra.hms.data.memory.MemoryDataServiceProvider;
+import nju.quadra.hms.po.*;
+
+/**
+ * 基准测试的数据准备
+ * 同一个 JVM 中只生成一次合成数据集，载入内存数据层并替换默认的 MySQL 实现；
+ * 与服务器的默认配置一致，在内存数据层之上加入实体缓存
+ */
+final class BenchmarkData {
+
+    private static final int CACHE_SIZE = 10000;
+    private static final long CACHE_TTL = 300000;
+    private static SyntheticDataset dataset;
+
+    private BenchmarkData() {
+    }
+
+    static synchronized SyntheticDataset install() {
+        if (dataset == null) {
+            SyntheticDataset data = SyntheticDataset.generate();
+            try {
+                DataServiceFactory.setProvider(new CachingDataServiceProvider(load(data), CACHE_SIZE, CACHE_TTL));
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to load synthetic dataset", e);
+            }
+            dataset = data;
+        }
+        return dataset;
+    }
+
+    private static MemoryDataServiceProvider load(SyntheticDataset data) throws Exception {
+        MemoryDataServiceProvider provider = new MemoryDataServiceProvider();
+        for (AreaPO po : data.areas) {
+            provider.addArea(po);
+        }
+        for (HotelPO po : data.hotels) {
+            provider.getHotelDataService().insert(po);
+        }
+        for (HotelRoomPO po : data.rooms) {
+            provider.getHotelRoomDataService().insert(po);
+        }
+        for (UserPO po : data.users) {
+            provider.getUserDataService().insert(po);
+        }
+        for (OrderPO po : data.orders) {
+            provider.getOrderDataService().insert(po);
+        }
+        for (CreditRecordPO po : data.credits) {
+            provider.getCreditDataService().insert(po);
+        }
+        for (HotelPromotionPO po : data.hotelPromotions) {
+            provider.getHotelPromotionDataService().insert(po);
+        }
+        for (WebsitePromotionPO po : data.websitePromotions) {
+            provider.getWebsitePromotionDataService().insert(po);
+        }
+        return provider;
+    }
+
+}
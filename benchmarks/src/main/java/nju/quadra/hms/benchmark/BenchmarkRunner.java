@@ -0,0 +1,41 @@
+package nju.quadra.hms.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基准测试入口
+ * 同时测量吞吐量与延迟分布，并通过 GC 分析器记录内存分配速率，结果以 JSON 格式写入文件以便跟踪历史变化
+ * 用法: java -jar benchmarks.jar [结果文件] [基准测试名称正则]
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = args.length > 0 ? args[0] : "benchmark-result.json";
+        String include = args.length > 1 ? args[1] : BenchmarkRunner.class.getPackage().getName() + ".*Benchmark.*";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .mode(Mode.Throughput)
+                .mode(Mode.SampleTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        new Runner(options).run();
+    }
+
+}
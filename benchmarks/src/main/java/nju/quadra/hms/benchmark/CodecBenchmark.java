@@ -0,0 +1,57 @@
+package nju.quadra.hms.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import nju.quadra.hms.bl.OrderBL;
+import nju.quadra.hms.model.OrderState;
+import nju.quadra.hms.util.JsonCodec;
+import nju.quadra.hms.vo.OrderDetailVO;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+
+/**
+ * OrderDetailVO 列表的 JSON 编解码基准测试，对比共享的 JsonCodec 与默认反射方式的 Gson
+ */
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+    private static final Type DETAIL_LIST = new TypeToken<ArrayList<OrderDetailVO>>() {
+    }.getType();
+
+    @Param({"50", "500"})
+    public int size;
+
+    private final Gson reflective = new Gson();
+    private ArrayList<OrderDetailVO> orders;
+    private String json;
+
+    @Setup
+    public void setup() {
+        BenchmarkData.install();
+        orders = new ArrayList<>(new OrderBL().getByState(OrderState.RANKED).subList(0, size));
+        json = JsonCodec.toJson(orders);
+    }
+
+    @Benchmark
+    public String encodeCodec() {
+        return JsonCodec.toJson(orders);
+    }
+
+    @Benchmark
+    public String encodeReflective() {
+        return reflective.toJson(orders);
+    }
+
+    @Benchmark
+    public ArrayList<OrderDetailVO> decodeCodec() {
+        return JsonCodec.fromJson(json, DETAIL_LIST);
+    }
+
+    @Benchmark
+    public ArrayList<OrderDetailVO> decodeReflective() {
+        return reflective.fromJson(json, DETAIL_LIST);
+    }
+
+}
@@ -0,0 +1,31 @@
+package nju.quadra.hms.benchmark;
+
+import nju.quadra.hms.bl.CreditRecordBL;
+import nju.quadra.hms.blservice.CreditRecordBLService;
+import nju.quadra.hms.vo.CreditRecordVO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+
+/**
+ * CreditRecordBL.get 的基准测试，每个客户有 SyntheticDataset.CREDITS_PER_CUSTOMER 条信用记录
+ */
+@State(Scope.Thread)
+public class CreditBenchmark {
+
+    private CreditRecordBLService creditRecordBL;
+    private int next;
+
+    @Setup
+    public void setup() {
+        BenchmarkData.install();
+        creditRecordBL = new CreditRecordBL();
+    }
+
+    @Benchmark
+    public ArrayList<CreditRecordVO> get() {
+        next = (next + 1) % SyntheticDataset.CUSTOMER_COUNT;
+        return creditRecordBL.get(SyntheticDataset.customer(next));
+    }
+
+}
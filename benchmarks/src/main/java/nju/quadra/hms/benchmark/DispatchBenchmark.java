@@ -0,0 +1,86 @@
+package nju.quadra.hms.benchmark;
+
+import nju.quadra.hms.model.LoginResult;
+import nju.quadra.hms.model.ResultMessage;
+import nju.quadra.hms.net.HttpService;
+import nju.quadra.hms.util.JsonCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HTTP 远程调用的端到端基准测试
+ * 在本机启动 HttpService，经过会话校验、参数解码、方法分派和结果编码的完整流程
+ */
+@State(Scope.Benchmark)
+public class DispatchBenchmark {
+
+    private static final String USERNAME = SyntheticDataset.customer(0);
+
+    private HttpService httpService;
+    private String baseUrl;
+    private String sessid;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkData.install();
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        httpService = new HttpService(port);
+        httpService.start();
+        baseUrl = "http://127.0.0.1:" + port;
+        LoginResult result = JsonCodec.fromJson(post("/AuthService/login", JsonCodec.toJson(new String[]{USERNAME, SyntheticDataset.PASSWORD})), LoginResult.class);
+        if (result == null || result.result != ResultMessage.RESULT_SUCCESS) {
+            throw new IOException("Failed to login as " + USERNAME);
+        }
+        sessid = result.session.id;
+    }
+
+    @TearDown
+    public void tearDown() {
+        httpService.stop();
+    }
+
+    @Benchmark
+    public String getAllArea() throws IOException {
+        return post("/HotelBL/getAllArea/" + sessid, "[]");
+    }
+
+    @Benchmark
+    public String getCreditRecord() throws IOException {
+        return post("/CreditRecordBL/get/" + sessid, "[\"" + USERNAME + "\"]");
+    }
+
+    @Benchmark
+    public String getOrderByCustomer() throws IOException {
+        return post("/OrderBL/getByCustomer/" + sessid, "[\"" + USERNAME + "\"]");
+    }
+
+    private String post(String path, String body) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        conn.setRequestMethod("POST");
+        conn.setDoOutput(true);
+        try (OutputStream os = conn.getOutputStream()) {
+            os.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        try (InputStream is = conn.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            int len;
+            while ((len = is.read(buffer)) > 0) {
+                response.write(buffer, 0, len);
+            }
+        }
+        return new String(response.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+}
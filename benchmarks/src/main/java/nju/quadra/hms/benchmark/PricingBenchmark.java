@@ -0,0 +1,50 @@
+package nju.quadra.hms.benchmark;
+
+import nju.quadra.hms.bl.OrderBL;
+import nju.quadra.hms.blservice.OrderBLService;
+import nju.quadra.hms.po.HotelRoomPO;
+import nju.quadra.hms.vo.OrderVO;
+import nju.quadra.hms.vo.PriceVO;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * OrderBL.getPrice 的基准测试，覆盖信用检查、客房余量检查和酒店、网站促销策略的计算
+ */
+@State(Scope.Thread)
+public class PricingBenchmark {
+
+    private static final int REQUEST_COUNT = 256;
+
+    private OrderBLService orderBL;
+    private OrderVO[] requests;
+    private int next;
+
+    @Setup
+    public void setup() {
+        SyntheticDataset data = BenchmarkData.install();
+        orderBL = new OrderBL();
+        Random random = new Random(SyntheticDataset.SEED);
+        LocalDate startDate = LocalDate.now().plusDays(7);
+        requests = new OrderVO[REQUEST_COUNT];
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            HotelRoomPO room = data.rooms.get(random.nextInt(data.rooms.size()));
+            int roomCount = 1 + random.nextInt(4);
+            ArrayList<String> persons = new ArrayList<>(Collections.singletonList("入住人" + i));
+            requests[i] = new OrderVO(0, SyntheticDataset.customer(random.nextInt(SyntheticDataset.CUSTOMER_COUNT)), room.getHotelId(),
+                    startDate, startDate.plusDays(1 + random.nextInt(3)), room.getId(), roomCount, persons.size(), persons, false, 0, null, 0, null);
+        }
+    }
+
+    @Benchmark
+    public PriceVO getPrice() {
+        OrderVO request = requests[next];
+        next = (next + 1) % REQUEST_COUNT;
+        return orderBL.getPrice(request);
+    }
+
+}
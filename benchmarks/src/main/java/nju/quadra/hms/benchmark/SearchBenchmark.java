@@ -0,0 +1,57 @@
+package nju.quadra.hms.benchmark;
+
+import nju.quadra.hms.bl.HotelBL;
+import nju.quadra.hms.blservice.HotelBLService;
+import nju.quadra.hms.model.HotelSort;
+import nju.quadra.hms.vo.HotelPageVO;
+import nju.quadra.hms.vo.HotelQueryVO;
+import nju.quadra.hms.vo.HotelSearchVO;
+import nju.quadra.hms.vo.HotelSummaryVO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+
+/**
+ * 酒店搜索的基准测试
+ * search 每次搜索一个商圈内的全部酒店及其客房、评价和该客户的订单，searchSummary 只返回酒店摘要，
+ * query 在服务器端按评分排序后只返回第一页，keyword 按关键字在所有商圈中搜索
+ */
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    private HotelBLService hotelBL;
+    private int next;
+
+    @Setup
+    public void setup() {
+        BenchmarkData.install();
+        hotelBL = new HotelBL();
+    }
+
+    @Benchmark
+    public ArrayList<HotelSearchVO> search() {
+        int index = next++;
+        return hotelBL.search(1 + index % SyntheticDataset.AREA_COUNT, SyntheticDataset.customer(index % SyntheticDataset.CUSTOMER_COUNT));
+    }
+
+    @Benchmark
+    public ArrayList<HotelSummaryVO> searchSummary() {
+        int index = next++;
+        return hotelBL.searchSummary(1 + index % SyntheticDataset.AREA_COUNT, SyntheticDataset.customer(index % SyntheticDataset.CUSTOMER_COUNT));
+    }
+
+    @Benchmark
+    public HotelPageVO query() {
+        int index = next++;
+        HotelQueryVO query = new HotelQueryVO(1 + index % SyntheticDataset.AREA_COUNT, "", null, 0, 5, false, HotelSort.RANK_DESC, 0, 10);
+        return hotelBL.query(query, SyntheticDataset.customer(index % SyntheticDataset.CUSTOMER_COUNT));
+    }
+
+    @Benchmark
+    public HotelPageVO keyword() {
+        int index = next++;
+        HotelQueryVO query = new HotelQueryVO(0, "酒店" + (1 + index % 20), null, 0, 5, false, HotelSort.DEFAULT, 0, 10);
+        return hotelBL.query(query, SyntheticDataset.customer(index % SyntheticDataset.CUSTOMER_COUNT));
+    }
+
+}
@@ -0,0 +1,139 @@
+package nju.quadra.hms.benchmark;
+
+import nju.quadra.hms.model.*;
+import nju.quadra.hms.po.*;
+import nju.quadra.hms.util.JsonCodec;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * 基准测试使用的合成数据集
+ * 使用固定的随机种子生成，每次生成的数据完全相同，便于不同版本之间的结果对比
+ */
+public final class SyntheticDataset {
+
+    public static final long SEED = 20161201L;
+    public static final int AREA_COUNT = 10;
+    public static final int HOTELS_PER_AREA = 20;
+    public static final int ROOMS_PER_HOTEL = 4;
+    public static final int CUSTOMER_COUNT = 500;
+    public static final int ORDER_COUNT = 20000;
+    public static final int CREDITS_PER_CUSTOMER = 40;
+    public static final String PASSWORD = "benchmark";
+
+    /**
+     * 历史订单与信用记录的起始日期
+     */
+    static final LocalDate BASE_DATE = LocalDate.of(2016, 12, 1);
+    /**
+     * 促销策略的有效期，覆盖基准测试运行的日期
+     */
+    private static final LocalDate PROMOTION_START = LocalDate.of(2016, 1, 1);
+    private static final LocalDate PROMOTION_END = LocalDate.of(2099, 12, 31);
+    private static final String[] STARS = {"一星级", "二星级", "三星级", "四星级", "五星级"};
+    private static final String[] ROOM_NAMES = {"标准间", "大床房", "豪华间", "套房"};
+    private static final String[] COMPANIES = {"南京大学", "夸德拉科技", "软件学院"};
+    private static final OrderState[] ORDER_STATES = {OrderState.FINISHED, OrderState.RANKED, OrderState.RANKED, OrderState.UNDO, OrderState.BOOKED};
+
+    final ArrayList<AreaPO> areas = new ArrayList<>();
+    final ArrayList<HotelPO> hotels = new ArrayList<>();
+    final ArrayList<HotelRoomPO> rooms = new ArrayList<>();
+    final ArrayList<UserPO> users = new ArrayList<>();
+    final ArrayList<OrderPO> orders = new ArrayList<>();
+    final ArrayList<CreditRecordPO> credits = new ArrayList<>();
+    final ArrayList<HotelPromotionPO> hotelPromotions = new ArrayList<>();
+    final ArrayList<WebsitePromotionPO> websitePromotions = new ArrayList<>();
+
+    private SyntheticDataset() {
+    }
+
+    public static String customer(int index) {
+        return "customer" + index;
+    }
+
+    public static String staff(int hotelId) {
+        return "staff" + hotelId;
+    }
+
+    /**
+     * 生成数据集
+     *
+     * @return 合成数据集
+     */
+    public static SyntheticDataset generate() {
+        SyntheticDataset data = new SyntheticDataset();
+        Random random = new Random(SEED);
+
+        int hotelId = 0, roomId = 0, promotionId = 0;
+        for (int areaId = 1; areaId <= AREA_COUNT; areaId++) {
+            data.areas.add(new AreaPO(areaId, "城市" + ((areaId + 1) / 2), "商圈" + areaId));
+            for (int i = 0; i < HOTELS_PER_AREA; i++) {
+                hotelId++;
+                data.hotels.add(new HotelPO(hotelId, "酒店" + hotelId, areaId, "地址" + hotelId, "简介" + hotelId,
+                        "设施" + hotelId, STARS[random.nextInt(STARS.length)], staff(hotelId)));
+                data.users.add(new UserPO(staff(hotelId), PASSWORD, "工作人员" + hotelId, "025-" + hotelId,
+                        UserType.HOTEL_STAFF, MemberType.NONE, null, null));
+                for (int j = 0; j < ROOMS_PER_HOTEL; j++) {
+                    roomId++;
+                    data.rooms.add(new HotelRoomPO(roomId, hotelId, ROOM_NAMES[j], 10 + random.nextInt(40), 100 + 50 * random.nextInt(15)));
+                }
+                data.hotelPromotions.add(new HotelPromotionPO(++promotionId, hotelId, "多间特惠", HotelPromotionType.MULTI_PROMOTION,
+                        PROMOTION_START, PROMOTION_END, 0.9, null));
+                data.hotelPromotions.add(new HotelPromotionPO(++promotionId, hotelId, "企业折扣", HotelPromotionType.COMPANY_PROMOTION,
+                        PROMOTION_START, PROMOTION_END, 0.85, JsonCodec.toJson(new String[]{COMPANIES[random.nextInt(COMPANIES.length)]})));
+                data.hotelPromotions.add(new HotelPromotionPO(++promotionId, hotelId, "生日特惠", HotelPromotionType.BIRTHDAY_PROMOTION,
+                        PROMOTION_START, PROMOTION_END, 0.8, null));
+            }
+        }
+
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            MemberType memberType = MemberType.values()[random.nextInt(MemberType.values().length)];
+            LocalDate birthday = memberType == MemberType.PERSONAL ? LocalDate.of(1980 + random.nextInt(20), 1 + random.nextInt(12), 1 + random.nextInt(28)) : null;
+            String companyName = memberType == MemberType.COMPANY ? COMPANIES[random.nextInt(COMPANIES.length)] : null;
+            data.users.add(new UserPO(customer(i), PASSWORD, "客户" + i, "138" + (10000000 + i), UserType.CUSTOMER,
+                    memberType, birthday, companyName));
+        }
+
+        for (int id = 1; id <= ORDER_COUNT; id++) {
+            HotelRoomPO room = data.rooms.get(random.nextInt(data.rooms.size()));
+            LocalDate startDate = BASE_DATE.plusDays(random.nextInt(365));
+            int nights = 1 + random.nextInt(4);
+            int roomCount = 1 + random.nextInt(3);
+            OrderState state = ORDER_STATES[random.nextInt(ORDER_STATES.length)];
+            boolean ranked = state == OrderState.RANKED;
+            data.orders.add(new OrderPO(id, customer(random.nextInt(CUSTOMER_COUNT)), room.getHotelId(), startDate, startDate.plusDays(nights),
+                    room.getId(), roomCount, roomCount * 2, JsonCodec.toJson(new String[]{"入住人" + id}), random.nextBoolean(),
+                    room.getPrice() * roomCount * nights, state, ranked ? 1 + random.nextInt(5) : 0, ranked ? "评价" + id : null));
+        }
+
+        CreditAction[] actions = {CreditAction.ORDER_FINISHED, CreditAction.ORDER_CANCELLED, CreditAction.CREDIT_TOPUP};
+        int creditId = 0;
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            LocalDateTime timestamp = BASE_DATE.atStartOfDay();
+            for (int j = 0; j < CREDITS_PER_CUSTOMER; j++) {
+                timestamp = timestamp.plusMinutes(1 + random.nextInt(24 * 60));
+                CreditAction action = actions[random.nextInt(actions.length)];
+                double diff = action == CreditAction.ORDER_CANCELLED ? -random.nextInt(200) : random.nextInt(500);
+                data.credits.add(new CreditRecordPO(++creditId, customer(i), timestamp, 1 + random.nextInt(ORDER_COUNT), action, diff));
+            }
+        }
+
+        HashMap<Double, Double> levels = new HashMap<>();
+        levels.put(1000.0, 0.95);
+        levels.put(5000.0, 0.9);
+        levels.put(10000.0, 0.85);
+        String memberLevel = JsonCodec.toJson(levels);
+        data.websitePromotions.add(new WebsitePromotionPO(1, "会员等级折扣", WebsitePromotionType.LEVEL_PROMOTION,
+                PROMOTION_START, PROMOTION_END, 1.0, 0, memberLevel));
+        data.websitePromotions.add(new WebsitePromotionPO(2, "商圈会员折扣", WebsitePromotionType.LEVEL_PROMOTION,
+                PROMOTION_START, PROMOTION_END, 1.0, 1, memberLevel));
+        data.websitePromotions.add(new WebsitePromotionPO(3, "节日特惠", WebsitePromotionType.TIME_PROMOTION,
+                PROMOTION_START, PROMOTION_END, 0.92, 0, null));
+        return data;
+    }
+
+}
@@ -2,10 +2,13 @@ package nju.quadra.hms.controller;
 
 import nju.quadra.hms.blservice.*;
 import nju.quadra.hms.model.ResultMessage;
+import nju.quadra.hms.net.BLServiceBatch;
+import nju.quadra.hms.net.BLServiceAsync;
 import nju.quadra.hms.net.BLServiceFactory;
 import nju.quadra.hms.vo.*;
 
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 public class CustomerController {
 
@@ -14,6 +17,8 @@ public class CustomerController {
     private final UserBLService userBL = BLServiceFactory.getUserBLService();
     private final HotelBLService hotelBL = BLServiceFactory.getHotelBLService();
     private final OrderBLService orderBL = BLServiceFactory.getOrderBLService();
+    private final BLServiceAsync<HotelBLService> hotelBLAsync = BLServiceFactory.getHotelBLServiceAsync();
+    private final BLServiceAsync<OrderBLService> orderBLAsync = BLServiceFactory.getOrderBLServiceAsync();
 
     public UserVO getUserInfo(String username) {
         try {
@@ -24,6 +29,24 @@ public class CustomerController {
         }
     }
 
+    /**
+     * 在一次请求中获取用户信息与信用值
+     *
+     * @return 用户信息与信用值，网络通信错误时用户信息为 null
+     */
+    public UserInfo getUserInfoWithCredit(String username) {
+        try {
+            BLServiceBatch batch = BLServiceFactory.createBatch();
+            BLServiceBatch.Call<UserVO> user = batch.add(UserBLService.class, bl -> bl.get(username));
+            BLServiceBatch.Call<Double> credit = batch.add(CreditRecordBLService.class, bl -> bl.getBalance(""));
+            batch.execute();
+            return new UserInfo(user.get(), credit.get());
+        } catch (Exception e) {
+            // e.printStackTrace();
+            return new UserInfo(null, 0);
+        }
+    }
+
     public ResultMessage modifyUserInfo(UserVO vo) {
         try {
             return userBL.modifyBasicInfo(vo);
@@ -59,21 +82,39 @@ public class CustomerController {
         }
     }
 
-    public ArrayList<AreaVO> getAllArea() {
+    public double getCreditBalance() {
         try {
-            return hotelBL.getAllArea();
+            return creditBL.getBalance("");
         } catch (Exception e) {
             // e.printStackTrace();
-            return new ArrayList<>();
+            return 0;
         }
     }
 
-    public ArrayList<HotelSearchVO> searchHotel(int areaId, String username) {
+    /**
+     * 在网络线程中获取全部商圈，网络通信错误或响应无法解析时结果为空列表
+     */
+    public CompletableFuture<ArrayList<AreaVO>> getAllAreaAsync() {
+        return hotelBLAsync.call(HotelBLService::getAllArea)
+                .thenApply(areas -> areas == null ? new ArrayList<AreaVO>() : areas)
+                .exceptionally(e -> new ArrayList<>());
+    }
+
+    /**
+     * 在网络线程中搜索酒店，网络通信错误或响应无法解析时结果为空页
+     */
+    public CompletableFuture<HotelPageVO> searchHotelAsync(HotelQueryVO query, String username) {
+        return hotelBLAsync.call(bl -> bl.query(query, username))
+                .thenApply(page -> page == null ? new HotelPageVO(new ArrayList<>(), 0, -1) : page)
+                .exceptionally(e -> new HotelPageVO(new ArrayList<>(), 0, -1));
+    }
+
+    public HotelSearchVO getHotelDetail(int hotelId, String username) {
         try {
-            return hotelBL.search(areaId, username);
+            return hotelBL.getSearchDetail(hotelId, username);
         } catch (Exception e) {
             // e.printStackTrace();
-            return new ArrayList<>();
+            return null;
         }
     }
 
@@ -95,13 +136,15 @@ public class CustomerController {
         }
     }
 
-    public ArrayList<OrderDetailVO> getOrders(String username) {
-        try {
-            return orderBL.getByCustomer(username);
-        } catch (Exception e) {
-            // e.printStackTrace();
-            return new ArrayList<>();
-        }
+    /**
+     * 在网络线程中获取客户订单的一页，网络通信错误或响应无法解析时结果为空页
+     *
+     * @param cursor 分页游标，第一页为 null
+     */
+    public CompletableFuture<OrderPageVO> getOrderPageAsync(String username, String cursor, int pageSize) {
+        return orderBLAsync.call(bl -> bl.getPageByCustomer(username, cursor, pageSize))
+                .thenApply(page -> page == null ? new OrderPageVO(new ArrayList<>(), 0, null) : page)
+                .exceptionally(e -> new OrderPageVO(new ArrayList<>(), 0, null));
     }
 
     public ResultMessage undoUnfinishedOrder(int orderId) {
@@ -122,4 +165,17 @@ public class CustomerController {
         }
     }
 
+    /**
+     * 用户信息与信用值
+     */
+    public static class UserInfo {
+        public final UserVO user;
+        public final double credit;
+
+        private UserInfo(UserVO user, double credit) {
+            this.user = user;
+            this.credit = credit;
+        }
+    }
+
 }
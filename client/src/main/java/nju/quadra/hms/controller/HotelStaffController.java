@@ -2,10 +2,12 @@ package nju.quadra.hms.controller;
 
 import nju.quadra.hms.blservice.*;
 import nju.quadra.hms.model.ResultMessage;
+import nju.quadra.hms.net.BLServiceAsync;
 import nju.quadra.hms.net.BLServiceFactory;
 import nju.quadra.hms.vo.*;
 
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 public class HotelStaffController {
 
@@ -14,6 +16,7 @@ public class HotelStaffController {
     private final HotelPromotionBLService hotelPromotionBL = BLServiceFactory.getHotelPromotionBLService();
     private final CustomerBLService customerBL = BLServiceFactory.getCustomerBLService();
     private final OrderBLService orderBL = BLServiceFactory.getOrderBLService();
+    private final BLServiceAsync<OrderBLService> orderBLAsync = BLServiceFactory.getOrderBLServiceAsync();
 
     private final String username;
     private HotelVO hotelVO;
@@ -135,13 +138,16 @@ public class HotelStaffController {
         }
     }
 
-    public ArrayList<OrderDetailVO> getOrders() {
-        try {
-            return orderBL.getByHotel(hotelVO.id);
-        } catch (Exception e) {
-            // e.printStackTrace();
-            return new ArrayList<>();
-        }
+    /**
+     * 在网络线程中按条件查询酒店订单的一页，网络通信错误或响应无法解析时结果为空页
+     *
+     * @param query 查询条件，酒店编号由本方法设置
+     */
+    public CompletableFuture<OrderPageVO> queryOrdersAsync(OrderQueryVO query) {
+        query.hotelId = hotelVO.id;
+        return orderBLAsync.call(bl -> bl.query(query))
+                .thenApply(page -> page == null ? new OrderPageVO(new ArrayList<>(), 0, null) : page)
+                .exceptionally(e -> new OrderPageVO(new ArrayList<>(), 0, null));
     }
 
     public ResultMessage checkinOrder(int orderId) {
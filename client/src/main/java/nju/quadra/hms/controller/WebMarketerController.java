@@ -6,12 +6,14 @@ import nju.quadra.hms.blservice.OrderBLService;
 import nju.quadra.hms.blservice.WebsitePromotionBLService;
 import nju.quadra.hms.model.OrderState;
 import nju.quadra.hms.model.ResultMessage;
+import nju.quadra.hms.net.BLServiceAsync;
 import nju.quadra.hms.net.BLServiceFactory;
 import nju.quadra.hms.vo.AreaVO;
-import nju.quadra.hms.vo.OrderDetailVO;
+import nju.quadra.hms.vo.OrderPageVO;
 import nju.quadra.hms.vo.WebsitePromotionVO;
 
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 public class WebMarketerController {
 
@@ -19,6 +21,7 @@ public class WebMarketerController {
     private final WebsitePromotionBLService websitePromotionBL = BLServiceFactory.getWebsitePromotionBLService();
     private final HotelBLService hotelBL = BLServiceFactory.getHotelBLService();
     private final OrderBLService orderBL = BLServiceFactory.getOrderBLService();
+    private final BLServiceAsync<OrderBLService> orderBLAsync = BLServiceFactory.getOrderBLServiceAsync();
 
     public ResultMessage creditTopup(String username, int amount) {
         try {
@@ -74,16 +77,15 @@ public class WebMarketerController {
         }
     }
 
-    public ArrayList<OrderDetailVO> getOrders() {
-        try {
-            ArrayList<OrderDetailVO> orders = new ArrayList<>();
-            orders.addAll(orderBL.getByState(OrderState.BOOKED));
-            orders.addAll(orderBL.getByState(OrderState.DELAYED));
-            return orders;
-        } catch (Exception e) {
-            // e.printStackTrace();
-            return new ArrayList<>();
-        }
+    /**
+     * 在网络线程中获取某个状态订单的一页，网络通信错误或响应无法解析时结果为空页
+     *
+     * @param cursor 分页游标，第一页为 null
+     */
+    public CompletableFuture<OrderPageVO> getOrderPageAsync(OrderState state, String cursor, int pageSize) {
+        return orderBLAsync.call(bl -> bl.getPageByState(state, cursor, pageSize))
+                .thenApply(page -> page == null ? new OrderPageVO(new ArrayList<>(), 0, null) : page)
+                .exceptionally(e -> new OrderPageVO(new ArrayList<>(), 0, null));
     }
 
     public ResultMessage undoDelayedOrder(int orderId, boolean returnAllCredit) {
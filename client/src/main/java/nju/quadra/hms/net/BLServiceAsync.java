@@ -0,0 +1,65 @@
+package nju.quadra.hms.net;
+
+import nju.quadra.hms.util.ClientConfig;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 业务逻辑接口的异步调用，远程调用在专用的网络线程中执行，不阻塞调用者
+ * 用法：
+ * <pre>
+ * BLServiceFactory.getHotelBLServiceAsync().call(bl -&gt; bl.getAllArea())
+ *         .thenAcceptAsync(areas -&gt; ..., Platform::runLater);
+ * </pre>
+ * 多个互不依赖的调用可以同时发出，同时进行的调用数不超过客户端配置中的最大连接数
+ *
+ * @param <S> 业务逻辑接口
+ */
+public class BLServiceAsync<S> {
+
+    private static final ExecutorService executor = createExecutor();
+
+    private final S service;
+
+    BLServiceAsync(S service) {
+        this.service = service;
+    }
+
+    /**
+     * 在网络线程中调用业务逻辑接口的方法
+     *
+     * @param call 在接口上调用方法并返回结果
+     * @return 调用结果，网络通信错误时以 IOException 异常完成
+     */
+    public <T> CompletableFuture<T> call(Function<S, T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.apply(service);
+            } catch (UndeclaredThrowableException e) {
+                // 代理抛出的 IOException
+                throw new CompletionException(e.getUndeclaredThrowable());
+            }
+        }, executor);
+    }
+
+    private static ExecutorService createExecutor() {
+        int threads = Math.max(1, ClientConfig.getConfig().getMaxConnections());
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "hms-io-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+}
@@ -0,0 +1,164 @@
+package nju.quadra.hms.net;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import nju.quadra.hms.util.JsonCodec;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.function.Function;
+
+/**
+ * 批量远程调用，将多个业务逻辑方法的调用合并为一次请求，只需一次往返
+ * 用法：
+ * <pre>
+ * BLServiceBatch batch = BLServiceFactory.createBatch();
+ * BLServiceBatch.Call&lt;UserVO&gt; user = batch.add(UserBLService.class, bl -&gt; bl.get(username));
+ * BLServiceBatch.Call&lt;Double&gt; credit = batch.add(CreditRecordBLService.class, bl -&gt; bl.getBalance(username));
+ * batch.execute();
+ * user.get();
+ * </pre>
+ * 服务器端并行执行相邻的只读调用，修改数据的调用按添加顺序执行
+ */
+public class BLServiceBatch {
+
+    private final ArrayList<Call<?>> calls = new ArrayList<>();
+    private boolean executed = false;
+
+    BLServiceBatch() {
+    }
+
+    /**
+     * 添加一个调用
+     *
+     * @param service 业务逻辑接口
+     * @param call    在接口上调用一个方法，调用只被记录，返回值被忽略
+     * @return 调用结果，execute() 之后可以获取
+     */
+    public <S, T> Call<T> add(Class<S> service, Function<S, T> call) {
+        if (executed) {
+            throw new IllegalStateException("Batch has already been executed");
+        }
+        Call<?>[] recorded = new Call<?>[1];
+        S recorder = service.cast(Proxy.newProxyInstance(service.getClassLoader(), new Class[]{service}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(this, args);
+            }
+            recorded[0] = new Call<>(method, args);
+            return defaultValue(method.getReturnType());
+        }));
+        call.apply(recorder);
+        if (recorded[0] == null) {
+            throw new IllegalArgumentException("No method of " + service.getSimpleName() + " was called");
+        }
+        @SuppressWarnings("unchecked")
+        Call<T> result = (Call<T>) recorded[0];
+        calls.add(result);
+        return result;
+    }
+
+    /**
+     * 发送全部调用并等待结果
+     *
+     * @throws IOException 网络通信错误或服务器拒绝请求
+     */
+    public void execute() throws IOException {
+        executed = true;
+        if (calls.isEmpty()) {
+            return;
+        }
+        JsonArray request = new JsonArray();
+        for (Call<?> call : calls) {
+            JsonObject object = new JsonObject();
+            object.addProperty("class", BLServiceFactory.classNameOf(call.method));
+            object.addProperty("method", call.method.getName());
+            object.add("params", JsonCodec.gson().toJsonTree(call.args == null ? new Object[0] : call.args));
+            request.add(object);
+        }
+        String response = HttpClient.post("/batch", request.toString());
+        JsonArray results;
+        try {
+            results = new JsonParser().parse(response).getAsJsonArray();
+        } catch (RuntimeException e) {
+            throw new IOException(response, e);
+        }
+        if (results.size() != calls.size()) {
+            throw new IOException("Expected " + calls.size() + " results but got " + results.size());
+        }
+        for (int i = 0; i < results.size(); i++) {
+            calls.get(i).complete(results.get(i).getAsJsonObject());
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == double.class) {
+            return 0.0;
+        } else if (type == float.class) {
+            return 0.0f;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else {
+            return (byte) 0;
+        }
+    }
+
+    /**
+     * 批量调用中的一个调用
+     *
+     * @param <T> 返回值类型
+     */
+    public static class Call<T> {
+        private final Method method;
+        private final Object[] args;
+        private boolean completed = false;
+        private T result;
+        private String error;
+
+        private Call(Method method, Object[] args) {
+            this.method = method;
+            this.args = args;
+        }
+
+        private void complete(JsonObject response) {
+            JsonElement error = response.get("error");
+            if (error != null && !error.isJsonNull()) {
+                this.error = error.getAsString();
+            } else {
+                Type type = method.getGenericReturnType();
+                result = JsonCodec.fromJson(response.get("result"), type);
+            }
+            completed = true;
+        }
+
+        /**
+         * @return 调用结果
+         * @throws IOException 服务器执行该调用时出错
+         * @throws IllegalStateException 所在的批量调用尚未执行
+         */
+        public T get() throws IOException {
+            if (!completed) {
+                throw new IllegalStateException("Batch has not been executed");
+            }
+            if (error != null) {
+                throw new IOException(error);
+            }
+            return result;
+        }
+    }
+
+}
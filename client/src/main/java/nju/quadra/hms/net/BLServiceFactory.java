@@ -1,25 +1,33 @@
 package nju.quadra.hms.net;
 
-import com.google.gson.Gson;
 import nju.quadra.hms.blservice.*;
+import nju.quadra.hms.util.JsonCodec;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 
 public class BLServiceFactory {
 
     private static final InvocationHandler invocationHandler = (proxy, method, args) -> {
-        String className = method.getDeclaringClass().getSimpleName().replace("Service", "");
+        String className = classNameOf(method);
         String methodName = method.getName();
-        String payload = new Gson().toJson(args);
+        String payload = JsonCodec.toJson(args);
         String response = HttpClient.post("/" + className + "/" + methodName, payload);
         try {
-            return new Gson().fromJson(response, method.getGenericReturnType());
+            return JsonCodec.fromJson(response, method.getGenericReturnType());
         } catch (Exception e) {
             return null;
         }
     };
 
+    /**
+     * @return 新的批量远程调用，用于将多个调用合并为一次请求
+     */
+    public static BLServiceBatch createBatch() {
+        return new BLServiceBatch();
+    }
+
     public static CreditRecordBLService getCreditRecordBLService() {
         return (CreditRecordBLService) Proxy.newProxyInstance(CreditRecordBLService.class.getClassLoader(),
                 new Class[]{CreditRecordBLService.class}, invocationHandler);
@@ -60,4 +68,43 @@ public class BLServiceFactory {
                 new Class[]{WebsitePromotionBLService.class}, invocationHandler);
     }
 
+    public static BLServiceAsync<CreditRecordBLService> getCreditRecordBLServiceAsync() {
+        return new BLServiceAsync<>(getCreditRecordBLService());
+    }
+
+    public static BLServiceAsync<CustomerBLService> getCustomerBLServiceAsync() {
+        return new BLServiceAsync<>(getCustomerBLService());
+    }
+
+    public static BLServiceAsync<HotelBLService> getHotelBLServiceAsync() {
+        return new BLServiceAsync<>(getHotelBLService());
+    }
+
+    public static BLServiceAsync<HotelPromotionBLService> getHotelPromotionBLServiceAsync() {
+        return new BLServiceAsync<>(getHotelPromotionBLService());
+    }
+
+    public static BLServiceAsync<HotelRoomBLService> getHotelRoomBLServiceAsync() {
+        return new BLServiceAsync<>(getHotelRoomBLService());
+    }
+
+    public static BLServiceAsync<OrderBLService> getOrderBLServiceAsync() {
+        return new BLServiceAsync<>(getOrderBLService());
+    }
+
+    public static BLServiceAsync<UserBLService> getUserBLServiceAsync() {
+        return new BLServiceAsync<>(getUserBLService());
+    }
+
+    public static BLServiceAsync<WebsitePromotionBLService> getWebsitePromotionBLServiceAsync() {
+        return new BLServiceAsync<>(getWebsitePromotionBLService());
+    }
+
+    /**
+     * 与服务器的约定: XXXBLService 的方法由 /XXXBL/method 调用
+     */
+    static String classNameOf(Method method) {
+        return method.getDeclaringClass().getSimpleName().replace("Service", "");
+    }
+
 }
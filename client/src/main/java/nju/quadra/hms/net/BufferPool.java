@@ -0,0 +1,46 @@
+package nju.quadra.hms.net;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读取响应使用的字节缓冲区池，缓冲区在请求之间复用，不必为每次请求重新分配
+ */
+final class BufferPool {
+
+    static final int BUFFER_SIZE = 8192;
+    private static final int MAX_POOLED = 64;
+
+    private static final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger pooled = new AtomicInteger();
+
+    private BufferPool() {
+    }
+
+    /**
+     * @return 长度为 BUFFER_SIZE 的缓冲区，内容未清空
+     */
+    static byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        if (buffer == null) {
+            return new byte[BUFFER_SIZE];
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * 归还缓冲区，池已满时直接丢弃
+     */
+    static void release(byte[] buffer) {
+        if (buffer.length != BUFFER_SIZE) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= MAX_POOLED) {
+            buffers.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+}
@@ -3,60 +3,158 @@ package nju.quadra.hms.net;
 import nju.quadra.hms.model.LoginSession;
 import nju.quadra.hms.util.ClientConfig;
 
+import javax.net.ssl.SSLSocketFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * 与服务器通信的 HTTP 客户端
+ * 到每个服务器的连接由 HttpConnectionPool 保持并复用，可以在多个线程中同时发送请求；
+ * 服务器地址支持 http 与 https；JVM 配置了代理时经代理逐个发送请求，不复用连接
+ */
 public class HttpClient {
 
-    public static LoginSession session;
+    public static volatile LoginSession session;
+
+    private static final Map<String, HttpConnectionPool> pools = new ConcurrentHashMap<>();
 
     public static String get(String path) throws IOException {
-        String url = ClientConfig.getConfig().getServerHost() + path;
-        if (session != null) {
-            url += "/" + session.id;
+        return execute("GET", path, null);
+    }
+
+    public static String post(String path, String payload) throws IOException {
+        return execute("POST", path, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String execute(String method, String path, byte[] body) throws IOException {
+        ClientConfig config = ClientConfig.getConfig();
+        URL server = parseServer(config.getServerHost());
+        String target = target(server, path, session == null ? null : session.id);
+        Proxy proxy = selectProxy(server);
+        if (proxy.type() != Proxy.Type.DIRECT) {
+            return executeViaProxy(server, proxy, method, target, body, config);
         }
-        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
-        conn.setConnectTimeout(10000);
-        conn.setReadTimeout(10000);
+        HttpConnectionPool pool = getPool(server.getProtocol(), server.getHost(), server.getPort() < 0 ? server.getDefaultPort() : server.getPort(), config);
+        return pool.execute(method, target, body, config.getConnectTimeout(), config.getReadTimeout());
+    }
 
-        String resp = getStringFromInputStream(conn.getInputStream());
-        conn.disconnect();
-        return resp;
+    /**
+     * 拼接请求目标：服务器地址的路径前缀、请求路径、会话编号，最后是服务器地址中的查询参数
+     */
+    static String target(URL server, String path, String sessionId) {
+        String target = server.getPath();
+        if (target.endsWith("/")) {
+            target = target.substring(0, target.length() - 1);
+        }
+        target += path;
+        if (sessionId != null) {
+            target += "/" + sessionId;
+        }
+        if (server.getQuery() != null) {
+            target += "?" + server.getQuery();
+        }
+        return target;
     }
 
-    public static String post(String path, String payload) throws IOException {
-        String url = ClientConfig.getConfig().getServerHost() + path;
-        if (session != null) {
-            url += "/" + session.id;
-        }
-        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
-        conn.setConnectTimeout(10000);
-        conn.setReadTimeout(10000);
-        conn.setDoOutput(true);
-        OutputStream os = conn.getOutputStream();
-        os.write(payload.getBytes("UTF-8"));
-        os.close();
-
-        String resp = getStringFromInputStream(conn.getInputStream());
-        conn.disconnect();
-        return resp;
-    }
-
-    private static String getStringFromInputStream(InputStream is) throws IOException {
-        ByteArrayOutputStream os = new ByteArrayOutputStream();
-        byte[] buffer = new byte[1024];
-        int len;
-        while ((len = is.read(buffer)) != -1) {
-            os.write(buffer, 0, len);
-        }
-        is.close();
-        String result = os.toString("UTF-8");
-        os.close();
-        return result;
+    /**
+     * 按 JVM 的代理设置（http.proxyHost、https.proxyHost、socksProxyHost 等）选择到服务器的代理
+     *
+     * @return 不使用代理时为 Proxy.NO_PROXY
+     */
+    static Proxy selectProxy(URL server) {
+        ProxySelector selector = ProxySelector.getDefault();
+        if (selector == null) {
+            return Proxy.NO_PROXY;
+        }
+        try {
+            List<Proxy> proxies = selector.select(server.toURI());
+            return proxies == null || proxies.isEmpty() ? Proxy.NO_PROXY : proxies.get(0);
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return Proxy.NO_PROXY;
+        }
+    }
+
+    /**
+     * 配置了代理时不使用连接池，由 HttpURLConnection 经代理发送请求
+     */
+    private static String executeViaProxy(URL server, Proxy proxy, String method, String target, byte[] body, ClientConfig config) throws IOException {
+        URL url = new URL(server.getProtocol(), server.getHost(), server.getPort(), target);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection(proxy);
+        try {
+            conn.setConnectTimeout(config.getConnectTimeout());
+            conn.setReadTimeout(config.getReadTimeout());
+            conn.setRequestMethod(method);
+            if (body != null) {
+                conn.setDoOutput(true);
+                conn.setFixedLengthStreamingMode(body.length);
+                try (OutputStream os = conn.getOutputStream()) {
+                    os.write(body);
+                }
+            }
+            try (InputStream is = conn.getInputStream()) {
+                ByteArrayOutputStream os = new ByteArrayOutputStream();
+                byte[] buffer = BufferPool.acquire();
+                try {
+                    int len;
+                    while ((len = is.read(buffer)) != -1) {
+                        os.write(buffer, 0, len);
+                    }
+                } finally {
+                    BufferPool.release(buffer);
+                }
+                return new String(os.toByteArray(), StandardCharsets.UTF_8);
+            }
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    /**
+     * 解析服务器地址，只接受 http 与 https
+     */
+    static URL parseServer(String serverHost) throws IOException {
+        URL url;
+        try {
+            url = new URL(serverHost);
+        } catch (MalformedURLException e) {
+            throw new IOException("Invalid server address: " + serverHost, e);
+        }
+        if (!url.getProtocol().equals("http") && !url.getProtocol().equals("https")) {
+            throw new IOException("Unsupported protocol: " + url.getProtocol());
+        }
+        return url;
+    }
+
+    /**
+     * 获取到服务器的连接池，切换服务器后关闭到其他服务器的空闲连接
+     */
+    private static HttpConnectionPool getPool(String protocol, String host, int port, ClientConfig config) {
+        String key = protocol + "://" + host + ":" + port;
+        HttpConnectionPool pool = pools.get(key);
+        if (pool == null) {
+            SSLSocketFactory sslFactory = protocol.equals("https") ? (SSLSocketFactory) SSLSocketFactory.getDefault() : null;
+            pool = pools.computeIfAbsent(key, k -> new HttpConnectionPool(host, port, sslFactory, config.getMaxConnections(), config.getConnectionIdleTimeout()));
+            pools.entrySet().removeIf(entry -> {
+                if (entry.getKey().equals(key)) {
+                    return false;
+                }
+                entry.getValue().close();
+                return true;
+            });
+        }
+        return pool;
     }
 
 }
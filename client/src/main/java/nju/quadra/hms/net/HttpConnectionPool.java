@@ -0,0 +1,431 @@
+package nju.quadra.hms.net;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 到一个服务器的 HTTP/1.1 持久连接池
+ * 连接在请求之间保持打开并复用，省去每次请求建立 TCP 连接的开销；
+ * 同一时刻每个连接只处理一个请求，连接数上限即同时进行的请求数上限，超出时等待其他请求完成；
+ * 给定 SSLSocketFactory 时使用 HTTPS，TLS 握手只在建立连接时进行一次
+ */
+class HttpConnectionPool {
+
+    private static final int MAX_LINE_LENGTH = 8192;
+
+    private final String host;
+    private final int port;
+    private final SSLSocketFactory sslFactory;
+    private final long idleTimeout;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+    private volatile boolean closed = false;
+
+    /**
+     * @param maxConnections 最大连接数
+     * @param idleTimeout    空闲连接保留时间(ms)
+     */
+    HttpConnectionPool(String host, int port, int maxConnections, long idleTimeout) {
+        this(host, port, null, maxConnections, idleTimeout);
+    }
+
+    /**
+     * @param sslFactory     建立 HTTPS 连接所用的 SSLSocketFactory，为 null 时使用 HTTP
+     * @param maxConnections 最大连接数
+     * @param idleTimeout    空闲连接保留时间(ms)
+     */
+    HttpConnectionPool(String host, int port, SSLSocketFactory sslFactory, int maxConnections, long idleTimeout) {
+        this.host = host;
+        this.port = port;
+        this.sslFactory = sslFactory;
+        this.idleTimeout = idleTimeout;
+        this.permits = new Semaphore(Math.max(1, maxConnections), true);
+    }
+
+    /**
+     * 发送请求并读取完整响应
+     *
+     * @param method         请求方法
+     * @param target         请求路径
+     * @param body           请求内容，没有时为 null
+     * @param connectTimeout 建立连接与等待空闲连接的超时时间(ms)
+     * @param readTimeout    等待响应的超时时间(ms)
+     * @return 响应内容
+     * @throws IOException 网络通信错误或服务器返回错误状态
+     */
+    String execute(String method, String target, byte[] body, int connectTimeout, int readTimeout) throws IOException {
+        try {
+            if (!permits.tryAcquire(connectTimeout, TimeUnit.MILLISECONDS)) {
+                throw new SocketTimeoutException("No connection to " + host + ":" + port + " available");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a connection", e);
+        }
+        try {
+            byte[] request = encode(method, target, body);
+            Connection conn = pollIdle();
+            if (conn != null) {
+                try {
+                    return exchange(conn, request, readTimeout);
+                } catch (IOException e) {
+                    // 服务器可能已经关闭了空闲连接，尚未收到任何响应时请求未被处理，用新连接重试一次
+                    if (conn.received || e instanceof SocketTimeoutException) {
+                        throw e;
+                    }
+                }
+            }
+            return exchange(open(connectTimeout), request, readTimeout);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 关闭全部空闲连接，正在使用的连接在请求完成后关闭
+     */
+    void close() {
+        closed = true;
+        Connection conn;
+        while ((conn = idle.pollFirst()) != null) {
+            conn.close();
+        }
+    }
+
+    /**
+     * @return 空闲连接数
+     */
+    int getIdleCount() {
+        return idle.size();
+    }
+
+    private String exchange(Connection conn, byte[] request, int readTimeout) throws IOException {
+        boolean reusable = false;
+        conn.received = false;
+        try {
+            conn.socket.setSoTimeout(readTimeout);
+            conn.out.write(request);
+            conn.out.flush();
+            Response response = conn.readResponse();
+            reusable = response.keepAlive;
+            if (response.status >= 400) {
+                throw new IOException("Server returned HTTP response code: " + response.status);
+            }
+            return response.body;
+        } finally {
+            if (reusable && !closed) {
+                conn.lastUsed = System.nanoTime();
+                idle.offerFirst(conn);
+            } else {
+                conn.close();
+            }
+        }
+    }
+
+    /**
+     * 取最近使用过的空闲连接，同时关闭超过保留时间的空闲连接
+     */
+    private Connection pollIdle() {
+        long now = System.nanoTime();
+        Connection conn;
+        while ((conn = idle.pollFirst()) != null && conn.isExpired(now)) {
+            conn.close();
+        }
+        Connection oldest;
+        while ((oldest = idle.peekLast()) != null && oldest.isExpired(now) && idle.removeLastOccurrence(oldest)) {
+            oldest.close();
+        }
+        return conn;
+    }
+
+    private Connection open(int connectTimeout) throws IOException {
+        Socket socket = new Socket();
+        try {
+            // 请求一次写出，关闭 Nagle 算法以免与服务器的延迟确认相互等待
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.connect(new InetSocketAddress(host, port), connectTimeout);
+            if (sslFactory != null) {
+                SSLSocket sslSocket = (SSLSocket) sslFactory.createSocket(socket, host, port, true);
+                // 校验证书中的主机名，与 HttpsURLConnection 的行为一致
+                SSLParameters params = sslSocket.getSSLParameters();
+                params.setEndpointIdentificationAlgorithm("HTTPS");
+                sslSocket.setSSLParameters(params);
+                sslSocket.setSoTimeout(connectTimeout);
+                sslSocket.startHandshake();
+                socket = sslSocket;
+            }
+            return new Connection(socket);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private byte[] encode(String method, String target, byte[] body) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(method).append(' ').append(target).append(" HTTP/1.1\r\n");
+        sb.append("Host: ").append(host);
+        if (port != (sslFactory != null ? 443 : 80)) {
+            sb.append(':').append(port);
+        }
+        sb.append("\r\n");
+        sb.append("Accept-Encoding: identity\r\n");
+        if (body != null) {
+            sb.append("Content-Type: application/json; charset=utf-8\r\n");
+            sb.append("Content-Length: ").append(body.length).append("\r\n");
+        }
+        sb.append("\r\n");
+        byte[] header = sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+        if (body == null) {
+            return header;
+        }
+        byte[] request = new byte[header.length + body.length];
+        System.arraycopy(header, 0, request, 0, header.length);
+        System.arraycopy(body, 0, request, header.length, body.length);
+        return request;
+    }
+
+    private static class Response {
+        private int status;
+        private boolean keepAlive;
+        private String body;
+    }
+
+    /**
+     * 池中的一个连接，读取使用从 BufferPool 借用的缓冲区，连接关闭时归还
+     */
+    private class Connection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private byte[] buffer;
+        private int pos = 0, limit = 0;
+        private long lastUsed;
+        /**
+         * 本次请求是否已收到响应数据
+         */
+        private boolean received;
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = socket.getInputStream();
+            this.out = socket.getOutputStream();
+            this.buffer = BufferPool.acquire();
+        }
+
+        private boolean isExpired(long now) {
+            return now - lastUsed > TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+        }
+
+        private Response readResponse() throws IOException {
+            Response response = new Response();
+            String statusLine = readLine();
+            String[] status = statusLine.split(" ", 3);
+            if (status.length < 2 || !status[0].startsWith("HTTP/")) {
+                throw new IOException("Invalid HTTP response: " + statusLine);
+            }
+            try {
+                response.status = Integer.parseInt(status[1]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid HTTP response: " + statusLine);
+            }
+            boolean keepAlive = !status[0].equals("HTTP/1.0");
+            boolean chunked = false;
+            long contentLength = -1;
+            String line;
+            while (!(line = readLine()).isEmpty()) {
+                int colon = line.indexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+                String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                String value = line.substring(colon + 1).trim();
+                if (name.equals("content-length")) {
+                    try {
+                        contentLength = Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Invalid Content-Length: " + value);
+                    }
+                } else if (name.equals("transfer-encoding")) {
+                    chunked = value.toLowerCase(Locale.ROOT).contains("chunked");
+                } else if (name.equals("connection")) {
+                    String token = value.toLowerCase(Locale.ROOT);
+                    if (token.contains("close")) {
+                        keepAlive = false;
+                    } else if (token.contains("keep-alive")) {
+                        keepAlive = true;
+                    }
+                }
+            }
+
+            Body body = new Body();
+            try {
+                if (chunked) {
+                    long size;
+                    while ((size = parseChunkSize(readLine())) > 0) {
+                        body.read(this, size, false);
+                        readLine();
+                    }
+                    // 跳过尾部首部
+                    while (!readLine().isEmpty()) {
+                    }
+                } else if (contentLength >= 0) {
+                    body.read(this, contentLength, false);
+                } else {
+                    // 没有长度信息，读到连接关闭为止
+                    body.read(this, Long.MAX_VALUE, true);
+                    keepAlive = false;
+                }
+                response.body = body.decode();
+            } finally {
+                body.release();
+            }
+            response.keepAlive = keepAlive;
+            return response;
+        }
+
+        private long parseChunkSize(String line) throws IOException {
+            int end = line.indexOf(';');
+            try {
+                return Long.parseLong((end < 0 ? line : line.substring(0, end)).trim(), 16);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid chunk size: " + line);
+            }
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (pos == limit && !fill()) {
+                    throw new EOFException("Connection closed by server");
+                }
+                byte b = buffer[pos++];
+                if (b == '\n') {
+                    int length = sb.length();
+                    if (length > 0 && sb.charAt(length - 1) == '\r') {
+                        sb.setLength(length - 1);
+                    }
+                    return sb.toString();
+                }
+                if (sb.length() >= MAX_LINE_LENGTH) {
+                    throw new IOException("HTTP header line too long");
+                }
+                sb.append((char) (b & 0xff));
+            }
+        }
+
+        private int read(byte[] dst, int off, int len) throws IOException {
+            if (pos == limit) {
+                if (len >= buffer.length) {
+                    // 大块数据直接读入目标缓冲区
+                    int n = in.read(dst, off, len);
+                    if (n > 0) {
+                        received = true;
+                    }
+                    return n;
+                }
+                if (!fill()) {
+                    return -1;
+                }
+            }
+            int n = Math.min(len, limit - pos);
+            System.arraycopy(buffer, pos, dst, off, n);
+            pos += n;
+            return n;
+        }
+
+        private boolean fill() throws IOException {
+            int n = in.read(buffer, 0, buffer.length);
+            if (n <= 0) {
+                return false;
+            }
+            received = true;
+            pos = 0;
+            limit = n;
+            return true;
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // 忽略关闭时的错误
+            }
+            if (buffer != null) {
+                BufferPool.release(buffer);
+                buffer = null;
+            }
+        }
+    }
+
+    /**
+     * 响应内容，存放在从 BufferPool 借用的若干缓冲区中
+     */
+    private static class Body {
+        private final ArrayList<byte[]> segments = new ArrayList<>();
+        private int used = BufferPool.BUFFER_SIZE;
+        private long size = 0;
+
+        private void read(Connection conn, long length, boolean untilEof) throws IOException {
+            while (length > 0) {
+                if (used == BufferPool.BUFFER_SIZE) {
+                    segments.add(BufferPool.acquire());
+                    used = 0;
+                }
+                int n = conn.read(segments.get(segments.size() - 1), used, (int) Math.min(length, BufferPool.BUFFER_SIZE - used));
+                if (n < 0) {
+                    if (untilEof) {
+                        return;
+                    }
+                    throw new EOFException("Unexpected end of HTTP response");
+                }
+                used += n;
+                size += n;
+                length -= n;
+                if (size > Integer.MAX_VALUE - 8) {
+                    throw new IOException("HTTP response too large");
+                }
+            }
+        }
+
+        private String decode() {
+            if (segments.isEmpty()) {
+                return "";
+            }
+            if (segments.size() == 1) {
+                return new String(segments.get(0), 0, used, StandardCharsets.UTF_8);
+            }
+            byte[] bytes = new byte[(int) size];
+            int offset = 0;
+            for (int i = 0; i < segments.size(); i++) {
+                int length = i == segments.size() - 1 ? used : BufferPool.BUFFER_SIZE;
+                System.arraycopy(segments.get(i), 0, bytes, offset, length);
+                offset += length;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void release() {
+            for (byte[] segment : segments) {
+                BufferPool.release(segment);
+            }
+            segments.clear();
+        }
+    }
+
+}
@@ -1,6 +1,6 @@
 package nju.quadra.hms.net;
 
-import com.google.gson.Gson;
+import nju.quadra.hms.util.JsonCodec;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -14,9 +14,9 @@ public class HttpRemote {
     }
 
     public <T> T invoke(Type returnType, String methodName, Object... params) throws IOException {
-        String payload = new Gson().toJson(params);
+        String payload = JsonCodec.toJson(params);
         String response = HttpClient.post("/" + className + "/" + methodName, payload);
-        return new Gson().fromJson(response, returnType);
+        return JsonCodec.fromJson(response, returnType);
     }
 
 }
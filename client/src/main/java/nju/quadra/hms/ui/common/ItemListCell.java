@@ -0,0 +1,93 @@
+package nju.quadra.hms.ui.common;
+
+import javafx.scene.Node;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.util.Callback;
+
+import java.io.IOException;
+import java.util.function.BiConsumer;
+
+/**
+ * 以 FXML 列表项为内容的列表单元格
+ * ListView 只为可见的行创建单元格，每个单元格只加载一次列表项，滚动时用新的数据更新已有的列表项；
+ * 可以在显示最后一行时加载下一页数据
+ *
+ * @param <T> 列表数据类型
+ * @param <N> 列表项类型
+ */
+public class ItemListCell<T, N extends Node> extends ListCell<T> {
+
+    private final ItemFactory<N> factory;
+    private final BiConsumer<N, T> updater;
+    private final Runnable onLastRow;
+    private N item;
+
+    /**
+     * @param factory 创建列表项
+     * @param updater 将数据显示到列表项中
+     */
+    public ItemListCell(ItemFactory<N> factory, BiConsumer<N, T> updater) {
+        this(factory, updater, null);
+    }
+
+    /**
+     * @param factory   创建列表项
+     * @param updater   将数据显示到列表项中
+     * @param onLastRow 显示列表的最后一行时调用，可以为 null
+     */
+    public ItemListCell(ItemFactory<N> factory, BiConsumer<N, T> updater, Runnable onLastRow) {
+        this.factory = factory;
+        this.updater = updater;
+        this.onLastRow = onLastRow;
+        getStyleClass().add("item-cell");
+    }
+
+    /**
+     * @return 用于 ListView.setCellFactory 的单元格工厂
+     */
+    public static <T, N extends Node> Callback<ListView<T>, ListCell<T>> forItems(ItemFactory<N> factory, BiConsumer<N, T> updater) {
+        return forItems(factory, updater, null);
+    }
+
+    /**
+     * @param onLastRow 显示列表的最后一行时调用，用于滚动到底部时加载下一页
+     * @return 用于 ListView.setCellFactory 的单元格工厂
+     */
+    public static <T, N extends Node> Callback<ListView<T>, ListCell<T>> forItems(ItemFactory<N> factory, BiConsumer<N, T> updater, Runnable onLastRow) {
+        return listView -> new ItemListCell<>(factory, updater, onLastRow);
+    }
+
+    @Override
+    protected void updateItem(T vo, boolean empty) {
+        super.updateItem(vo, empty);
+        setText(null);
+        if (empty || vo == null) {
+            setGraphic(null);
+            return;
+        }
+        if (item == null) {
+            try {
+                item = factory.create();
+            } catch (IOException e) {
+                // e.printStackTrace();
+                setGraphic(null);
+                return;
+            }
+        }
+        updater.accept(item, vo);
+        setGraphic(item);
+        if (onLastRow != null && getIndex() == getListView().getItems().size() - 1) {
+            onLastRow.run();
+        }
+    }
+
+    /**
+     * 列表项工厂，加载 FXML 失败时抛出 IOException
+     */
+    @FunctionalInterface
+    public interface ItemFactory<N> {
+        N create() throws IOException;
+    }
+
+}
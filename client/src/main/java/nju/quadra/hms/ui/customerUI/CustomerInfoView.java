@@ -8,12 +8,10 @@ import nju.quadra.hms.controller.CustomerController;
 import nju.quadra.hms.model.ResultMessage;
 import nju.quadra.hms.net.HttpClient;
 import nju.quadra.hms.ui.common.Dialogs;
-import nju.quadra.hms.vo.CreditRecordVO;
 import nju.quadra.hms.vo.UserVO;
 
 import java.io.IOException;
 import java.text.DecimalFormat;
-import java.util.ArrayList;
 
 class CustomerInfoView extends Parent {
 
@@ -35,17 +33,16 @@ class CustomerInfoView extends Parent {
     private Button btnModify, btnCancel;
 
     private void loadInfo() {
-        // get user info
-        userVO = controller.getUserInfo(HttpClient.session.username);
+        // get user info and credit in one request
+        CustomerController.UserInfo info = controller.getUserInfoWithCredit(HttpClient.session.username);
+        userVO = info.user;
         if (userVO != null) {
             editName.setText(userVO.name);
             editContact.setText(userVO.contact);
         } else {
             Dialogs.showError(new ResultMessage(ResultMessage.RESULT_NET_ERROR).message);
         }
-        // get credit
-        ArrayList<CreditRecordVO> record = controller.getCreditRecord();
-        editCredit.setText(new DecimalFormat("0.00").format(record.get(0).creditResult));
+        editCredit.setText(new DecimalFormat("0.00").format(info.credit));
     }
 
     @FXML
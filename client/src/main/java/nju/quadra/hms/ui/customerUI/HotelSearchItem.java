@@ -5,32 +5,43 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import nju.quadra.hms.model.OrderState;
+import nju.quadra.hms.controller.CustomerController;
+import nju.quadra.hms.model.ResultMessage;
+import nju.quadra.hms.net.HttpClient;
+import nju.quadra.hms.ui.common.Dialogs;
 import nju.quadra.hms.vo.HotelSearchVO;
+import nju.quadra.hms.vo.HotelSummaryVO;
 
 import java.io.IOException;
 
 class HotelSearchItem extends Parent {
 
     private HotelSearchView parent;
-    private HotelSearchVO vo;
+    private final CustomerController controller = new CustomerController();
+    private HotelSummaryVO vo;
 
     @FXML
     private Label labelName, labelInfo, labelPrice;
     @FXML
     Button btnDetail, btnOrder;
 
-    public HotelSearchItem(HotelSearchView parent, HotelSearchVO vo) throws IOException {
+    public HotelSearchItem(HotelSearchView parent) throws IOException {
         FXMLLoader loader = new FXMLLoader(getClass().getResource("hotelsearchitem.fxml"));
         loader.setController(this);
         this.getChildren().add(loader.load());
 
         this.parent = parent;
+    }
+
+    /**
+     * 显示另一个酒店，列表滚动时复用列表项
+     */
+    void setHotel(HotelSummaryVO vo) {
         this.vo = vo;
         if (vo != null) {
             labelName.setText(vo.name);
             String info = vo.star + " ";
-            double rank = Math.round(vo.getAverageRank());
+            double rank = Math.round(vo.averageRank);
             for (int i = 1; i <= 5; i++) {
                 if (i <= rank) {
                     info += "★";
@@ -38,29 +49,43 @@ class HotelSearchItem extends Parent {
                     info += "☆";
                 }
             }
-            info += " " + vo.getAverageRank() + "/5.0 ";
-            if (vo.orders.size() > 0) {
-                long normalCount = vo.orders.stream().filter(order -> !order.state.equals(OrderState.DELAYED) && !order.state.equals(OrderState.UNDO)).count();
-                long delayedCount = vo.orders.stream().filter(order -> order.state.equals(OrderState.DELAYED)).count();
-                long undoCount = vo.orders.stream().filter(order -> order.state.equals(OrderState.UNDO)).count();
+            info += " " + vo.averageRank + "/5.0 ";
+            if (vo.hasOrdered()) {
                 info += "曾预定过 ( "
-                        + ((normalCount > 0) ? "正常 " + normalCount + " " : "")
-                        + ((delayedCount > 0) ? "异常 " + delayedCount + " " : "")
-                        + ((undoCount > 0) ? "撤销 " + undoCount + " " : "")
+                        + ((vo.normalOrderCount > 0) ? "正常 " + vo.normalOrderCount + " " : "")
+                        + ((vo.delayedOrderCount > 0) ? "异常 " + vo.delayedOrderCount + " " : "")
+                        + ((vo.undoOrderCount > 0) ? "撤销 " + vo.undoOrderCount + " " : "")
                         + ")";
             }
             labelInfo.setText(info);
-            labelPrice.setText("¥" + (int) Math.ceil(vo.getMinPrice()));
+            labelPrice.setText("¥" + (int) Math.ceil(vo.minPrice));
         }
     }
 
+    /**
+     * 打开详情或预订时再获取酒店的客房与评价
+     */
+    private HotelSearchVO loadDetail() {
+        HotelSearchVO detail = controller.getHotelDetail(vo.id, HttpClient.session.username);
+        if (detail == null) {
+            Dialogs.showError(new ResultMessage(ResultMessage.RESULT_NET_ERROR).message);
+        }
+        return detail;
+    }
+
     @FXML
     public void onDetailAction() throws IOException {
-        parent.loadView(new HotelDetailView(parent, vo));
+        HotelSearchVO detail = loadDetail();
+        if (detail != null) {
+            parent.loadView(new HotelDetailView(parent, detail));
+        }
     }
 
     @FXML
     public void onOrderAction() throws IOException {
-        parent.loadView(new BookHotelView(vo));
+        HotelSearchVO detail = loadDetail();
+        if (detail != null) {
+            parent.loadView(new BookHotelView(detail));
+        }
     }
 }
@@ -1,33 +1,47 @@
 package nju.quadra.hms.ui.customerUI;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.Pane;
-import javafx.scene.layout.VBox;
 import nju.quadra.hms.controller.CustomerController;
+import nju.quadra.hms.model.HotelSort;
 import nju.quadra.hms.net.HttpClient;
+import nju.quadra.hms.ui.common.Dialogs;
+import nju.quadra.hms.ui.common.ItemListCell;
 import nju.quadra.hms.vo.AreaVO;
-import nju.quadra.hms.vo.HotelSearchVO;
+import nju.quadra.hms.vo.HotelQueryVO;
+import nju.quadra.hms.vo.HotelSummaryVO;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Optional;
 
 public class HotelSearchView extends Parent {
 
+    private static final int PAGE_SIZE = 20;
     private final CustomerController controller = new CustomerController();
-    private ArrayList<AreaVO> areas;
-    private ArrayList<HotelSearchVO> hotelList = new ArrayList<>();
+    private ArrayList<AreaVO> areas = new ArrayList<>();
+    private int areaId;
+    private HotelQueryVO query;
+    /**
+     * 每次重新搜索时加一，丢弃之前搜索尚未返回的结果
+     */
+    private int searchId = 0;
+    private boolean loadingPage = false, hasNextPage = false;
 
     public HotelSearchView() throws IOException {
         FXMLLoader loader = new FXMLLoader(getClass().getResource("hotelsearch.fxml"));
         loader.setController(this);
         this.getChildren().add(loader.load());
+        // 滚动到最后一行时加载下一页
+        listView.setCellFactory(ItemListCell.forItems(() -> new HotelSearchItem(this), HotelSearchItem::setHotel, this::showNextPage));
 
         choiceCity.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> {
             choiceArea.getItems().clear();
@@ -41,16 +55,18 @@ public class HotelSearchView extends Parent {
         resetOptions();
 
         loadAreas();
-        choiceCity.getSelectionModel().select(0);
     }
 
     private void loadAreas() {
-        areas = controller.getAllArea();
-        for (AreaVO vo : areas) {
-            if (choiceCity.getItems().indexOf(vo.cityName) < 0) {
-                choiceCity.getItems().add(vo.cityName);
+        controller.getAllAreaAsync().thenAcceptAsync(areas -> {
+            this.areas = areas;
+            for (AreaVO vo : areas) {
+                if (choiceCity.getItems().indexOf(vo.cityName) < 0) {
+                    choiceCity.getItems().add(vo.cityName);
+                }
             }
-        }
+            choiceCity.getSelectionModel().select(0);
+        }, Platform::runLater);
     }
 
     private void resetOptions() {
@@ -65,45 +81,44 @@ public class HotelSearchView extends Parent {
         checkOrderedOnly.setSelected(false);
     }
 
-    private void filterAndShow() throws IOException {
-        vBox.getChildren().clear();
-        if (hotelList != null) {
-            ArrayList<HotelSearchVO> filteredList = new ArrayList<>();
-            for (HotelSearchVO vo : hotelList) {
-                if (!editKeyword.getText().trim().isEmpty() && !vo.name.contains(editKeyword.getText().trim()))
-                    continue;
-                int star = vo.getStar();
-                CheckBox[] checkStars = {checkStar1, checkStar2, checkStar3, checkStar4, checkStar5};
-                if (star > 0 && !checkStars[star-1].isSelected())
-                    continue;
-                double rank = vo.getAverageRank();
-                if (rank < choiceRank1.getValue() || rank > choiceRank2.getValue())
-                    continue;
-                if (checkOrderedOnly.isSelected() && vo.orders.size() == 0)
-                    continue;
-                filteredList.add(vo);
+    private void filterAndShow() {
+        listView.getItems().clear();
+        searchId++;
+        ArrayList<Integer> stars = new ArrayList<>();
+        CheckBox[] checkStars = {checkStar1, checkStar2, checkStar3, checkStar4, checkStar5};
+        for (int i = 0; i < checkStars.length; i++) {
+            if (checkStars[i].isSelected()) {
+                stars.add(i+1);
             }
-            switch (choiceSort.getValue()) {
-                case PRICE_ASC:
-                    filteredList.sort((vo1, vo2) -> (vo1.getMinPrice() <= vo2.getMinPrice()) ? -1 : 1);
-                    break;
-                case PRICE_DESC:
-                    filteredList.sort((vo1, vo2) -> (vo1.getMinPrice() >= vo2.getMinPrice()) ? -1 : 1);
-                    break;
-                case STAR_ASC:
-                    filteredList.sort(Comparator.comparingInt(HotelSearchVO::getStar));
-                    break;
-                case STAR_DESC:
-                    filteredList.sort((vo1, vo2) -> vo2.getStar() - vo1.getStar());
-                    break;
-                case RANK_DESC:
-                    filteredList.sort((vo1, vo2) -> (vo1.getAverageRank() >= vo2.getAverageRank()) ? -1 : 1);
-                    break;
+        }
+        query = new HotelQueryVO(areaId, editKeyword.getText(), stars, choiceRank1.getValue(), choiceRank2.getValue(),
+                checkOrderedOnly.isSelected(), choiceSort.getValue(), 0, PAGE_SIZE);
+        loadingPage = false;
+        hasNextPage = true;
+        showNextPage();
+    }
+
+    /**
+     * 在后台加载下一页并追加到列表末尾，已在加载或没有下一页时忽略
+     */
+    private void showNextPage() {
+        if (loadingPage || !hasNextPage) {
+            return;
+        }
+        loadingPage = true;
+        int id = searchId;
+        HotelQueryVO query = this.query;
+        controller.searchHotelAsync(query, HttpClient.session.username).thenAcceptAsync(page -> {
+            if (id != searchId) {
+                return;
             }
-            for (HotelSearchVO vo : filteredList) {
-                vBox.getChildren().add(new HotelSearchItem(this, vo));
+            loadingPage = false;
+            hasNextPage = page.nextCursor >= 0;
+            if (hasNextPage) {
+                query.cursor = page.nextCursor;
             }
-        }
+            listView.getItems().addAll(page.hotels);
+        }, Platform::runLater);
     }
 
     public void loadView(Node node) {
@@ -111,7 +126,7 @@ public class HotelSearchView extends Parent {
     }
 
     @FXML
-    private VBox vBox;
+    private ListView<HotelSummaryVO> listView;
     @FXML
     private Pane pane, paneOption, paneSearch;
     @FXML
@@ -127,9 +142,13 @@ public class HotelSearchView extends Parent {
 
     @FXML
     private void onSearchAction() throws Exception {
-        AreaVO area = areas.stream().filter(vo -> vo.areaName.equals(choiceArea.getValue()) && vo.cityName.equals(choiceCity.getValue())).findFirst().get();
-        hotelList = controller.searchHotel(area.id, HttpClient.session.username);
-        vBox.getChildren().clear();
+        // 商圈列表在后台加载，加载完成前没有可选的商圈
+        Optional<AreaVO> area = areas.stream().filter(vo -> vo.areaName.equals(choiceArea.getValue()) && vo.cityName.equals(choiceCity.getValue())).findFirst();
+        if (!area.isPresent()) {
+            Dialogs.showError("请选择城市与商圈");
+            return;
+        }
+        areaId = area.get().id;
         resetOptions();
         filterAndShow();
         paneSearch.setVisible(false);
@@ -146,29 +165,9 @@ public class HotelSearchView extends Parent {
     }
 
     @FXML
-    private void onFilterAction() throws IOException {
+    private void onFilterAction() {
         filterAndShow();
         paneOption.setVisible(false);
     }
 
-    enum HotelSort {
-        DEFAULT("默认排序"),
-        PRICE_ASC("价格由低到高"),
-        PRICE_DESC("价格由高到低"),
-        STAR_ASC("星级由低到高"),
-        STAR_DESC("星级由高到低"),
-        RANK_DESC("评分由高到低");
-
-        private final String displayName;
-
-        HotelSort(String displayName) {
-            this.displayName = displayName;
-        }
-
-        @Override
-        public String toString() {
-            return this.displayName;
-        }
-    }
-
 }
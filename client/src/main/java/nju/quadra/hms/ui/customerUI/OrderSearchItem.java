@@ -47,19 +47,20 @@ class OrderSearchItem extends Parent {
     private Button btnComment;
 
 
-    public OrderSearchItem(OrderSearchView parent, CustomerController controller, OrderDetailVO vo) throws IOException {
+    public OrderSearchItem(OrderSearchView parent, CustomerController controller) throws IOException {
         FXMLLoader loader = new FXMLLoader(getClass().getResource("ordersearchitem.fxml"));
         loader.setController(this);
         this.getChildren().add(loader.load());
 
         this.controller = controller;
         this.parent = parent;
-        order = vo;
-
-        loadOrderInfo();
     }
 
-    private void loadOrderInfo() {
+    /**
+     * 显示另一个订单，列表滚动时复用列表项
+     */
+    void setOrder(OrderDetailVO vo) {
+        order = vo;
         labelTime.setText(order.startDate.toString() + " - " + order.endDate.toString());
         labelPrice.setText("¥ " + order.price);
         labelPersonNumber.setText("共 " + order.persons.size() + " 人");
@@ -79,11 +80,8 @@ class OrderSearchItem extends Parent {
                 labelOrderState.setTextFill(Paint.valueOf("#339900"));
         }
 
-        if (order.state == OrderState.BOOKED) {
-            btnUndo.setVisible(true);
-        } else if (order.state == OrderState.FINISHED) {
-            btnComment.setVisible(true);
-        }
+        btnUndo.setVisible(order.state == OrderState.BOOKED);
+        btnComment.setVisible(order.state == OrderState.FINISHED);
     }
 
     @FXML
@@ -1,30 +1,34 @@
 package nju.quadra.hms.ui.customerUI;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.DatePicker;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextArea;
 import javafx.scene.layout.Pane;
-import javafx.scene.layout.VBox;
 import nju.quadra.hms.controller.CustomerController;
 import nju.quadra.hms.model.OrderState;
 import nju.quadra.hms.model.ResultMessage;
 import nju.quadra.hms.net.HttpClient;
 import nju.quadra.hms.ui.common.Dialogs;
+import nju.quadra.hms.ui.common.ItemListCell;
 import nju.quadra.hms.vo.OrderDetailVO;
 import nju.quadra.hms.vo.OrderRankVO;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 class OrderSearchView extends Parent {
 
+    private static final int PAGE_SIZE = 20;
+
     @FXML
     private Pane pane;
     @FXML
@@ -32,7 +36,7 @@ class OrderSearchView extends Parent {
     @FXML
     private DatePicker dateStart, dateEnd;
     @FXML
-    private VBox vBox;
+    private ListView<OrderDetailVO> listView;
 
     /*Comment View Components*/
     @FXML
@@ -44,40 +48,68 @@ class OrderSearchView extends Parent {
     /*End Comment View Components*/
 
     private final CustomerController controller = new CustomerController();
-    private ArrayList<OrderDetailVO> orders;
+    /**
+     * 已加载的订单，按入住日期从晚到早排列
+     */
+    private ArrayList<OrderDetailVO> orders = new ArrayList<>();
+    private String cursor;
+    private boolean loadingPage = false, hasNextPage = false;
+    private int loadId = 0;
     private OrderDetailVO selectedOrder;
 
     public OrderSearchView() throws IOException{
         FXMLLoader loader = new FXMLLoader(getClass().getResource("ordersearch.fxml"));
         loader.setController(this);
         this.getChildren().add(loader.load());
+        listView.setCellFactory(ItemListCell.forItems(() -> new OrderSearchItem(this, controller), OrderSearchItem::setOrder, this::loadNextPage));
 
         choiceOrderState.getItems().add("所有订单状态");
         choiceOrderState.getItems().addAll(OrderState.values());
         choiceStar.getItems().addAll("★", "★★", "★★★", "★★★★", "★★★★★");
-        dateStart.setValue(LocalDate.now());
-        dateEnd.setValue(LocalDate.now());
 
-        loadOrders();
         choiceOrderState.getSelectionModel().select(0);
-        if (orders != null && orders.size() > 0) {
-            dateStart.setValue(orders.stream().min(Comparator.comparing(vo -> vo.startDate)).get().startDate);
-            dateEnd.setValue(orders.stream().max(Comparator.comparing(vo -> vo.endDate)).get().endDate);
-        }
-        showOrders();
-
         choiceOrderState.getSelectionModel().selectedItemProperty().addListener(observable -> showOrders());
         dateStart.valueProperty().addListener(observable -> showOrders());
         dateEnd.valueProperty().addListener(observable -> showOrders());
+
+        loadOrders();
     }
 
+    /**
+     * 清空已加载的订单并重新加载第一页
+     */
     public void loadOrders() {
-        this.orders = controller.getOrders(HttpClient.session.username);
-        showOrders();
+        loadId++;
+        orders = new ArrayList<>();
+        cursor = null;
+        loadingPage = false;
+        hasNextPage = true;
+        listView.getItems().clear();
+        loadNextPage();
+    }
+
+    /**
+     * 在后台加载下一页订单，加载完成后在界面线程中显示，已在加载或没有下一页时忽略
+     */
+    private void loadNextPage() {
+        if (loadingPage || !hasNextPage) {
+            return;
+        }
+        loadingPage = true;
+        int id = loadId;
+        controller.getOrderPageAsync(HttpClient.session.username, cursor, PAGE_SIZE).thenAcceptAsync(page -> {
+            if (id != loadId) {
+                return;
+            }
+            loadingPage = false;
+            cursor = page.nextCursor;
+            hasNextPage = cursor != null;
+            orders.addAll(page.orders);
+            showOrders();
+        }, Platform::runLater);
     }
 
     private void showOrders() {
-        vBox.getChildren().clear();
         Stream<OrderDetailVO> stream = orders.stream();
         if (choiceOrderState.getSelectionModel().getSelectedIndex() > 0) {
             stream = stream.filter(vo -> vo.state.equals(choiceOrderState.getSelectionModel().getSelectedItem()));
@@ -88,12 +120,10 @@ class OrderSearchView extends Parent {
         if (dateEnd.getValue() != null) {
             stream = stream.filter(vo -> vo.startDate.compareTo(dateEnd.getValue()) <= 0);
         }
-        for (Object vo : stream.toArray()) {
-            try {
-                vBox.getChildren().add(new OrderSearchItem(this, controller, (OrderDetailVO) vo));
-            } catch (IOException e) {
-                // e.printStackTrace();
-            }
+        listView.getItems().setAll(stream.collect(Collectors.toList()));
+        // 筛选后不足一页时继续加载，使列表可以滚动到底部以加载更多
+        if (listView.getItems().size() < PAGE_SIZE) {
+            loadNextPage();
         }
     }
 
@@ -46,30 +46,28 @@ class OrderSearchItem extends Parent {
     private Button btnCheckout;
 
 
-    public OrderSearchItem(OrderSearchView parent, HotelStaffController controller, OrderDetailVO vo) throws IOException {
+    public OrderSearchItem(OrderSearchView parent, HotelStaffController controller) throws IOException {
         FXMLLoader loader = new FXMLLoader(getClass().getResource("ordersearchitem.fxml"));
         loader.setController(this);
         this.getChildren().add(loader.load());
 
         this.controller = controller;
         this.parent = parent;
-        order = vo;
-
-        loadOrderInfo();
     }
 
-    private void loadOrderInfo() {
+    /**
+     * 显示另一个订单，列表滚动时复用列表项
+     */
+    void setOrder(OrderDetailVO vo) {
+        order = vo;
         labelTime.setText(order.startDate.toString() + " - " + order.endDate.toString());
         labelPrice.setText("¥ " + order.price);
         labelPersonNumber.setText("客户: " + order.username);
         labelOrderState.setText(order.state.toString());
         labelContent.setText(order.room.name + " " + order.roomCount + " 间");
 
-        if (order.state == OrderState.BOOKED || order.state.equals(OrderState.DELAYED)) {
-            btnCheckin.setVisible(true);
-        } else if (order.state == OrderState.UNFINISHED) {
-            btnCheckout.setVisible(true);
-        }
+        btnCheckin.setVisible(order.state == OrderState.BOOKED || order.state.equals(OrderState.DELAYED));
+        btnCheckout.setVisible(order.state == OrderState.UNFINISHED);
     }
 
     @FXML
@@ -1,26 +1,28 @@
 package nju.quadra.hms.ui.hotelStaffUI;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.DatePicker;
+import javafx.scene.control.ListView;
 import javafx.scene.layout.Pane;
-import javafx.scene.layout.VBox;
 import nju.quadra.hms.controller.HotelStaffController;
 import nju.quadra.hms.model.OrderState;
 import nju.quadra.hms.net.HttpClient;
+import nju.quadra.hms.ui.common.ItemListCell;
 import nju.quadra.hms.vo.OrderDetailVO;
+import nju.quadra.hms.vo.OrderQueryVO;
 
 import java.io.IOException;
-import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.stream.Stream;
 
 class OrderSearchView extends Parent {
 
+    private static final int PAGE_SIZE = 20;
+
     @FXML
     private Pane pane;
     @FXML
@@ -28,58 +30,70 @@ class OrderSearchView extends Parent {
     @FXML
     private DatePicker dateStart, dateEnd;
     @FXML
-    private VBox vBox;
+    private ListView<OrderDetailVO> listView;
 
     private final HotelStaffController controller = new HotelStaffController(HttpClient.session.username);
-    private ArrayList<OrderDetailVO> orders;
+    /**
+     * 当前的查询条件，其中的分页游标指向下一页
+     */
+    private OrderQueryVO query;
+    private boolean loadingPage = false, hasNextPage = false;
+    private int loadId = 0;
 
     public OrderSearchView() throws IOException {
         FXMLLoader loader = new FXMLLoader(getClass().getResource("ordersearch.fxml"));
         loader.setController(this);
         this.getChildren().add(loader.load());
+        listView.setCellFactory(ItemListCell.forItems(() -> new OrderSearchItem(this, controller), OrderSearchItem::setOrder, this::loadNextPage));
 
         choiceOrderState.getItems().add("所有订单状态");
         choiceOrderState.getItems().addAll(OrderState.values());
-        dateStart.setValue(LocalDate.now());
-        dateEnd.setValue(LocalDate.now());
 
-        loadOrders();
         choiceOrderState.getSelectionModel().select(0);
-        if (orders != null && orders.size() > 0) {
-            dateStart.setValue(orders.stream().min(Comparator.comparing(vo -> vo.startDate)).get().startDate);
-            dateEnd.setValue(orders.stream().max(Comparator.comparing(vo -> vo.endDate)).get().endDate);
-        }
-        showOrders();
+        // 筛选条件在服务器端执行，条件变化时重新加载
+        choiceOrderState.getSelectionModel().selectedItemProperty().addListener(observable -> loadOrders());
+        dateStart.valueProperty().addListener(observable -> loadOrders());
+        dateEnd.valueProperty().addListener(observable -> loadOrders());
 
-        choiceOrderState.getSelectionModel().selectedItemProperty().addListener(observable -> showOrders());
-        dateStart.valueProperty().addListener(observable -> showOrders());
-        dateEnd.valueProperty().addListener(observable -> showOrders());
+        loadOrders();
     }
 
+    /**
+     * 清空已加载的订单并重新加载第一页
+     */
     public void loadOrders() {
-        this.orders = controller.getOrders();
-        showOrders();
-    }
-
-    private void showOrders() {
-        vBox.getChildren().clear();
-        Stream<OrderDetailVO> stream = orders.stream();
+        loadId++;
+        ArrayList<OrderState> states = new ArrayList<>();
         if (choiceOrderState.getSelectionModel().getSelectedIndex() > 0) {
-            stream = stream.filter(vo -> vo.state.equals(choiceOrderState.getSelectionModel().getSelectedItem()));
-        }
-        if (dateStart.getValue() != null) {
-            stream = stream.filter(vo -> vo.endDate.compareTo(dateStart.getValue()) >= 0);
+            states.add((OrderState) choiceOrderState.getSelectionModel().getSelectedItem());
         }
-        if (dateEnd.getValue() != null) {
-            stream = stream.filter(vo -> vo.startDate.compareTo(dateEnd.getValue()) <= 0);
+        // 与所选日期范围有交集的订单：离开日期不早于开始日期，入住日期不晚于结束日期
+        query = new OrderQueryVO(0, null, states, null, dateEnd.getValue(), dateStart.getValue(), null, 0, null, PAGE_SIZE);
+        loadingPage = false;
+        hasNextPage = true;
+        listView.getItems().clear();
+        loadNextPage();
+    }
+
+    /**
+     * 在后台加载下一页订单，加载完成后在界面线程中显示，已在加载或没有下一页时忽略
+     */
+    private void loadNextPage() {
+        if (loadingPage || !hasNextPage) {
+            return;
         }
-        for (Object vo : stream.toArray()) {
-            try {
-                vBox.getChildren().add(new OrderSearchItem(this, controller, (OrderDetailVO) vo));
-            } catch (IOException e) {
-                // e.printStackTrace();
+        loadingPage = true;
+        int id = loadId;
+        OrderQueryVO query = this.query;
+        controller.queryOrdersAsync(query).thenAcceptAsync(page -> {
+            if (id != loadId) {
+                return;
             }
-        }
+            loadingPage = false;
+            query.cursor = page.nextCursor;
+            hasNextPage = page.nextCursor != null;
+            listView.getItems().addAll(page.orders);
+        }, Platform::runLater);
     }
 
     public void loadView(Node node) {
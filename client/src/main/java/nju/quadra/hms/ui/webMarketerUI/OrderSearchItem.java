@@ -43,28 +43,27 @@ class OrderSearchItem extends Parent {
     private Button btnUndo;
 
 
-    public OrderSearchItem(OrderSearchView parent, WebMarketerController controller, OrderDetailVO vo) throws IOException {
+    public OrderSearchItem(OrderSearchView parent, WebMarketerController controller) throws IOException {
         FXMLLoader loader = new FXMLLoader(getClass().getResource("ordersearchitem.fxml"));
         loader.setController(this);
         this.getChildren().add(loader.load());
 
         this.controller = controller;
         this.parent = parent;
-        this.order = vo;
-
-        loadOrderInfo();
     }
 
-    private void loadOrderInfo() {
+    /**
+     * 显示另一个订单，列表滚动时复用列表项
+     */
+    void setOrder(OrderDetailVO vo) {
+        this.order = vo;
         labelTime.setText(order.startDate.toString() + " - " + order.endDate.toString());
         labelPrice.setText("¥ " + order.price);
         labelPersonNumber.setText("客户: " + order.username);
         labelOrderState.setText(order.state.toString());
         labelContent.setText(order.room.name + " " + order.roomCount + " 间");
 
-        if (order.state.equals(OrderState.DELAYED)) {
-            btnUndo.setVisible(true);
-        }
+        btnUndo.setVisible(order.state.equals(OrderState.DELAYED));
     }
 
     @FXML
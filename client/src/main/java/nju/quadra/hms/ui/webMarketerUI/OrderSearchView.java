@@ -1,25 +1,28 @@
 package nju.quadra.hms.ui.webMarketerUI;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.DatePicker;
+import javafx.scene.control.ListView;
 import javafx.scene.layout.Pane;
-import javafx.scene.layout.VBox;
 import nju.quadra.hms.controller.WebMarketerController;
 import nju.quadra.hms.model.OrderState;
+import nju.quadra.hms.ui.common.ItemListCell;
 import nju.quadra.hms.vo.OrderDetailVO;
 
 import java.io.IOException;
-import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 class OrderSearchView extends Parent {
 
+    private static final int PAGE_SIZE = 20;
+
     @FXML
     private Pane pane;
     @FXML
@@ -27,57 +30,93 @@ class OrderSearchView extends Parent {
     @FXML
     private DatePicker dateStart, dateEnd;
     @FXML
-    private VBox vBox;
+    private ListView<OrderDetailVO> listView;
 
     private final WebMarketerController controller = new WebMarketerController();
-    private ArrayList<OrderDetailVO> orders;
+    /**
+     * 已加载的订单，各状态的订单分别按入住日期从晚到早排列
+     */
+    private ArrayList<OrderDetailVO> orders = new ArrayList<>();
+    private String cursor;
+    private boolean loadingPage = false, hasNextPage = false;
+    private int loadId = 0;
+    /**
+     * 依次加载的订单状态，以及当前正在加载的状态
+     */
+    private OrderState[] states;
+    private int stateIndex;
 
     public OrderSearchView() throws IOException {
         FXMLLoader loader = new FXMLLoader(getClass().getResource("ordersearch.fxml"));
         loader.setController(this);
         this.getChildren().add(loader.load());
+        listView.setCellFactory(ItemListCell.forItems(() -> new OrderSearchItem(this, controller), OrderSearchItem::setOrder, this::loadNextPage));
 
         choiceOrderState.getItems().add(OrderState.BOOKED + " / " + OrderState.DELAYED);
         choiceOrderState.getItems().addAll(OrderState.BOOKED, OrderState.DELAYED);
-        dateStart.setValue(LocalDate.now());
-        dateEnd.setValue(LocalDate.now());
 
-        loadOrders();
         choiceOrderState.getSelectionModel().select(0);
-        if (orders != null && orders.size() > 0) {
-            dateStart.setValue(orders.stream().min(Comparator.comparing(vo -> vo.startDate)).get().startDate);
-            dateEnd.setValue(orders.stream().max(Comparator.comparing(vo -> vo.endDate)).get().endDate);
-        }
-        showOrders();
-
-        choiceOrderState.getSelectionModel().selectedItemProperty().addListener(observable -> showOrders());
+        choiceOrderState.getSelectionModel().selectedItemProperty().addListener(observable -> loadOrders());
         dateStart.valueProperty().addListener(observable -> showOrders());
         dateEnd.valueProperty().addListener(observable -> showOrders());
+
+        loadOrders();
     }
 
+    /**
+     * 清空已加载的订单并重新加载第一页
+     */
     public void loadOrders() {
-        this.orders = controller.getOrders();
-        showOrders();
+        loadId++;
+        orders = new ArrayList<>();
+        cursor = null;
+        Object state = choiceOrderState.getSelectionModel().getSelectedItem();
+        states = state instanceof OrderState ? new OrderState[]{(OrderState) state} : new OrderState[]{OrderState.BOOKED, OrderState.DELAYED};
+        stateIndex = 0;
+        loadingPage = false;
+        hasNextPage = true;
+        listView.getItems().clear();
+        loadNextPage();
+    }
+
+    /**
+     * 在后台加载下一页订单，加载完成后在界面线程中显示，已在加载或没有下一页时忽略
+     */
+    private void loadNextPage() {
+        if (loadingPage || !hasNextPage) {
+            return;
+        }
+        loadingPage = true;
+        int id = loadId;
+        controller.getOrderPageAsync(states[stateIndex], cursor, PAGE_SIZE).thenAcceptAsync(page -> {
+            if (id != loadId) {
+                return;
+            }
+            loadingPage = false;
+            cursor = page.nextCursor;
+            if (cursor == null) {
+                // 当前状态的订单已全部加载，继续加载下一个状态
+                stateIndex++;
+            }
+            hasNextPage = stateIndex < states.length;
+            orders.addAll(page.orders);
+            showOrders();
+        }, Platform::runLater);
     }
 
     private void showOrders() {
-        vBox.getChildren().clear();
+        // 订单状态已在服务器端筛选
         Stream<OrderDetailVO> stream = orders.stream();
-        if (choiceOrderState.getSelectionModel().getSelectedIndex() > 0) {
-            stream = stream.filter(vo -> vo.state.equals(choiceOrderState.getSelectionModel().getSelectedItem()));
-        }
         if (dateStart.getValue() != null) {
             stream = stream.filter(vo -> vo.endDate.compareTo(dateStart.getValue()) >= 0);
         }
         if (dateEnd.getValue() != null) {
             stream = stream.filter(vo -> vo.startDate.compareTo(dateEnd.getValue()) <= 0);
         }
-        for (Object vo : stream.toArray()) {
-            try {
-                vBox.getChildren().add(new OrderSearchItem(this, controller, (OrderDetailVO) vo));
-            } catch (IOException e) {
-                // e.printStackTrace();
-            }
+        listView.getItems().setAll(stream.collect(Collectors.toList()));
+        // 筛选后不足一页时继续加载，使列表可以滚动到底部以加载更多
+        if (listView.getItems().size() < PAGE_SIZE) {
+            loadNextPage();
         }
     }
 
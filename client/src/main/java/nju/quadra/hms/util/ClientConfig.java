@@ -11,7 +11,14 @@ public class ClientConfig {
     private String serverHost = "http://localhost:8081";
     private String username = "";
     private String password = "";
+    private int connectTimeout = 10000;
+    private int readTimeout = 10000;
+    private int maxConnections = 8;
+    private long connectionIdleTimeout = 20000;
 
+    /**
+     * @return 服务器地址，例如 http://localhost:8081，支持 http 与 https，可以带有路径前缀与查询参数
+     */
     public String getServerHost() {
         return serverHost;
     }
@@ -39,6 +46,54 @@ public class ClientConfig {
         saveToFile();
     }
 
+    /**
+     * @return 连接服务器的超时时间(ms)，连接池已满时等待空闲连接的时间也不超过该值
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        saveToFile();
+    }
+
+    /**
+     * @return 等待服务器响应的超时时间(ms)
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+        saveToFile();
+    }
+
+    /**
+     * @return 到同一服务器的最大连接数，即同时进行的请求数上限
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+        saveToFile();
+    }
+
+    /**
+     * @return 空闲连接保留时间(ms)，应小于服务器关闭空闲连接的时间
+     */
+    public long getConnectionIdleTimeout() {
+        return connectionIdleTimeout;
+    }
+
+    public void setConnectionIdleTimeout(long connectionIdleTimeout) {
+        this.connectionIdleTimeout = connectionIdleTimeout;
+        saveToFile();
+    }
+
     private ClientConfig() {
     }
 
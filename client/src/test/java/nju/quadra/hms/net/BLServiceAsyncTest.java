@@ -0,0 +1,48 @@
+package nju.quadra.hms.net;
+
+import nju.quadra.hms.blservice.UserBLService;
+import nju.quadra.hms.vo.UserVO;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class BLServiceAsyncTest {
+
+    @Test
+    public void testThread() throws Exception {
+        String caller = Thread.currentThread().getName();
+        CompletableFuture<String> thread = BLServiceFactory.getUserBLServiceAsync().call(bl -> Thread.currentThread().getName());
+        assertNotEquals(caller, thread.get());
+        assertTrue(thread.get().startsWith("hms-io-"));
+    }
+
+    @Test
+    public void testCall() throws InterruptedException {
+        CompletableFuture<UserVO> user = BLServiceFactory.getUserBLServiceAsync().call(bl -> bl.get("test"));
+        try {
+            user.get();
+        } catch (ExecutionException e) {
+            // 网络通信错误时以代理抛出的 IOException 完成，而不是 UndeclaredThrowableException
+            assertTrue(e.getCause() instanceof IOException);
+            System.out.println("Server not running, skipping this test");
+        }
+    }
+
+    @Test
+    public void testException() throws InterruptedException {
+        CompletableFuture<UserVO> user = BLServiceFactory.getUserBLServiceAsync().call(bl -> {
+            throw new IllegalStateException("test");
+        });
+        try {
+            user.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package nju.quadra.hms.net;
+
+import nju.quadra.hms.blservice.CreditRecordBLService;
+import nju.quadra.hms.blservice.UserBLService;
+import nju.quadra.hms.vo.UserVO;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class BLServiceBatchTest {
+
+    @Test
+    public void testRecord() throws IOException {
+        BLServiceBatch batch = BLServiceFactory.createBatch();
+        BLServiceBatch.Call<UserVO> user = batch.add(UserBLService.class, bl -> bl.get("test"));
+        // 返回基本类型的方法在记录时返回默认值
+        BLServiceBatch.Call<Double> credit = batch.add(CreditRecordBLService.class, bl -> bl.getBalance("test"));
+        try {
+            user.get();
+            fail();
+        } catch (IllegalStateException e) {
+            // 尚未执行
+        }
+        assertNotNull(credit);
+        try {
+            batch.add(UserBLService.class, bl -> null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 没有调用任何方法
+        }
+    }
+
+    @Test
+    public void testExecute() {
+        BLServiceBatch batch = BLServiceFactory.createBatch();
+        BLServiceBatch.Call<UserVO> user = batch.add(UserBLService.class, bl -> bl.get("test"));
+        try {
+            batch.execute();
+            try {
+                user.get();
+            } catch (IOException e) {
+                // 未登录时服务器拒绝调用
+            }
+        } catch (IOException e) {
+            System.out.println("Server not running, skipping this test");
+        }
+    }
+
+}
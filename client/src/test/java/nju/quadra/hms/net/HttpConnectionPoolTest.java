@@ -0,0 +1,245 @@
+package nju.quadra.hms.net;
+
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class HttpConnectionPoolTest {
+
+    private HttpServer server;
+    private HttpConnectionPool pool;
+    private final Set<InetSocketAddress> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger active = new AtomicInteger(), maxActive = new AtomicInteger();
+
+    @Before
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        // 原样返回请求内容，分块编码
+        server.createContext("/echo", httpExchange -> {
+            clients.add(httpExchange.getRemoteAddress());
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            byte[] body = readAll(httpExchange.getRequestBody());
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            active.decrementAndGet();
+            httpExchange.sendResponseHeaders(200, 0);
+            OutputStream os = httpExchange.getResponseBody();
+            os.write(body);
+            os.close();
+        });
+        // 固定长度的响应
+        server.createContext("/fixed", httpExchange -> {
+            clients.add(httpExchange.getRemoteAddress());
+            byte[] body = "固定长度".getBytes(StandardCharsets.UTF_8);
+            httpExchange.sendResponseHeaders(200, body.length);
+            OutputStream os = httpExchange.getResponseBody();
+            os.write(body);
+            os.close();
+        });
+        server.createContext("/missing", httpExchange -> {
+            httpExchange.sendResponseHeaders(404, -1);
+            httpExchange.close();
+        });
+        server.start();
+        pool = new HttpConnectionPool("localhost", server.getAddress().getPort(), 4, 20000);
+    }
+
+    @After
+    public void stop() {
+        pool.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testReuse() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            assertEquals("固定长度", pool.execute("GET", "/fixed", null, 1000, 1000));
+            assertEquals("hello " + i, pool.execute("POST", "/echo", ("hello " + i).getBytes(StandardCharsets.UTF_8), 1000, 1000));
+        }
+        // 顺序发送的请求使用同一个连接
+        assertEquals(1, clients.size());
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void testLargeBody() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < BufferPool.BUFFER_SIZE * 5; i++) {
+            sb.append("第").append(i).append("行\n");
+        }
+        String payload = sb.toString();
+        assertEquals(payload, pool.execute("POST", "/echo", payload.getBytes(StandardCharsets.UTF_8), 1000, 1000));
+        assertEquals("", pool.execute("POST", "/echo", new byte[0], 1000, 1000));
+    }
+
+    @Test
+    public void testErrorStatus() throws IOException {
+        try {
+            pool.execute("GET", "/missing", null, 1000, 1000);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("404"));
+        }
+        // 错误响应之后连接仍可复用
+        assertEquals("固定长度", pool.execute("GET", "/fixed", null, 1000, 1000));
+        assertEquals(1, clients.size());
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        ArrayList<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            String payload = "request " + i;
+            results.add(executor.submit(() -> pool.execute("POST", "/echo", payload.getBytes(StandardCharsets.UTF_8), 5000, 5000)));
+        }
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals("request " + i, results.get(i).get());
+        }
+        executor.shutdown();
+        // 同时进行的请求数与连接数都不超过上限
+        assertTrue(maxActive.get() <= 4);
+        assertTrue(clients.size() <= 4);
+        assertTrue(pool.getIdleCount() <= 4);
+    }
+
+    @Test
+    public void testServerClosed() throws IOException {
+        assertEquals("固定长度", pool.execute("GET", "/fixed", null, 1000, 1000));
+        // 服务器重启后，池中的空闲连接已失效，请求在新连接上重试
+        int port = server.getAddress().getPort();
+        server.stop(0);
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/fixed", httpExchange -> {
+            byte[] body = "重启".getBytes(StandardCharsets.UTF_8);
+            httpExchange.sendResponseHeaders(200, body.length);
+            OutputStream os = httpExchange.getResponseBody();
+            os.write(body);
+            os.close();
+        });
+        server.start();
+        assertEquals("重启", pool.execute("GET", "/fixed", null, 1000, 1000));
+    }
+
+    @Test
+    public void testHttps() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream is = getClass().getResourceAsStream("localhost.p12")) {
+            keyStore.load(is, "changeit".toCharArray());
+        }
+        KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        kmf.init(keyStore, "changeit".toCharArray());
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        tmf.init(keyStore);
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null);
+
+        HttpsServer httpsServer = HttpsServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpsServer.setHttpsConfigurator(new HttpsConfigurator(context));
+        Set<InetSocketAddress> httpsClients = ConcurrentHashMap.newKeySet();
+        httpsServer.createContext("/echo", httpExchange -> {
+            httpsClients.add(httpExchange.getRemoteAddress());
+            byte[] body = readAll(httpExchange.getRequestBody());
+            httpExchange.sendResponseHeaders(200, body.length);
+            OutputStream os = httpExchange.getResponseBody();
+            os.write(body);
+            os.close();
+        });
+        httpsServer.start();
+        HttpConnectionPool httpsPool = new HttpConnectionPool("localhost", httpsServer.getAddress().getPort(), context.getSocketFactory(), 4, 20000);
+        try {
+            for (int i = 0; i < 5; i++) {
+                assertEquals("安全 " + i, httpsPool.execute("POST", "/echo", ("安全 " + i).getBytes(StandardCharsets.UTF_8), 1000, 1000));
+            }
+            // 只握手一次，之后复用同一个连接
+            assertEquals(1, httpsClients.size());
+
+            // 不信任服务器证书时握手失败
+            HttpConnectionPool untrusted = new HttpConnectionPool("localhost", httpsServer.getAddress().getPort(), (SSLSocketFactory) SSLSocketFactory.getDefault(), 1, 20000);
+            try {
+                untrusted.execute("POST", "/echo", new byte[0], 1000, 1000);
+                fail();
+            } catch (SSLException e) {
+                // 预期的异常
+            } finally {
+                untrusted.close();
+            }
+        } finally {
+            httpsPool.close();
+            httpsServer.stop(0);
+        }
+    }
+
+    @Test
+    public void testServerAddress() throws IOException {
+        assertEquals("https", HttpClient.parseServer("https://example.com/hms").getProtocol());
+        assertEquals("http", HttpClient.parseServer("http://localhost:8081").getProtocol());
+        try {
+            HttpClient.parseServer("ftp://localhost");
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("ftp"));
+        }
+        assertEquals("/hms/user/login/s1?tenant=a", HttpClient.target(HttpClient.parseServer("https://example.com/hms/?tenant=a"), "/user/login", "s1"));
+        assertEquals("/user/login", HttpClient.target(HttpClient.parseServer("http://localhost:8081"), "/user/login", null));
+    }
+
+    @Test
+    public void testProxy() throws IOException {
+        URL url = HttpClient.parseServer("http://example.com:8081");
+        assertEquals(Proxy.Type.DIRECT, HttpClient.selectProxy(url).type());
+        System.setProperty("http.proxyHost", "proxy.example.com");
+        System.setProperty("http.proxyPort", "3128");
+        try {
+            Proxy proxy = HttpClient.selectProxy(url);
+            assertEquals(Proxy.Type.HTTP, proxy.type());
+            assertEquals(3128, ((InetSocketAddress) proxy.address()).getPort());
+        } finally {
+            System.clearProperty("http.proxyHost");
+            System.clearProperty("http.proxyPort");
+        }
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int len;
+        while ((len = is.read(buffer)) != -1) {
+            os.write(buffer, 0, len);
+        }
+        is.close();
+        return os.toByteArray();
+    }
+
+}
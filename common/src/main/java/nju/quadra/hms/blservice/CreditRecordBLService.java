@@ -17,6 +17,14 @@ public interface CreditRecordBLService {
      */
     ArrayList<CreditRecordVO> get(String username);
 
+    /**
+     * 获得用户当前的信用值，不需要获取全部信用记录
+     *
+     * @param username 用户名
+     * @return 用户当前的信用值
+     */
+    double getBalance(String username);
+
     /**
      * 为用户增加信用值
      *
@@ -2,7 +2,10 @@ package nju.quadra.hms.blservice;
 
 import nju.quadra.hms.model.ResultMessage;
 import nju.quadra.hms.vo.AreaVO;
+import nju.quadra.hms.vo.HotelPageVO;
+import nju.quadra.hms.vo.HotelQueryVO;
 import nju.quadra.hms.vo.HotelSearchVO;
+import nju.quadra.hms.vo.HotelSummaryVO;
 import nju.quadra.hms.vo.HotelVO;
 
 import java.util.ArrayList;
@@ -20,6 +23,33 @@ public interface HotelBLService {
      */
     ArrayList<HotelSearchVO> search(int areaId, String username);
 
+    /**
+     * 搜索酒店摘要信息，不包含客房、评价与订单列表
+     *
+     * @param areaId   地区编号
+     * @param username 用户名
+     * @return 该地区所有酒店摘要值对象的集合
+     */
+    ArrayList<HotelSummaryVO> searchSummary(int areaId, String username);
+
+    /**
+     * 按条件搜索酒店摘要信息，在服务器端完成筛选、排序与分页
+     *
+     * @param query    搜索条件
+     * @param username 用户名
+     * @return 搜索结果的一页
+     */
+    HotelPageVO query(HotelQueryVO query, String username);
+
+    /**
+     * 获得酒店的客房、评价以及用户在该酒店的订单
+     *
+     * @param hotelId  酒店编号
+     * @param username 用户名
+     * @return 酒店值搜索对象
+     */
+    HotelSearchVO getSearchDetail(int hotelId, String username);
+
     /**
      * 通过地区编号搜索酒店信息
      *
@@ -3,6 +3,8 @@ package nju.quadra.hms.blservice;
 import nju.quadra.hms.model.OrderState;
 import nju.quadra.hms.model.ResultMessage;
 import nju.quadra.hms.vo.OrderDetailVO;
+import nju.quadra.hms.vo.OrderPageVO;
+import nju.quadra.hms.vo.OrderQueryVO;
 import nju.quadra.hms.vo.OrderRankVO;
 import nju.quadra.hms.vo.OrderVO;
 import nju.quadra.hms.vo.PriceVO;
@@ -53,6 +55,45 @@ public interface OrderBLService {
      */
     ArrayList<OrderDetailVO> getByState(OrderState state);
 
+    /**
+     * 分页获得某个客户的订单具体信息
+     *
+     * @param username 用户名
+     * @param cursor   分页游标，第一页为 null，之后为上一页的 nextCursor
+     * @param pageSize 每页数量
+     * @return 订单列表的一页
+     */
+    OrderPageVO getPageByCustomer(String username, String cursor, int pageSize);
+
+    /**
+     * 分页获得某个酒店的订单具体信息
+     *
+     * @param hotelId  酒店编号
+     * @param cursor   分页游标，第一页为 null，之后为上一页的 nextCursor
+     * @param pageSize 每页数量
+     * @return 订单列表的一页
+     */
+    OrderPageVO getPageByHotel(int hotelId, String cursor, int pageSize);
+
+    /**
+     * 分页获得某个订单状态的订单具体信息
+     *
+     * @param state    订单状态
+     * @param cursor   分页游标，第一页为 null，之后为上一页的 nextCursor
+     * @param pageSize 每页数量
+     * @return 订单列表的一页
+     */
+    OrderPageVO getPageByState(OrderState state, String cursor, int pageSize);
+
+    /**
+     * 按组合条件分页查询订单，结果按入住日期从晚到早排列
+     * 客户只能查询自己的订单，酒店工作人员只能查询自己酒店的订单
+     *
+     * @param query 查询条件
+     * @return 订单列表的一页
+     */
+    OrderPageVO query(OrderQueryVO query);
+
     /**
      * 撤销异常订单
      *
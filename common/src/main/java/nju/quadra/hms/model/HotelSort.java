@@ -0,0 +1,21 @@
+package nju.quadra.hms.model;
+
+public enum HotelSort {
+    DEFAULT("默认排序"),
+    PRICE_ASC("价格由低到高"),
+    PRICE_DESC("价格由高到低"),
+    STAR_ASC("星级由低到高"),
+    STAR_DESC("星级由高到低"),
+    RANK_DESC("评分由高到低");
+
+    private final String displayName;
+
+    HotelSort(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String toString() {
+        return this.displayName;
+    }
+}
@@ -0,0 +1,89 @@
+package nju.quadra.hms.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * 客户端与服务器端共用的 JSON 编解码器
+ * Gson 实例是线程安全的，全局只创建一个，各类型的适配器在其中缓存复用；
+ * 日期时间与全部 VO 使用手写的适配器，不经过反射
+ */
+public final class JsonCodec {
+
+    /**
+     * ArrayList&lt;String&gt; 的类型，用于订单入住人员等字段
+     */
+    public static final Type STRING_LIST = new TypeToken<ArrayList<String>>() {
+    }.getType();
+
+    /**
+     * HashMap&lt;Double, Double&gt; 的类型，用于会员等级折扣等字段
+     */
+    public static final Type DOUBLE_MAP = new TypeToken<HashMap<Double, Double>>() {
+    }.getType();
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, TimeTypeAdapters.LOCAL_DATE)
+            .registerTypeAdapter(LocalDateTime.class, TimeTypeAdapters.LOCAL_DATE_TIME)
+            .registerTypeAdapterFactory(new VOTypeAdapterFactory())
+            .create();
+
+    private JsonCodec() {
+    }
+
+    /**
+     * @return 共享的 Gson 实例
+     */
+    public static Gson gson() {
+        return GSON;
+    }
+
+    public static String toJson(Object obj) {
+        return GSON.toJson(obj);
+    }
+
+    public static <T> T fromJson(String json, Type type) {
+        return GSON.fromJson(json, type);
+    }
+
+    public static <T> T fromJson(Reader reader, Type type) {
+        return GSON.fromJson(reader, type);
+    }
+
+    public static <T> T fromJson(JsonElement json, Type type) {
+        return GSON.fromJson(json, type);
+    }
+
+    /**
+     * 将对象以 UTF-8 编码直接写入输出流，不生成中间字符串；写入完成后不关闭输出流
+     *
+     * @param obj 要编码的对象
+     * @param os  输出流
+     * @throws IOException 写入异常
+     */
+    public static void toJson(Object obj, OutputStream os) throws IOException {
+        JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8)));
+        if (obj == null) {
+            writer.nullValue();
+        } else {
+            GSON.toJson(obj, obj.getClass(), writer);
+        }
+        writer.flush();
+    }
+
+}
@@ -0,0 +1,126 @@
+package nju.quadra.hms.util;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * LocalDate 与 LocalDateTime 的适配器
+ * 保持与 Gson 默认反射序列化相同的格式，例如 {"year":2016,"month":12,"day":1}
+ */
+final class TimeTypeAdapters {
+
+    static final TypeAdapter<LocalDate> LOCAL_DATE = new TypeAdapter<LocalDate>() {
+        @Override
+        public void write(JsonWriter out, LocalDate date) throws IOException {
+            out.beginObject();
+            out.name("year").value(date.getYear());
+            out.name("month").value(date.getMonthValue());
+            out.name("day").value(date.getDayOfMonth());
+            out.endObject();
+        }
+
+        @Override
+        public LocalDate read(JsonReader in) throws IOException {
+            int year = 0, month = 1, day = 1;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "year":
+                        year = in.nextInt();
+                        break;
+                    case "month":
+                        month = in.nextInt();
+                        break;
+                    case "day":
+                        day = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return LocalDate.of(year, month, day);
+        }
+    }.nullSafe();
+
+    static final TypeAdapter<LocalTime> LOCAL_TIME = new TypeAdapter<LocalTime>() {
+        @Override
+        public void write(JsonWriter out, LocalTime time) throws IOException {
+            out.beginObject();
+            out.name("hour").value(time.getHour());
+            out.name("minute").value(time.getMinute());
+            out.name("second").value(time.getSecond());
+            out.name("nano").value(time.getNano());
+            out.endObject();
+        }
+
+        @Override
+        public LocalTime read(JsonReader in) throws IOException {
+            int hour = 0, minute = 0, second = 0, nano = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "hour":
+                        hour = in.nextInt();
+                        break;
+                    case "minute":
+                        minute = in.nextInt();
+                        break;
+                    case "second":
+                        second = in.nextInt();
+                        break;
+                    case "nano":
+                        nano = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return LocalTime.of(hour, minute, second, nano);
+        }
+    }.nullSafe();
+
+    static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME = new TypeAdapter<LocalDateTime>() {
+        @Override
+        public void write(JsonWriter out, LocalDateTime dateTime) throws IOException {
+            out.beginObject();
+            out.name("date");
+            LOCAL_DATE.write(out, dateTime.toLocalDate());
+            out.name("time");
+            LOCAL_TIME.write(out, dateTime.toLocalTime());
+            out.endObject();
+        }
+
+        @Override
+        public LocalDateTime read(JsonReader in) throws IOException {
+            LocalDate date = null;
+            LocalTime time = LocalTime.MIDNIGHT;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "date":
+                        date = LOCAL_DATE.read(in);
+                        break;
+                    case "time":
+                        time = LOCAL_TIME.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return date == null ? null : LocalDateTime.of(date, time);
+        }
+    }.nullSafe();
+
+    private TimeTypeAdapters() {
+    }
+
+}
@@ -0,0 +1,1242 @@
+package nju.quadra.hms.util;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import nju.quadra.hms.model.*;
+import nju.quadra.hms.vo.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * 全部 VO 与 ResultMessage 的手写适配器
+ * 字段名与 Gson 默认反射序列化保持一致，只匹配确切的类型，子类由各自的适配器处理
+ */
+@SuppressWarnings("unchecked")
+final class VOTypeAdapterFactory implements TypeAdapterFactory {
+
+    private static final TypeToken<ArrayList<String>> STRING_LIST = new TypeToken<ArrayList<String>>() {
+    };
+    private static final TypeToken<HashMap<Double, Double>> DOUBLE_MAP = new TypeToken<HashMap<Double, Double>>() {
+    };
+    private static final TypeToken<ArrayList<HotelRoomVO>> ROOM_LIST = new TypeToken<ArrayList<HotelRoomVO>>() {
+    };
+    private static final TypeToken<ArrayList<OrderVO>> ORDER_LIST = new TypeToken<ArrayList<OrderVO>>() {
+    };
+    private static final TypeToken<ArrayList<OrderRankVO>> RANK_LIST = new TypeToken<ArrayList<OrderRankVO>>() {
+    };
+    private static final TypeToken<ArrayList<Integer>> INT_LIST = new TypeToken<ArrayList<Integer>>() {
+    };
+    private static final TypeToken<ArrayList<HotelSummaryVO>> SUMMARY_LIST = new TypeToken<ArrayList<HotelSummaryVO>>() {
+    };
+    private static final TypeToken<ArrayList<OrderDetailVO>> ORDER_DETAIL_LIST = new TypeToken<ArrayList<OrderDetailVO>>() {
+    };
+    private static final TypeToken<ArrayList<OrderState>> STATE_LIST = new TypeToken<ArrayList<OrderState>>() {
+    };
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> raw = type.getRawType();
+        TypeAdapter<?> adapter;
+        if (raw == ResultMessage.class) {
+            adapter = new ResultMessageAdapter();
+        } else if (raw == AreaVO.class) {
+            adapter = new AreaAdapter();
+        } else if (raw == HotelVO.class) {
+            adapter = new HotelAdapter();
+        } else if (raw == HotelSearchVO.class) {
+            adapter = new HotelSearchAdapter(gson);
+        } else if (raw == HotelSummaryVO.class) {
+            adapter = new HotelSummaryAdapter();
+        } else if (raw == HotelQueryVO.class) {
+            adapter = new HotelQueryAdapter(gson);
+        } else if (raw == HotelPageVO.class) {
+            adapter = new HotelPageAdapter(gson);
+        } else if (raw == HotelRoomVO.class) {
+            adapter = new HotelRoomAdapter();
+        } else if (raw == OrderVO.class) {
+            adapter = new OrderAdapter(gson);
+        } else if (raw == OrderDetailVO.class) {
+            adapter = new OrderDetailAdapter(gson);
+        } else if (raw == OrderQueryVO.class) {
+            adapter = new OrderQueryAdapter(gson);
+        } else if (raw == OrderPageVO.class) {
+            adapter = new OrderPageAdapter(gson);
+        } else if (raw == OrderRankVO.class) {
+            adapter = new OrderRankAdapter(gson);
+        } else if (raw == CreditRecordVO.class) {
+            adapter = new CreditRecordAdapter(gson);
+        } else if (raw == UserVO.class) {
+            adapter = new UserAdapter(gson);
+        } else if (raw == MemberVO.class) {
+            adapter = new MemberAdapter(gson);
+        } else if (raw == HotelPromotionVO.class) {
+            adapter = new HotelPromotionAdapter(gson);
+        } else if (raw == WebsitePromotionVO.class) {
+            adapter = new WebsitePromotionAdapter(gson);
+        } else if (raw == PriceVO.class) {
+            adapter = new PriceAdapter(gson);
+        } else {
+            return null;
+        }
+        return (TypeAdapter<T>) adapter.nullSafe();
+    }
+
+    private static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static class ResultMessageAdapter extends TypeAdapter<ResultMessage> {
+        @Override
+        public void write(JsonWriter out, ResultMessage vo) throws IOException {
+            out.beginObject();
+            out.name("result").value(vo.result);
+            out.name("message").value(vo.message);
+            out.endObject();
+        }
+
+        @Override
+        public ResultMessage read(JsonReader in) throws IOException {
+            int result = 0;
+            String message = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "result":
+                        result = in.nextInt();
+                        break;
+                    case "message":
+                        message = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ResultMessage(result, message);
+        }
+    }
+
+    private static class AreaAdapter extends TypeAdapter<AreaVO> {
+        @Override
+        public void write(JsonWriter out, AreaVO vo) throws IOException {
+            out.beginObject();
+            out.name("id").value(vo.id);
+            out.name("cityName").value(vo.cityName);
+            out.name("areaName").value(vo.areaName);
+            out.endObject();
+        }
+
+        @Override
+        public AreaVO read(JsonReader in) throws IOException {
+            int id = 0;
+            String cityName = null, areaName = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = in.nextInt();
+                        break;
+                    case "cityName":
+                        cityName = nextString(in);
+                        break;
+                    case "areaName":
+                        areaName = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new AreaVO(id, cityName, areaName);
+        }
+    }
+
+    /**
+     * 酒店信息，HotelSearchVO 在此基础上增加客房、订单与评价列表
+     */
+    private static class HotelAdapter extends TypeAdapter<HotelVO> {
+        void writeFields(JsonWriter out, HotelVO vo) throws IOException {
+            out.name("id").value(vo.id);
+            out.name("name").value(vo.name);
+            out.name("areaId").value(vo.areaId);
+            out.name("address").value(vo.address);
+            out.name("description").value(vo.description);
+            out.name("facilities").value(vo.facilities);
+            out.name("star").value(vo.star);
+            out.name("staff").value(vo.staff);
+        }
+
+        /**
+         * 读取一个字段，不属于酒店信息的字段返回 false
+         */
+        boolean readField(JsonReader in, String name, Object[] fields) throws IOException {
+            switch (name) {
+                case "id":
+                    fields[0] = in.nextInt();
+                    return true;
+                case "name":
+                    fields[1] = nextString(in);
+                    return true;
+                case "areaId":
+                    fields[2] = in.nextInt();
+                    return true;
+                case "address":
+                    fields[3] = nextString(in);
+                    return true;
+                case "description":
+                    fields[4] = nextString(in);
+                    return true;
+                case "facilities":
+                    fields[5] = nextString(in);
+                    return true;
+                case "star":
+                    fields[6] = nextString(in);
+                    return true;
+                case "staff":
+                    fields[7] = nextString(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        static int intField(Object value) {
+            return value == null ? 0 : (Integer) value;
+        }
+
+        @Override
+        public void write(JsonWriter out, HotelVO vo) throws IOException {
+            out.beginObject();
+            writeFields(out, vo);
+            out.endObject();
+        }
+
+        @Override
+        public HotelVO read(JsonReader in) throws IOException {
+            Object[] f = new Object[8];
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!readField(in, in.nextName(), f)) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new HotelVO(intField(f[0]), (String) f[1], intField(f[2]), (String) f[3], (String) f[4], (String) f[5], (String) f[6], (String) f[7]);
+        }
+    }
+
+    private static class HotelSearchAdapter extends TypeAdapter<HotelSearchVO> {
+        private final HotelAdapter hotelAdapter = new HotelAdapter();
+        private final TypeAdapter<ArrayList<HotelRoomVO>> roomsAdapter;
+        private final TypeAdapter<ArrayList<OrderVO>> ordersAdapter;
+        private final TypeAdapter<ArrayList<OrderRankVO>> ranksAdapter;
+
+        HotelSearchAdapter(Gson gson) {
+            roomsAdapter = gson.getAdapter(ROOM_LIST);
+            ordersAdapter = gson.getAdapter(ORDER_LIST);
+            ranksAdapter = gson.getAdapter(RANK_LIST);
+        }
+
+        @Override
+        public void write(JsonWriter out, HotelSearchVO vo) throws IOException {
+            out.beginObject();
+            out.name("rooms");
+            roomsAdapter.write(out, vo.rooms);
+            out.name("orders");
+            ordersAdapter.write(out, vo.orders);
+            out.name("ranks");
+            ranksAdapter.write(out, vo.ranks);
+            hotelAdapter.writeFields(out, vo);
+            out.endObject();
+        }
+
+        @Override
+        public HotelSearchVO read(JsonReader in) throws IOException {
+            Object[] f = new Object[8];
+            ArrayList<HotelRoomVO> rooms = null;
+            ArrayList<OrderVO> orders = null;
+            ArrayList<OrderRankVO> ranks = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "rooms":
+                        rooms = roomsAdapter.read(in);
+                        break;
+                    case "orders":
+                        orders = ordersAdapter.read(in);
+                        break;
+                    case "ranks":
+                        ranks = ranksAdapter.read(in);
+                        break;
+                    default:
+                        if (!hotelAdapter.readField(in, name, f)) {
+                            in.skipValue();
+                        }
+                }
+            }
+            in.endObject();
+            HotelSearchVO vo = new HotelSearchVO(HotelAdapter.intField(f[0]), (String) f[1], HotelAdapter.intField(f[2]), (String) f[3], (String) f[4], (String) f[5], (String) f[6], (String) f[7]);
+            vo.rooms = rooms;
+            vo.orders = orders;
+            vo.ranks = ranks;
+            return vo;
+        }
+    }
+
+    private static class HotelSummaryAdapter extends TypeAdapter<HotelSummaryVO> {
+        @Override
+        public void write(JsonWriter out, HotelSummaryVO vo) throws IOException {
+            out.beginObject();
+            out.name("id").value(vo.id);
+            out.name("name").value(vo.name);
+            out.name("areaId").value(vo.areaId);
+            out.name("address").value(vo.address);
+            out.name("star").value(vo.star);
+            out.name("minPrice").value(vo.minPrice);
+            out.name("maxPrice").value(vo.maxPrice);
+            out.name("averageRank").value(vo.averageRank);
+            out.name("rankCount").value(vo.rankCount);
+            out.name("normalOrderCount").value(vo.normalOrderCount);
+            out.name("delayedOrderCount").value(vo.delayedOrderCount);
+            out.name("undoOrderCount").value(vo.undoOrderCount);
+            out.endObject();
+        }
+
+        @Override
+        public HotelSummaryVO read(JsonReader in) throws IOException {
+            int id = 0, areaId = 0, rankCount = 0, normalOrderCount = 0, delayedOrderCount = 0, undoOrderCount = 0;
+            String name = null, address = null, star = null;
+            double minPrice = 0, maxPrice = 0, averageRank = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = in.nextInt();
+                        break;
+                    case "name":
+                        name = nextString(in);
+                        break;
+                    case "areaId":
+                        areaId = in.nextInt();
+                        break;
+                    case "address":
+                        address = nextString(in);
+                        break;
+                    case "star":
+                        star = nextString(in);
+                        break;
+                    case "minPrice":
+                        minPrice = in.nextDouble();
+                        break;
+                    case "maxPrice":
+                        maxPrice = in.nextDouble();
+                        break;
+                    case "averageRank":
+                        averageRank = in.nextDouble();
+                        break;
+                    case "rankCount":
+                        rankCount = in.nextInt();
+                        break;
+                    case "normalOrderCount":
+                        normalOrderCount = in.nextInt();
+                        break;
+                    case "delayedOrderCount":
+                        delayedOrderCount = in.nextInt();
+                        break;
+                    case "undoOrderCount":
+                        undoOrderCount = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new HotelSummaryVO(id, name, areaId, address, star, minPrice, maxPrice, averageRank, rankCount, normalOrderCount, delayedOrderCount, undoOrderCount);
+        }
+    }
+
+    private static class HotelQueryAdapter extends TypeAdapter<HotelQueryVO> {
+        private final TypeAdapter<ArrayList<Integer>> starsAdapter;
+        private final TypeAdapter<HotelSort> sortAdapter;
+
+        HotelQueryAdapter(Gson gson) {
+            starsAdapter = gson.getAdapter(INT_LIST);
+            sortAdapter = gson.getAdapter(HotelSort.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, HotelQueryVO vo) throws IOException {
+            out.beginObject();
+            out.name("areaId").value(vo.areaId);
+            out.name("keyword").value(vo.keyword);
+            out.name("stars");
+            starsAdapter.write(out, vo.stars);
+            out.name("minRank").value(vo.minRank);
+            out.name("maxRank").value(vo.maxRank);
+            out.name("orderedOnly").value(vo.orderedOnly);
+            out.name("sort");
+            sortAdapter.write(out, vo.sort);
+            out.name("cursor").value(vo.cursor);
+            out.name("pageSize").value(vo.pageSize);
+            out.endObject();
+        }
+
+        @Override
+        public HotelQueryVO read(JsonReader in) throws IOException {
+            int areaId = 0, minRank = 0, maxRank = 0, cursor = 0, pageSize = 0;
+            String keyword = null;
+            ArrayList<Integer> stars = null;
+            boolean orderedOnly = false;
+            HotelSort sort = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "areaId":
+                        areaId = in.nextInt();
+                        break;
+                    case "keyword":
+                        keyword = nextString(in);
+                        break;
+                    case "stars":
+                        stars = starsAdapter.read(in);
+                        break;
+                    case "minRank":
+                        minRank = in.nextInt();
+                        break;
+                    case "maxRank":
+                        maxRank = in.nextInt();
+                        break;
+                    case "orderedOnly":
+                        orderedOnly = in.nextBoolean();
+                        break;
+                    case "sort":
+                        sort = sortAdapter.read(in);
+                        break;
+                    case "cursor":
+                        cursor = in.nextInt();
+                        break;
+                    case "pageSize":
+                        pageSize = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new HotelQueryVO(areaId, keyword, stars, minRank, maxRank, orderedOnly, sort, cursor, pageSize);
+        }
+    }
+
+    private static class HotelPageAdapter extends TypeAdapter<HotelPageVO> {
+        private final TypeAdapter<ArrayList<HotelSummaryVO>> hotelsAdapter;
+
+        HotelPageAdapter(Gson gson) {
+            hotelsAdapter = gson.getAdapter(SUMMARY_LIST);
+        }
+
+        @Override
+        public void write(JsonWriter out, HotelPageVO vo) throws IOException {
+            out.beginObject();
+            out.name("hotels");
+            hotelsAdapter.write(out, vo.hotels);
+            out.name("total").value(vo.total);
+            out.name("nextCursor").value(vo.nextCursor);
+            out.endObject();
+        }
+
+        @Override
+        public HotelPageVO read(JsonReader in) throws IOException {
+            ArrayList<HotelSummaryVO> hotels = null;
+            int total = 0, nextCursor = -1;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "hotels":
+                        hotels = hotelsAdapter.read(in);
+                        break;
+                    case "total":
+                        total = in.nextInt();
+                        break;
+                    case "nextCursor":
+                        nextCursor = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new HotelPageVO(hotels, total, nextCursor);
+        }
+    }
+
+    private static class HotelRoomAdapter extends TypeAdapter<HotelRoomVO> {
+        @Override
+        public void write(JsonWriter out, HotelRoomVO vo) throws IOException {
+            out.beginObject();
+            out.name("id").value(vo.id);
+            out.name("hotelId").value(vo.hotelId);
+            out.name("name").value(vo.name);
+            out.name("total").value(vo.total);
+            out.name("price").value(vo.price);
+            out.endObject();
+        }
+
+        @Override
+        public HotelRoomVO read(JsonReader in) throws IOException {
+            int id = 0, hotelId = 0, total = 0;
+            String name = null;
+            double price = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = in.nextInt();
+                        break;
+                    case "hotelId":
+                        hotelId = in.nextInt();
+                        break;
+                    case "name":
+                        name = nextString(in);
+                        break;
+                    case "total":
+                        total = in.nextInt();
+                        break;
+                    case "price":
+                        price = in.nextDouble();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new HotelRoomVO(id, hotelId, name, total, price);
+        }
+    }
+
+    /**
+     * 订单字段的读取缓冲，OrderVO 与 OrderDetailVO 共用
+     */
+    private static class OrderFields {
+        int id, hotelId, roomId, roomCount, personCount, rank;
+        String username, comment;
+        LocalDate startDate, endDate;
+        ArrayList<String> persons;
+        boolean hasChildren;
+        double price;
+        OrderState state;
+    }
+
+    private static class OrderAdapter extends TypeAdapter<OrderVO> {
+        private final TypeAdapter<LocalDate> dateAdapter;
+        private final TypeAdapter<ArrayList<String>> personsAdapter;
+        private final TypeAdapter<OrderState> stateAdapter;
+
+        OrderAdapter(Gson gson) {
+            dateAdapter = gson.getAdapter(LocalDate.class);
+            personsAdapter = gson.getAdapter(STRING_LIST);
+            stateAdapter = gson.getAdapter(OrderState.class);
+        }
+
+        void writeFields(JsonWriter out, OrderVO vo) throws IOException {
+            out.name("id").value(vo.id);
+            out.name("username").value(vo.username);
+            out.name("hotelId").value(vo.hotelId);
+            out.name("startDate");
+            dateAdapter.write(out, vo.startDate);
+            out.name("endDate");
+            dateAdapter.write(out, vo.endDate);
+            out.name("roomId").value(vo.roomId);
+            out.name("roomCount").value(vo.roomCount);
+            out.name("personCount").value(vo.personCount);
+            out.name("persons");
+            personsAdapter.write(out, vo.persons);
+            out.name("hasChildren").value(vo.hasChildren);
+            out.name("price").value(vo.price);
+            out.name("state");
+            stateAdapter.write(out, vo.state);
+            out.name("rank").value(vo.rank);
+            out.name("comment").value(vo.comment);
+        }
+
+        /**
+         * 读取一个字段，不属于订单的字段返回 false
+         */
+        boolean readField(JsonReader in, String name, OrderFields f) throws IOException {
+            switch (name) {
+                case "id":
+                    f.id = in.nextInt();
+                    return true;
+                case "username":
+                    f.username = nextString(in);
+                    return true;
+                case "hotelId":
+                    f.hotelId = in.nextInt();
+                    return true;
+                case "startDate":
+                    f.startDate = dateAdapter.read(in);
+                    return true;
+                case "endDate":
+                    f.endDate = dateAdapter.read(in);
+                    return true;
+                case "roomId":
+                    f.roomId = in.nextInt();
+                    return true;
+                case "roomCount":
+                    f.roomCount = in.nextInt();
+                    return true;
+                case "personCount":
+                    f.personCount = in.nextInt();
+                    return true;
+                case "persons":
+                    f.persons = personsAdapter.read(in);
+                    return true;
+                case "hasChildren":
+                    f.hasChildren = in.nextBoolean();
+                    return true;
+                case "price":
+                    f.price = in.nextDouble();
+                    return true;
+                case "state":
+                    f.state = stateAdapter.read(in);
+                    return true;
+                case "rank":
+                    f.rank = in.nextInt();
+                    return true;
+                case "comment":
+                    f.comment = nextString(in);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        public void write(JsonWriter out, OrderVO vo) throws IOException {
+            out.beginObject();
+            writeFields(out, vo);
+            out.endObject();
+        }
+
+        @Override
+        public OrderVO read(JsonReader in) throws IOException {
+            OrderFields f = new OrderFields();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!readField(in, in.nextName(), f)) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new OrderVO(f.id, f.username, f.hotelId, f.startDate, f.endDate, f.roomId, f.roomCount, f.personCount, f.persons, f.hasChildren, f.price, f.state, f.rank, f.comment);
+        }
+    }
+
+    private static class OrderDetailAdapter extends TypeAdapter<OrderDetailVO> {
+        private final OrderAdapter orderAdapter;
+        private final TypeAdapter<HotelVO> hotelAdapter;
+        private final TypeAdapter<HotelRoomVO> roomAdapter;
+
+        OrderDetailAdapter(Gson gson) {
+            orderAdapter = new OrderAdapter(gson);
+            hotelAdapter = gson.getAdapter(HotelVO.class);
+            roomAdapter = gson.getAdapter(HotelRoomVO.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, OrderDetailVO vo) throws IOException {
+            out.beginObject();
+            out.name("hotel");
+            hotelAdapter.write(out, vo.hotel);
+            out.name("room");
+            roomAdapter.write(out, vo.room);
+            orderAdapter.writeFields(out, vo);
+            out.endObject();
+        }
+
+        @Override
+        public OrderDetailVO read(JsonReader in) throws IOException {
+            OrderFields f = new OrderFields();
+            HotelVO hotel = null;
+            HotelRoomVO room = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "hotel":
+                        hotel = hotelAdapter.read(in);
+                        break;
+                    case "room":
+                        room = roomAdapter.read(in);
+                        break;
+                    default:
+                        if (!orderAdapter.readField(in, name, f)) {
+                            in.skipValue();
+                        }
+                }
+            }
+            in.endObject();
+            // 与 Gson 反射反序列化一致，缺少的酒店、客房与入住人员保持为 null，编号与人数取自数据本身
+            return new OrderDetailVO(f.id, f.username, hotel, f.hotelId, f.startDate, f.endDate, room, f.roomId, f.roomCount, f.personCount, f.persons, f.hasChildren, f.price, f.state, f.rank, f.comment);
+        }
+    }
+
+    private static class OrderQueryAdapter extends TypeAdapter<OrderQueryVO> {
+        private final TypeAdapter<ArrayList<OrderState>> statesAdapter;
+        private final TypeAdapter<LocalDate> dateAdapter;
+
+        OrderQueryAdapter(Gson gson) {
+            statesAdapter = gson.getAdapter(STATE_LIST);
+            dateAdapter = gson.getAdapter(LocalDate.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, OrderQueryVO vo) throws IOException {
+            out.beginObject();
+            out.name("hotelId").value(vo.hotelId);
+            out.name("username").value(vo.username);
+            out.name("states");
+            statesAdapter.write(out, vo.states);
+            out.name("startFrom");
+            dateAdapter.write(out, vo.startFrom);
+            out.name("startTo");
+            dateAdapter.write(out, vo.startTo);
+            out.name("endFrom");
+            dateAdapter.write(out, vo.endFrom);
+            out.name("endTo");
+            dateAdapter.write(out, vo.endTo);
+            out.name("roomId").value(vo.roomId);
+            out.name("cursor").value(vo.cursor);
+            out.name("pageSize").value(vo.pageSize);
+            out.endObject();
+        }
+
+        @Override
+        public OrderQueryVO read(JsonReader in) throws IOException {
+            int hotelId = 0, roomId = 0, pageSize = 0;
+            String username = null, cursor = null;
+            ArrayList<OrderState> states = null;
+            LocalDate startFrom = null, startTo = null, endFrom = null, endTo = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "hotelId":
+                        hotelId = in.nextInt();
+                        break;
+                    case "username":
+                        username = nextString(in);
+                        break;
+                    case "states":
+                        states = statesAdapter.read(in);
+                        break;
+                    case "startFrom":
+                        startFrom = dateAdapter.read(in);
+                        break;
+                    case "startTo":
+                        startTo = dateAdapter.read(in);
+                        break;
+                    case "endFrom":
+                        endFrom = dateAdapter.read(in);
+                        break;
+                    case "endTo":
+                        endTo = dateAdapter.read(in);
+                        break;
+                    case "roomId":
+                        roomId = in.nextInt();
+                        break;
+                    case "cursor":
+                        cursor = nextString(in);
+                        break;
+                    case "pageSize":
+                        pageSize = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new OrderQueryVO(hotelId, username, states, startFrom, startTo, endFrom, endTo, roomId, cursor, pageSize);
+        }
+    }
+
+    private static class OrderPageAdapter extends TypeAdapter<OrderPageVO> {
+        private final TypeAdapter<ArrayList<OrderDetailVO>> ordersAdapter;
+
+        OrderPageAdapter(Gson gson) {
+            ordersAdapter = gson.getAdapter(ORDER_DETAIL_LIST);
+        }
+
+        @Override
+        public void write(JsonWriter out, OrderPageVO vo) throws IOException {
+            out.beginObject();
+            out.name("orders");
+            ordersAdapter.write(out, vo.orders);
+            out.name("total").value(vo.total);
+            out.name("nextCursor").value(vo.nextCursor);
+            out.endObject();
+        }
+
+        @Override
+        public OrderPageVO read(JsonReader in) throws IOException {
+            ArrayList<OrderDetailVO> orders = null;
+            int total = 0;
+            String nextCursor = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "orders":
+                        orders = ordersAdapter.read(in);
+                        break;
+                    case "total":
+                        total = in.nextInt();
+                        break;
+                    case "nextCursor":
+                        nextCursor = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new OrderPageVO(orders, total, nextCursor);
+        }
+    }
+
+    private static class OrderRankAdapter extends TypeAdapter<OrderRankVO> {
+        private final TypeAdapter<LocalDate> dateAdapter;
+
+        OrderRankAdapter(Gson gson) {
+            dateAdapter = gson.getAdapter(LocalDate.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, OrderRankVO vo) throws IOException {
+            out.beginObject();
+            out.name("orderId").value(vo.orderId);
+            out.name("date");
+            dateAdapter.write(out, vo.getDate());
+            out.name("rank").value(vo.rank);
+            out.name("comment").value(vo.comment);
+            out.endObject();
+        }
+
+        @Override
+        public OrderRankVO read(JsonReader in) throws IOException {
+            int orderId = 0, rank = 0;
+            LocalDate date = null;
+            String comment = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "orderId":
+                        orderId = in.nextInt();
+                        break;
+                    case "date":
+                        date = dateAdapter.read(in);
+                        break;
+                    case "rank":
+                        rank = in.nextInt();
+                        break;
+                    case "comment":
+                        comment = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new OrderRankVO(orderId, date, rank, comment);
+        }
+    }
+
+    private static class CreditRecordAdapter extends TypeAdapter<CreditRecordVO> {
+        private final TypeAdapter<LocalDateTime> timeAdapter;
+        private final TypeAdapter<CreditAction> actionAdapter;
+
+        CreditRecordAdapter(Gson gson) {
+            timeAdapter = gson.getAdapter(LocalDateTime.class);
+            actionAdapter = gson.getAdapter(CreditAction.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, CreditRecordVO vo) throws IOException {
+            out.beginObject();
+            out.name("id").value(vo.id);
+            out.name("username").value(vo.username);
+            out.name("timestamp");
+            timeAdapter.write(out, vo.timestamp);
+            out.name("orderId").value(vo.orderId);
+            out.name("action");
+            actionAdapter.write(out, vo.action);
+            out.name("diff").value(vo.diff);
+            out.name("creditResult").value(vo.creditResult);
+            out.endObject();
+        }
+
+        @Override
+        public CreditRecordVO read(JsonReader in) throws IOException {
+            int id = 0, orderId = 0;
+            String username = null;
+            LocalDateTime timestamp = null;
+            CreditAction action = null;
+            double diff = 0, creditResult = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = in.nextInt();
+                        break;
+                    case "username":
+                        username = nextString(in);
+                        break;
+                    case "timestamp":
+                        timestamp = timeAdapter.read(in);
+                        break;
+                    case "orderId":
+                        orderId = in.nextInt();
+                        break;
+                    case "action":
+                        action = actionAdapter.read(in);
+                        break;
+                    case "diff":
+                        diff = in.nextDouble();
+                        break;
+                    case "creditResult":
+                        creditResult = in.nextDouble();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new CreditRecordVO(id, username, timestamp, orderId, action, diff, creditResult);
+        }
+    }
+
+    private static class UserAdapter extends TypeAdapter<UserVO> {
+        private final TypeAdapter<UserType> typeAdapter;
+
+        UserAdapter(Gson gson) {
+            typeAdapter = gson.getAdapter(UserType.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, UserVO vo) throws IOException {
+            out.beginObject();
+            out.name("username").value(vo.username);
+            out.name("password").value(vo.password);
+            out.name("name").value(vo.name);
+            out.name("contact").value(vo.contact);
+            out.name("type");
+            typeAdapter.write(out, vo.type);
+            out.endObject();
+        }
+
+        @Override
+        public UserVO read(JsonReader in) throws IOException {
+            String username = null, password = null, name = null, contact = null;
+            UserType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "username":
+                        username = nextString(in);
+                        break;
+                    case "password":
+                        password = nextString(in);
+                        break;
+                    case "name":
+                        name = nextString(in);
+                        break;
+                    case "contact":
+                        contact = nextString(in);
+                        break;
+                    case "type":
+                        type = typeAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new UserVO(username, password, name, contact, type);
+        }
+    }
+
+    private static class MemberAdapter extends TypeAdapter<MemberVO> {
+        private final TypeAdapter<MemberType> typeAdapter;
+        private final TypeAdapter<LocalDate> dateAdapter;
+
+        MemberAdapter(Gson gson) {
+            typeAdapter = gson.getAdapter(MemberType.class);
+            dateAdapter = gson.getAdapter(LocalDate.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, MemberVO vo) throws IOException {
+            out.beginObject();
+            out.name("username").value(vo.username);
+            out.name("memberType");
+            typeAdapter.write(out, vo.memberType);
+            out.name("birthday");
+            dateAdapter.write(out, vo.birthday);
+            out.name("companyName").value(vo.companyName);
+            out.endObject();
+        }
+
+        @Override
+        public MemberVO read(JsonReader in) throws IOException {
+            String username = null, companyName = null;
+            MemberType memberType = null;
+            LocalDate birthday = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "username":
+                        username = nextString(in);
+                        break;
+                    case "memberType":
+                        memberType = typeAdapter.read(in);
+                        break;
+                    case "birthday":
+                        birthday = dateAdapter.read(in);
+                        break;
+                    case "companyName":
+                        companyName = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new MemberVO(username, memberType, birthday, companyName);
+        }
+    }
+
+    private static class HotelPromotionAdapter extends TypeAdapter<HotelPromotionVO> {
+        private final TypeAdapter<HotelPromotionType> typeAdapter;
+        private final TypeAdapter<LocalDate> dateAdapter;
+        private final TypeAdapter<ArrayList<String>> cooperationAdapter;
+
+        HotelPromotionAdapter(Gson gson) {
+            typeAdapter = gson.getAdapter(HotelPromotionType.class);
+            dateAdapter = gson.getAdapter(LocalDate.class);
+            cooperationAdapter = gson.getAdapter(STRING_LIST);
+        }
+
+        @Override
+        public void write(JsonWriter out, HotelPromotionVO vo) throws IOException {
+            out.beginObject();
+            out.name("id").value(vo.id);
+            out.name("hotelId").value(vo.hotelId);
+            out.name("name").value(vo.name);
+            out.name("type");
+            typeAdapter.write(out, vo.type);
+            out.name("startTime");
+            dateAdapter.write(out, vo.startTime);
+            out.name("endTime");
+            dateAdapter.write(out, vo.endTime);
+            out.name("promotion").value(vo.promotion);
+            out.name("cooperation");
+            cooperationAdapter.write(out, vo.cooperation);
+            out.endObject();
+        }
+
+        @Override
+        public HotelPromotionVO read(JsonReader in) throws IOException {
+            int id = 0, hotelId = 0;
+            String name = null;
+            HotelPromotionType type = null;
+            LocalDate startTime = null, endTime = null;
+            double promotion = 0;
+            ArrayList<String> cooperation = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = in.nextInt();
+                        break;
+                    case "hotelId":
+                        hotelId = in.nextInt();
+                        break;
+                    case "name":
+                        name = nextString(in);
+                        break;
+                    case "type":
+                        type = typeAdapter.read(in);
+                        break;
+                    case "startTime":
+                        startTime = dateAdapter.read(in);
+                        break;
+                    case "endTime":
+                        endTime = dateAdapter.read(in);
+                        break;
+                    case "promotion":
+                        promotion = in.nextDouble();
+                        break;
+                    case "cooperation":
+                        cooperation = cooperationAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new HotelPromotionVO(id, hotelId, name, type, startTime, endTime, promotion, cooperation);
+        }
+    }
+
+    private static class WebsitePromotionAdapter extends TypeAdapter<WebsitePromotionVO> {
+        private final TypeAdapter<WebsitePromotionType> typeAdapter;
+        private final TypeAdapter<LocalDate> dateAdapter;
+        private final TypeAdapter<HashMap<Double, Double>> memberLevelAdapter;
+
+        WebsitePromotionAdapter(Gson gson) {
+            typeAdapter = gson.getAdapter(WebsitePromotionType.class);
+            dateAdapter = gson.getAdapter(LocalDate.class);
+            memberLevelAdapter = gson.getAdapter(DOUBLE_MAP);
+        }
+
+        @Override
+        public void write(JsonWriter out, WebsitePromotionVO vo) throws IOException {
+            out.beginObject();
+            out.name("id").value(vo.id);
+            out.name("name").value(vo.name);
+            out.name("type");
+            typeAdapter.write(out, vo.type);
+            out.name("startTime");
+            dateAdapter.write(out, vo.startTime);
+            out.name("endTime");
+            dateAdapter.write(out, vo.endTime);
+            out.name("promotion").value(vo.promotion);
+            out.name("areaId").value(vo.areaId);
+            out.name("memberLevel");
+            memberLevelAdapter.write(out, vo.memberLevel);
+            out.endObject();
+        }
+
+        @Override
+        public WebsitePromotionVO read(JsonReader in) throws IOException {
+            int id = 0, areaId = 0;
+            String name = null;
+            WebsitePromotionType type = null;
+            LocalDate startTime = null, endTime = null;
+            double promotion = 0;
+            HashMap<Double, Double> memberLevel = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = in.nextInt();
+                        break;
+                    case "name":
+                        name = nextString(in);
+                        break;
+                    case "type":
+                        type = typeAdapter.read(in);
+                        break;
+                    case "startTime":
+                        startTime = dateAdapter.read(in);
+                        break;
+                    case "endTime":
+                        endTime = dateAdapter.read(in);
+                        break;
+                    case "promotion":
+                        promotion = in.nextDouble();
+                        break;
+                    case "areaId":
+                        areaId = in.nextInt();
+                        break;
+                    case "memberLevel":
+                        memberLevel = memberLevelAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new WebsitePromotionVO(id, name, type, startTime, endTime, promotion, areaId, memberLevel);
+        }
+    }
+
+    /**
+     * 价格信息，出错时只携带错误信息
+     */
+    private static class PriceAdapter extends TypeAdapter<PriceVO> {
+        private final TypeAdapter<ResultMessage> resultAdapter;
+        private final TypeAdapter<HotelPromotionVO> hotelPromotionAdapter;
+        private final TypeAdapter<WebsitePromotionVO> websitePromotionAdapter;
+
+        PriceAdapter(Gson gson) {
+            resultAdapter = gson.getAdapter(ResultMessage.class);
+            hotelPromotionAdapter = gson.getAdapter(HotelPromotionVO.class);
+            websitePromotionAdapter = gson.getAdapter(WebsitePromotionVO.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, PriceVO vo) throws IOException {
+            out.beginObject();
+            out.name("result");
+            resultAdapter.write(out, vo.result);
+            out.name("originalPrice").value(vo.originalPrice);
+            out.name("finalPrice").value(vo.finalPrice);
+            out.name("hotelPromotion");
+            hotelPromotionAdapter.write(out, vo.hotelPromotion);
+            out.name("websitePromotion");
+            websitePromotionAdapter.write(out, vo.websitePromotion);
+            out.endObject();
+        }
+
+        @Override
+        public PriceVO read(JsonReader in) throws IOException {
+            ResultMessage result = null;
+            double originalPrice = 0, finalPrice = 0;
+            HotelPromotionVO hotelPromotion = null;
+            WebsitePromotionVO websitePromotion = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "result":
+                        result = resultAdapter.read(in);
+                        break;
+                    case "originalPrice":
+                        originalPrice = in.nextDouble();
+                        break;
+                    case "finalPrice":
+                        finalPrice = in.nextDouble();
+                        break;
+                    case "hotelPromotion":
+                        hotelPromotion = hotelPromotionAdapter.read(in);
+                        break;
+                    case "websitePromotion":
+                        websitePromotion = websitePromotionAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            if (result != null && result.result != ResultMessage.RESULT_SUCCESS) {
+                PriceVO vo = new PriceVO(result.message);
+                vo.originalPrice = originalPrice;
+                vo.finalPrice = finalPrice;
+                return vo;
+            }
+            return new PriceVO(originalPrice, finalPrice, hotelPromotion, websitePromotion);
+        }
+    }
+
+}
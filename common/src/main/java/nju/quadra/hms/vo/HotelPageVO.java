@@ -0,0 +1,27 @@
+package nju.quadra.hms.vo;
+
+import java.util.ArrayList;
+
+/**
+ * 酒店搜索结果的一页
+ */
+public class HotelPageVO {
+    /**
+     * 本页的酒店摘要
+     */
+    public final ArrayList<HotelSummaryVO> hotels;
+    /**
+     * 符合条件的酒店总数
+     */
+    public final int total;
+    /**
+     * 下一页的分页游标，没有下一页时为 -1
+     */
+    public final int nextCursor;
+
+    public HotelPageVO(ArrayList<HotelSummaryVO> hotels, int total, int nextCursor) {
+        this.hotels = hotels;
+        this.total = total;
+        this.nextCursor = nextCursor;
+    }
+}
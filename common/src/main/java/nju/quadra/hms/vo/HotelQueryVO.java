@@ -0,0 +1,59 @@
+package nju.quadra.hms.vo;
+
+import nju.quadra.hms.model.HotelSort;
+
+import java.util.ArrayList;
+
+/**
+ * 酒店搜索条件，在服务器端完成筛选、排序与分页
+ */
+public class HotelQueryVO {
+    /**
+     * 商圈ID，按关键字搜索时不大于 0 表示不限商圈
+     */
+    public int areaId;
+    /**
+     * 关键字，匹配酒店名、地址、设施服务与简介，为空时不限；默认排序时结果按相关度排列
+     */
+    public String keyword;
+    /**
+     * 允许的星级(1-5)，为 null 时不限；星级未知的酒店不受限制
+     */
+    public ArrayList<Integer> stars;
+    /**
+     * 平均评分下限
+     */
+    public int minRank;
+    /**
+     * 平均评分上限
+     */
+    public int maxRank;
+    /**
+     * 只显示预订过的酒店
+     */
+    public boolean orderedOnly;
+    /**
+     * 排序方式
+     */
+    public HotelSort sort;
+    /**
+     * 分页游标，第一页为 0
+     */
+    public int cursor;
+    /**
+     * 每页数量
+     */
+    public int pageSize;
+
+    public HotelQueryVO(int areaId, String keyword, ArrayList<Integer> stars, int minRank, int maxRank, boolean orderedOnly, HotelSort sort, int cursor, int pageSize) {
+        this.areaId = areaId;
+        this.keyword = keyword;
+        this.stars = stars;
+        this.minRank = minRank;
+        this.maxRank = maxRank;
+        this.orderedOnly = orderedOnly;
+        this.sort = sort;
+        this.cursor = cursor;
+        this.pageSize = pageSize;
+    }
+}
@@ -0,0 +1,90 @@
+package nju.quadra.hms.vo;
+
+import java.util.Arrays;
+
+/**
+ * 酒店搜索结果中的酒店摘要，客房、评价与订单列表在查看酒店详情时再获取
+ */
+public class HotelSummaryVO {
+    /**
+     * 酒店ID
+     */
+    public final int id;
+    /**
+     * 酒店名
+     */
+    public final String name;
+    /**
+     * 商圈ID
+     */
+    public final int areaId;
+    /**
+     * 地址
+     */
+    public final String address;
+    /**
+     * 星级
+     */
+    public final String star;
+    /**
+     * 客房最低价格
+     */
+    public final double minPrice;
+    /**
+     * 客房最高价格
+     */
+    public final double maxPrice;
+    /**
+     * 平均评分
+     */
+    public final double averageRank;
+    /**
+     * 评价数量
+     */
+    public final int rankCount;
+    /**
+     * 该客户在该酒店的正常订单数量
+     */
+    public final int normalOrderCount;
+    /**
+     * 该客户在该酒店的异常订单数量
+     */
+    public final int delayedOrderCount;
+    /**
+     * 该客户在该酒店的已撤销订单数量
+     */
+    public final int undoOrderCount;
+
+    public HotelSummaryVO(int id, String name, int areaId, String address, String star, double minPrice, double maxPrice, double averageRank, int rankCount, int normalOrderCount, int delayedOrderCount, int undoOrderCount) {
+        this.id = id;
+        this.name = name;
+        this.areaId = areaId;
+        this.address = address;
+        this.star = star;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.averageRank = averageRank;
+        this.rankCount = rankCount;
+        this.normalOrderCount = normalOrderCount;
+        this.delayedOrderCount = delayedOrderCount;
+        this.undoOrderCount = undoOrderCount;
+    }
+
+    public int getStar() {
+        String[] stars = {"一星级", "二星级", "三星级", "四星级", "五星级"};
+        int star = Arrays.asList(stars).indexOf(this.star);
+        if (star >= 0) {
+            return star+1;
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * @return 该客户是否曾在该酒店预订
+     */
+    public boolean hasOrdered() {
+        return normalOrderCount + delayedOrderCount + undoOrderCount > 0;
+    }
+
+}
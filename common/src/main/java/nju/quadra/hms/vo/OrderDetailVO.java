@@ -16,7 +16,14 @@ public class OrderDetailVO extends OrderVO {
     public final HotelRoomVO room;
 
     public OrderDetailVO(int id, String username, HotelVO hotel, LocalDate startDate, LocalDate endDate, HotelRoomVO room, int roomCount, ArrayList<String> persons, boolean hasChildren, double price, OrderState state, int rank, String comment) {
-        super(id, username, hotel.id, startDate, endDate, room.id, roomCount, persons.size(), persons, hasChildren, price, state, rank, comment);
+        this(id, username, hotel, hotel.id, startDate, endDate, room, room.id, roomCount, persons.size(), persons, hasChildren, price, state, rank, comment);
+    }
+
+    /**
+     * 直接给出酒店编号、客房编号与入住人数，酒店、客房与入住人员可以为 null，用于反序列化不完整的数据
+     */
+    public OrderDetailVO(int id, String username, HotelVO hotel, int hotelId, LocalDate startDate, LocalDate endDate, HotelRoomVO room, int roomId, int roomCount, int personCount, ArrayList<String> persons, boolean hasChildren, double price, OrderState state, int rank, String comment) {
+        super(id, username, hotelId, startDate, endDate, roomId, roomCount, personCount, persons, hasChildren, price, state, rank, comment);
         this.hotel = hotel;
         this.room = room;
     }
@@ -0,0 +1,27 @@
+package nju.quadra.hms.vo;
+
+import java.util.ArrayList;
+
+/**
+ * 订单列表的一页，订单按入住日期从晚到早排列
+ */
+public class OrderPageVO {
+    /**
+     * 本页的订单
+     */
+    public final ArrayList<OrderDetailVO> orders;
+    /**
+     * 符合条件的订单总数
+     */
+    public final int total;
+    /**
+     * 下一页的分页游标，没有下一页时为 null
+     */
+    public final String nextCursor;
+
+    public OrderPageVO(ArrayList<OrderDetailVO> orders, int total, String nextCursor) {
+        this.orders = orders;
+        this.total = total;
+        this.nextCursor = nextCursor;
+    }
+}
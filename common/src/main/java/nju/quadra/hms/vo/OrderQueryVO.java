@@ -0,0 +1,57 @@
+package nju.quadra.hms.vo;
+
+import nju.quadra.hms.model.OrderState;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * 订单查询条件，在服务器端完成筛选与分页，各条件之间为"且"的关系
+ */
+public class OrderQueryVO {
+    /**
+     * 酒店编号，不大于 0 时不限
+     */
+    public int hotelId;
+    /**
+     * 客户用户名，为 null 时不限
+     */
+    public String username;
+    /**
+     * 允许的订单状态，为 null 或空时不限
+     */
+    public ArrayList<OrderState> states;
+    /**
+     * 入住日期的范围，为 null 的一端不限
+     */
+    public LocalDate startFrom, startTo;
+    /**
+     * 离开日期的范围，为 null 的一端不限
+     */
+    public LocalDate endFrom, endTo;
+    /**
+     * 客房类型编号，不大于 0 时不限
+     */
+    public int roomId;
+    /**
+     * 分页游标，第一页为 null，之后为上一页的 nextCursor
+     */
+    public String cursor;
+    /**
+     * 每页数量
+     */
+    public int pageSize;
+
+    public OrderQueryVO(int hotelId, String username, ArrayList<OrderState> states, LocalDate startFrom, LocalDate startTo, LocalDate endFrom, LocalDate endTo, int roomId, String cursor, int pageSize) {
+        this.hotelId = hotelId;
+        this.username = username;
+        this.states = states;
+        this.startFrom = startFrom;
+        this.startTo = startTo;
+        this.endFrom = endFrom;
+        this.endTo = endTo;
+        this.roomId = roomId;
+        this.cursor = cursor;
+        this.pageSize = pageSize;
+    }
+}
@@ -28,6 +28,10 @@ public class OrderRankVO {
         this.comment = comment;
     }
 
+    public LocalDate getDate() {
+        return date;
+    }
+
     @Override
     public String toString() {
         String stars = "";
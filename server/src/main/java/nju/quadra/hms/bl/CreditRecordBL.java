@@ -3,7 +3,7 @@ package nju.quadra.hms.bl;
 import nju.quadra.hms.util.Logger;
 import nju.quadra.hms.blservice.CreditRecordBLService;
 import nju.quadra.hms.blservice.UserBLService;
-import nju.quadra.hms.data.mysql.CreditDataServiceImpl;
+import nju.quadra.hms.data.DataServiceFactory;
 import nju.quadra.hms.dataservice.CreditDataService;
 import nju.quadra.hms.model.CreditAction;
 import nju.quadra.hms.model.LoginSession;
@@ -14,6 +14,7 @@ import nju.quadra.hms.vo.CreditRecordVO;
 import nju.quadra.hms.vo.UserVO;
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 public class CreditRecordBL implements CreditRecordBLService {
     //客户信用值相关信息
@@ -27,7 +28,7 @@ public class CreditRecordBL implements CreditRecordBLService {
     public static final int LATEST_CHECKIN_TIME_GAP = 6;
 
     private final LoginSession session;
-    private final CreditDataService creditDataService = new CreditDataServiceImpl();
+    private final CreditDataService creditDataService = DataServiceFactory.getCreditDataService();
     private final UserBLService userBL = new UserBL();
 
     public CreditRecordBL(){
@@ -52,20 +53,54 @@ public class CreditRecordBL implements CreditRecordBLService {
         ArrayList<CreditRecordVO> voarr = new ArrayList<>();
         try {
             ArrayList<CreditRecordPO> poarr = creditDataService.get(username);
+            // 信用记录按时间倒序排列，从最早的记录开始累加
+            CreditRecordVO[] records = new CreditRecordVO[poarr.size()];
             double creditResult = ORIGINAL_CREDIT;
-            // 插入一条初始信用值
-            voarr.add(new CreditRecordVO(0, username, null, 0, CreditAction.ORIGINAL, creditResult, creditResult));
             for (int i = poarr.size()-1; i >= 0; i--) {
                 CreditRecordPO po = poarr.get(i);
                 creditResult += po.getDiff();
-                voarr.add(0, new CreditRecordVO(po.getId(), po.getUsername(), po.getTimestamp(), po.getOrderId(), po.getAction(), po.getDiff(), creditResult));
+                records[i] = new CreditRecordVO(po.getId(), po.getUsername(), po.getTimestamp(), po.getOrderId(), po.getAction(), po.getDiff(), creditResult);
             }
+            voarr.ensureCapacity(records.length + 1);
+            Collections.addAll(voarr, records);
+            // 插入一条初始信用值
+            voarr.add(new CreditRecordVO(0, username, null, 0, CreditAction.ORIGINAL, ORIGINAL_CREDIT, ORIGINAL_CREDIT));
         } catch (Exception e) {
             Logger.log(e);
         }
         return voarr;
     }
 
+    @Override
+    public double getBalance(String username) {
+        // 安全性: 只有客户能获取自己的信用值
+        if (session != null) {
+            if (session.userType.equals(UserType.CUSTOMER)) {
+                username = session.username;
+            } else {
+                return 0;
+            }
+        }
+
+        try {
+            return queryBalance(username);
+        } catch (Exception e) {
+            Logger.log(e);
+            return 0;
+        }
+    }
+
+    /**
+     * 获得用户当前的信用值，供业务逻辑层内部使用
+     *
+     * @param username 用户名
+     * @return 用户当前的信用值
+     * @throws Exception 数据库访问异常
+     */
+    double queryBalance(String username) throws Exception {
+        return ORIGINAL_CREDIT + creditDataService.getTotalDiff(username);
+    }
+
     @Override
     public ResultMessage add(CreditRecordVO vo) {
         // 安全性: 该方法仅限系统内部调用，不允许从外界访问
@@ -0,0 +1,88 @@
+package nju.quadra.hms.bl;
+
+import nju.quadra.hms.data.DataServiceFactory;
+import nju.quadra.hms.model.CreditAction;
+import nju.quadra.hms.po.OrderPO;
+import nju.quadra.hms.util.Logger;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异常订单检查任务
+ * 在后台定期将超过入住日期仍未入住的订单标记为异常并扣除信用值，每天零点后额外执行一次
+ */
+public class DelayedOrderSweeper {
+
+    private static ScheduledExecutorService executor;
+
+    private DelayedOrderSweeper() {
+    }
+
+    /**
+     * 启动后台检查，启动时立即执行一次
+     *
+     * @param intervalMinutes 检查间隔(分钟)
+     */
+    public static synchronized void start(long intervalMinutes) {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "hms-delayed-order-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(DelayedOrderSweeper::sweep, 0, Math.max(intervalMinutes, 1), TimeUnit.MINUTES);
+        scheduleRollover();
+    }
+
+    /**
+     * 停止后台检查
+     */
+    public static synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * 立即执行一次检查
+     *
+     * @return 本次被标记为异常的订单数量
+     */
+    static synchronized int sweep() {
+        try {
+            ArrayList<OrderPO> delayed = DataServiceFactory.getOrderDataService().markDelayed(LocalDate.now(), CreditAction.ORDER_DELAYED, CreditRecordBL.DELAYED_RATE);
+            if (!delayed.isEmpty()) {
+                Logger.log("I", "已将 " + delayed.size() + " 个订单标记为异常");
+            }
+            return delayed.size();
+        } catch (Exception e) {
+            Logger.log(e);
+            return 0;
+        }
+    }
+
+    /**
+     * 订单在日期变化时才会逾期，因此在每天零点后立即检查一次
+     */
+    private static synchronized void scheduleRollover() {
+        if (executor == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long delay = Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay()).toMillis() + 1000;
+        executor.schedule(() -> {
+            sweep();
+            scheduleRollover();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+}
@@ -2,11 +2,11 @@ package nju.quadra.hms.bl;
 
 import nju.quadra.hms.util.Logger;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 
 import nju.quadra.hms.blservice.HotelBLService;
-import nju.quadra.hms.blservice.HotelRoomBLService;
-import nju.quadra.hms.blservice.OrderBLService;
-import nju.quadra.hms.data.mysql.HotelDataServiceImpl;
+import nju.quadra.hms.data.DataServiceFactory;
 import nju.quadra.hms.dataservice.HotelDataService;
 import nju.quadra.hms.model.LoginSession;
 import nju.quadra.hms.model.OrderState;
@@ -14,11 +14,12 @@ import nju.quadra.hms.model.ResultMessage;
 import nju.quadra.hms.model.UserType;
 import nju.quadra.hms.po.AreaPO;
 import nju.quadra.hms.po.HotelPO;
+import nju.quadra.hms.po.OrderPO;
 import nju.quadra.hms.vo.*;
 
 public class HotelBL implements HotelBLService {
     private final LoginSession session;
-    private final HotelDataService hotelDataService = new HotelDataServiceImpl();
+    private final HotelDataService hotelDataService = DataServiceFactory.getHotelDataService();
 
     public HotelBL() {
         session = null;
@@ -40,30 +41,110 @@ public class HotelBL implements HotelBLService {
         }
 
         ArrayList<HotelSearchVO> result = new ArrayList<>();
-        ArrayList<HotelVO> hotels = new HotelBL().getByArea(areaId);
-        OrderBLService orderBL = new OrderBL();
-        HotelRoomBLService hotelRoomBL = new HotelRoomBL();
-
-        for (HotelVO hotelVO : hotels) {
-            ArrayList<HotelRoomVO> rooms = hotelRoomBL.getAll(hotelVO.id);
-            ArrayList<OrderVO> orders = new ArrayList<>();
-            ArrayList<OrderRankVO> ranks = new ArrayList<>();
-
-            ArrayList<OrderDetailVO> hotelOrders = orderBL.getByHotel(hotelVO.id);
-            for (OrderVO orderVO : hotelOrders) {
-                if (orderVO.state.equals(OrderState.RANKED)) {
-                    ranks.add(new OrderRankVO(orderVO.id, orderVO.endDate, orderVO.rank, orderVO.comment));
-                }
-                if (orderVO.username.equals(username)) {
-                    orders.add(orderVO);
-                }
+        try {
+            for (HotelPO po : hotelDataService.getByArea(areaId)) {
+                result.add(toSearchVO(HotelBL.toVO(po), username));
             }
+        } catch (Exception e) {
+            Logger.log(e);
+        }
+        return result;
+    }
 
-            result.add(new HotelSearchVO(hotelVO, rooms, orders, ranks));
+    @Override
+    public ArrayList<HotelSummaryVO> searchSummary(int areaId, String username) {
+        // 安全性: 仅限客户调用，且只能获取自己的订单信息
+        if (session != null) {
+            if (session.userType.equals(UserType.CUSTOMER)) {
+                username = session.username;
+            } else {
+                return new ArrayList<>();
+            }
+        }
+
+        try {
+            return HotelSearchIndex.summaries(areaId, countOrders(username));
+        } catch (Exception e) {
+            Logger.log(e);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public HotelPageVO query(HotelQueryVO query, String username) {
+        // 安全性: 仅限客户调用，且只能获取自己的订单信息
+        if (session != null) {
+            if (session.userType.equals(UserType.CUSTOMER)) {
+                username = session.username;
+            } else {
+                return new HotelPageVO(new ArrayList<>(), 0, -1);
+            }
+        }
+
+        try {
+            return HotelSearchIndex.query(query, countOrders(username));
+        } catch (Exception e) {
+            Logger.log(e);
+            return new HotelPageVO(new ArrayList<>(), 0, -1);
+        }
+    }
+
+    @Override
+    public HotelSearchVO getSearchDetail(int hotelId, String username) {
+        // 安全性: 仅限客户调用，且只能获取自己的订单信息
+        if (session != null) {
+            if (session.userType.equals(UserType.CUSTOMER)) {
+                username = session.username;
+            } else {
+                return null;
+            }
+        }
+
+        try {
+            HotelPO po = hotelDataService.getById(hotelId);
+            return po == null ? null : toSearchVO(HotelBL.toVO(po), username);
+        } catch (Exception e) {
+            Logger.log(e);
+        }
+        return null;
+    }
+
+    /**
+     * 统计该客户在各酒店的正常、异常与已撤销订单数量
+     */
+    private static HashMap<Integer, int[]> countOrders(String username) throws Exception {
+        HashMap<Integer, int[]> result = new HashMap<>();
+        for (OrderPO po : DataServiceFactory.getOrderDataService().getByCustomer(username)) {
+            int[] counts = result.computeIfAbsent(po.getHotelId(), id -> new int[3]);
+            if (po.getState().equals(OrderState.DELAYED)) {
+                counts[1]++;
+            } else if (po.getState().equals(OrderState.UNDO)) {
+                counts[2]++;
+            } else {
+                counts[0]++;
+            }
         }
         return result;
     }
 
+    /**
+     * 获得酒店的客房、全部评价以及该客户在该酒店的订单
+     */
+    private HotelSearchVO toSearchVO(HotelVO hotelVO, String username) throws Exception {
+        ArrayList<HotelRoomVO> rooms = new HotelRoomBL().getAll(hotelVO.id);
+        ArrayList<OrderVO> orders = new ArrayList<>();
+        ArrayList<OrderRankVO> ranks = new ArrayList<>();
+        for (OrderPO po : DataServiceFactory.getOrderDataService().getByHotel(hotelVO.id)) {
+            if (po.getState().equals(OrderState.RANKED)) {
+                ranks.add(new OrderRankVO(po.getId(), po.getEndDate(), po.getRank(), po.getComment()));
+            }
+            if (po.getUsername().equals(username)) {
+                orders.add(OrderBL.toVO(po));
+            }
+        }
+        return new HotelSearchVO(hotelVO, rooms, orders, ranks);
+    }
+
     @Override
     public ArrayList<HotelVO> getByArea(int areaId) {
         // 安全性: 仅限网站管理人员调用
@@ -125,6 +206,21 @@ public class HotelBL implements HotelBLService {
         return null;
     }
 
+    /**
+     * 一次性获得一组酒店的详细信息，仅限系统内部调用
+     *
+     * @param ids 酒店编号集合
+     * @return 酒店编号到酒店信息的映射
+     * @throws Exception 数据库访问异常
+     */
+    HashMap<Integer, HotelVO> getDetails(Collection<Integer> ids) throws Exception {
+        HashMap<Integer, HotelVO> result = new HashMap<>();
+        for (HotelPO po : hotelDataService.getByIds(ids)) {
+            result.put(po.getId(), HotelBL.toVO(po));
+        }
+        return result;
+    }
+
     @Override
     public ArrayList<AreaVO> getAllArea() {
         // 该方法无安全性需求
@@ -158,6 +254,8 @@ public class HotelBL implements HotelBLService {
         HotelPO po = HotelBL.toPO(vo);
         try {
             hotelDataService.insert(po);
+            HotelSearchIndex.areaChanged(po.getAreaId());
+            HotelKeywordIndex.areaChanged(po.getAreaId());
             return new ResultMessage(ResultMessage.RESULT_SUCCESS);
         } catch (Exception e) {
             Logger.log(e);
@@ -175,6 +273,9 @@ public class HotelBL implements HotelBLService {
         try {
             HotelPO po = hotelDataService.getById(id);
             hotelDataService.delete(po);
+            HotelStats.remove(id);
+            HotelSearchIndex.areaChanged(po.getAreaId());
+            HotelKeywordIndex.remove(id);
             return new ResultMessage(ResultMessage.RESULT_SUCCESS);
         } catch (Exception e) {
             Logger.log(e);
@@ -204,7 +305,13 @@ public class HotelBL implements HotelBLService {
 
         HotelPO po = HotelBL.toPO(vo);
         try {
+            HotelPO old = hotelDataService.getById(vo.id);
             hotelDataService.update(po);
+            if (old != null) {
+                HotelSearchIndex.areaChanged(old.getAreaId());
+            }
+            HotelSearchIndex.areaChanged(po.getAreaId());
+            HotelKeywordIndex.put(po);
             return new ResultMessage(ResultMessage.RESULT_SUCCESS);
         } catch (Exception e) {
             Logger.log(e);
@@ -0,0 +1,257 @@
+package nju.quadra.hms.bl;
+
+import nju.quadra.hms.data.DataServiceFactory;
+import nju.quadra.hms.po.HotelPO;
+import nju.quadra.hms.util.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 酒店关键字倒排索引
+ * 酒店名、地址、设施服务与简介按字切分为单字与相邻两字(二元组)建立索引，适用于不分词的中文文本；
+ * 搜索时关键字切分为二元组(单字关键字直接使用单字)，返回包含全部词项的酒店，按相关度排序。
+ * 索引在首次搜索时从数据库建立，之后随酒店的添加、修改与删除更新
+ */
+final class HotelKeywordIndex {
+
+    private static final double NAME_WEIGHT = 4;
+    private static final double ADDRESS_WEIGHT = 2;
+    private static final double FACILITIES_WEIGHT = 1;
+    private static final double DESCRIPTION_WEIGHT = 1;
+
+    /**
+     * 词项到酒店编号与加权词频的映射
+     */
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<Integer, Double>> postings = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, Document> documents = new ConcurrentHashMap<>();
+    private static volatile boolean loaded = false;
+
+    private HotelKeywordIndex() {
+    }
+
+    /**
+     * 按关键字搜索所有商圈内的酒店
+     *
+     * @param keyword 关键字
+     * @return 匹配的酒店，按相关度从高到低排序，相关度相同时按酒店编号排序
+     * @throws Exception 数据库访问异常
+     */
+    static List<Match> search(String keyword) throws Exception {
+        ensureLoaded();
+        String text = normalize(keyword);
+        List<String> terms = queryTerms(text);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // 从最短的倒排表开始，逐个检查其余词项
+        ArrayList<Map<Integer, Double>> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Map<Integer, Double> list = postings.get(term);
+            if (list == null) {
+                return Collections.emptyList();
+            }
+            lists.add(list);
+        }
+        lists.sort((list1, list2) -> Integer.compare(list1.size(), list2.size()));
+        int total = Math.max(documents.size(), 1);
+
+        ArrayList<Match> result = new ArrayList<>();
+        for (Integer hotelId : lists.get(0).keySet()) {
+            double score = 0;
+            for (Map<Integer, Double> list : lists) {
+                Double tf = list.get(hotelId);
+                if (tf == null) {
+                    score = -1;
+                    break;
+                }
+                score += tf * Math.log(1.0 + (double) total / list.size());
+            }
+            Document document = documents.get(hotelId);
+            if (score < 0 || document == null) {
+                continue;
+            }
+            // 酒店名中完整出现关键字的排在前面
+            if (document.name.contains(text)) {
+                score *= 2;
+            }
+            result.add(new Match(document.hotel, score));
+        }
+        result.sort((match1, match2) -> match1.score != match2.score
+                ? Double.compare(match2.score, match1.score)
+                : Integer.compare(match1.hotel.getId(), match2.hotel.getId()));
+        return result;
+    }
+
+    /**
+     * 酒店被修改后更新索引
+     */
+    static synchronized void put(HotelPO po) {
+        if (!loaded) {
+            return;
+        }
+        index(po);
+    }
+
+    /**
+     * 酒店被添加后更新所在商圈的索引
+     */
+    static synchronized void areaChanged(int areaId) {
+        if (!loaded) {
+            return;
+        }
+        try {
+            for (HotelPO po : DataServiceFactory.getHotelDataService().getByArea(areaId)) {
+                index(po);
+            }
+        } catch (Exception e) {
+            // 索引无法更新时在下次搜索时重新建立
+            clear();
+            Logger.log(e);
+        }
+    }
+
+    /**
+     * 酒店被删除后更新索引
+     */
+    static synchronized void remove(int hotelId) {
+        Document old = documents.remove(hotelId);
+        if (old != null) {
+            removePostings(hotelId, old);
+        }
+    }
+
+    private static void ensureLoaded() throws Exception {
+        if (loaded) {
+            return;
+        }
+        synchronized (HotelKeywordIndex.class) {
+            if (loaded) {
+                return;
+            }
+            for (HotelPO po : DataServiceFactory.getHotelDataService().getAll()) {
+                index(po);
+            }
+            loaded = true;
+        }
+    }
+
+    private static void clear() {
+        loaded = false;
+        documents.clear();
+        postings.clear();
+    }
+
+    private static void index(HotelPO po) {
+        HashMap<String, Double> terms = new HashMap<>();
+        addTerms(terms, po.getName(), NAME_WEIGHT);
+        addTerms(terms, po.getAddress(), ADDRESS_WEIGHT);
+        addTerms(terms, po.getFacilities(), FACILITIES_WEIGHT);
+        addTerms(terms, po.getDescription(), DESCRIPTION_WEIGHT);
+        Document document = new Document(po, normalize(po.getName()), terms.keySet());
+        Document old = documents.put(po.getId(), document);
+        if (old != null) {
+            removePostings(po.getId(), old);
+        }
+        for (Map.Entry<String, Double> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), t -> new ConcurrentHashMap<>()).put(po.getId(), term.getValue());
+        }
+    }
+
+    private static void removePostings(int hotelId, Document old) {
+        for (String term : old.terms) {
+            postings.computeIfPresent(term, (t, list) -> {
+                list.remove(hotelId);
+                return list.isEmpty() ? null : list;
+            });
+        }
+    }
+
+    /**
+     * 将文本中每个单字与相邻两字计入词项
+     */
+    private static void addTerms(Map<String, Double> terms, String text, double weight) {
+        for (int[] segment : segments(normalize(text))) {
+            for (int i = 0; i < segment.length; i++) {
+                terms.merge(new String(segment, i, 1), weight, Double::sum);
+                if (i + 1 < segment.length) {
+                    terms.merge(new String(segment, i, 2), weight, Double::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * 关键字切分为相邻两字，只有一个字的片段直接使用单字
+     */
+    private static List<String> queryTerms(String text) {
+        ArrayList<String> terms = new ArrayList<>();
+        for (int[] segment : segments(text)) {
+            if (segment.length == 1) {
+                terms.add(new String(segment, 0, 1));
+            }
+            for (int i = 0; i + 1 < segment.length; i++) {
+                String term = new String(segment, i, 2);
+                if (!terms.contains(term)) {
+                    terms.add(term);
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 按标点与空白将文本切分为若干片段
+     */
+    private static List<int[]> segments(String text) {
+        ArrayList<int[]> result = new ArrayList<>();
+        int[] codePoints = text.codePoints().toArray();
+        int start = 0;
+        for (int i = 0; i <= codePoints.length; i++) {
+            if (i == codePoints.length || !Character.isLetterOrDigit(codePoints[i])) {
+                if (i > start) {
+                    int[] segment = new int[i - start];
+                    System.arraycopy(codePoints, start, segment, 0, segment.length);
+                    result.add(segment);
+                }
+                start = i + 1;
+            }
+        }
+        return result;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase();
+    }
+
+    /**
+     * 搜索结果
+     */
+    static final class Match {
+        final HotelPO hotel;
+        final double score;
+
+        private Match(HotelPO hotel, double score) {
+            this.hotel = hotel;
+            this.score = score;
+        }
+    }
+
+    private static final class Document {
+        private final HotelPO hotel;
+        private final String name;
+        private final Set<String> terms;
+
+        private Document(HotelPO hotel, String name, Set<String> terms) {
+            this.hotel = hotel;
+            this.name = name;
+            this.terms = terms;
+        }
+    }
+
+}
@@ -1,10 +1,9 @@
 package nju.quadra.hms.bl;
 
+import nju.quadra.hms.util.JsonCodec;
 import nju.quadra.hms.util.Logger;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import nju.quadra.hms.blservice.HotelPromotionBLService;
-import nju.quadra.hms.data.mysql.HotelPromotionDataServiceImpl;
+import nju.quadra.hms.data.DataServiceFactory;
 import nju.quadra.hms.dataservice.HotelPromotionDataService;
 import nju.quadra.hms.model.HotelPromotionType;
 import nju.quadra.hms.model.LoginSession;
@@ -21,7 +20,7 @@ import java.util.ArrayList;
 public class HotelPromotionBL implements HotelPromotionBLService {
     private final LoginSession session;
     private final HotelVO hotel;
-    private final HotelPromotionDataService hotelPromotionDataService = new HotelPromotionDataServiceImpl();
+    private final HotelPromotionDataService hotelPromotionDataService = DataServiceFactory.getHotelPromotionDataService();
 
     public HotelPromotionBL() {
         session = null;
@@ -77,6 +76,7 @@ public class HotelPromotionBL implements HotelPromotionBLService {
         HotelPromotionPO po = HotelPromotionBL.toPO(vo);
         try {
             hotelPromotionDataService.insert(po);
+            PromotionEngine.reloadHotel(po.getHotelId());
         } catch (Exception e) {
             Logger.log(e);
             return new ResultMessage(ResultMessage.RESULT_DB_ERROR);
@@ -93,6 +93,7 @@ public class HotelPromotionBL implements HotelPromotionBLService {
                 return new ResultMessage(ResultMessage.RESULT_ACCESS_DENIED);
             }
             hotelPromotionDataService.delete(po);
+            PromotionEngine.reloadHotel(po.getHotelId());
             return new ResultMessage(ResultMessage.RESULT_SUCCESS);
         } catch (Exception e) {
             Logger.log(e);
@@ -116,6 +117,7 @@ public class HotelPromotionBL implements HotelPromotionBLService {
             vo.hotelId = po.getHotelId();
             po = HotelPromotionBL.toPO(vo);
             hotelPromotionDataService.update(po);
+            PromotionEngine.reloadHotel(po.getHotelId());
             return new ResultMessage(ResultMessage.RESULT_SUCCESS);
         } catch (Exception e) {
             Logger.log(e);
@@ -142,14 +144,14 @@ public class HotelPromotionBL implements HotelPromotionBLService {
     private static HotelPromotionVO toVO(HotelPromotionPO po) {
         ArrayList<String> cooperation = null;
         if (po.getCooperation() != null && po.getType().equals(HotelPromotionType.COMPANY_PROMOTION)) {
-            cooperation = new Gson().fromJson(po.getCooperation(), new TypeToken<ArrayList<String>>(){}.getType());
+            cooperation = JsonCodec.fromJson(po.getCooperation(), JsonCodec.STRING_LIST);
         }
         return new HotelPromotionVO(po.getId(), po.getHotelId(), po.getName(), po.getType(), po.getStartTime(), po.getEndTime(), po.getPromotion(), cooperation);
     }
 
     private static HotelPromotionPO toPO(HotelPromotionVO vo) {
         if (vo.type.equals(HotelPromotionType.COMPANY_PROMOTION)) {
-            return new HotelPromotionPO(vo.id, vo.hotelId, vo.name, vo.type, vo.startTime, vo.endTime, vo.promotion, new Gson().toJson(vo.cooperation));
+            return new HotelPromotionPO(vo.id, vo.hotelId, vo.name, vo.type, vo.startTime, vo.endTime, vo.promotion, JsonCodec.toJson(vo.cooperation));
         } else {
             return new HotelPromotionPO(vo.id, vo.hotelId, vo.name, vo.type, vo.startTime, vo.endTime, vo.promotion, null);
         }
@@ -2,9 +2,11 @@ package nju.quadra.hms.bl;
 
 import nju.quadra.hms.util.Logger;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 
 import nju.quadra.hms.blservice.HotelRoomBLService;
-import nju.quadra.hms.data.mysql.HotelRoomDataServiceImpl;
+import nju.quadra.hms.data.DataServiceFactory;
 import nju.quadra.hms.dataservice.HotelRoomDataService;
 import nju.quadra.hms.model.LoginSession;
 import nju.quadra.hms.model.ResultMessage;
@@ -16,7 +18,7 @@ import nju.quadra.hms.vo.HotelVO;
 public class HotelRoomBL implements HotelRoomBLService {
     private final LoginSession session;
     private final HotelVO hotel;
-    private final HotelRoomDataService hotelRoomDataService = new HotelRoomDataServiceImpl();
+    private final HotelRoomDataService hotelRoomDataService = DataServiceFactory.getHotelRoomDataService();
 
     public HotelRoomBL() {
         session = null;
@@ -64,6 +66,21 @@ public class HotelRoomBL implements HotelRoomBLService {
         return null;
     }
 
+    /**
+     * 一次性获得一组客房信息，仅限系统内部调用
+     *
+     * @param roomIds 客房编号集合
+     * @return 客房编号到客房信息的映射
+     * @throws Exception 数据库访问异常
+     */
+    HashMap<Integer, HotelRoomVO> getByIds(Collection<Integer> roomIds) throws Exception {
+        HashMap<Integer, HotelRoomVO> result = new HashMap<>();
+        for (HotelRoomPO po : hotelRoomDataService.getByIds(roomIds)) {
+            result.put(po.getId(), HotelRoomBL.toVO(po));
+        }
+        return result;
+    }
+
     @Override
     public ResultMessage add(HotelRoomVO vo) {
         ResultMessage checkResult = checkVO(vo);
@@ -87,6 +104,7 @@ public class HotelRoomBL implements HotelRoomBLService {
         HotelRoomPO po = HotelRoomBL.toPO(vo);
         try {
             hotelRoomDataService.insert(po);
+            HotelStats.roomsChanged(po.getHotelId());
             return new ResultMessage(ResultMessage.RESULT_SUCCESS);
         } catch (Exception e) {
             Logger.log(e);
@@ -103,6 +121,8 @@ public class HotelRoomBL implements HotelRoomBLService {
                 return new ResultMessage(ResultMessage.RESULT_ACCESS_DENIED);
             }
             hotelRoomDataService.delete(po);
+            RoomInventory.remove(roomId);
+            HotelStats.roomsChanged(po.getHotelId());
             return new ResultMessage(ResultMessage.RESULT_SUCCESS);
         } catch (Exception e) {
             Logger.log(e);
@@ -126,6 +146,7 @@ public class HotelRoomBL implements HotelRoomBLService {
             vo.hotelId = po.getHotelId();
             po = HotelRoomBL.toPO(vo);
             hotelRoomDataService.update(po);
+            HotelStats.roomsChanged(po.getHotelId());
             return new ResultMessage(ResultMessage.RESULT_SUCCESS);
         } catch (Exception e) {
             Logger.log(e);
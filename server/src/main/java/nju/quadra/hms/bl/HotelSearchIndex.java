@@ -0,0 +1,157 @@
+package nju.quadra.hms.bl;
+
+import nju.quadra.hms.data.DataServiceFactory;
+import nju.quadra.hms.model.HotelSort;
+import nju.quadra.hms.po.HotelPO;
+import nju.quadra.hms.vo.HotelPageVO;
+import nju.quadra.hms.vo.HotelQueryVO;
+import nju.quadra.hms.vo.HotelSummaryVO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 酒店搜索索引
+ * 按商圈缓存酒店列表，酒店信息被修改后重新加载受影响的商圈；
+ * 搜索时结合 HotelStats 中的统计信息在服务器端完成筛选、排序与分页，只返回一页酒店摘要
+ */
+final class HotelSearchIndex {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    private static final int[] NO_ORDERS = new int[3];
+
+    private static final ConcurrentHashMap<Integer, List<HotelPO>> areas = new ConcurrentHashMap<>();
+    private static final Object cacheLock = new Object();
+    private static long version = 0;
+
+    private HotelSearchIndex() {
+    }
+
+    /**
+     * 获得商圈内全部酒店的摘要
+     *
+     * @param areaId      商圈编号
+     * @param orderCounts 酒店编号到该客户正常、异常与已撤销订单数量的映射
+     * @return 酒店摘要列表
+     * @throws Exception 数据库访问异常
+     */
+    static ArrayList<HotelSummaryVO> summaries(int areaId, Map<Integer, int[]> orderCounts) throws Exception {
+        List<HotelPO> hotels = getArea(areaId);
+        ArrayList<HotelSummaryVO> result = new ArrayList<>(hotels.size());
+        for (HotelPO po : hotels) {
+            result.add(summarize(po, orderCounts));
+        }
+        return result;
+    }
+
+    /**
+     * 按条件搜索酒店，给定关键字时通过 HotelKeywordIndex 查找候选酒店
+     *
+     * @param query       搜索条件
+     * @param orderCounts 酒店编号到该客户正常、异常与已撤销订单数量的映射
+     * @return 搜索结果的一页
+     * @throws Exception 数据库访问异常
+     */
+    static HotelPageVO query(HotelQueryVO query, Map<Integer, int[]> orderCounts) throws Exception {
+        String keyword = query.keyword == null ? "" : query.keyword.trim();
+        List<HotelPO> candidates;
+        if (keyword.isEmpty()) {
+            candidates = getArea(query.areaId);
+        } else {
+            // 按关键字搜索时候选酒店已按相关度排序，商圈编号不大于 0 时不限商圈
+            candidates = new ArrayList<>();
+            for (HotelKeywordIndex.Match match : HotelKeywordIndex.search(keyword)) {
+                if (query.areaId <= 0 || match.hotel.getAreaId() == query.areaId) {
+                    candidates.add(match.hotel);
+                }
+            }
+        }
+        ArrayList<HotelSummaryVO> matched = new ArrayList<>();
+        for (HotelPO po : candidates) {
+            HotelSummaryVO vo = summarize(po, orderCounts);
+            int star = vo.getStar();
+            if (query.stars != null && star > 0 && !query.stars.contains(star)) {
+                continue;
+            }
+            if (vo.averageRank < query.minRank || vo.averageRank > query.maxRank) {
+                continue;
+            }
+            if (query.orderedOnly && !vo.hasOrdered()) {
+                continue;
+            }
+            matched.add(vo);
+        }
+        Comparator<HotelSummaryVO> comparator = comparatorOf(query.sort);
+        if (comparator != null) {
+            // 排序是稳定的，相同者保持默认顺序或相关度顺序
+            matched.sort(comparator);
+        }
+
+        int pageSize = query.pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(query.pageSize, MAX_PAGE_SIZE);
+        int from = Math.min(Math.max(query.cursor, 0), matched.size());
+        int to = Math.min(from + pageSize, matched.size());
+        return new HotelPageVO(new ArrayList<>(matched.subList(from, to)), matched.size(), to < matched.size() ? to : -1);
+    }
+
+    /**
+     * 酒店被添加、修改或删除后重新加载所在商圈
+     */
+    static void areaChanged(int areaId) {
+        synchronized (cacheLock) {
+            version++;
+            areas.remove(areaId);
+        }
+    }
+
+    private static List<HotelPO> getArea(int areaId) throws Exception {
+        List<HotelPO> cached = areas.get(areaId);
+        if (cached != null) {
+            return cached;
+        }
+        long loadVersion;
+        synchronized (cacheLock) {
+            loadVersion = version;
+        }
+        List<HotelPO> hotels = Collections.unmodifiableList(DataServiceFactory.getHotelDataService().getByArea(areaId));
+        // 加载期间有酒店被修改时不写入缓存，避免缓存旧的酒店列表
+        synchronized (cacheLock) {
+            if (version == loadVersion) {
+                areas.putIfAbsent(areaId, hotels);
+            }
+        }
+        return hotels;
+    }
+
+    private static HotelSummaryVO summarize(HotelPO po, Map<Integer, int[]> orderCounts) throws Exception {
+        HotelStats.Stats stats = HotelStats.get(po.getId());
+        int[] counts = orderCounts.getOrDefault(po.getId(), NO_ORDERS);
+        return new HotelSummaryVO(po.getId(), po.getName(), po.getAreaId(), po.getAddress(), po.getStar(),
+                stats.minPrice, stats.maxPrice, stats.getAverageRank(), stats.rankCount, counts[0], counts[1], counts[2]);
+    }
+
+    private static Comparator<HotelSummaryVO> comparatorOf(HotelSort sort) {
+        if (sort == null) {
+            return null;
+        }
+        switch (sort) {
+            case PRICE_ASC:
+                return Comparator.comparingDouble(vo -> vo.minPrice);
+            case PRICE_DESC:
+                return Comparator.comparingDouble((HotelSummaryVO vo) -> vo.minPrice).reversed();
+            case STAR_ASC:
+                return Comparator.comparingInt(HotelSummaryVO::getStar);
+            case STAR_DESC:
+                return Comparator.comparingInt(HotelSummaryVO::getStar).reversed();
+            case RANK_DESC:
+                return Comparator.comparingDouble((HotelSummaryVO vo) -> vo.averageRank).reversed();
+            default:
+                return null;
+        }
+    }
+
+}
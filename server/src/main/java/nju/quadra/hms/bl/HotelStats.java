@@ -0,0 +1,152 @@
+package nju.quadra.hms.bl;
+
+import nju.quadra.hms.data.DataServiceFactory;
+import nju.quadra.hms.model.OrderState;
+import nju.quadra.hms.po.HotelRoomPO;
+import nju.quadra.hms.po.OrderPO;
+import nju.quadra.hms.util.Logger;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 酒店搜索使用的统计信息：客房价格区间与评分
+ * 每个酒店的统计信息在首次搜索时从数据库加载，之后随评价与客房的修改增量更新
+ */
+final class HotelStats {
+
+    private static final ConcurrentHashMap<Integer, Stats> cache = new ConcurrentHashMap<>();
+    private static final Object cacheLock = new Object();
+    private static long version = 0;
+
+    private HotelStats() {
+    }
+
+    /**
+     * 获得酒店的统计信息
+     *
+     * @param hotelId 酒店编号
+     * @return 统计信息
+     * @throws Exception 数据库访问异常
+     */
+    static Stats get(int hotelId) throws Exception {
+        Stats cached = cache.get(hotelId);
+        if (cached != null) {
+            return cached;
+        }
+        long loadVersion;
+        synchronized (cacheLock) {
+            loadVersion = version;
+        }
+        long rankSum = 0;
+        int rankCount = 0;
+        for (OrderPO po : DataServiceFactory.getOrderDataService().getByHotel(hotelId)) {
+            if (po.getState().equals(OrderState.RANKED)) {
+                rankSum += po.getRank();
+                rankCount++;
+            }
+        }
+        Stats stats = new Stats(loadRooms(hotelId), rankSum, rankCount);
+        // 加载期间统计信息有更新时不写入缓存，避免覆盖或重复计入这次更新
+        synchronized (cacheLock) {
+            if (version == loadVersion) {
+                cache.putIfAbsent(hotelId, stats);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 订单被评价后计入评分
+     */
+    static void rankAdded(int hotelId, int rank) {
+        synchronized (cacheLock) {
+            version++;
+            cache.computeIfPresent(hotelId, (id, stats) -> new Stats(stats.minPrice, stats.maxPrice, stats.rankSum + rank, stats.rankCount + 1));
+        }
+    }
+
+    /**
+     * 客房信息被修改后重新计算价格区间
+     */
+    static void roomsChanged(int hotelId) {
+        Stats stats;
+        long loadVersion;
+        synchronized (cacheLock) {
+            loadVersion = ++version;
+            stats = cache.remove(hotelId);
+        }
+        if (stats == null) {
+            return;
+        }
+        // 在锁外重新加载客房，期间有其他更新时放弃写入，由下次搜索重新加载
+        try {
+            Stats updated = new Stats(loadRooms(hotelId), stats.rankSum, stats.rankCount);
+            synchronized (cacheLock) {
+                if (version == loadVersion) {
+                    cache.putIfAbsent(hotelId, updated);
+                }
+            }
+        } catch (Exception e) {
+            Logger.log(e);
+        }
+    }
+
+    /**
+     * 酒店被删除后移除统计信息
+     */
+    static void remove(int hotelId) {
+        synchronized (cacheLock) {
+            version++;
+            cache.remove(hotelId);
+        }
+    }
+
+    private static ArrayList<HotelRoomPO> loadRooms(int hotelId) throws Exception {
+        return DataServiceFactory.getHotelRoomDataService().get(hotelId);
+    }
+
+    /**
+     * 不可变的酒店统计信息
+     */
+    static final class Stats {
+        /**
+         * 客房最低与最高价格，没有客房时为 0
+         */
+        final double minPrice, maxPrice;
+        final long rankSum;
+        final int rankCount;
+
+        private Stats(ArrayList<HotelRoomPO> rooms, long rankSum, int rankCount) {
+            double min = 0, max = 0;
+            for (int i = 0; i < rooms.size(); i++) {
+                double price = rooms.get(i).getPrice();
+                if (i == 0 || price < min) {
+                    min = price;
+                }
+                if (i == 0 || price > max) {
+                    max = price;
+                }
+            }
+            this.minPrice = min;
+            this.maxPrice = max;
+            this.rankSum = rankSum;
+            this.rankCount = rankCount;
+        }
+
+        private Stats(double minPrice, double maxPrice, long rankSum, int rankCount) {
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            this.rankSum = rankSum;
+            this.rankCount = rankCount;
+        }
+
+        /**
+         * @return 平均评分，没有评价时为 0
+         */
+        double getAverageRank() {
+            return rankCount == 0 ? 0.0 : (double) rankSum / rankCount;
+        }
+    }
+
+}
@@ -1,12 +1,12 @@
 package nju.quadra.hms.bl;
 
+import nju.quadra.hms.util.JsonCodec;
 import nju.quadra.hms.util.Logger;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import nju.quadra.hms.blservice.CreditRecordBLService;
 import nju.quadra.hms.blservice.OrderBLService;
-import nju.quadra.hms.data.mysql.OrderDataServiceImpl;
+import nju.quadra.hms.data.DataServiceFactory;
 import nju.quadra.hms.dataservice.OrderDataService;
+import nju.quadra.hms.dataservice.OrderQuery;
 import nju.quadra.hms.model.*;
 import nju.quadra.hms.po.OrderPO;
 import nju.quadra.hms.vo.*;
@@ -15,25 +15,28 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 
 import static nju.quadra.hms.bl.CreditRecordBL.LATEST_CHECKIN_TIME_GAP;
 
 public class OrderBL implements OrderBLService {
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final LoginSession session;
     private final HotelVO hotel;
-    private final OrderDataService orderDataService = new OrderDataServiceImpl();
+    private final OrderDataService orderDataService = DataServiceFactory.getOrderDataService();
 
     public OrderBL() {
         session = null;
         hotel = null;
-        // "自动"检查异常订单
-        checkDelayed();
     }
 
     public OrderBL(LoginSession session) {
         this.session = session;
         hotel = new HotelBL().getByStaff(session.username);
-        checkDelayed();
     }
 
     @Override
@@ -46,16 +49,20 @@ public class OrderBL implements OrderBLService {
                 return new PriceVO("非法访问");
             }
         }
-        // "自动"检查异常订单
-        checkDelayed();
         // check order
         if (vo.startDate == null || vo.endDate == null || vo.roomCount <= 0
                 || vo.persons == null || vo.persons.size() == 0) {
             return new PriceVO("订单信息不完整，请重新输入");
         }
         // check credit and date
-        ArrayList<CreditRecordVO> credits = new CreditRecordBL().get(vo.username);
-        if (credits.size() > 0 && credits.get(0).creditResult < CreditRecordBL.MIN_CREDIT) {
+        double credit;
+        try {
+            credit = new CreditRecordBL().queryBalance(vo.username);
+        } catch (Exception e) {
+            Logger.log(e);
+            return new PriceVO("发生数据库访问错误，请稍后重试");
+        }
+        if (credit < CreditRecordBL.MIN_CREDIT) {
             return new PriceVO("用户信用值不足，不能预订酒店");
         }
         if (vo.startDate.compareTo(vo.endDate) >= 0) {
@@ -70,76 +77,32 @@ public class OrderBL implements OrderBLService {
         if (room == null || room.hotelId != vo.hotelId) {
             return new PriceVO("客房类型不存在，请重新选择");
         } else {
-            int roomCount = room.total;
-            ArrayList<OrderDetailVO> orders = getByHotel(vo.hotelId);
-            roomCount -= orders.stream()
-                    .filter(order -> !order.state.equals(OrderState.FINISHED)
-                            && !order.state.equals(OrderState.RANKED)
-                            && !order.state.equals(OrderState.UNDO)
-                            && order.roomId == vo.roomId
-                            && order.startDate.compareTo(vo.endDate) < 0)
-                    .mapToInt(order -> order.roomCount).sum();
-            if (roomCount < vo.roomCount) {
-                return new PriceVO("客房数量不足");
+            try {
+                if (RoomInventory.getAvailable(room.id, room.total, vo.startDate, vo.endDate) < vo.roomCount) {
+                    return new PriceVO("客房数量不足");
+                }
+            } catch (Exception e) {
+                Logger.log(e);
+                return new PriceVO("发生数据库访问错误，请稍后重试");
             }
         }
 
         double originalPrice = vo.roomCount * room.price * vo.endDate.compareTo(vo.startDate);
-        // check hotel promotion
-        HotelPromotionVO hotelPromotion = null;
-        ArrayList<HotelPromotionVO> hpvos = new HotelPromotionBL().get(vo.hotelId);
-        for (HotelPromotionVO promo : hpvos) {
-            boolean available = false;
-            switch (promo.type) {
-                case MULTI_PROMOTION:
-                    if (vo.roomCount >= 3) { //三间或以上优惠
-                        available = true;
-                    }
-                    break;
-                case BIRTHDAY_PROMOTION:
-                    MemberVO member = new CustomerBL().getMemberInfo(vo.username);
-                    if (member.memberType.equals(MemberType.PERSONAL)
-                            && member.birthday.getMonthValue() == LocalDate.now().getMonthValue()
-                            && member.birthday.getDayOfMonth() == LocalDate.now().getDayOfMonth()) {
-                        available = true;
-                    }
-                    break;
-                case COMPANY_PROMOTION:
-                    MemberVO member2 = new CustomerBL().getMemberInfo(vo.username);
-                    if (member2.memberType.equals(MemberType.COMPANY) && promo.cooperation.contains(member2.companyName)) {
-                        available = true;
-                    }
-                    break;
-            }
-            if (promo.startTime.compareTo(LocalDate.now()) > 0 || promo.endTime.compareTo(LocalDate.now()) < 0) {
-                available = false;
-            }
-            if (available && (hotelPromotion == null || promo.promotion < hotelPromotion.promotion)) {
-                hotelPromotion = promo;
-            }
-        }
-
-        // check website promotion
-        WebsitePromotionVO websitePromotion = null;
-        ArrayList<WebsitePromotionVO> wpvos = new WebsitePromotionBL().get();
-        for (WebsitePromotionVO promo : wpvos) {
-            if (promo.type.equals(WebsitePromotionType.LEVEL_PROMOTION)) {
-                HotelVO hotel = new HotelBL().getDetail(vo.hotelId);
-                if (promo.areaId > 0 && hotel.areaId != promo.areaId) {
-                    continue;
-                }
-                for (double credit : promo.memberLevel.keySet()) {
-                    if (credits.get(0).creditResult >= credit && promo.memberLevel.get(credit) < promo.promotion) {
-                        promo.promotion = promo.memberLevel.get(credit);
-                    }
-                }
-            }
-            if (promo.startTime.compareTo(LocalDate.now()) > 0 || promo.endTime.compareTo(LocalDate.now()) < 0) {
-                continue;
-            }
-            if (websitePromotion == null || promo.promotion < websitePromotion.promotion) {
-                websitePromotion = promo;
+        // check promotions
+        HotelPromotionVO hotelPromotion;
+        WebsitePromotionVO websitePromotion;
+        try {
+            LocalDate today = LocalDate.now();
+            String username = vo.username;
+            hotelPromotion = PromotionEngine.getHotelPromotion(vo.hotelId, vo.roomCount, today, () -> new CustomerBL().getMemberInfo(username));
+            HotelVO hotel = new HotelBL().getDetail(vo.hotelId);
+            if (hotel == null) {
+                return new PriceVO("发生数据库访问错误，请稍后重试");
             }
+            websitePromotion = PromotionEngine.getWebsitePromotion(hotel.areaId, credit, today);
+        } catch (Exception e) {
+            Logger.log(e);
+            return new PriceVO("发生数据库访问错误，请稍后重试");
         }
 
         // calculate final price
@@ -158,8 +121,6 @@ public class OrderBL implements OrderBLService {
                 return null;
             }
         }
-        // "自动"检查异常订单
-        checkDelayed();
 
         try {
             PriceVO priceVO = getPrice(vo);
@@ -171,7 +132,14 @@ public class OrderBL implements OrderBLService {
             }
             vo.state = OrderState.BOOKED;
             OrderPO po = OrderBL.toPO(vo);
-            orderDataService.insert(po);
+            HotelRoomVO room = new HotelRoomBL().getById(po.getRoomId());
+            if (room == null) {
+                return new ResultMessage("客房类型不存在，请重新选择");
+            }
+            // 价格计算后客房可能已被其他客户预订，预订时再次检查剩余数量
+            if (!RoomInventory.reserve(po, room.total)) {
+                return new ResultMessage("客房数量不足");
+            }
         } catch (Exception e) {
             Logger.log(e);
             return new ResultMessage(ResultMessage.RESULT_DB_ERROR);
@@ -189,18 +157,12 @@ public class OrderBL implements OrderBLService {
                 return new ArrayList<>();
             }
         }
-        // "自动"检查异常订单
-        checkDelayed();
-        ArrayList<OrderDetailVO> voarr = new ArrayList<>();
         try {
-            ArrayList<OrderPO> poarr = orderDataService.getByCustomer(username);
-            for(OrderPO po: poarr) {
-                voarr.add(toDetailVO(po));
-            }
+            return toDetailVOs(orderDataService.getByCustomer(username));
         } catch (Exception e) {
             Logger.log(e);
         }
-        return voarr;
+        return new ArrayList<>();
     }
 
     @Override
@@ -213,18 +175,12 @@ public class OrderBL implements OrderBLService {
                 return new ArrayList<>();
             }
         }
-        // "自动"检查异常订单
-        checkDelayed();
-        ArrayList<OrderDetailVO> voarr = new ArrayList<>();
         try {
-            ArrayList<OrderPO> poarr = orderDataService.getByHotel(hotelId);
-            for(OrderPO po: poarr) {
-                voarr.add(toDetailVO(po));
-            }
+            return toDetailVOs(orderDataService.getByHotel(hotelId));
         } catch (Exception e) {
             Logger.log(e);
         }
-        return voarr;
+        return new ArrayList<>();
     }
 
     @Override
@@ -233,18 +189,71 @@ public class OrderBL implements OrderBLService {
         if (session != null && !session.userType.equals(UserType.WEBSITE_MARKETER)) {
             return new ArrayList<>();
         }
-        // "自动"检查异常订单
-        checkDelayed();
-        ArrayList<OrderDetailVO> voarr = new ArrayList<>();
         try {
-            ArrayList<OrderPO> poarr = orderDataService.getByState(state);
-            for(OrderPO po: poarr) {
-                voarr.add(toDetailVO(po));
-            }
+            return toDetailVOs(orderDataService.getByState(state));
         } catch (Exception e) {
             Logger.log(e);
         }
-        return voarr;
+        return new ArrayList<>();
+    }
+
+    @Override
+    public OrderPageVO getPageByCustomer(String username, String cursor, int pageSize) {
+        // 安全性: 仅限客户访问自己的订单
+        if (session != null) {
+            if (session.userType.equals(UserType.CUSTOMER)) {
+                username = session.username;
+            } else {
+                return emptyPage();
+            }
+        }
+        return getPage(new OrderQuery().username(username), cursor, pageSize);
+    }
+
+    @Override
+    public OrderPageVO getPageByHotel(int hotelId, String cursor, int pageSize) {
+        // 安全性: 仅限酒店工作人与访问自己酒店的订单
+        if (session != null) {
+            if (session.userType.equals(UserType.HOTEL_STAFF)) {
+                hotelId = hotel.id;
+            } else {
+                return emptyPage();
+            }
+        }
+        return getPage(new OrderQuery().hotelId(hotelId), cursor, pageSize);
+    }
+
+    @Override
+    public OrderPageVO getPageByState(OrderState state, String cursor, int pageSize) {
+        // 安全性: 仅限网站营销人员访问
+        if (session != null && !session.userType.equals(UserType.WEBSITE_MARKETER)) {
+            return emptyPage();
+        }
+        return getPage(new OrderQuery().states(EnumSet.of(state)), cursor, pageSize);
+    }
+
+    @Override
+    public OrderPageVO query(OrderQueryVO vo) {
+        OrderQuery query = new OrderQuery()
+                .username(vo.username)
+                .hotelId(vo.hotelId)
+                .roomId(vo.roomId)
+                .states(vo.states == null || vo.states.isEmpty() ? null : vo.states)
+                .startFrom(vo.startFrom)
+                .startTo(vo.startTo)
+                .endFrom(vo.endFrom)
+                .endTo(vo.endTo);
+        // 安全性: 与 getByCustomer、getByHotel、getByState 相同，客户只能查询自己的订单，酒店工作人员只能查询自己酒店的订单
+        if (session != null) {
+            if (session.userType.equals(UserType.CUSTOMER)) {
+                query.username(session.username);
+            } else if (session.userType.equals(UserType.HOTEL_STAFF) && hotel != null) {
+                query.hotelId(hotel.id);
+            } else if (!session.userType.equals(UserType.WEBSITE_MARKETER)) {
+                return emptyPage();
+            }
+        }
+        return getPage(query, vo.cursor, vo.pageSize);
     }
 
     @Override
@@ -253,8 +262,6 @@ public class OrderBL implements OrderBLService {
         if (session != null && !session.userType.equals(UserType.WEBSITE_MARKETER)) {
             return new ResultMessage(ResultMessage.RESULT_ACCESS_DENIED);
         }
-        // "自动"检查异常订单
-        checkDelayed();
         try {
             OrderPO po = orderDataService.getById(orderId);
             // 订单状态必须为"异常"才可调用此方法
@@ -263,6 +270,7 @@ public class OrderBL implements OrderBLService {
             }
             po.setState(OrderState.UNDO);
             orderDataService.update(po);
+            RoomInventory.release(po.getRoomId(), po.getStartDate(), po.getEndDate(), po.getRoomCount());
             // 增添的信用值为订单的原价或者一半
             double currRate = returnAllCredit ? CreditRecordBL.UNDO_DELAYED_RATE[1] : CreditRecordBL.UNDO_DELAYED_RATE[0];
             new CreditRecordBL().add(new CreditRecordVO(0, po.getUsername(), null, orderId, CreditAction.ORDER_UNDO, po.getPrice() * currRate, 0));
@@ -278,8 +286,6 @@ public class OrderBL implements OrderBLService {
 
     @Override
     public ResultMessage undoUnfinished(int orderId) {
-        // "自动"检查异常订单
-        checkDelayed();
         try {
             OrderPO po = orderDataService.getById(orderId);
             // 安全性: 仅允许撤销自己的订单
@@ -292,6 +298,7 @@ public class OrderBL implements OrderBLService {
             }
             po.setState(OrderState.UNDO);
             orderDataService.update(po);
+            RoomInventory.release(po.getRoomId(), po.getStartDate(), po.getEndDate(), po.getRoomCount());
             // 如果撤销的订单距离最晚订单执行时间不足6个小时，撤销的同时扣除用户的信用值
             LocalDateTime latestAvaliableTime = LocalDateTime.of(po.getStartDate(), LocalTime.of(24 - LATEST_CHECKIN_TIME_GAP, 0));
             if (LocalDateTime.now().compareTo(latestAvaliableTime) > 0) {
@@ -309,8 +316,6 @@ public class OrderBL implements OrderBLService {
 
     @Override
     public ResultMessage checkin(int orderId) {
-        // "自动"检查异常订单
-        checkDelayed();
         try {
             OrderPO po = orderDataService.getById(orderId);
             // 安全性: 仅允许操作对应酒店的订单
@@ -320,9 +325,14 @@ public class OrderBL implements OrderBLService {
             if (po.getState() != OrderState.BOOKED && po.getState() != OrderState.DELAYED) {
                 return new ResultMessage("该订单无法办理入住");
             }
+            LocalDate bookedStart = po.getStartDate();
             po.setStartDate(LocalDate.now());
             po.setState(OrderState.UNFINISHED);
             orderDataService.update(po);
+            // 提前入住时占用提前的日期
+            if (po.getStartDate().isBefore(bookedStart)) {
+                RoomInventory.book(po.getRoomId(), po.getStartDate(), bookedStart, po.getRoomCount());
+            }
             // 返还信用值
             CreditRecordBLService creditBL = new CreditRecordBL();
             if (po.getState().equals(OrderState.DELAYED)) {
@@ -342,7 +352,6 @@ public class OrderBL implements OrderBLService {
 
     @Override
     public ResultMessage checkout(int orderId) {
-        checkDelayed();
         try {
             OrderPO po = orderDataService.getById(orderId);
             // 安全性: 仅允许操作对应酒店的订单
@@ -352,9 +361,12 @@ public class OrderBL implements OrderBLService {
             if (po.getState() != OrderState.UNFINISHED) {
                 return new ResultMessage("该订单未入住，无法退房");
             }
+            LocalDate bookedEnd = po.getEndDate();
             po.setEndDate(LocalDate.now());
             po.setState(OrderState.FINISHED);
             orderDataService.update(po);
+            // 提前退房时释放剩余的日期
+            RoomInventory.release(po.getRoomId(), po.getEndDate(), bookedEnd, po.getRoomCount());
         } catch (NullPointerException e) {
             Logger.log(e);
             return new ResultMessage("订单不存在，请确认订单信息");
@@ -383,6 +395,7 @@ public class OrderBL implements OrderBLService {
             po.setRank(vo.rank);
             po.setComment(vo.comment);
             orderDataService.update(po);
+            HotelStats.rankAdded(po.getHotelId(), vo.rank);
         } catch (NullPointerException e) {
             Logger.log(e);
             return new ResultMessage("订单不存在，请确认订单信息");
@@ -393,33 +406,68 @@ public class OrderBL implements OrderBLService {
         return new ResultMessage(ResultMessage.RESULT_SUCCESS);
     }
 
-    private void checkDelayed() {
+    public static OrderVO toVO(OrderPO po) {
+        return new OrderVO(po.getId(), po.getUsername(), po.getHotelId(), po.getStartDate(), po.getEndDate(), po.getRoomId(), po.getRoomCount(), po.getPersonCount(), JsonCodec.fromJson(po.getPersons(), JsonCodec.STRING_LIST), po.isHasChildren(), po.getPrice(), po.getState(), po.getRank(), po.getComment());
+    }
+
+    /**
+     * 批量转换订单，所涉及的酒店与客房信息各只查询一次
+     */
+    private static ArrayList<OrderDetailVO> toDetailVOs(ArrayList<OrderPO> poarr) throws Exception {
+        HashSet<Integer> hotelIds = new HashSet<>();
+        HashSet<Integer> roomIds = new HashSet<>();
+        for (OrderPO po : poarr) {
+            hotelIds.add(po.getHotelId());
+            roomIds.add(po.getRoomId());
+        }
+        HashMap<Integer, HotelVO> hotels = new HotelBL().getDetails(hotelIds);
+        HashMap<Integer, HotelRoomVO> rooms = new HotelRoomBL().getByIds(roomIds);
+        ArrayList<OrderDetailVO> voarr = new ArrayList<>(poarr.size());
+        for (OrderPO po : poarr) {
+            voarr.add(new OrderDetailVO(po.getId(), po.getUsername(), hotels.get(po.getHotelId()), po.getStartDate(), po.getEndDate(), rooms.get(po.getRoomId()), po.getRoomCount(), JsonCodec.<ArrayList<String>>fromJson(po.getPersons(), JsonCodec.STRING_LIST), po.isHasChildren(), po.getPrice(), po.getState(), po.getRank(), po.getComment()));
+        }
+        return voarr;
+    }
+
+    /**
+     * 读取一页订单。分页游标为上一页最后一个订单的 "入住日期:订单编号"，
+     * 下一页从该订单之后开始读取，因此翻页期间新增或删除订单不会使结果重复或遗漏
+     */
+    private OrderPageVO getPage(OrderQuery query, String cursor, int pageSize) {
+        LocalDate afterDate = null;
+        int afterId = 0;
+        if (cursor != null) {
+            int colon = cursor.indexOf(':');
+            try {
+                afterDate = LocalDate.parse(cursor.substring(0, colon));
+                afterId = Integer.parseInt(cursor.substring(colon + 1));
+            } catch (RuntimeException e) {
+                return emptyPage();
+            }
+        }
+        int limit = pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
         try {
-            ArrayList<OrderPO> orders = orderDataService.getByState(OrderState.BOOKED);
-            for (OrderPO order : orders) {
-                if (LocalDate.now().compareTo(order.getStartDate()) > 0) {
-                    order.setState(OrderState.DELAYED);
-                    orderDataService.update(order);
-                    new CreditRecordBL().add(new CreditRecordVO(0, order.getUsername(), null, order.getId(), CreditAction.ORDER_DELAYED, order.getPrice() * CreditRecordBL.DELAYED_RATE, 0));
-                }
+            // 多读取一个订单以判断是否还有下一页
+            ArrayList<OrderPO> poarr = orderDataService.query(query, afterDate, afterId, limit + 1);
+            String nextCursor = null;
+            if (poarr.size() > limit) {
+                poarr = new ArrayList<>(poarr.subList(0, limit));
+                OrderPO last = poarr.get(limit - 1);
+                nextCursor = last.getStartDate() + ":" + last.getId();
             }
+            return new OrderPageVO(toDetailVOs(poarr), orderDataService.count(query), nextCursor);
         } catch (Exception e) {
             Logger.log(e);
         }
+        return emptyPage();
     }
 
-    public static OrderVO toVO(OrderPO po) {
-        return new OrderVO(po.getId(), po.getUsername(), po.getHotelId(), po.getStartDate(), po.getEndDate(), po.getRoomId(), po.getRoomCount(), po.getPersonCount(), new Gson().fromJson(po.getPersons(), new TypeToken<ArrayList<String>>(){}.getType()), po.isHasChildren(), po.getPrice(), po.getState(), po.getRank(), po.getComment());
-    }
-
-    private static OrderDetailVO toDetailVO(OrderPO po) {
-        HotelVO hotel = new HotelBL().getDetail(po.getHotelId());
-        HotelRoomVO room = new HotelRoomBL().getById(po.getRoomId());
-        return new OrderDetailVO(po.getId(), po.getUsername(), hotel, po.getStartDate(), po.getEndDate(), room, po.getRoomCount(), new Gson().fromJson(po.getPersons(), new TypeToken<ArrayList<String>>(){}.getType()), po.isHasChildren(), po.getPrice(), po.getState(), po.getRank(), po.getComment());
+    private static OrderPageVO emptyPage() {
+        return new OrderPageVO(new ArrayList<>(), 0, null);
     }
 
     private static OrderPO toPO(OrderVO vo) {
-        return new OrderPO(vo.id, vo.username, vo.hotelId, vo.startDate, vo.endDate, vo.roomId, vo.roomCount, vo.personCount, new Gson().toJson(vo.persons), vo.hasChildren, vo.price, vo.state, vo.rank, vo.comment);
+        return new OrderPO(vo.id, vo.username, vo.hotelId, vo.startDate, vo.endDate, vo.roomId, vo.roomCount, vo.personCount, JsonCodec.toJson(vo.persons), vo.hasChildren, vo.price, vo.state, vo.rank, vo.comment);
     }
 
 }
@@ -0,0 +1,345 @@
+package nju.quadra.hms.bl;
+
+import nju.quadra.hms.data.DataServiceFactory;
+import nju.quadra.hms.model.HotelPromotionType;
+import nju.quadra.hms.model.MemberType;
+import nju.quadra.hms.model.WebsitePromotionType;
+import nju.quadra.hms.po.HotelPromotionPO;
+import nju.quadra.hms.po.WebsitePromotionPO;
+import nju.quadra.hms.util.JsonCodec;
+import nju.quadra.hms.util.Logger;
+import nju.quadra.hms.vo.HotelPromotionVO;
+import nju.quadra.hms.vo.MemberVO;
+import nju.quadra.hms.vo.WebsitePromotionVO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 促销策略计算
+ * 促销策略编译为不可变的规则集后缓存：酒店促销按酒店编号索引，网站促销按商圈编号索引，
+ * 规则集内按起始日期排序以便查找有效期内的规则；促销策略被修改后只重新编译受影响的规则集
+ */
+final class PromotionEngine {
+
+    private static final ConcurrentHashMap<Integer, RuleSet<HotelRule>> hotelRules = new ConcurrentHashMap<>();
+    private static volatile WebsiteRules websiteRules;
+
+    private PromotionEngine() {
+    }
+
+    /**
+     * 获得订单可用的折扣最大的酒店促销策略，折扣相同时取编号在前者
+     *
+     * @param hotelId   酒店编号
+     * @param roomCount 预订客房数量
+     * @param today     当前日期
+     * @param member    获取客户会员信息，仅在需要时调用
+     * @return 酒店促销策略，没有可用的促销策略时返回 null
+     * @throws Exception 数据库访问异常
+     */
+    static HotelPromotionVO getHotelPromotion(int hotelId, int roomCount, LocalDate today, Supplier<MemberVO> member) throws Exception {
+        RuleSet<HotelRule> rules = hotelRules.get(hotelId);
+        if (rules == null) {
+            rules = hotelRules.computeIfAbsent(hotelId, PromotionEngine::loadHotelRules);
+        }
+        HotelRule best = null;
+        MemberVO memberVO = null;
+        boolean memberLoaded = false;
+        for (HotelRule rule : rules.activeAt(today)) {
+            if (best != null && rule.vo.promotion >= best.vo.promotion) {
+                continue;
+            }
+            boolean available = false;
+            switch (rule.vo.type) {
+                case MULTI_PROMOTION:
+                    available = roomCount >= 3; //三间或以上优惠
+                    break;
+                case BIRTHDAY_PROMOTION:
+                case COMPANY_PROMOTION:
+                    if (!memberLoaded) {
+                        memberVO = member.get();
+                        memberLoaded = true;
+                    }
+                    available = rule.appliesTo(memberVO, today);
+                    break;
+            }
+            if (available) {
+                best = rule;
+            }
+        }
+        return best == null ? null : best.toVO();
+    }
+
+    /**
+     * 获得订单可用的折扣最大的网站促销策略，折扣相同时取编号在前者
+     * 会员等级促销的折扣为基础折扣与客户信用值所达到的各等级折扣中的最小值
+     *
+     * @param areaId 酒店所在商圈编号
+     * @param credit 客户当前信用值
+     * @param today  当前日期
+     * @return 网站促销策略，折扣为对该客户生效的折扣；没有可用的促销策略时返回 null
+     * @throws Exception 数据库访问异常
+     */
+    static WebsitePromotionVO getWebsitePromotion(int areaId, double credit, LocalDate today) throws Exception {
+        WebsiteRules rules = websiteRules;
+        if (rules == null) {
+            rules = reloadWebsiteRules();
+        }
+        WebsiteRule best = null;
+        double bestPromotion = 0;
+        for (RuleSet<WebsiteRule> ruleSet : rules.forArea(areaId)) {
+            for (WebsiteRule rule : ruleSet.activeAt(today)) {
+                double promotion = rule.promotionFor(credit);
+                if (best == null || promotion < bestPromotion || (promotion == bestPromotion && rule.vo.id < best.vo.id)) {
+                    best = rule;
+                    bestPromotion = promotion;
+                }
+            }
+        }
+        return best == null ? null : best.toVO(bestPromotion);
+    }
+
+    /**
+     * 酒店促销策略被修改后重新编译该酒店的规则集
+     */
+    static void reloadHotel(int hotelId) {
+        try {
+            hotelRules.compute(hotelId, (id, old) -> loadHotelRules(id));
+        } catch (RuntimeException e) {
+            hotelRules.remove(hotelId);
+            Logger.log(e);
+        }
+    }
+
+    /**
+     * 网站促销策略被修改后重新编译网站促销的规则集
+     */
+    static void reloadWebsite() {
+        try {
+            reloadWebsiteRules();
+        } catch (Exception e) {
+            websiteRules = null;
+            Logger.log(e);
+        }
+    }
+
+    private static RuleSet<HotelRule> loadHotelRules(int hotelId) {
+        ArrayList<HotelRule> rules = new ArrayList<>();
+        try {
+            for (HotelPromotionPO po : DataServiceFactory.getHotelPromotionDataService().get(hotelId)) {
+                rules.add(new HotelRule(po));
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return new RuleSet<>(rules);
+    }
+
+    private static synchronized WebsiteRules reloadWebsiteRules() throws Exception {
+        ArrayList<WebsiteRule> rules = new ArrayList<>();
+        for (WebsitePromotionPO po : DataServiceFactory.getWebsitePromotionDataService().getAll()) {
+            rules.add(new WebsiteRule(po));
+        }
+        WebsiteRules result = new WebsiteRules(rules);
+        websiteRules = result;
+        return result;
+    }
+
+    /**
+     * 按起始日期排序的规则集
+     */
+    private static class RuleSet<R extends Rule> {
+        private final R[] rules;
+        private final LocalDate[] startTimes;
+
+        @SuppressWarnings("unchecked")
+        private RuleSet(List<R> source) {
+            ArrayList<R> sorted = new ArrayList<>(source);
+            sorted.sort(Comparator.comparing(Rule::getStartTime));
+            rules = (R[]) sorted.toArray(new Rule[0]);
+            startTimes = new LocalDate[rules.length];
+            for (int i = 0; i < rules.length; i++) {
+                startTimes[i] = rules[i].getStartTime();
+            }
+        }
+
+        /**
+         * @return 在给定日期有效的规则，按编号排序
+         */
+        private List<R> activeAt(LocalDate date) {
+            // 起始日期晚于给定日期的规则位于数组末尾
+            int end = upperBound(date);
+            ArrayList<R> result = new ArrayList<>(end);
+            for (int i = 0; i < end; i++) {
+                if (rules[i].getEndTime().compareTo(date) >= 0) {
+                    result.add(rules[i]);
+                }
+            }
+            result.sort(Comparator.comparingInt(Rule::getId));
+            return result;
+        }
+
+        private int upperBound(LocalDate date) {
+            int low = 0, high = startTimes.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (startTimes[mid].compareTo(date) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private interface Rule {
+        int getId();
+
+        LocalDate getStartTime();
+
+        LocalDate getEndTime();
+    }
+
+    private static class HotelRule implements Rule {
+        private final HotelPromotionVO vo;
+        private final HashSet<String> cooperation;
+
+        private HotelRule(HotelPromotionPO po) {
+            ArrayList<String> companies = null;
+            if (po.getCooperation() != null && po.getType().equals(HotelPromotionType.COMPANY_PROMOTION)) {
+                companies = JsonCodec.fromJson(po.getCooperation(), JsonCodec.STRING_LIST);
+            }
+            vo = new HotelPromotionVO(po.getId(), po.getHotelId(), po.getName(), po.getType(), po.getStartTime(), po.getEndTime(), po.getPromotion(), companies);
+            cooperation = companies == null ? new HashSet<>() : new HashSet<>(companies);
+        }
+
+        private boolean appliesTo(MemberVO member, LocalDate today) {
+            if (member == null) {
+                return false;
+            }
+            switch (vo.type) {
+                case BIRTHDAY_PROMOTION:
+                    return member.memberType.equals(MemberType.PERSONAL)
+                            && member.birthday.getMonthValue() == today.getMonthValue()
+                            && member.birthday.getDayOfMonth() == today.getDayOfMonth();
+                case COMPANY_PROMOTION:
+                    return member.memberType.equals(MemberType.COMPANY) && cooperation.contains(member.companyName);
+                default:
+                    return false;
+            }
+        }
+
+        private HotelPromotionVO toVO() {
+            return new HotelPromotionVO(vo.id, vo.hotelId, vo.name, vo.type, vo.startTime, vo.endTime, vo.promotion,
+                    vo.cooperation == null ? null : new ArrayList<>(vo.cooperation));
+        }
+
+        @Override
+        public int getId() {
+            return vo.id;
+        }
+
+        @Override
+        public LocalDate getStartTime() {
+            return vo.startTime;
+        }
+
+        @Override
+        public LocalDate getEndTime() {
+            return vo.endTime;
+        }
+    }
+
+    private static class WebsiteRule implements Rule {
+        private final WebsitePromotionVO vo;
+        /**
+         * 信用值下限到该等级及以下各等级中最低折扣的映射
+         */
+        private final NavigableMap<Double, Double> levels = new TreeMap<>();
+
+        private WebsiteRule(WebsitePromotionPO po) {
+            vo = new WebsitePromotionVO(po.getId(), po.getName(), po.getType(), po.getStartTime(), po.getEndTime(), po.getPromotion(), po.getAreaId(),
+                    JsonCodec.fromJson(po.getMemberLevel(), JsonCodec.DOUBLE_MAP));
+            if (vo.type.equals(WebsitePromotionType.LEVEL_PROMOTION) && vo.memberLevel != null) {
+                double lowest = vo.promotion;
+                for (Map.Entry<Double, Double> level : new TreeMap<>(vo.memberLevel).entrySet()) {
+                    lowest = Math.min(lowest, level.getValue());
+                    levels.put(level.getKey(), lowest);
+                }
+            }
+        }
+
+        private double promotionFor(double credit) {
+            Map.Entry<Double, Double> level = levels.floorEntry(credit);
+            return level == null ? vo.promotion : level.getValue();
+        }
+
+        private WebsitePromotionVO toVO(double promotion) {
+            return new WebsitePromotionVO(vo.id, vo.name, vo.type, vo.startTime, vo.endTime, promotion, vo.areaId,
+                    vo.memberLevel == null ? null : new HashMap<>(vo.memberLevel));
+        }
+
+        @Override
+        public int getId() {
+            return vo.id;
+        }
+
+        @Override
+        public LocalDate getStartTime() {
+            return vo.startTime;
+        }
+
+        @Override
+        public LocalDate getEndTime() {
+            return vo.endTime;
+        }
+    }
+
+    /**
+     * 网站促销规则集：限定商圈的会员等级促销按商圈索引，其余促销对所有酒店有效
+     */
+    private static class WebsiteRules {
+        private final RuleSet<WebsiteRule> global;
+        private final HashMap<Integer, RuleSet<WebsiteRule>> byArea = new HashMap<>();
+
+        private WebsiteRules(List<WebsiteRule> rules) {
+            ArrayList<WebsiteRule> globalRules = new ArrayList<>();
+            HashMap<Integer, ArrayList<WebsiteRule>> areaRules = new HashMap<>();
+            for (WebsiteRule rule : rules) {
+                if (rule.vo.type.equals(WebsitePromotionType.LEVEL_PROMOTION) && rule.vo.areaId > 0) {
+                    areaRules.computeIfAbsent(rule.vo.areaId, k -> new ArrayList<>()).add(rule);
+                } else {
+                    globalRules.add(rule);
+                }
+            }
+            global = new RuleSet<>(globalRules);
+            for (Map.Entry<Integer, ArrayList<WebsiteRule>> area : areaRules.entrySet()) {
+                byArea.put(area.getKey(), new RuleSet<>(area.getValue()));
+            }
+        }
+
+        private List<RuleSet<WebsiteRule>> forArea(int areaId) {
+            RuleSet<WebsiteRule> area = byArea.get(areaId);
+            if (area == null) {
+                return Collections.singletonList(global);
+            }
+            ArrayList<RuleSet<WebsiteRule>> result = new ArrayList<>(2);
+            result.add(global);
+            result.add(area);
+            return result;
+        }
+    }
+
+}
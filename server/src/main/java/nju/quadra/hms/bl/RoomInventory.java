@@ -0,0 +1,138 @@
+package nju.quadra.hms.bl;
+
+import nju.quadra.hms.data.DataServiceFactory;
+import nju.quadra.hms.po.OrderPO;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 客房库存台账
+ * 以 (客房, 日期) 为键记录每晚已预订的客房数量，内存索引按客房懒加载，所有变更同时写入数据库。
+ * 同一客房的变更按客房编号分段加锁依次执行，不同客房的预订可以并行
+ */
+class RoomInventory {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final ConcurrentHashMap<Integer, ConcurrentHashMap<LocalDate, Integer>> ledgers = new ConcurrentHashMap<>();
+    private static final Object[] locks = new Object[LOCK_STRIPES];
+
+    static {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    private RoomInventory() {
+    }
+
+    /**
+     * 获得某客房在 [start, end) 期间每晚都能提供的最大数量
+     *
+     * @param roomId 客房编号
+     * @param total  客房总数量
+     * @param start  入住日期
+     * @param end    离开日期
+     * @return 可预订数量
+     * @throws Exception 数据库访问异常
+     */
+    static int getAvailable(int roomId, int total, LocalDate start, LocalDate end) throws Exception {
+        ConcurrentHashMap<LocalDate, Integer> nights = getLedger(roomId);
+        int maxBooked = 0;
+        for (LocalDate night = start; night.isBefore(end); night = night.plusDays(1)) {
+            maxBooked = Math.max(maxBooked, nights.getOrDefault(night, 0));
+        }
+        return total - maxBooked;
+    }
+
+    /**
+     * 预订客房：检查剩余数量、添加订单与占用客房作为一个整体执行
+     * 数据层在事务中锁定台账记录后再次检查，因此多个服务器同时预订同一客房时也不会超订
+     *
+     * @param po    订单
+     * @param total 客房总数量
+     * @return 剩余数量足够并已添加订单时返回 true
+     * @throws Exception 数据库访问异常
+     */
+    static boolean reserve(OrderPO po, int total) throws Exception {
+        int roomId = po.getRoomId();
+        synchronized (lockOf(roomId)) {
+            if (getAvailable(roomId, total, po.getStartDate(), po.getEndDate()) < po.getRoomCount()) {
+                return false;
+            }
+            if (!DataServiceFactory.getRoomInventoryDataService().reserve(po, total)) {
+                // 数据库中的台账已被其他服务器修改，下次使用时重新加载
+                ledgers.remove(roomId);
+                return false;
+            }
+            addBooked(getLedger(roomId), po.getStartDate(), po.getEndDate(), po.getRoomCount());
+            return true;
+        }
+    }
+
+    /**
+     * 占用某客房在 [start, end) 每晚的 count 间客房
+     */
+    static void book(int roomId, LocalDate start, LocalDate end, int count) throws Exception {
+        adjust(roomId, start, end, count);
+    }
+
+    /**
+     * 释放某客房在 [start, end) 每晚的 count 间客房，已过去的日期不再处理
+     */
+    static void release(int roomId, LocalDate start, LocalDate end, int count) throws Exception {
+        LocalDate today = LocalDate.now();
+        adjust(roomId, start.isBefore(today) ? today : start, end, -count);
+    }
+
+    /**
+     * 客房被删除时清除其台账
+     */
+    static void remove(int roomId) throws Exception {
+        synchronized (lockOf(roomId)) {
+            DataServiceFactory.getRoomInventoryDataService().delete(roomId);
+            ledgers.remove(roomId);
+        }
+    }
+
+    private static void adjust(int roomId, LocalDate start, LocalDate end, int diff) throws Exception {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        synchronized (lockOf(roomId)) {
+            ConcurrentHashMap<LocalDate, Integer> nights = getLedger(roomId);
+            DataServiceFactory.getRoomInventoryDataService().adjust(roomId, start, end, diff);
+            addBooked(nights, start, end, diff);
+        }
+    }
+
+    private static void addBooked(ConcurrentHashMap<LocalDate, Integer> nights, LocalDate start, LocalDate end, int diff) {
+        for (LocalDate night = start; night.isBefore(end); night = night.plusDays(1)) {
+            nights.compute(night, (k, booked) -> {
+                int result = (booked == null ? 0 : booked) + diff;
+                return result > 0 ? result : null;
+            });
+        }
+        // 已过去的日期不再参与库存计算
+        LocalDate today = LocalDate.now();
+        nights.keySet().removeIf(night -> night.isBefore(today));
+    }
+
+    private static Object lockOf(int roomId) {
+        return locks[Math.floorMod(roomId, LOCK_STRIPES)];
+    }
+
+    private static ConcurrentHashMap<LocalDate, Integer> getLedger(int roomId) throws Exception {
+        ConcurrentHashMap<LocalDate, Integer> nights = ledgers.get(roomId);
+        if (nights == null) {
+            ConcurrentHashMap<LocalDate, Integer> loaded = new ConcurrentHashMap<>(DataServiceFactory.getRoomInventoryDataService().get(roomId, LocalDate.now()));
+            nights = ledgers.putIfAbsent(roomId, loaded);
+            if (nights == null) {
+                nights = loaded;
+            }
+        }
+        return nights;
+    }
+
+}
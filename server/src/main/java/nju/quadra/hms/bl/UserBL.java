@@ -2,7 +2,7 @@ package nju.quadra.hms.bl;
 
 import nju.quadra.hms.util.Logger;
 import nju.quadra.hms.blservice.UserBLService;
-import nju.quadra.hms.data.mysql.UserDataServiceImpl;
+import nju.quadra.hms.data.DataServiceFactory;
 import nju.quadra.hms.dataservice.UserDataService;
 import nju.quadra.hms.model.LoginSession;
 import nju.quadra.hms.model.MemberType;
@@ -16,7 +16,7 @@ import java.util.ArrayList;
 
 public class UserBL implements UserBLService {
     private final LoginSession session;
-    private final UserDataService userDataService = new UserDataServiceImpl();
+    private final UserDataService userDataService = DataServiceFactory.getUserDataService();
 
     public UserBL() {
         session = null;
@@ -1,10 +1,9 @@
 package nju.quadra.hms.bl;
 
+import nju.quadra.hms.util.JsonCodec;
 import nju.quadra.hms.util.Logger;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import nju.quadra.hms.blservice.WebsitePromotionBLService;
-import nju.quadra.hms.data.mysql.WebsitePromotionDataServiceImpl;
+import nju.quadra.hms.data.DataServiceFactory;
 import nju.quadra.hms.dataservice.WebsitePromotionDataService;
 import nju.quadra.hms.model.LoginSession;
 import nju.quadra.hms.model.ResultMessage;
@@ -13,11 +12,10 @@ import nju.quadra.hms.po.WebsitePromotionPO;
 import nju.quadra.hms.vo.WebsitePromotionVO;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 public class WebsitePromotionBL implements WebsitePromotionBLService {
     private final LoginSession session;
-    private final WebsitePromotionDataService websitePromotionDataService = new WebsitePromotionDataServiceImpl();
+    private final WebsitePromotionDataService websitePromotionDataService = DataServiceFactory.getWebsitePromotionDataService();
 
     public WebsitePromotionBL() {
         session = null;
@@ -64,6 +62,7 @@ public class WebsitePromotionBL implements WebsitePromotionBLService {
         WebsitePromotionPO po = WebsitePromotionBL.toPO(vo);
         try {
             websitePromotionDataService.insert(po);
+            PromotionEngine.reloadWebsite();
             return new ResultMessage(ResultMessage.RESULT_SUCCESS);
         } catch (Exception e) {
             Logger.log(e);
@@ -81,6 +80,7 @@ public class WebsitePromotionBL implements WebsitePromotionBLService {
         try {
             WebsitePromotionPO po = websitePromotionDataService.getById(promotionId);
             websitePromotionDataService.delete(po);
+            PromotionEngine.reloadWebsite();
             return new ResultMessage(ResultMessage.RESULT_SUCCESS);
         } catch (Exception e) {
             Logger.log(e);
@@ -103,6 +103,7 @@ public class WebsitePromotionBL implements WebsitePromotionBLService {
         WebsitePromotionPO po = WebsitePromotionBL.toPO(vo);
         try {
             websitePromotionDataService.update(po);
+            PromotionEngine.reloadWebsite();
             return new ResultMessage(ResultMessage.RESULT_SUCCESS);
         } catch (Exception e) {
             Logger.log(e);
@@ -124,10 +125,10 @@ public class WebsitePromotionBL implements WebsitePromotionBLService {
     }
 
     private static WebsitePromotionVO toVO(WebsitePromotionPO po) {
-        return new WebsitePromotionVO(po.getId(), po.getName(), po.getType(), po.getStartTime(), po.getEndTime(), po.getPromotion(), po.getAreaId(), new Gson().fromJson(po.getMemberLevel(), new TypeToken<HashMap<Double, Double>>(){}.getType()));
+        return new WebsitePromotionVO(po.getId(), po.getName(), po.getType(), po.getStartTime(), po.getEndTime(), po.getPromotion(), po.getAreaId(), JsonCodec.fromJson(po.getMemberLevel(), JsonCodec.DOUBLE_MAP));
     }
 
     private static WebsitePromotionPO toPO(WebsitePromotionVO vo) {
-        return new WebsitePromotionPO(vo.id, vo.name, vo.type, vo.startTime, vo.endTime, vo.promotion, vo.areaId, new Gson().toJson(vo.memberLevel));
+        return new WebsitePromotionPO(vo.id, vo.name, vo.type, vo.startTime, vo.endTime, vo.promotion, vo.areaId, JsonCodec.toJson(vo.memberLevel));
     }
 }
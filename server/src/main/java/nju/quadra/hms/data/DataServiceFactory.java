@@ -0,0 +1,91 @@
+package nju.quadra.hms.data;
+
+import nju.quadra.hms.data.cache.CachingDataServiceProvider;
+import nju.quadra.hms.data.memory.MemoryDataServiceProvider;
+import nju.quadra.hms.data.mysql.MySQLDataServiceProvider;
+import nju.quadra.hms.dataservice.*;
+import nju.quadra.hms.util.ServerConfig;
+
+/**
+ * 数据层服务工厂
+ * 业务逻辑层通过此类获得数据层服务，默认实现由服务器配置中的 dataBackend 决定，
+ * 统计各数据层方法的耗时，配置了 entityCacheSize 时在其上加入实体缓存；也可以替换为其他实现
+ */
+public class DataServiceFactory {
+
+    private static volatile DataServiceProvider provider;
+
+    private DataServiceFactory() {
+    }
+
+    /**
+     * 替换数据层实现，之后创建的业务逻辑对象将使用新的实现
+     *
+     * @param provider 数据层实现
+     */
+    public static void setProvider(DataServiceProvider provider) {
+        DataServiceFactory.provider = provider;
+    }
+
+    public static CreditDataService getCreditDataService() {
+        return getProvider().getCreditDataService();
+    }
+
+    public static HotelDataService getHotelDataService() {
+        return getProvider().getHotelDataService();
+    }
+
+    public static HotelPromotionDataService getHotelPromotionDataService() {
+        return getProvider().getHotelPromotionDataService();
+    }
+
+    public static HotelRoomDataService getHotelRoomDataService() {
+        return getProvider().getHotelRoomDataService();
+    }
+
+    public static OrderDataService getOrderDataService() {
+        return getProvider().getOrderDataService();
+    }
+
+    public static RoomInventoryDataService getRoomInventoryDataService() {
+        return getProvider().getRoomInventoryDataService();
+    }
+
+    public static UserDataService getUserDataService() {
+        return getProvider().getUserDataService();
+    }
+
+    public static WebsitePromotionDataService getWebsitePromotionDataService() {
+        return getProvider().getWebsitePromotionDataService();
+    }
+
+    private static DataServiceProvider getProvider() {
+        DataServiceProvider p = provider;
+        if (p == null) {
+            synchronized (DataServiceFactory.class) {
+                p = provider;
+                if (p == null) {
+                    p = createDefault();
+                    provider = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    private static DataServiceProvider createDefault() {
+        ServerConfig config = ServerConfig.getConfig();
+        DataServiceProvider backend;
+        if (ServerConfig.BACKEND_MEMORY.equals(config.getDataBackend())) {
+            backend = new MemoryDataServiceProvider();
+        } else {
+            backend = new MySQLDataServiceProvider();
+        }
+        backend = new TimedDataServiceProvider(backend);
+        if (config.getEntityCacheSize() > 0) {
+            return new CachingDataServiceProvider(backend, config.getEntityCacheSize(), config.getEntityCacheTtl());
+        }
+        return backend;
+    }
+
+}
@@ -0,0 +1,26 @@
+package nju.quadra.hms.data;
+
+import nju.quadra.hms.dataservice.*;
+
+/**
+ * 一组数据层服务的实现
+ */
+public interface DataServiceProvider {
+
+    CreditDataService getCreditDataService();
+
+    HotelDataService getHotelDataService();
+
+    HotelPromotionDataService getHotelPromotionDataService();
+
+    HotelRoomDataService getHotelRoomDataService();
+
+    OrderDataService getOrderDataService();
+
+    RoomInventoryDataService getRoomInventoryDataService();
+
+    UserDataService getUserDataService();
+
+    WebsitePromotionDataService getWebsitePromotionDataService();
+
+}
@@ -0,0 +1,58 @@
+package nju.quadra.hms.data;
+
+import nju.quadra.hms.po.*;
+
+/**
+ * 复制各类 PO，复制出的对象视为刚从数据库读出，已开始跟踪修改
+ * 内存数据层与实体缓存使用复制的对象，避免调用者的修改影响保存的数据
+ */
+public final class Rows {
+
+    private Rows() {
+    }
+
+    public static AreaPO copy(AreaPO po) {
+        return new AreaPO(po.getId(), po.getCityName(), po.getAreaName());
+    }
+
+    public static CreditRecordPO copy(CreditRecordPO po) {
+        return new CreditRecordPO(po.getId(), po.getUsername(), po.getTimestamp(), po.getOrderId(), po.getAction(), po.getDiff());
+    }
+
+    public static HotelPO copy(HotelPO po) {
+        HotelPO copy = new HotelPO(po.getId(), po.getName(), po.getAreaId(), po.getAddress(), po.getDescription(), po.getFacilities(), po.getStar(), po.getStaff());
+        copy.markClean();
+        return copy;
+    }
+
+    public static HotelPromotionPO copy(HotelPromotionPO po) {
+        HotelPromotionPO copy = new HotelPromotionPO(po.getId(), po.getHotelId(), po.getName(), po.getType(), po.getStartTime(), po.getEndTime(), po.getPromotion(), po.getCooperation());
+        copy.markClean();
+        return copy;
+    }
+
+    public static HotelRoomPO copy(HotelRoomPO po) {
+        HotelRoomPO copy = new HotelRoomPO(po.getId(), po.getHotelId(), po.getName(), po.getTotal(), po.getPrice());
+        copy.markClean();
+        return copy;
+    }
+
+    public static OrderPO copy(OrderPO po) {
+        OrderPO copy = new OrderPO(po.getId(), po.getUsername(), po.getHotelId(), po.getStartDate(), po.getEndDate(), po.getRoomId(), po.getRoomCount(), po.getPersonCount(), po.getPersons(), po.isHasChildren(), po.getPrice(), po.getState(), po.getRank(), po.getComment());
+        copy.markClean();
+        return copy;
+    }
+
+    public static UserPO copy(UserPO po) {
+        UserPO copy = new UserPO(po.getUsername(), po.getPassword(), po.getName(), po.getContact(), po.getType(), po.getMemberType(), po.getBirthday(), po.getCompanyName());
+        copy.markClean();
+        return copy;
+    }
+
+    public static WebsitePromotionPO copy(WebsitePromotionPO po) {
+        WebsitePromotionPO copy = new WebsitePromotionPO(po.getId(), po.getName(), po.getType(), po.getStartTime(), po.getEndTime(), po.getPromotion(), po.getAreaId(), po.getMemberLevel());
+        copy.markClean();
+        return copy;
+    }
+
+}
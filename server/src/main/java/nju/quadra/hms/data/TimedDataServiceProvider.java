@@ -0,0 +1,111 @@
+package nju.quadra.hms.data;
+
+import nju.quadra.hms.dataservice.*;
+import nju.quadra.hms.util.Metrics;
+import nju.quadra.hms.util.MethodStats;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+
+/**
+ * 在另一个数据层实现之上统计每个数据层方法的调用次数、失败次数与耗时，统计结果见 Metrics
+ * 应直接包装访问数据库的实现，使统计的是数据库访问本身的耗时
+ */
+public class TimedDataServiceProvider implements DataServiceProvider {
+
+    private final CreditDataService creditDataService;
+    private final HotelDataService hotelDataService;
+    private final HotelPromotionDataService hotelPromotionDataService;
+    private final HotelRoomDataService hotelRoomDataService;
+    private final OrderDataService orderDataService;
+    private final RoomInventoryDataService roomInventoryDataService;
+    private final UserDataService userDataService;
+    private final WebsitePromotionDataService websitePromotionDataService;
+
+    /**
+     * @param delegate 原数据层实现
+     */
+    public TimedDataServiceProvider(DataServiceProvider delegate) {
+        creditDataService = timed(CreditDataService.class, delegate.getCreditDataService());
+        hotelDataService = timed(HotelDataService.class, delegate.getHotelDataService());
+        hotelPromotionDataService = timed(HotelPromotionDataService.class, delegate.getHotelPromotionDataService());
+        hotelRoomDataService = timed(HotelRoomDataService.class, delegate.getHotelRoomDataService());
+        orderDataService = timed(OrderDataService.class, delegate.getOrderDataService());
+        roomInventoryDataService = timed(RoomInventoryDataService.class, delegate.getRoomInventoryDataService());
+        userDataService = timed(UserDataService.class, delegate.getUserDataService());
+        websitePromotionDataService = timed(WebsitePromotionDataService.class, delegate.getWebsitePromotionDataService());
+    }
+
+    @Override
+    public CreditDataService getCreditDataService() {
+        return creditDataService;
+    }
+
+    @Override
+    public HotelDataService getHotelDataService() {
+        return hotelDataService;
+    }
+
+    @Override
+    public HotelPromotionDataService getHotelPromotionDataService() {
+        return hotelPromotionDataService;
+    }
+
+    @Override
+    public HotelRoomDataService getHotelRoomDataService() {
+        return hotelRoomDataService;
+    }
+
+    @Override
+    public OrderDataService getOrderDataService() {
+        return orderDataService;
+    }
+
+    @Override
+    public RoomInventoryDataService getRoomInventoryDataService() {
+        return roomInventoryDataService;
+    }
+
+    @Override
+    public UserDataService getUserDataService() {
+        return userDataService;
+    }
+
+    @Override
+    public WebsitePromotionDataService getWebsitePromotionDataService() {
+        return websitePromotionDataService;
+    }
+
+    /**
+     * 为数据层服务创建代理，统计名称为实现类名加方法名，例如 OrderDataServiceImpl.getByHotel
+     */
+    private static <T> T timed(Class<T> service, T impl) {
+        HashMap<Method, MethodStats> stats = new HashMap<>();
+        for (Method method : service.getMethods()) {
+            stats.put(method, Metrics.data(impl.getClass().getSimpleName() + "." + method.getName()));
+        }
+        InvocationHandler handler = (proxy, method, args) -> {
+            MethodStats methodStats = stats.get(method);
+            if (methodStats == null) {
+                // Object 的方法
+                return method.invoke(impl, args);
+            }
+            long start = methodStats.begin();
+            boolean success = false;
+            try {
+                Object result = method.invoke(impl, args);
+                success = true;
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                methodStats.end(start, success);
+            }
+        };
+        return service.cast(Proxy.newProxyInstance(service.getClassLoader(), new Class<?>[]{service}, handler));
+    }
+
+}
@@ -0,0 +1,50 @@
+package nju.quadra.hms.data.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.function.Function;
+
+/**
+ * 批量查询的缓存读取
+ */
+final class CachedLists {
+
+    private CachedLists() {
+    }
+
+    /**
+     * 先从缓存中读取各个实体，只对未命中的编号进行一次批量查询
+     *
+     * @param cache  实体缓存
+     * @param ids    编号集合
+     * @param loader 批量查询
+     * @param idOf   获取实体的编号
+     * @return 存在的实体，顺序不保证
+     */
+    static <V> ArrayList<V> getByIds(EntityCache<Integer, V> cache, Collection<Integer> ids, BulkLoader<V> loader, Function<V, Integer> idOf) throws Exception {
+        ArrayList<V> result = new ArrayList<>(ids.size());
+        LinkedHashSet<Integer> missing = new LinkedHashSet<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            V cached = cache.getIfPresent(id);
+            if (cached != null) {
+                result.add(cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long loadVersion = cache.beginLoad();
+            for (V value : loader.load(missing)) {
+                cache.put(idOf.apply(value), value, loadVersion);
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    interface BulkLoader<V> {
+        ArrayList<V> load(Collection<Integer> ids) throws Exception;
+    }
+
+}
@@ -0,0 +1,70 @@
+package nju.quadra.hms.data.cache;
+
+import nju.quadra.hms.data.DataServiceProvider;
+import nju.quadra.hms.dataservice.*;
+
+/**
+ * 在另一个数据层实现之上为酒店、客房与用户加入实体缓存
+ * 这些数据很少修改却被频繁按主键读取；写操作经过本层时同步使对应的缓存项失效，
+ * 因此数据库只能通过本层修改，其余服务直接使用原实现
+ */
+public class CachingDataServiceProvider implements DataServiceProvider {
+
+    private final DataServiceProvider delegate;
+    private final HotelDataService hotelDataService;
+    private final HotelRoomDataService hotelRoomDataService;
+    private final UserDataService userDataService;
+
+    /**
+     * @param delegate 原数据层实现
+     * @param maxSize  每个缓存的缓存项数量上限
+     * @param ttl      缓存项存活时间(ms)
+     */
+    public CachingDataServiceProvider(DataServiceProvider delegate, int maxSize, long ttl) {
+        this.delegate = delegate;
+        this.hotelDataService = new CachingHotelDataService(delegate.getHotelDataService(), maxSize, ttl);
+        this.hotelRoomDataService = new CachingHotelRoomDataService(delegate.getHotelRoomDataService(), maxSize, ttl);
+        this.userDataService = new CachingUserDataService(delegate.getUserDataService(), maxSize, ttl);
+    }
+
+    @Override
+    public CreditDataService getCreditDataService() {
+        return delegate.getCreditDataService();
+    }
+
+    @Override
+    public HotelDataService getHotelDataService() {
+        return hotelDataService;
+    }
+
+    @Override
+    public HotelPromotionDataService getHotelPromotionDataService() {
+        return delegate.getHotelPromotionDataService();
+    }
+
+    @Override
+    public HotelRoomDataService getHotelRoomDataService() {
+        return hotelRoomDataService;
+    }
+
+    @Override
+    public OrderDataService getOrderDataService() {
+        return delegate.getOrderDataService();
+    }
+
+    @Override
+    public RoomInventoryDataService getRoomInventoryDataService() {
+        return delegate.getRoomInventoryDataService();
+    }
+
+    @Override
+    public UserDataService getUserDataService() {
+        return userDataService;
+    }
+
+    @Override
+    public WebsitePromotionDataService getWebsitePromotionDataService() {
+        return delegate.getWebsitePromotionDataService();
+    }
+
+}
@@ -0,0 +1,93 @@
+package nju.quadra.hms.data.cache;
+
+import nju.quadra.hms.data.Rows;
+import nju.quadra.hms.dataservice.HotelDataService;
+import nju.quadra.hms.po.AreaPO;
+import nju.quadra.hms.po.HotelPO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * 带实体缓存的酒店数据服务，按编号与工作人员缓存单个酒店，列表查询直接访问数据库
+ */
+class CachingHotelDataService implements HotelDataService {
+
+    private final HotelDataService delegate;
+    private final EntityCache<Integer, HotelPO> byId;
+    private final EntityCache<String, HotelPO> byStaff;
+
+    CachingHotelDataService(HotelDataService delegate, int maxSize, long ttl) {
+        this.delegate = delegate;
+        this.byId = new EntityCache<>("hotel", maxSize, ttl, Rows::copy);
+        this.byStaff = new EntityCache<>("hotelByStaff", maxSize, ttl, Rows::copy);
+    }
+
+    @Override
+    public ArrayList<HotelPO> getAll() throws Exception {
+        return delegate.getAll();
+    }
+
+    @Override
+    public HotelPO getById(int id) throws Exception {
+        return byId.get(id, delegate::getById);
+    }
+
+    @Override
+    public ArrayList<HotelPO> getByIds(Collection<Integer> ids) throws Exception {
+        return CachedLists.getByIds(byId, ids, delegate::getByIds, HotelPO::getId);
+    }
+
+    @Override
+    public ArrayList<HotelPO> getByArea(int areaId) throws Exception {
+        return delegate.getByArea(areaId);
+    }
+
+    @Override
+    public HotelPO getByStaff(String staff) throws Exception {
+        if (staff == null) {
+            return delegate.getByStaff(null);
+        }
+        return byStaff.get(staff, delegate::getByStaff);
+    }
+
+    @Override
+    public ArrayList<AreaPO> getAllArea() throws Exception {
+        return delegate.getAllArea();
+    }
+
+    @Override
+    public void insert(HotelPO po) throws Exception {
+        try {
+            delegate.insert(po);
+        } finally {
+            byStaff.invalidate(po.getStaff());
+        }
+    }
+
+    @Override
+    public void delete(HotelPO po) throws Exception {
+        try {
+            delegate.delete(po);
+        } finally {
+            invalidate(po);
+        }
+    }
+
+    @Override
+    public void update(HotelPO po) throws Exception {
+        try {
+            delegate.update(po);
+        } finally {
+            invalidate(po);
+        }
+    }
+
+    private void invalidate(HotelPO po) {
+        byId.invalidate(po.getId());
+        // 工作人员可能被更换，原工作人员对应的缓存项也要失效
+        byStaff.invalidateIf(hotel -> hotel.getId() == po.getId());
+        byStaff.invalidate(po.getStaff());
+    }
+
+}
@@ -0,0 +1,61 @@
+package nju.quadra.hms.data.cache;
+
+import nju.quadra.hms.data.Rows;
+import nju.quadra.hms.dataservice.HotelRoomDataService;
+import nju.quadra.hms.po.HotelRoomPO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * 带实体缓存的客房数据服务，按编号缓存单个客房，酒店的客房列表直接访问数据库
+ */
+class CachingHotelRoomDataService implements HotelRoomDataService {
+
+    private final HotelRoomDataService delegate;
+    private final EntityCache<Integer, HotelRoomPO> byId;
+
+    CachingHotelRoomDataService(HotelRoomDataService delegate, int maxSize, long ttl) {
+        this.delegate = delegate;
+        this.byId = new EntityCache<>("hotelRoom", maxSize, ttl, Rows::copy);
+    }
+
+    @Override
+    public ArrayList<HotelRoomPO> get(int hotelId) throws Exception {
+        return delegate.get(hotelId);
+    }
+
+    @Override
+    public void insert(HotelRoomPO po) throws Exception {
+        delegate.insert(po);
+    }
+
+    @Override
+    public HotelRoomPO getById(int roomId) throws Exception {
+        return byId.get(roomId, delegate::getById);
+    }
+
+    @Override
+    public ArrayList<HotelRoomPO> getByIds(Collection<Integer> roomIds) throws Exception {
+        return CachedLists.getByIds(byId, roomIds, delegate::getByIds, HotelRoomPO::getId);
+    }
+
+    @Override
+    public void delete(HotelRoomPO po) throws Exception {
+        try {
+            delegate.delete(po);
+        } finally {
+            byId.invalidate(po.getId());
+        }
+    }
+
+    @Override
+    public void update(HotelRoomPO po) throws Exception {
+        try {
+            delegate.update(po);
+        } finally {
+            byId.invalidate(po.getId());
+        }
+    }
+
+}
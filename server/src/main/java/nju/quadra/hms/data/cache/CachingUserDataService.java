@@ -0,0 +1,62 @@
+package nju.quadra.hms.data.cache;
+
+import nju.quadra.hms.data.Rows;
+import nju.quadra.hms.dataservice.UserDataService;
+import nju.quadra.hms.po.UserPO;
+
+import java.util.ArrayList;
+
+/**
+ * 带实体缓存的用户数据服务，按用户名缓存单个用户，用户列表直接访问数据库
+ */
+class CachingUserDataService implements UserDataService {
+
+    private final UserDataService delegate;
+    private final EntityCache<String, UserPO> byUsername;
+
+    CachingUserDataService(UserDataService delegate, int maxSize, long ttl) {
+        this.delegate = delegate;
+        this.byUsername = new EntityCache<>("user", maxSize, ttl, Rows::copy);
+    }
+
+    @Override
+    public ArrayList<UserPO> getAll() throws Exception {
+        return delegate.getAll();
+    }
+
+    @Override
+    public UserPO get(String username) throws Exception {
+        if (username == null) {
+            return delegate.get(null);
+        }
+        return byUsername.get(username, delegate::get);
+    }
+
+    @Override
+    public void insert(UserPO po) throws Exception {
+        try {
+            delegate.insert(po);
+        } finally {
+            byUsername.invalidate(po.getUsername());
+        }
+    }
+
+    @Override
+    public void delete(UserPO po) throws Exception {
+        try {
+            delegate.delete(po);
+        } finally {
+            byUsername.invalidate(po.getUsername());
+        }
+    }
+
+    @Override
+    public void update(UserPO po) throws Exception {
+        try {
+            delegate.update(po);
+        } finally {
+            byUsername.invalidate(po.getUsername());
+        }
+    }
+
+}
@@ -0,0 +1,202 @@
+package nju.quadra.hms.data.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * 有界的实体缓存
+ * 缓存项超过存活时间后失效，数量超过上限时淘汰最早加入的项；保存与返回的都是复制出的对象。
+ * 读操作不加锁；写入与失效在缓存上同步，失效时递增版本号，加载期间版本号发生变化的结果不写入缓存，
+ * 因此数据被修改后不会再读到修改前的缓存
+ *
+ * @param <K> 主键类型
+ * @param <V> 实体类型
+ */
+public final class EntityCache<K, V> {
+
+    private static final ConcurrentHashMap<String, EntityCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    /**
+     * 缓存项的加入顺序，在缓存上同步访问
+     */
+    private final LinkedHashMap<K, Entry<V>> insertionOrder = new LinkedHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long version = 0;
+
+    /**
+     * @param name    缓存名称，用于统计信息
+     * @param maxSize 缓存项数量上限
+     * @param ttl     缓存项存活时间(ms)
+     * @param copier  复制一个实体
+     */
+    EntityCache(String name, int maxSize, long ttl, UnaryOperator<V> copier) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.copier = copier;
+        caches.put(name, this);
+    }
+
+    /**
+     * @return 最近创建的各个缓存
+     */
+    public static Collection<EntityCache<?, ?>> getCaches() {
+        return new ArrayList<>(caches.values());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return 因数量超过上限或过期而被淘汰的缓存项数量
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long hit = hits.sum(), total = hit + misses.sum();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    /**
+     * 读取缓存，未命中时调用 loader 加载并写入缓存
+     *
+     * @return 实体，不存在时为 null
+     */
+    V get(K key, Loader<K, V> loader) throws Exception {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadVersion = beginLoad();
+        V value = loader.load(key);
+        if (value != null) {
+            put(key, value, loadVersion);
+        }
+        return value;
+    }
+
+    /**
+     * 读取缓存并计入命中或未命中
+     *
+     * @return 缓存的实体，未命中时为 null
+     */
+    V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            if (System.nanoTime() - entry.expiresAt < 0) {
+                hits.increment();
+                return copier.apply(entry.value);
+            }
+            expire(key, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 开始从数据库加载实体
+     *
+     * @return 加载开始时的版本号，写入缓存时传给 put()
+     */
+    synchronized long beginLoad() {
+        return version;
+    }
+
+    /**
+     * 写入加载的实体，加载期间有数据被修改时放弃写入
+     */
+    synchronized void put(K key, V value, long loadVersion) {
+        if (version != loadVersion) {
+            return;
+        }
+        Entry<V> entry = new Entry<>(copier.apply(value), System.nanoTime() + ttlNanos);
+        entries.put(key, entry);
+        insertionOrder.remove(key);
+        insertionOrder.put(key, entry);
+        Iterator<Map.Entry<K, Entry<V>>> oldest = insertionOrder.entrySet().iterator();
+        while (insertionOrder.size() > maxSize && oldest.hasNext()) {
+            K oldestKey = oldest.next().getKey();
+            oldest.remove();
+            entries.remove(oldestKey);
+            evictions.increment();
+        }
+    }
+
+    /**
+     * 数据被修改后使对应的缓存项失效
+     */
+    synchronized void invalidate(K key) {
+        version++;
+        if (key != null) {
+            entries.remove(key);
+            insertionOrder.remove(key);
+        }
+    }
+
+    /**
+     * 数据被修改后使满足条件的缓存项失效
+     */
+    synchronized void invalidateIf(Predicate<V> predicate) {
+        version++;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = insertionOrder.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (predicate.test(entry.getValue().value)) {
+                iterator.remove();
+                entries.remove(entry.getKey());
+            }
+        }
+    }
+
+    private synchronized void expire(K key, Entry<V> entry) {
+        if (entries.remove(key, entry)) {
+            insertionOrder.remove(key);
+            evictions.increment();
+        }
+    }
+
+    interface Loader<K, V> {
+        V load(K key) throws Exception;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
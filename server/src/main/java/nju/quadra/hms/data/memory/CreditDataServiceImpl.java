@@ -0,0 +1,47 @@
+package nju.quadra.hms.data.memory;
+
+import nju.quadra.hms.data.Rows;
+import nju.quadra.hms.dataservice.CreditDataService;
+import nju.quadra.hms.po.CreditRecordPO;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CreditDataServiceImpl implements CreditDataService {
+
+    private static final Comparator<CreditRecordPO> LATEST_FIRST = Comparator.comparing(CreditRecordPO::getTimestamp)
+            .thenComparingInt(CreditRecordPO::getId).reversed();
+
+    private final Table<Integer, CreditRecordPO> records = new Table<>(CreditRecordPO::getId, Rows::copy, LATEST_FIRST);
+    private final Table<Integer, CreditRecordPO>.Index<String> byUsername = records.index(CreditRecordPO::getUsername);
+    private final ConcurrentHashMap<String, Double> totals = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    CreditDataServiceImpl() {
+    }
+
+    @Override
+    public ArrayList<CreditRecordPO> get(String username) {
+        return records.select(byUsername, username);
+    }
+
+    @Override
+    public double getTotalDiff(String username) {
+        return totals.getOrDefault(username, 0.0);
+    }
+
+    /**
+     * 与 MySQL 实现一致，编号与时间戳由数据层生成
+     */
+    @Override
+    public synchronized void insert(CreditRecordPO po) throws Exception {
+        records.insert(new CreditRecordPO(lastId.incrementAndGet(), po.getUsername(), LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+                po.getOrderId(), po.getAction(), po.getDiff()));
+        totals.merge(po.getUsername(), po.getDiff(), Double::sum);
+    }
+
+}
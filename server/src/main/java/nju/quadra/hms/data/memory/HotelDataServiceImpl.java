@@ -0,0 +1,92 @@
+package nju.quadra.hms.data.memory;
+
+import nju.quadra.hms.data.Rows;
+import nju.quadra.hms.dataservice.HotelDataService;
+import nju.quadra.hms.po.AreaPO;
+import nju.quadra.hms.po.HotelPO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HotelDataServiceImpl implements HotelDataService {
+
+    private final Table<Integer, HotelPO> hotels = new Table<>(HotelPO::getId, Rows::copy, Comparator.comparingInt(HotelPO::getId));
+    private final Table<Integer, HotelPO>.Index<Integer> byArea = hotels.index(HotelPO::getAreaId);
+    private final Table<Integer, HotelPO>.Index<String> byStaff = hotels.index(HotelPO::getStaff);
+    private final CopyOnWriteArrayList<AreaPO> areas = new CopyOnWriteArrayList<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    HotelDataServiceImpl() {
+    }
+
+    @Override
+    public ArrayList<HotelPO> getAll() {
+        return hotels.getAll();
+    }
+
+    @Override
+    public HotelPO getById(int id) {
+        return hotels.get(id);
+    }
+
+    @Override
+    public ArrayList<HotelPO> getByIds(Collection<Integer> ids) {
+        ArrayList<HotelPO> result = new ArrayList<>();
+        for (int id : ids) {
+            HotelPO po = hotels.get(id);
+            if (po != null) {
+                result.add(po);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public ArrayList<HotelPO> getByArea(int areaId) {
+        return hotels.select(byArea, areaId);
+    }
+
+    @Override
+    public HotelPO getByStaff(String staff) {
+        return hotels.selectOne(byStaff, staff);
+    }
+
+    @Override
+    public ArrayList<AreaPO> getAllArea() {
+        ArrayList<AreaPO> result = new ArrayList<>();
+        for (AreaPO po : areas) {
+            result.add(Rows.copy(po));
+        }
+        result.sort(Comparator.comparing(AreaPO::getCityName));
+        return result;
+    }
+
+    /**
+     * 商圈数据没有对应的数据层接口，由初始化数据时直接添加
+     */
+    void insertArea(AreaPO po) {
+        areas.add(Rows.copy(po));
+    }
+
+    @Override
+    public void insert(HotelPO po) throws Exception {
+        HotelPO row = Rows.copy(po);
+        row.setId(Sequences.next(lastId, po.getId()));
+        hotels.insert(row);
+    }
+
+    @Override
+    public void delete(HotelPO po) throws Exception {
+        hotels.delete(po.getId(), "Hotel not found");
+    }
+
+    @Override
+    public void update(HotelPO po) throws Exception {
+        hotels.update(po, "Hotel not found");
+        po.markClean();
+    }
+
+}
@@ -0,0 +1,48 @@
+package nju.quadra.hms.data.memory;
+
+import nju.quadra.hms.data.Rows;
+import nju.quadra.hms.dataservice.HotelPromotionDataService;
+import nju.quadra.hms.po.HotelPromotionPO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HotelPromotionDataServiceImpl implements HotelPromotionDataService {
+
+    private final Table<Integer, HotelPromotionPO> promotions = new Table<>(HotelPromotionPO::getId, Rows::copy, Comparator.comparingInt(HotelPromotionPO::getId));
+    private final Table<Integer, HotelPromotionPO>.Index<Integer> byHotel = promotions.index(HotelPromotionPO::getHotelId);
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    HotelPromotionDataServiceImpl() {
+    }
+
+    @Override
+    public ArrayList<HotelPromotionPO> get(int hotelId) {
+        return promotions.select(byHotel, hotelId);
+    }
+
+    @Override
+    public HotelPromotionPO getById(int promotionId) {
+        return promotions.get(promotionId);
+    }
+
+    @Override
+    public void insert(HotelPromotionPO po) throws Exception {
+        HotelPromotionPO row = Rows.copy(po);
+        row.setId(Sequences.next(lastId, po.getId()));
+        promotions.insert(row);
+    }
+
+    @Override
+    public void delete(HotelPromotionPO po) throws Exception {
+        promotions.delete(po.getId(), "HotelPromotion not found");
+    }
+
+    @Override
+    public void update(HotelPromotionPO po) throws Exception {
+        promotions.update(po, "HotelPromotion not found");
+        po.markClean();
+    }
+
+}
@@ -0,0 +1,61 @@
+package nju.quadra.hms.data.memory;
+
+import nju.quadra.hms.data.Rows;
+import nju.quadra.hms.dataservice.HotelRoomDataService;
+import nju.quadra.hms.po.HotelRoomPO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HotelRoomDataServiceImpl implements HotelRoomDataService {
+
+    private final Table<Integer, HotelRoomPO> rooms = new Table<>(HotelRoomPO::getId, Rows::copy, Comparator.comparingInt(HotelRoomPO::getId));
+    private final Table<Integer, HotelRoomPO>.Index<Integer> byHotel = rooms.index(HotelRoomPO::getHotelId);
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    HotelRoomDataServiceImpl() {
+    }
+
+    @Override
+    public ArrayList<HotelRoomPO> get(int hotelId) {
+        return rooms.select(byHotel, hotelId);
+    }
+
+    @Override
+    public void insert(HotelRoomPO po) throws Exception {
+        HotelRoomPO row = Rows.copy(po);
+        row.setId(Sequences.next(lastId, po.getId()));
+        rooms.insert(row);
+    }
+
+    @Override
+    public HotelRoomPO getById(int roomId) {
+        return rooms.get(roomId);
+    }
+
+    @Override
+    public ArrayList<HotelRoomPO> getByIds(Collection<Integer> roomIds) {
+        ArrayList<HotelRoomPO> result = new ArrayList<>();
+        for (int id : roomIds) {
+            HotelRoomPO po = rooms.get(id);
+            if (po != null) {
+                result.add(po);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void delete(HotelRoomPO po) throws Exception {
+        rooms.delete(po.getId(), "HotelRoom not found");
+    }
+
+    @Override
+    public void update(HotelRoomPO po) throws Exception {
+        rooms.update(po, "HotelRoom not found");
+        po.markClean();
+    }
+
+}
@@ -0,0 +1,71 @@
+package nju.quadra.hms.data.memory;
+
+import nju.quadra.hms.data.DataServiceProvider;
+import nju.quadra.hms.dataservice.*;
+import nju.quadra.hms.po.AreaPO;
+
+/**
+ * 基于内存的数据层实现，不需要数据库，数据在服务器停止后丢失
+ * 各表在业务逻辑层使用的查询条件上建立了哈希索引，适用于性能测试、持续集成与本地演示
+ */
+public class MemoryDataServiceProvider implements DataServiceProvider {
+
+    private final CreditDataServiceImpl creditDataService = new CreditDataServiceImpl();
+    private final HotelDataServiceImpl hotelDataService = new HotelDataServiceImpl();
+    private final HotelPromotionDataService hotelPromotionDataService = new HotelPromotionDataServiceImpl();
+    private final HotelRoomDataService hotelRoomDataService = new HotelRoomDataServiceImpl();
+    private final OrderDataService orderDataService = new OrderDataServiceImpl(creditDataService);
+    private final RoomInventoryDataService roomInventoryDataService = new RoomInventoryDataServiceImpl(orderDataService);
+    private final UserDataService userDataService = new UserDataServiceImpl();
+    private final WebsitePromotionDataService websitePromotionDataService = new WebsitePromotionDataServiceImpl();
+
+    /**
+     * 添加商圈，数据层接口不提供商圈的写入，初始化数据时使用
+     *
+     * @param po 商圈
+     */
+    public void addArea(AreaPO po) {
+        hotelDataService.insertArea(po);
+    }
+
+    @Override
+    public CreditDataService getCreditDataService() {
+        return creditDataService;
+    }
+
+    @Override
+    public HotelDataService getHotelDataService() {
+        return hotelDataService;
+    }
+
+    @Override
+    public HotelPromotionDataService getHotelPromotionDataService() {
+        return hotelPromotionDataService;
+    }
+
+    @Override
+    public HotelRoomDataService getHotelRoomDataService() {
+        return hotelRoomDataService;
+    }
+
+    @Override
+    public OrderDataService getOrderDataService() {
+        return orderDataService;
+    }
+
+    @Override
+    public RoomInventoryDataService getRoomInventoryDataService() {
+        return roomInventoryDataService;
+    }
+
+    @Override
+    public UserDataService getUserDataService() {
+        return userDataService;
+    }
+
+    @Override
+    public WebsitePromotionDataService getWebsitePromotionDataService() {
+        return websitePromotionDataService;
+    }
+
+}
@@ -0,0 +1,132 @@
+package nju.quadra.hms.data.memory;
+
+import nju.quadra.hms.data.Rows;
+import nju.quadra.hms.dataservice.CreditDataService;
+import nju.quadra.hms.dataservice.OrderDataService;
+import nju.quadra.hms.dataservice.OrderQuery;
+import nju.quadra.hms.model.CreditAction;
+import nju.quadra.hms.model.OrderState;
+import nju.quadra.hms.po.CreditRecordPO;
+import nju.quadra.hms.po.OrderPO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+public class OrderDataServiceImpl implements OrderDataService {
+
+    /**
+     * 与 MySQL 实现的 ORDER BY `startdate` DESC, `id` DESC 一致
+     */
+    private static final Comparator<OrderPO> LATEST_FIRST = Comparator.comparing(OrderPO::getStartDate)
+            .thenComparingInt(OrderPO::getId).reversed();
+
+    private final Table<Integer, OrderPO> orders = new Table<>(OrderPO::getId, Rows::copy, LATEST_FIRST);
+    private final Table<Integer, OrderPO>.Index<String> byCustomer = orders.index(OrderPO::getUsername);
+    private final Table<Integer, OrderPO>.Index<Integer> byHotel = orders.index(OrderPO::getHotelId);
+    private final Table<Integer, OrderPO>.Index<OrderState> byState = orders.index(OrderPO::getState);
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final CreditDataService creditDataService;
+
+    OrderDataServiceImpl(CreditDataService creditDataService) {
+        this.creditDataService = creditDataService;
+    }
+
+    @Override
+    public ArrayList<OrderPO> getByCustomer(String username) {
+        return orders.select(byCustomer, username);
+    }
+
+    @Override
+    public ArrayList<OrderPO> getByHotel(int hotelId) {
+        return orders.select(byHotel, hotelId);
+    }
+
+    @Override
+    public ArrayList<OrderPO> getByState(OrderState state) {
+        return orders.select(byState, state);
+    }
+
+    @Override
+    public ArrayList<OrderPO> query(OrderQuery query, LocalDate afterDate, int afterId, int limit) {
+        Predicate<OrderPO> filter = after(afterDate, afterId).and(query::matches);
+        // 优先使用选择性最高的索引，其余条件逐行判断
+        if (query.getUsername() != null) {
+            return orders.select(byCustomer, query.getUsername(), filter, limit);
+        } else if (query.getHotelId() > 0) {
+            return orders.select(byHotel, query.getHotelId(), filter, limit);
+        } else if (query.getStates() != null && query.getStates().size() == 1) {
+            return orders.select(byState, query.getStates().iterator().next(), filter, limit);
+        }
+        return orders.select(filter, limit);
+    }
+
+    @Override
+    public int count(OrderQuery query) {
+        if (query.getUsername() != null) {
+            return orders.count(byCustomer, query.getUsername(), query::matches);
+        } else if (query.getHotelId() > 0) {
+            return orders.count(byHotel, query.getHotelId(), query::matches);
+        } else if (query.getStates() != null && query.getStates().size() == 1) {
+            return orders.count(byState, query.getStates().iterator().next(), query::matches);
+        }
+        return orders.count(query::matches);
+    }
+
+    /**
+     * 在 LATEST_FIRST 顺序中排在 (afterDate, afterId) 之后的订单
+     */
+    private static Predicate<OrderPO> after(LocalDate afterDate, int afterId) {
+        if (afterDate == null) {
+            return po -> true;
+        }
+        return po -> {
+            int cmp = po.getStartDate().compareTo(afterDate);
+            return cmp < 0 || (cmp == 0 && po.getId() < afterId);
+        };
+    }
+
+    @Override
+    public OrderPO getById(int id) {
+        return orders.get(id);
+    }
+
+    @Override
+    public void insert(OrderPO po) throws Exception {
+        OrderPO row = Rows.copy(po);
+        row.setId(Sequences.next(lastId, po.getId()));
+        orders.insert(row);
+    }
+
+    @Override
+    public void update(OrderPO po) throws Exception {
+        orders.update(po, "Order not found");
+        po.markClean();
+    }
+
+    @Override
+    public void delete(OrderPO po) throws Exception {
+        orders.delete(po.getId(), "Order not found");
+    }
+
+    @Override
+    public ArrayList<OrderPO> markDelayed(LocalDate date, CreditAction action, double creditRate) throws Exception {
+        // 持有表的锁，期间其他线程无法修改订单
+        synchronized (orders) {
+            ArrayList<OrderPO> delayed = new ArrayList<>();
+            for (OrderPO po : orders.select(byState, OrderState.BOOKED)) {
+                if (po.getStartDate().compareTo(date) < 0) {
+                    po.setState(OrderState.DELAYED);
+                    orders.update(po, "Order not found");
+                    po.markClean();
+                    creditDataService.insert(new CreditRecordPO(0, po.getUsername(), null, po.getId(), action, po.getPrice() * creditRate));
+                    delayed.add(po);
+                }
+            }
+            return delayed;
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package nju.quadra.hms.data.memory;
+
+import nju.quadra.hms.dataservice.OrderDataService;
+import nju.quadra.hms.dataservice.RoomInventoryDataService;
+import nju.quadra.hms.po.OrderPO;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class RoomInventoryDataServiceImpl implements RoomInventoryDataService {
+
+    private final ConcurrentHashMap<Integer, ConcurrentHashMap<LocalDate, Integer>> ledger = new ConcurrentHashMap<>();
+    private final OrderDataService orderDataService;
+
+    RoomInventoryDataServiceImpl(OrderDataService orderDataService) {
+        this.orderDataService = orderDataService;
+    }
+
+    @Override
+    public HashMap<LocalDate, Integer> get(int roomId, LocalDate from) {
+        HashMap<LocalDate, Integer> result = new HashMap<>();
+        Map<LocalDate, Integer> nights = ledger.get(roomId);
+        if (nights != null) {
+            for (Map.Entry<LocalDate, Integer> night : nights.entrySet()) {
+                if (night.getKey().compareTo(from) >= 0) {
+                    result.put(night.getKey(), night.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void adjust(int roomId, LocalDate start, LocalDate end, int diff) {
+        if (diff == 0 || !start.isBefore(end)) {
+            return;
+        }
+        ConcurrentHashMap<LocalDate, Integer> nights = ledger.computeIfAbsent(roomId, k -> new ConcurrentHashMap<>());
+        synchronized (nights) {
+            addBooked(nights, start, end, diff);
+        }
+    }
+
+    @Override
+    public boolean reserve(OrderPO po, int total) throws Exception {
+        ConcurrentHashMap<LocalDate, Integer> nights = ledger.computeIfAbsent(po.getRoomId(), k -> new ConcurrentHashMap<>());
+        // 与 MySQL 实现锁定台账记录相同，同一客房的预订在台账上同步
+        synchronized (nights) {
+            int maxBooked = 0;
+            for (LocalDate night = po.getStartDate(); night.isBefore(po.getEndDate()); night = night.plusDays(1)) {
+                maxBooked = Math.max(maxBooked, nights.getOrDefault(night, 0));
+            }
+            if (total - maxBooked < po.getRoomCount()) {
+                return false;
+            }
+            orderDataService.insert(po);
+            addBooked(nights, po.getStartDate(), po.getEndDate(), po.getRoomCount());
+            return true;
+        }
+    }
+
+    @Override
+    public void delete(int roomId) {
+        ledger.remove(roomId);
+    }
+
+    private static void addBooked(Map<LocalDate, Integer> nights, LocalDate start, LocalDate end, int diff) {
+        for (LocalDate night = start; night.isBefore(end); night = night.plusDays(1)) {
+            nights.compute(night, (k, booked) -> {
+                int result = (booked == null ? 0 : booked) + diff;
+                return result > 0 ? result : null;
+            });
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package nju.quadra.hms.data.memory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 自增主键
+ */
+final class Sequences {
+
+    private Sequences() {
+    }
+
+    /**
+     * 与 MySQL 的 AUTO_INCREMENT 相同：未指定编号时分配下一个编号，指定编号时推进计数器
+     *
+     * @param lastId    已分配的最大编号
+     * @param requested 指定的编号，小于等于 0 为未指定
+     * @return 行的编号
+     */
+    static int next(AtomicInteger lastId, int requested) {
+        if (requested > 0) {
+            lastId.accumulateAndGet(requested, Math::max);
+            return requested;
+        }
+        return lastId.incrementAndGet();
+    }
+
+}
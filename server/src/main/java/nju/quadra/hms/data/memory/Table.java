@@ -0,0 +1,224 @@
+package nju.quadra.hms.data.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * 内存数据表
+ * 表中保存的行在写入时复制，之后不再修改，读取时再复制一份返回，因此调用者对 PO 的修改不会影响表中的数据；
+ * 读操作不加锁，写操作在表上同步，以保证主键与各索引的更新顺序一致；查询结果按建表时给定的顺序排列
+ *
+ * @param <K> 主键类型
+ * @param <T> 行类型
+ */
+class Table<K, T> {
+
+    private final ConcurrentHashMap<K, T> rows = new ConcurrentHashMap<>();
+    private final ArrayList<Index<?>> indexes = new ArrayList<>();
+    private final Function<T, K> keyOf;
+    private final UnaryOperator<T> copier;
+    private final Comparator<? super T> order;
+
+    /**
+     * @param keyOf  获取行的主键
+     * @param copier 复制一行
+     * @param order  查询结果的顺序
+     */
+    Table(Function<T, K> keyOf, UnaryOperator<T> copier, Comparator<? super T> order) {
+        this.keyOf = keyOf;
+        this.copier = copier;
+        this.order = order;
+    }
+
+    /**
+     * 在某一属性上建立哈希索引，必须在写入数据之前调用
+     *
+     * @param attribute 获取行的索引属性，属性为 null 的行不会被索引
+     * @return 索引
+     */
+    <I> Index<I> index(Function<T, I> attribute) {
+        Index<I> index = new Index<>(attribute);
+        indexes.add(index);
+        return index;
+    }
+
+    T get(K key) {
+        T row = rows.get(key);
+        return row == null ? null : copier.apply(row);
+    }
+
+    ArrayList<T> getAll() {
+        return copyAll(rows.values());
+    }
+
+    /**
+     * 通过索引查询属性等于给定值的全部行
+     */
+    <I> ArrayList<T> select(Index<I> index, I value) {
+        return select(index, value, row -> true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 通过索引查询属性等于给定值且满足条件的行，按表的顺序排列后只复制并返回前 limit 行
+     */
+    <I> ArrayList<T> select(Index<I> index, I value, Predicate<? super T> filter, int limit) {
+        return first(lookup(index, value, filter), limit);
+    }
+
+    /**
+     * 扫描全表，查询满足条件的行，按表的顺序排列后只复制并返回前 limit 行
+     */
+    ArrayList<T> select(Predicate<? super T> filter, int limit) {
+        return first(scan(filter), limit);
+    }
+
+    /**
+     * 通过索引统计属性等于给定值且满足条件的行数
+     */
+    <I> int count(Index<I> index, I value, Predicate<? super T> filter) {
+        return lookup(index, value, filter).size();
+    }
+
+    /**
+     * 扫描全表，统计满足条件的行数
+     */
+    int count(Predicate<? super T> filter) {
+        return scan(filter).size();
+    }
+
+    /**
+     * 通过索引查询属性等于给定值的第一行
+     */
+    <I> T selectOne(Index<I> index, I value) {
+        for (K key : index.keys(value)) {
+            T row = rows.get(key);
+            if (row != null && Objects.equals(index.attribute.apply(row), value)) {
+                return copier.apply(row);
+            }
+        }
+        return null;
+    }
+
+    synchronized void insert(T row) throws Exception {
+        T copy = copier.apply(row);
+        K key = keyOf.apply(copy);
+        if (rows.putIfAbsent(key, copy) != null) {
+            throw new Exception("Duplicate entry '" + key + "'");
+        }
+        for (Index<?> index : indexes) {
+            index.add(copy, key);
+        }
+    }
+
+    synchronized void update(T row, String notFoundMessage) throws Exception {
+        T copy = copier.apply(row);
+        K key = keyOf.apply(copy);
+        T old = rows.replace(key, copy);
+        if (old == null) {
+            throw new Exception(notFoundMessage);
+        }
+        for (Index<?> index : indexes) {
+            index.add(copy, key);
+            index.removeIfChanged(old, copy, key);
+        }
+    }
+
+    synchronized void delete(K key, String notFoundMessage) throws Exception {
+        T old = rows.remove(key);
+        if (old == null) {
+            throw new Exception(notFoundMessage);
+        }
+        for (Index<?> index : indexes) {
+            index.remove(old, key);
+        }
+    }
+
+    private <I> ArrayList<T> lookup(Index<I> index, I value, Predicate<? super T> filter) {
+        ArrayList<T> matched = new ArrayList<>();
+        for (K key : index.keys(value)) {
+            T row = rows.get(key);
+            // 索引在行被替换后才清除旧值，因此需要再次比对属性
+            if (row != null && Objects.equals(index.attribute.apply(row), value) && filter.test(row)) {
+                matched.add(row);
+            }
+        }
+        return matched;
+    }
+
+    private ArrayList<T> scan(Predicate<? super T> filter) {
+        ArrayList<T> matched = new ArrayList<>();
+        for (T row : rows.values()) {
+            if (filter.test(row)) {
+                matched.add(row);
+            }
+        }
+        return matched;
+    }
+
+    private ArrayList<T> first(ArrayList<T> matched, int limit) {
+        matched.sort(order);
+        ArrayList<T> result = new ArrayList<>(Math.min(matched.size(), limit));
+        for (int i = 0; i < matched.size() && i < limit; i++) {
+            result.add(copier.apply(matched.get(i)));
+        }
+        return result;
+    }
+
+    private ArrayList<T> copyAll(Collection<T> source) {
+        ArrayList<T> result = new ArrayList<>(source.size());
+        for (T row : source) {
+            result.add(copier.apply(row));
+        }
+        result.sort(order);
+        return result;
+    }
+
+    /**
+     * 属性值到主键集合的哈希索引
+     */
+    class Index<I> {
+        private final ConcurrentHashMap<I, Set<K>> keys = new ConcurrentHashMap<>();
+        private final Function<T, I> attribute;
+
+        private Index(Function<T, I> attribute) {
+            this.attribute = attribute;
+        }
+
+        private Set<K> keys(I value) {
+            Set<K> result = value == null ? null : keys.get(value);
+            return result == null ? Collections.<K>emptySet() : result;
+        }
+
+        private void add(T row, K key) {
+            I value = attribute.apply(row);
+            if (value != null) {
+                keys.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+        }
+
+        private void remove(T row, K key) {
+            I value = attribute.apply(row);
+            if (value != null) {
+                keys.computeIfPresent(value, (v, set) -> {
+                    set.remove(key);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        }
+
+        private void removeIfChanged(T oldRow, T newRow, K key) {
+            if (!Objects.equals(attribute.apply(oldRow), attribute.apply(newRow))) {
+                remove(oldRow, key);
+            }
+        }
+    }
+
+}
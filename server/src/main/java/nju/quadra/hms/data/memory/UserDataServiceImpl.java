@@ -0,0 +1,43 @@
+package nju.quadra.hms.data.memory;
+
+import nju.quadra.hms.data.Rows;
+import nju.quadra.hms.dataservice.UserDataService;
+import nju.quadra.hms.po.UserPO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+public class UserDataServiceImpl implements UserDataService {
+
+    private final Table<String, UserPO> users = new Table<>(UserPO::getUsername, Rows::copy, Comparator.comparing(UserPO::getUsername));
+
+    UserDataServiceImpl() {
+    }
+
+    @Override
+    public ArrayList<UserPO> getAll() {
+        return users.getAll();
+    }
+
+    @Override
+    public UserPO get(String username) {
+        return users.get(username);
+    }
+
+    @Override
+    public void insert(UserPO po) throws Exception {
+        users.insert(po);
+    }
+
+    @Override
+    public void delete(UserPO po) throws Exception {
+        users.delete(po.getUsername(), "User not found");
+    }
+
+    @Override
+    public void update(UserPO po) throws Exception {
+        users.update(po, "User not found");
+        po.markClean();
+    }
+
+}
@@ -0,0 +1,47 @@
+package nju.quadra.hms.data.memory;
+
+import nju.quadra.hms.data.Rows;
+import nju.quadra.hms.dataservice.WebsitePromotionDataService;
+import nju.quadra.hms.po.WebsitePromotionPO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WebsitePromotionDataServiceImpl implements WebsitePromotionDataService {
+
+    private final Table<Integer, WebsitePromotionPO> promotions = new Table<>(WebsitePromotionPO::getId, Rows::copy, Comparator.comparingInt(WebsitePromotionPO::getId));
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    WebsitePromotionDataServiceImpl() {
+    }
+
+    @Override
+    public ArrayList<WebsitePromotionPO> getAll() {
+        return promotions.getAll();
+    }
+
+    @Override
+    public WebsitePromotionPO getById(int id) {
+        return promotions.get(id);
+    }
+
+    @Override
+    public void insert(WebsitePromotionPO po) throws Exception {
+        WebsitePromotionPO row = Rows.copy(po);
+        row.setId(Sequences.next(lastId, po.getId()));
+        promotions.insert(row);
+    }
+
+    @Override
+    public void delete(WebsitePromotionPO po) throws Exception {
+        promotions.delete(po.getId(), "WebsitePromotion not found");
+    }
+
+    @Override
+    public void update(WebsitePromotionPO po) throws Exception {
+        promotions.update(po, "WebsitePromotion not found");
+        po.markClean();
+    }
+
+}
@@ -0,0 +1,250 @@
+package nju.quadra.hms.data.mysql;
+
+import nju.quadra.hms.util.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 有界 JDBC 连接池
+ * 借出的连接为代理对象，调用 close() 即归还连接池
+ */
+class ConnectionPool {
+
+    /**
+     * 连接在最近一次归还后的该时间(ms)内被借出时，不再重复校验
+     */
+    private static final long VALIDATION_BYPASS_WINDOW = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final long maxWait;
+    private final long idleTimeout;
+    private final long leakThreshold;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    ConnectionPool(String url, String user, String password, int maxSize, long maxWait, long idleTimeout, long leakThreshold) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxWait = maxWait;
+        this.idleTimeout = idleTimeout;
+        this.leakThreshold = leakThreshold;
+        this.permits = new Semaphore(Math.max(1, maxSize), true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hms-db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeout, leakThreshold > 0 ? leakThreshold : idleTimeout) / 2);
+        housekeeper.scheduleWithFixedDelay(this::houseKeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 从连接池中借出一个连接，连接池已满时最多等待 maxWait 毫秒
+     * @return 连接代理，使用完毕后必须调用 close() 归还
+     * @throws SQLException 等待超时或无法建立连接
+     */
+    Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been closed");
+        }
+        waiting.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + maxWait + "ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+
+        try {
+            PooledConnection pc;
+            while ((pc = idle.pollFirst()) != null) {
+                if (validate(pc)) break;
+                closeQuietly(pc.physical);
+            }
+            if (pc == null) {
+                pc = new PooledConnection(DriverManager.getConnection(url, user, password));
+            }
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.borrower = leakThreshold > 0 ? new Exception("Connection borrowed by " + Thread.currentThread().getName()) : null;
+            pc.leakReported = false;
+            active.add(pc);
+            return pc.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(PooledConnection pc) {
+        if (!active.remove(pc)) {
+            return;
+        }
+        try {
+            if (closed || pc.physical.isClosed()) {
+                closeQuietly(pc.physical);
+                return;
+            }
+            if (!pc.physical.getAutoCommit()) {
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            pc.returnedAt = System.currentTimeMillis();
+            idle.offerFirst(pc);
+        } catch (SQLException e) {
+            closeQuietly(pc.physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean validate(PooledConnection pc) {
+        try {
+            if (pc.physical.isClosed()) {
+                return false;
+            }
+            return System.currentTimeMillis() - pc.returnedAt < VALIDATION_BYPASS_WINDOW
+                    || pc.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 定时任务: 淘汰长时间空闲的连接，并报告疑似泄漏的连接
+     */
+    private void houseKeep() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledConnection pc = it.next();
+            if (now - pc.returnedAt > idleTimeout && idle.remove(pc)) {
+                closeQuietly(pc.physical);
+            }
+        }
+        if (leakThreshold > 0) {
+            for (PooledConnection pc : active) {
+                if (!pc.leakReported && now - pc.borrowedAt > leakThreshold) {
+                    pc.leakReported = true;
+                    Logger.log("W", "Possible connection leak, held for " + (now - pc.borrowedAt) + "ms");
+                    if (pc.borrower != null) {
+                        Logger.log(pc.borrower);
+                    }
+                }
+            }
+        }
+    }
+
+    int getActiveCount() {
+        return active.size();
+    }
+
+    int getIdleCount() {
+        return idle.size();
+    }
+
+    int getWaitingCount() {
+        return waiting.get();
+    }
+
+    /**
+     * 关闭连接池及其所有连接
+     */
+    void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            closeQuietly(pc.physical);
+        }
+        for (PooledConnection activeConnection : active) {
+            closeQuietly(activeConnection.physical);
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private class PooledConnection {
+        private final Connection physical;
+        private volatile long borrowedAt;
+        private volatile long returnedAt;
+        private volatile Exception borrower;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * 每次借出生成新的代理，防止归还后继续通过旧代理使用物理连接
+         */
+        private Connection newHandle() {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean closed = false;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!closed) {
+                                closed = true;
+                                release(PooledConnection.this);
+                            }
+                            return null;
+                        case "isClosed":
+                            return closed || physical.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "Pooled" + physical.toString();
+                    }
+                    if (closed) {
+                        throw new SQLException("Connection has been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+    }
+
+}
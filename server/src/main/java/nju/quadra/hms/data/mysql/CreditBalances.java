@@ -0,0 +1,116 @@
+package nju.quadra.hms.data.mysql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户信用记录变化量之和的快照表 `creditbalance` 及其缓存
+ * 快照与信用记录在同一事务中写入；缓存在事务提交后失效，下次读取时重新加载
+ */
+class CreditBalances {
+
+    private static final ConcurrentHashMap<String, Double> cache = new ConcurrentHashMap<>();
+    private static final Object cacheLock = new Object();
+    private static long version = 0;
+    private static volatile boolean tableReady = false;
+
+    private CreditBalances() {
+    }
+
+    /**
+     * 获得用户全部信用记录变化量之和
+     */
+    static double get(String username) throws SQLException, ClassNotFoundException {
+        Double cached = cache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        long loadVersion;
+        synchronized (cacheLock) {
+            loadVersion = version;
+        }
+        double total = 0;
+        try (Connection conn = MySQLManager.getConnection()) {
+            ensureTable(conn);
+            try (PreparedStatement pst = conn.prepareStatement("SELECT `total` FROM `creditbalance` WHERE `username` = ?")) {
+                pst.setString(1, username);
+                ResultSet rs = pst.executeQuery();
+                if (rs.next()) {
+                    total = rs.getDouble("total");
+                }
+            }
+        }
+        // 读取期间有事务提交时不写入缓存，避免缓存旧值
+        synchronized (cacheLock) {
+            if (version == loadVersion) {
+                cache.put(username, total);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 在调用者的事务中累加快照，事务提交后须调用 invalidate()
+     * 建表会隐式提交事务，因此调用者须在开启事务前调用 ensureTable()
+     *
+     * @param conn  事务所在的连接
+     * @param diffs 用户名到变化量的映射
+     */
+    static void add(Connection conn, Map<String, Double> diffs) throws SQLException {
+        try (PreparedStatement pst = conn.prepareStatement("INSERT INTO `creditbalance` (`username`, `total`) VALUES (?, ?) "
+                + "ON DUPLICATE KEY UPDATE `total` = `total` + VALUES(`total`)")) {
+            for (Map.Entry<String, Double> diff : diffs.entrySet()) {
+                pst.setString(1, diff.getKey());
+                pst.setDouble(2, diff.getValue());
+                pst.addBatch();
+            }
+            pst.executeBatch();
+        }
+    }
+
+    /**
+     * 事务提交后使缓存失效
+     */
+    static void invalidate(Collection<String> usernames) {
+        synchronized (cacheLock) {
+            version++;
+            for (String username : usernames) {
+                cache.remove(username);
+            }
+        }
+    }
+
+    /**
+     * 首次使用时建立快照表，并根据已有的信用记录回填数据
+     */
+    static void ensureTable(Connection conn) throws SQLException {
+        if (tableReady) {
+            return;
+        }
+        synchronized (CreditBalances.class) {
+            if (tableReady) {
+                return;
+            }
+            boolean exists;
+            try (ResultSet rs = conn.getMetaData().getTables(null, null, "creditbalance", null)) {
+                exists = rs.next();
+            }
+            if (!exists) {
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate("CREATE TABLE IF NOT EXISTS `creditbalance` ("
+                            + "`username` VARCHAR(255) NOT NULL, `total` DOUBLE NOT NULL DEFAULT 0, PRIMARY KEY (`username`))");
+                    st.executeUpdate("INSERT INTO `creditbalance` (`username`, `total`) "
+                            + "SELECT `username`, SUM(`diff`) FROM `creditrecord` GROUP BY `username`");
+                }
+            }
+            tableReady = true;
+        }
+    }
+
+}
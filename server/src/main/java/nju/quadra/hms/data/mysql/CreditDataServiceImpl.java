@@ -4,31 +4,47 @@ import nju.quadra.hms.dataservice.CreditDataService;
 import nju.quadra.hms.model.CreditAction;
 import nju.quadra.hms.po.CreditRecordPO;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 
 public class CreditDataServiceImpl implements CreditDataService {
     @Override
     public ArrayList<CreditRecordPO> get(String username) throws Exception {
-        PreparedStatement pst = MySQLManager.getConnection()
-                .prepareStatement("SELECT * FROM `creditrecord` WHERE username = ? ORDER BY `timestamp` DESC");
-        pst.setString(1, username);
-        ResultSet rs = pst.executeQuery();
-        return convertToArrayList(rs);
+        try (Connection conn = MySQLManager.getConnection();
+             PreparedStatement pst = conn.prepareStatement("SELECT * FROM `creditrecord` WHERE username = ? ORDER BY `timestamp` DESC")) {
+            pst.setString(1, username);
+            ResultSet rs = pst.executeQuery();
+            return convertToArrayList(rs);
+        }
+    }
+
+    @Override
+    public double getTotalDiff(String username) throws Exception {
+        return CreditBalances.get(username);
     }
 
     @Override
     public void insert(CreditRecordPO po) throws Exception{
-        PreparedStatement pst = MySQLManager.getConnection()
-                .prepareStatement("INSERT INTO `creditrecord` (`username`, `orderid`, `action`, `diff`) VALUES (?, ?, ?, ?)");
-        pst.setString(1, po.getUsername());
-        pst.setInt(2, po.getOrderId());
-        pst.setInt(3, po.getAction().ordinal());
-        pst.setDouble(4, po.getDiff());
-        pst.executeUpdate();
+        try (Connection conn = MySQLManager.getConnection()) {
+            CreditBalances.ensureTable(conn);
+            conn.setAutoCommit(false);
+            try (PreparedStatement pst = conn.prepareStatement("INSERT INTO `creditrecord` (`username`, `orderid`, `action`, `diff`) VALUES (?, ?, ?, ?)")) {
+                pst.setString(1, po.getUsername());
+                pst.setInt(2, po.getOrderId());
+                pst.setInt(3, po.getAction().ordinal());
+                pst.setDouble(4, po.getDiff());
+                pst.executeUpdate();
+            }
+            CreditBalances.add(conn, Collections.singletonMap(po.getUsername(), po.getDiff()));
+            conn.commit();
+        } finally {
+            CreditBalances.invalidate(Collections.singleton(po.getUsername()));
+        }
     }
 
     private ArrayList<CreditRecordPO> convertToArrayList(ResultSet rs) throws Exception{
@@ -1,5 +1,6 @@
 package nju.quadra.hms.data.mysql;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Types;
@@ -15,68 +16,77 @@ public class HotelPromotionDataServiceImpl implements HotelPromotionDataService{
 
 	@Override
 	public ArrayList<HotelPromotionPO> get(int hotelId) throws Exception{
-		 ArrayList<HotelPromotionPO> result = new ArrayList<>();
-		 PreparedStatement pst = MySQLManager.getConnection()
-	                .prepareStatement("SELECT * FROM `hotelpromotion` WHERE `hotelid` = ?");
-		 pst.setInt(1, hotelId);
-		 ResultSet rs = pst.executeQuery();
-		 while(rs.next()){
-			 HotelPromotionPO po = createPO(rs);
-			 result.add(po);
-	        }
-		 return result;
+		ArrayList<HotelPromotionPO> result = new ArrayList<>();
+		try (Connection conn = MySQLManager.getConnection();
+			 PreparedStatement pst = conn.prepareStatement("SELECT * FROM `hotelpromotion` WHERE `hotelid` = ?")) {
+			pst.setInt(1, hotelId);
+			ResultSet rs = pst.executeQuery();
+			while (rs.next()) {
+				HotelPromotionPO po = createPO(rs);
+				result.add(po);
+			}
+		}
+		return result;
 	}
 
 	@Override
 	public HotelPromotionPO getById(int promotionId) throws Exception{
-		PreparedStatement pst = MySQLManager.getConnection()
-				.prepareStatement("SELECT * FROM `hotelpromotion` WHERE `id` = ?");
-		pst.setInt(1, promotionId);
-		ResultSet rs = pst.executeQuery();
-		rs.next();
-		return createPO(rs);
+		try (Connection conn = MySQLManager.getConnection();
+			 PreparedStatement pst = conn.prepareStatement("SELECT * FROM `hotelpromotion` WHERE `id` = ?")) {
+			pst.setInt(1, promotionId);
+			ResultSet rs = pst.executeQuery();
+			rs.next();
+			return createPO(rs);
+		}
 	}
 
 	@Override
 	public void insert(HotelPromotionPO po) throws Exception {
-		  PreparedStatement pst = MySQLManager.getConnection()
-	                .prepareStatement("INSERT INTO `hotelpromotion` (`id`, `hotelid`, `name`, `type`, `starttime`, `endtime`, `promotion`, `cooperation`)"
-	                		+ " VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
-		  if (po.getId() > 0)
-	            pst.setInt(1, po.getId());
-	        else
-	            pst.setNull(1, Types.INTEGER);
-		  pst.setInt(2,po.getHotelId());
-		  pst.setString(3,po.getName());
-		  pst.setInt(4, po.getType().ordinal());
-		  pst.setString(5, po.getStartTime().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")));
-		  pst.setString(6, po.getEndTime().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")));
-		  pst.setDouble(7,po.getPromotion());
-		  pst.setString(8,po.getCooperation());
-		  pst.executeUpdate();
+		try (Connection conn = MySQLManager.getConnection();
+			 PreparedStatement pst = conn.prepareStatement("INSERT INTO `hotelpromotion` (`id`, `hotelid`, `name`, `type`, `starttime`, `endtime`, `promotion`, `cooperation`)"
+					 + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+			if (po.getId() > 0)
+				pst.setInt(1, po.getId());
+			else
+				pst.setNull(1, Types.INTEGER);
+			pst.setInt(2, po.getHotelId());
+			pst.setString(3, po.getName());
+			pst.setInt(4, po.getType().ordinal());
+			pst.setString(5, po.getStartTime().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")));
+			pst.setString(6, po.getEndTime().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")));
+			pst.setDouble(7, po.getPromotion());
+			pst.setString(8, po.getCooperation());
+			pst.executeUpdate();
+		}
 	}
 
 	@Override
 	public void delete(HotelPromotionPO po) throws Exception {
-	     PreparedStatement pst = MySQLManager.getConnection()
-	                .prepareStatement("DELETE FROM `hotelpromotion` WHERE `id` = ?");
-	     pst.setInt(1, po.getId());
-	     int result = pst.executeUpdate();
-	     if(result == 0) {
-	    	 throw new Exception("HotelPromotion not found");
-	     }
+		try (Connection conn = MySQLManager.getConnection();
+			 PreparedStatement pst = conn.prepareStatement("DELETE FROM `hotelpromotion` WHERE `id` = ?")) {
+			pst.setInt(1, po.getId());
+			int result = pst.executeUpdate();
+			if (result == 0) {
+				throw new Exception("HotelPromotion not found");
+			}
+		}
 	}
 
 	@Override
 	public void update(HotelPromotionPO po) throws Exception {
-		// Delete first
-		delete(po);
-		// Then insert it again
-		insert(po);
+		new UpdateStatement("hotelpromotion", po)
+				.set("hotelid", po.getHotelId())
+				.set("name", po.getName())
+				.set("type", po.getType().ordinal())
+				.set("starttime", po.getStartTime().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")))
+				.set("endtime", po.getEndTime().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")))
+				.set("promotion", po.getPromotion())
+				.set("cooperation", po.getCooperation())
+				.execute("id", po.getId(), "HotelPromotion not found");
 	}
 
 	private HotelPromotionPO createPO(ResultSet rs) throws Exception{
-		return new HotelPromotionPO(
+		HotelPromotionPO po = new HotelPromotionPO(
 				rs.getInt("id"),
 				rs.getInt("hotelid"),
 				rs.getString("name"),
@@ -86,5 +96,7 @@ public class HotelPromotionDataServiceImpl implements HotelPromotionDataService{
 				rs.getDouble("promotion"),
 				rs.getString("cooperation")
 		);
+		po.markClean();
+		return po;
 	}
 }
@@ -0,0 +1,60 @@
+package nju.quadra.hms.data.mysql;
+
+import nju.quadra.hms.data.DataServiceProvider;
+import nju.quadra.hms.dataservice.*;
+
+/**
+ * 基于 MySQL 的数据层实现，各服务均无状态，可以共享
+ */
+public class MySQLDataServiceProvider implements DataServiceProvider {
+
+    private final CreditDataService creditDataService = new CreditDataServiceImpl();
+    private final HotelDataService hotelDataService = new HotelDataServiceImpl();
+    private final HotelPromotionDataService hotelPromotionDataService = new HotelPromotionDataServiceImpl();
+    private final HotelRoomDataService hotelRoomDataService = new HotelRoomDataServiceImpl();
+    private final OrderDataService orderDataService = new OrderDataServiceImpl();
+    private final RoomInventoryDataService roomInventoryDataService = new RoomInventoryDataServiceImpl();
+    private final UserDataService userDataService = new UserDataServiceImpl();
+    private final WebsitePromotionDataService websitePromotionDataService = new WebsitePromotionDataServiceImpl();
+
+    @Override
+    public CreditDataService getCreditDataService() {
+        return creditDataService;
+    }
+
+    @Override
+    public HotelDataService getHotelDataService() {
+        return hotelDataService;
+    }
+
+    @Override
+    public HotelPromotionDataService getHotelPromotionDataService() {
+        return hotelPromotionDataService;
+    }
+
+    @Override
+    public HotelRoomDataService getHotelRoomDataService() {
+        return hotelRoomDataService;
+    }
+
+    @Override
+    public OrderDataService getOrderDataService() {
+        return orderDataService;
+    }
+
+    @Override
+    public RoomInventoryDataService getRoomInventoryDataService() {
+        return roomInventoryDataService;
+    }
+
+    @Override
+    public UserDataService getUserDataService() {
+        return userDataService;
+    }
+
+    @Override
+    public WebsitePromotionDataService getWebsitePromotionDataService() {
+        return websitePromotionDataService;
+    }
+
+}
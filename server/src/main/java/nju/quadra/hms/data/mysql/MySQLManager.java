@@ -3,25 +3,90 @@ package nju.quadra.hms.data.mysql;
 import nju.quadra.hms.util.ServerConfig;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class MySQLManager {
 
-    private static Connection conn;
+    private static volatile ConnectionPool pool;
 
+    /**
+     * 从连接池中借出一个连接，使用完毕后必须调用 close() 归还
+     * @return 数据库连接
+     * @throws SQLException 数据库访问异常或等待连接超时
+     * @throws ClassNotFoundException 找不到 MySQL 驱动
+     */
     public static Connection getConnection() throws SQLException, ClassNotFoundException {
-        if (conn == null || conn.isClosed() || !conn.isValid(5)) {
-            // Open a new connection
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            ServerConfig config = ServerConfig.getConfig();
-            conn = DriverManager.getConnection(
-                    "jdbc:mysql://" + config.getDbHost() + "/" + config.getDbName()
-                            + "?useUnicode=true&characterEncoding=UTF8&serverTimezone=UTC",
-                    config.getDbUser(), config.getDbPass()
-            );
+        return getPool().borrow();
+    }
+
+    /**
+     * 关闭连接池，下次获取连接时将按最新配置重新创建
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    /**
+     * @return 已借出的连接数
+     */
+    public static int getActiveCount() {
+        ConnectionPool p = pool;
+        return p == null ? 0 : p.getActiveCount();
+    }
+
+    /**
+     * @return 池中空闲的连接数
+     */
+    public static int getIdleCount() {
+        ConnectionPool p = pool;
+        return p == null ? 0 : p.getIdleCount();
+    }
+
+    /**
+     * @return 正在等待连接的线程数
+     */
+    public static int getWaitingCount() {
+        ConnectionPool p = pool;
+        return p == null ? 0 : p.getWaitingCount();
+    }
+
+    /**
+     * 生成 IN 查询所需的占位符列表，例如 "?, ?, ?"
+     */
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    private static ConnectionPool getPool() throws ClassNotFoundException {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (MySQLManager.class) {
+                p = pool;
+                if (p == null) {
+                    Class.forName("com.mysql.cj.jdbc.Driver");
+                    ServerConfig config = ServerConfig.getConfig();
+                    p = new ConnectionPool(
+                            "jdbc:mysql://" + config.getDbHost() + "/" + config.getDbName()
+                                    + "?useUnicode=true&characterEncoding=UTF8&serverTimezone=UTC",
+                            config.getDbUser(), config.getDbPass(),
+                            config.getDbPoolSize(), config.getDbPoolMaxWait(),
+                            config.getDbPoolIdleTimeout(), config.getDbPoolLeakThreshold()
+                    );
+                    pool = p;
+                }
+            }
         }
-        return conn;
+        return p;
     }
 
 }
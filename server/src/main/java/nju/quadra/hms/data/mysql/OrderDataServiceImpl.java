@@ -1,92 +1,246 @@
 package nju.quadra.hms.data.mysql;
 
 import nju.quadra.hms.dataservice.OrderDataService;
+import nju.quadra.hms.dataservice.OrderQuery;
+import nju.quadra.hms.model.CreditAction;
 import nju.quadra.hms.model.OrderState;
 import nju.quadra.hms.po.OrderPO;
+import nju.quadra.hms.util.Logger;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 
 public class OrderDataServiceImpl implements OrderDataService {
+
+    /**
+     * 分页查询使用的复合索引：索引名与列
+     * 等值条件的列在前，随后是排序所用的入住日期与订单编号，酒店工作人员按状态筛选时使用酒店与状态的索引
+     */
+    private static final String[][] INDEXES = {
+            {"idx_orders_username_startdate", "`username`, `startdate`, `id`"},
+            {"idx_orders_hotelid_startdate", "`hotelid`, `startdate`, `id`"},
+            {"idx_orders_hotelid_state_startdate", "`hotelid`, `state`, `startdate`, `id`"},
+            {"idx_orders_roomid_startdate", "`roomid`, `startdate`, `id`"},
+            {"idx_orders_state_startdate", "`state`, `startdate`, `id`"},
+    };
+    private static volatile boolean indexesReady = false;
+
     @Override
     public ArrayList<OrderPO> getByCustomer(String username) throws Exception {
-        PreparedStatement pst = MySQLManager.getConnection()
-                .prepareStatement("SELECT * FROM `orders` WHERE `username` = ? ORDER BY `startdate` DESC, `id` DESC");
-        pst.setString(1, username);
-        ResultSet rs = pst.executeQuery();
-        return convertToArrayList(rs);
+        try (Connection conn = MySQLManager.getConnection();
+             PreparedStatement pst = conn.prepareStatement("SELECT * FROM `orders` WHERE `username` = ? ORDER BY `startdate` DESC, `id` DESC")) {
+            pst.setString(1, username);
+            ResultSet rs = pst.executeQuery();
+            return convertToArrayList(rs);
+        }
     }
 
     @Override
     public ArrayList<OrderPO> getByHotel(int hotelId) throws Exception {
-        PreparedStatement pst = MySQLManager.getConnection()
-                .prepareStatement("SELECT * FROM `orders` WHERE `hotelid` = ? ORDER BY `startdate` DESC, `id` DESC");
-        pst.setInt(1, hotelId);
-        ResultSet rs = pst.executeQuery();
-        return convertToArrayList(rs);
+        try (Connection conn = MySQLManager.getConnection();
+             PreparedStatement pst = conn.prepareStatement("SELECT * FROM `orders` WHERE `hotelid` = ? ORDER BY `startdate` DESC, `id` DESC")) {
+            pst.setInt(1, hotelId);
+            ResultSet rs = pst.executeQuery();
+            return convertToArrayList(rs);
+        }
     }
 
     @Override
     public ArrayList<OrderPO> getByState(OrderState state) throws Exception {
-        PreparedStatement pst = MySQLManager.getConnection()
-                .prepareStatement("SELECT * FROM `orders` WHERE `state` = ? ORDER BY `startdate` DESC, `id` DESC");
-        pst.setInt(1, state.ordinal());
-        ResultSet rs = pst.executeQuery();
-        return convertToArrayList(rs);
+        try (Connection conn = MySQLManager.getConnection();
+             PreparedStatement pst = conn.prepareStatement("SELECT * FROM `orders` WHERE `state` = ? ORDER BY `startdate` DESC, `id` DESC")) {
+            pst.setInt(1, state.ordinal());
+            ResultSet rs = pst.executeQuery();
+            return convertToArrayList(rs);
+        }
+    }
+
+    @Override
+    public ArrayList<OrderPO> query(OrderQuery query, LocalDate afterDate, int afterId, int limit) throws Exception {
+        try (Connection conn = MySQLManager.getConnection()) {
+            ensureIndexes(conn);
+            try (PreparedStatement pst = new OrderQueryStatement(query).prepareSelect(conn, afterDate, afterId, limit)) {
+                return convertToArrayList(pst.executeQuery());
+            }
+        }
+    }
+
+    @Override
+    public int count(OrderQuery query) throws Exception {
+        try (Connection conn = MySQLManager.getConnection()) {
+            ensureIndexes(conn);
+            try (PreparedStatement pst = new OrderQueryStatement(query).prepareCount(conn)) {
+                ResultSet rs = pst.executeQuery();
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * 首次分页查询时为各查询条件建立 (条件, 入住日期, 订单编号) 复合索引，
+     * 使分页查询按索引顺序读取，无需排序全部匹配的订单
+     */
+    private static void ensureIndexes(Connection conn) throws SQLException {
+        if (indexesReady) {
+            return;
+        }
+        synchronized (OrderDataServiceImpl.class) {
+            if (indexesReady) {
+                return;
+            }
+            HashSet<String> existing = new HashSet<>();
+            try (ResultSet rs = conn.getMetaData().getIndexInfo(null, null, "orders", false, true)) {
+                while (rs.next()) {
+                    String name = rs.getString("INDEX_NAME");
+                    if (name != null) {
+                        existing.add(name.toLowerCase());
+                    }
+                }
+            }
+            try (Statement st = conn.createStatement()) {
+                for (String[] index : INDEXES) {
+                    if (existing.contains(index[0])) {
+                        continue;
+                    }
+                    try {
+                        st.executeUpdate("ALTER TABLE `orders` ADD INDEX `" + index[0] + "` (" + index[1] + ")");
+                    } catch (SQLException e) {
+                        // 索引只影响性能，建立失败时查询仍然可以执行
+                        Logger.log("W", "Failed to create index", "index", index[0], "error", e.getMessage());
+                    }
+                }
+            }
+            indexesReady = true;
+        }
     }
 
     @Override
     public OrderPO getById(int id) throws Exception {
-        PreparedStatement pst = MySQLManager.getConnection()
-                .prepareStatement("SELECT * FROM `orders` WHERE `id` = ?");
-        pst.setInt(1, id);
-        ResultSet rs = pst.executeQuery();
-        rs.next();
-        return createPO(rs);
+        try (Connection conn = MySQLManager.getConnection();
+             PreparedStatement pst = conn.prepareStatement("SELECT * FROM `orders` WHERE `id` = ?")) {
+            pst.setInt(1, id);
+            ResultSet rs = pst.executeQuery();
+            rs.next();
+            return createPO(rs);
+        }
     }
 
     @Override
     public void insert(OrderPO po) throws Exception {
-        PreparedStatement pst = MySQLManager.getConnection()
-                .prepareStatement("INSERT INTO `orders` (`id`, `username`, `hotelid`, `startdate`, `enddate`, `roomid`, `roomcount`, `personcount`, `persons`, `haschildren`, `price`, `state`, `rank`, `comment`) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-        if (po.getId() > 0)
-            pst.setInt(1, po.getId());
-        else
-            pst.setNull(1, Types.INTEGER);
-        pst.setString(2, po.getUsername());
-        pst.setInt(3, po.getHotelId());
-        pst.setString(4, po.getStartDate().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")));
-        pst.setString(5, po.getEndDate().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")));
-        pst.setInt(6, po.getRoomId());
-        pst.setInt(7, po.getRoomCount());
-        pst.setInt(8, po.getPersonCount());
-        pst.setString(9, po.getPersons());
-        pst.setBoolean(10, po.isHasChildren());
-        pst.setDouble(11, po.getPrice());
-        pst.setInt(12, po.getState().ordinal());
-        pst.setInt(13, po.getRank());
-        pst.setString(14, po.getComment());
-        pst.executeUpdate();
+        try (Connection conn = MySQLManager.getConnection()) {
+            insert(conn, po);
+        }
+    }
+
+    /**
+     * 使用给定的连接添加订单，供需要在同一事务中添加订单的数据层实现使用
+     */
+    static void insert(Connection conn, OrderPO po) throws Exception {
+        try (PreparedStatement pst = conn.prepareStatement("INSERT INTO `orders` (`id`, `username`, `hotelid`, `startdate`, `enddate`, `roomid`, `roomcount`, `personcount`, `persons`, `haschildren`, `price`, `state`, `rank`, `comment`) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            if (po.getId() > 0)
+                pst.setInt(1, po.getId());
+            else
+                pst.setNull(1, Types.INTEGER);
+            pst.setString(2, po.getUsername());
+            pst.setInt(3, po.getHotelId());
+            pst.setString(4, po.getStartDate().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")));
+            pst.setString(5, po.getEndDate().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")));
+            pst.setInt(6, po.getRoomId());
+            pst.setInt(7, po.getRoomCount());
+            pst.setInt(8, po.getPersonCount());
+            pst.setString(9, po.getPersons());
+            pst.setBoolean(10, po.isHasChildren());
+            pst.setDouble(11, po.getPrice());
+            pst.setInt(12, po.getState().ordinal());
+            pst.setInt(13, po.getRank());
+            pst.setString(14, po.getComment());
+            pst.executeUpdate();
+        }
     }
 
     @Override
     public void delete(OrderPO po) throws Exception {
-        PreparedStatement pst = MySQLManager.getConnection()
-                .prepareStatement("DELETE FROM `orders` WHERE `id` = ?");
-        pst.setInt(1, po.getId());
-        int result = pst.executeUpdate();
-        if (result == 0) {
-            throw new Exception("Order not found");
+        try (Connection conn = MySQLManager.getConnection();
+             PreparedStatement pst = conn.prepareStatement("DELETE FROM `orders` WHERE `id` = ?")) {
+            pst.setInt(1, po.getId());
+            int result = pst.executeUpdate();
+            if (result == 0) {
+                throw new Exception("Order not found");
+            }
         }
     }
 
     @Override
     public void update(OrderPO po) throws Exception {
-        delete(po);
-        insert(po);
+        new UpdateStatement("orders", po)
+                .set("username", po.getUsername())
+                .set("hotelid", po.getHotelId())
+                .set("startdate", po.getStartDate().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")))
+                .set("enddate", po.getEndDate().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")))
+                .set("roomid", po.getRoomId())
+                .set("roomcount", po.getRoomCount())
+                .set("personcount", po.getPersonCount())
+                .set("persons", po.getPersons())
+                .set("haschildren", po.isHasChildren())
+                .set("price", po.getPrice())
+                .set("state", po.getState().ordinal())
+                .set("rank", po.getRank())
+                .set("comment", po.getComment())
+                .execute("id", po.getId(), "Order not found");
+    }
+
+    @Override
+    public ArrayList<OrderPO> markDelayed(LocalDate date, CreditAction action, double creditRate) throws Exception {
+        String today = date.format(DateTimeFormatter.ofPattern("uuuu/MM/dd"));
+        HashMap<String, Double> diffs = new HashMap<>();
+        try (Connection conn = MySQLManager.getConnection()) {
+            CreditBalances.ensureTable(conn);
+            conn.setAutoCommit(false);
+            ArrayList<OrderPO> delayed;
+            try (PreparedStatement pst = conn.prepareStatement("SELECT * FROM `orders` WHERE `state` = ? AND `startdate` < ? FOR UPDATE")) {
+                pst.setInt(1, OrderState.BOOKED.ordinal());
+                pst.setString(2, today);
+                delayed = convertToArrayList(pst.executeQuery());
+            }
+            if (delayed.isEmpty()) {
+                conn.commit();
+                return delayed;
+            }
+            try (PreparedStatement pst = conn.prepareStatement("UPDATE `orders` SET `state` = ? WHERE `state` = ? AND `startdate` < ?")) {
+                pst.setInt(1, OrderState.DELAYED.ordinal());
+                pst.setInt(2, OrderState.BOOKED.ordinal());
+                pst.setString(3, today);
+                pst.executeUpdate();
+            }
+            try (PreparedStatement pst = conn.prepareStatement("INSERT INTO `creditrecord` (`username`, `orderid`, `action`, `diff`) VALUES (?, ?, ?, ?)")) {
+                for (OrderPO po : delayed) {
+                    po.setState(OrderState.DELAYED);
+                    po.markClean();
+                    pst.setString(1, po.getUsername());
+                    pst.setInt(2, po.getId());
+                    pst.setInt(3, action.ordinal());
+                    pst.setDouble(4, po.getPrice() * creditRate);
+                    pst.addBatch();
+                    diffs.merge(po.getUsername(), po.getPrice() * creditRate, Double::sum);
+                }
+                pst.executeBatch();
+            }
+            CreditBalances.add(conn, diffs);
+            conn.commit();
+            return delayed;
+        } finally {
+            CreditBalances.invalidate(diffs.keySet());
+        }
     }
 
     private ArrayList<OrderPO> convertToArrayList(ResultSet rs) throws Exception {
@@ -99,7 +253,7 @@ public class OrderDataServiceImpl implements OrderDataService {
     }
 
     private OrderPO createPO(ResultSet rs) throws Exception {
-        return new OrderPO(
+        OrderPO po = new OrderPO(
                 rs.getInt("id"),
                 rs.getString("username"),
                 rs.getInt("hotelid"),
@@ -115,5 +269,7 @@ public class OrderDataServiceImpl implements OrderDataService {
                 rs.getInt("rank"),
                 rs.getString("comment")
         );
+        po.markClean();
+        return po;
     }
 }
@@ -0,0 +1,124 @@
+package nju.quadra.hms.data.mysql;
+
+import nju.quadra.hms.dataservice.OrderQuery;
+import nju.quadra.hms.model.OrderState;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Set;
+
+/**
+ * 将订单查询条件编译为单条参数化的 SELECT 语句
+ * 条件的列顺序与 OrderDataServiceImpl 建立的复合索引一致，等值条件在前，入住日期的范围与分页条件在后
+ */
+class OrderQueryStatement {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("uuuu/MM/dd");
+
+    private final StringBuilder where = new StringBuilder();
+    private final ArrayList<Object> params = new ArrayList<>();
+
+    OrderQueryStatement(OrderQuery query) {
+        if (query.getUsername() != null) {
+            and("`username` = ?", query.getUsername());
+        }
+        if (query.getHotelId() > 0) {
+            and("`hotelid` = ?", query.getHotelId());
+        }
+        if (query.getRoomId() > 0) {
+            and("`roomid` = ?", query.getRoomId());
+        }
+        Set<OrderState> states = query.getStates();
+        if (states != null && states.size() < OrderState.values().length) {
+            if (states.isEmpty()) {
+                and("FALSE");
+            } else if (states.size() == 1) {
+                and("`state` = ?", states.iterator().next().ordinal());
+            } else {
+                StringBuilder in = new StringBuilder("`state` IN (");
+                Object[] ordinals = new Object[states.size()];
+                int i = 0;
+                for (OrderState state : states) {
+                    in.append(i == 0 ? "?" : ", ?");
+                    ordinals[i++] = state.ordinal();
+                }
+                and(in.append(')').toString(), ordinals);
+            }
+        }
+        if (query.getStartFrom() != null) {
+            and("`startdate` >= ?", format(query.getStartFrom()));
+        }
+        if (query.getStartTo() != null) {
+            and("`startdate` <= ?", format(query.getStartTo()));
+        }
+        if (query.getEndFrom() != null) {
+            and("`enddate` >= ?", format(query.getEndFrom()));
+        }
+        if (query.getEndTo() != null) {
+            and("`enddate` <= ?", format(query.getEndTo()));
+        }
+    }
+
+    /**
+     * 读取一页订单，按入住日期、订单编号从大到小排列
+     *
+     * @param afterDate 上一页最后一个订单的入住日期，第一页为 null
+     * @param afterId   上一页最后一个订单的编号
+     */
+    PreparedStatement prepareSelect(Connection conn, LocalDate afterDate, int afterId, int limit) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM `orders`");
+        ArrayList<Object> values = new ArrayList<>(params);
+        String condition = where.toString();
+        if (afterDate != null) {
+            String after = format(afterDate);
+            String keyset = "(`startdate` < ? OR (`startdate` = ? AND `id` < ?))";
+            condition = condition.isEmpty() ? keyset : condition + " AND " + keyset;
+            values.add(after);
+            values.add(after);
+            values.add(afterId);
+        }
+        if (!condition.isEmpty()) {
+            sql.append(" WHERE ").append(condition);
+        }
+        sql.append(" ORDER BY `startdate` DESC, `id` DESC LIMIT ?");
+        values.add(limit);
+        return prepare(conn, sql.toString(), values);
+    }
+
+    PreparedStatement prepareCount(Connection conn) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM `orders`" + (where.length() == 0 ? "" : " WHERE " + where);
+        return prepare(conn, sql, params);
+    }
+
+    private void and(String condition, Object... values) {
+        if (where.length() > 0) {
+            where.append(" AND ");
+        }
+        where.append(condition);
+        for (Object value : values) {
+            params.add(value);
+        }
+    }
+
+    private static String format(LocalDate date) {
+        return date.format(DATE_FORMAT);
+    }
+
+    private static PreparedStatement prepare(Connection conn, String sql, ArrayList<Object> values) throws SQLException {
+        PreparedStatement pst = conn.prepareStatement(sql);
+        try {
+            for (int i = 0; i < values.size(); i++) {
+                pst.setObject(i + 1, values.get(i));
+            }
+            return pst;
+        } catch (SQLException e) {
+            pst.close();
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+package nju.quadra.hms.data.mysql;
+
+import nju.quadra.hms.dataservice.RoomInventoryDataService;
+import nju.quadra.hms.model.OrderState;
+import nju.quadra.hms.po.OrderPO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+public class RoomInventoryDataServiceImpl implements RoomInventoryDataService {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("uuuu/MM/dd");
+    private static volatile boolean tableReady = false;
+
+    @Override
+    public HashMap<LocalDate, Integer> get(int roomId, LocalDate from) throws Exception {
+        HashMap<LocalDate, Integer> result = new HashMap<>();
+        try (Connection conn = MySQLManager.getConnection()) {
+            ensureTable(conn);
+            try (PreparedStatement pst = conn.prepareStatement("SELECT `night`, `booked` FROM `roominventory` WHERE `roomid` = ? AND `night` >= ? AND `booked` > 0")) {
+                pst.setInt(1, roomId);
+                pst.setString(2, from.format(DATE_FORMAT));
+                ResultSet rs = pst.executeQuery();
+                while (rs.next()) {
+                    result.put(rs.getDate("night").toLocalDate(), rs.getInt("booked"));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void adjust(int roomId, LocalDate start, LocalDate end, int diff) throws Exception {
+        if (diff == 0 || !start.isBefore(end)) {
+            return;
+        }
+        try (Connection conn = MySQLManager.getConnection()) {
+            ensureTable(conn);
+            conn.setAutoCommit(false);
+            addBooked(conn, roomId, start, end, diff);
+            if (diff < 0) {
+                try (PreparedStatement pst = conn.prepareStatement("DELETE FROM `roominventory` WHERE `roomid` = ? AND `booked` <= 0")) {
+                    pst.setInt(1, roomId);
+                    pst.executeUpdate();
+                }
+            }
+            conn.commit();
+        }
+    }
+
+    @Override
+    public boolean reserve(OrderPO po, int total) throws Exception {
+        int roomId = po.getRoomId();
+        LocalDate start = po.getStartDate(), end = po.getEndDate();
+        try (Connection conn = MySQLManager.getConnection()) {
+            ensureTable(conn);
+            conn.setAutoCommit(false);
+            try {
+                // 先补齐每晚的台账记录，使 FOR UPDATE 锁定记录本身；各事务按日期顺序加锁，不会互相死锁
+                addBooked(conn, roomId, start, end, 0);
+                int maxBooked = 0;
+                try (PreparedStatement pst = conn.prepareStatement("SELECT `booked` FROM `roominventory` WHERE `roomid` = ? AND `night` >= ? AND `night` < ? FOR UPDATE")) {
+                    pst.setInt(1, roomId);
+                    pst.setString(2, start.format(DATE_FORMAT));
+                    pst.setString(3, end.format(DATE_FORMAT));
+                    ResultSet rs = pst.executeQuery();
+                    while (rs.next()) {
+                        maxBooked = Math.max(maxBooked, rs.getInt("booked"));
+                    }
+                }
+                if (total - maxBooked < po.getRoomCount()) {
+                    conn.rollback();
+                    return false;
+                }
+                OrderDataServiceImpl.insert(conn, po);
+                addBooked(conn, roomId, start, end, po.getRoomCount());
+                conn.commit();
+                return true;
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void delete(int roomId) throws Exception {
+        try (Connection conn = MySQLManager.getConnection()) {
+            ensureTable(conn);
+            try (PreparedStatement pst = conn.prepareStatement("DELETE FROM `roominventory` WHERE `roomid` = ?")) {
+                pst.setInt(1, roomId);
+                pst.executeUpdate();
+            }
+        }
+    }
+
+    private static void addBooked(Connection conn, int roomId, LocalDate start, LocalDate end, int diff) throws SQLException {
+        try (PreparedStatement pst = conn.prepareStatement("INSERT INTO `roominventory` (`roomid`, `night`, `booked`) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE `booked` = `booked` + VALUES(`booked`)")) {
+            for (LocalDate night = start; night.isBefore(end); night = night.plusDays(1)) {
+                pst.setInt(1, roomId);
+                pst.setString(2, night.format(DATE_FORMAT));
+                pst.setInt(3, diff);
+                pst.addBatch();
+            }
+            pst.executeBatch();
+        }
+    }
+
+    /**
+     * 首次使用时建立台账表，并根据仍占用客房的订单回填数据
+     */
+    private static void ensureTable(Connection conn) throws SQLException {
+        if (tableReady) {
+            return;
+        }
+        synchronized (RoomInventoryDataServiceImpl.class) {
+            if (tableReady) {
+                return;
+            }
+            boolean exists;
+            try (ResultSet rs = conn.getMetaData().getTables(null, null, "roominventory", null)) {
+                exists = rs.next();
+            }
+            if (!exists) {
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate("CREATE TABLE IF NOT EXISTS `roominventory` ("
+                            + "`roomid` INT NOT NULL, `night` DATE NOT NULL, `booked` INT NOT NULL DEFAULT 0, "
+                            + "PRIMARY KEY (`roomid`, `night`))");
+                }
+                backfill(conn);
+            }
+            tableReady = true;
+        }
+    }
+
+    private static void backfill(Connection conn) throws SQLException {
+        LocalDate today = LocalDate.now();
+        Map<Integer, Map<LocalDate, Integer>> ledger = new HashMap<>();
+        try (PreparedStatement pst = conn.prepareStatement("SELECT `roomid`, `startdate`, `enddate`, `roomcount` FROM `orders` "
+                + "WHERE `state` IN (?, ?, ?) AND `enddate` > ?")) {
+            pst.setInt(1, OrderState.BOOKED.ordinal());
+            pst.setInt(2, OrderState.UNFINISHED.ordinal());
+            pst.setInt(3, OrderState.DELAYED.ordinal());
+            pst.setString(4, today.format(DATE_FORMAT));
+            ResultSet rs = pst.executeQuery();
+            while (rs.next()) {
+                Map<LocalDate, Integer> nights = ledger.computeIfAbsent(rs.getInt("roomid"), k -> new HashMap<>());
+                LocalDate start = rs.getDate("startdate").toLocalDate();
+                LocalDate end = rs.getDate("enddate").toLocalDate();
+                int count = rs.getInt("roomcount");
+                for (LocalDate night = start.isBefore(today) ? today : start; night.isBefore(end); night = night.plusDays(1)) {
+                    nights.merge(night, count, Integer::sum);
+                }
+            }
+        }
+        try (PreparedStatement pst = conn.prepareStatement("INSERT INTO `roominventory` (`roomid`, `night`, `booked`) VALUES (?, ?, ?)")) {
+            for (Map.Entry<Integer, Map<LocalDate, Integer>> room : ledger.entrySet()) {
+                for (Map.Entry<LocalDate, Integer> night : room.getValue().entrySet()) {
+                    pst.setInt(1, room.getKey());
+                    pst.setString(2, night.getKey().format(DATE_FORMAT));
+                    pst.setInt(3, night.getValue());
+                    pst.addBatch();
+                }
+            }
+            pst.executeBatch();
+        }
+    }
+
+}
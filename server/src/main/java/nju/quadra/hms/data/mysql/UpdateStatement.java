@@ -0,0 +1,79 @@
+package nju.quadra.hms.data.mysql;
+
+import nju.quadra.hms.po.TrackedPO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 单条 UPDATE 语句的构造器
+ * 按列收集取值，若对象正在跟踪修改则只写入被修改的列
+ */
+class UpdateStatement {
+
+    private final String table;
+    private final TrackedPO po;
+    private final Set<String> dirtyColumns;
+    private final LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+
+    UpdateStatement(String table, TrackedPO po) {
+        this.table = table;
+        this.po = po;
+        this.dirtyColumns = po.getDirtyColumns();
+    }
+
+    /**
+     * 设置某列的新值，日期等类型应先转换为数据库接受的字符串
+     */
+    UpdateStatement set(String column, Object value) {
+        if (dirtyColumns == null || dirtyColumns.contains(column)) {
+            values.put(column, value);
+        }
+        return this;
+    }
+
+    /**
+     * 在同一事务中执行更新
+     *
+     * @param keyColumn 主键列名
+     * @param key       主键值
+     * @param notFound  记录不存在时的异常信息
+     * @throws Exception 数据库访问异常或记录不存在
+     */
+    void execute(String keyColumn, Object key, String notFound) throws Exception {
+        if (values.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE `").append(table).append("` SET ");
+        boolean first = true;
+        for (String column : values.keySet()) {
+            if (!first) {
+                sql.append(", ");
+            }
+            sql.append('`').append(column).append("` = ?");
+            first = false;
+        }
+        sql.append(" WHERE `").append(keyColumn).append("` = ?");
+
+        try (Connection conn = MySQLManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pst = conn.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (Map.Entry<String, Object> entry : values.entrySet()) {
+                    pst.setObject(index++, entry.getValue());
+                }
+                pst.setObject(index, key);
+                if (pst.executeUpdate() == 0) {
+                    conn.rollback();
+                    throw new Exception(notFound);
+                }
+            }
+            conn.commit();
+        }
+        po.markClean();
+    }
+
+}
@@ -4,6 +4,7 @@ import nju.quadra.hms.dataservice.WebsitePromotionDataService;
 import nju.quadra.hms.model.WebsitePromotionType;
 import nju.quadra.hms.po.WebsitePromotionPO;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Types;
@@ -15,65 +16,74 @@ public class WebsitePromotionDataServiceImpl implements WebsitePromotionDataServ
     @Override
     public ArrayList<WebsitePromotionPO> getAll() throws Exception {
         ArrayList<WebsitePromotionPO> result = new ArrayList<>();
-        PreparedStatement pst = MySQLManager.getConnection()
-                .prepareStatement("SELECT * FROM `websitepromotion`");
-        ResultSet rs = pst.executeQuery();
-        while (rs.next()) {
-            result.add(createPO(rs));
+        try (Connection conn = MySQLManager.getConnection();
+             PreparedStatement pst = conn.prepareStatement("SELECT * FROM `websitepromotion`")) {
+            ResultSet rs = pst.executeQuery();
+            while (rs.next()) {
+                result.add(createPO(rs));
+            }
         }
         return result;
     }
 
     @Override
     public WebsitePromotionPO getById(int id) throws Exception {
-        PreparedStatement pst = MySQLManager.getConnection()
-                .prepareStatement("SELECT * FROM `websitepromotion` WHERE `id` = ?");
-        pst.setInt(1, id);
-        ResultSet rs = pst.executeQuery();
-        rs.next();
-        return createPO(rs);
+        try (Connection conn = MySQLManager.getConnection();
+             PreparedStatement pst = conn.prepareStatement("SELECT * FROM `websitepromotion` WHERE `id` = ?")) {
+            pst.setInt(1, id);
+            ResultSet rs = pst.executeQuery();
+            rs.next();
+            return createPO(rs);
+        }
     }
 
     @Override
     public void insert(WebsitePromotionPO po) throws Exception {
-        PreparedStatement pst = MySQLManager.getConnection()
-                .prepareStatement("INSERT INTO `websitepromotion` (`id`, `name`, `type`, `starttime`, `endtime`, "
-                        + "`promotion`, `areaid` , `memberlevel`) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
-        if (po.getId() > 0)
-            pst.setInt(1, po.getId());
-        else
-            pst.setNull(1, Types.INTEGER);
-        pst.setString(2, po.getName());
-        pst.setInt(3, po.getType().ordinal());
-        pst.setString(4, po.getStartTime().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")));
-        pst.setString(5, po.getEndTime().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")));
-        pst.setDouble(6, po.getPromotion());
-        pst.setInt(7, po.getAreaId());
-        pst.setString(8, po.getMemberLevel());
-        pst.executeUpdate();
+        try (Connection conn = MySQLManager.getConnection();
+             PreparedStatement pst = conn.prepareStatement("INSERT INTO `websitepromotion` (`id`, `name`, `type`, `starttime`, `endtime`, "
+                     + "`promotion`, `areaid` , `memberlevel`) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            if (po.getId() > 0)
+                pst.setInt(1, po.getId());
+            else
+                pst.setNull(1, Types.INTEGER);
+            pst.setString(2, po.getName());
+            pst.setInt(3, po.getType().ordinal());
+            pst.setString(4, po.getStartTime().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")));
+            pst.setString(5, po.getEndTime().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")));
+            pst.setDouble(6, po.getPromotion());
+            pst.setInt(7, po.getAreaId());
+            pst.setString(8, po.getMemberLevel());
+            pst.executeUpdate();
+        }
     }
 
     @Override
     public void delete(WebsitePromotionPO po) throws Exception {
-        PreparedStatement pst = MySQLManager.getConnection()
-                .prepareStatement("DELETE FROM `websitepromotion` WHERE `id` = ?");
-        pst.setDouble(1, po.getId());
-        int result = pst.executeUpdate();
-        if (result == 0) {
-            throw new Exception("WebsitePromotion not found");
+        try (Connection conn = MySQLManager.getConnection();
+             PreparedStatement pst = conn.prepareStatement("DELETE FROM `websitepromotion` WHERE `id` = ?")) {
+            pst.setDouble(1, po.getId());
+            int result = pst.executeUpdate();
+            if (result == 0) {
+                throw new Exception("WebsitePromotion not found");
+            }
         }
     }
 
     @Override
     public void update(WebsitePromotionPO po) throws Exception {
-        // Delete first
-        delete(po);
-        // Then insert it again
-        insert(po);
+        new UpdateStatement("websitepromotion", po)
+                .set("name", po.getName())
+                .set("type", po.getType().ordinal())
+                .set("starttime", po.getStartTime().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")))
+                .set("endtime", po.getEndTime().format(DateTimeFormatter.ofPattern("uuuu/MM/dd")))
+                .set("promotion", po.getPromotion())
+                .set("areaid", po.getAreaId())
+                .set("memberlevel", po.getMemberLevel())
+                .execute("id", po.getId(), "WebsitePromotion not found");
     }
 
     private WebsitePromotionPO createPO(ResultSet rs) throws Exception {
-        return new WebsitePromotionPO(
+        WebsitePromotionPO po = new WebsitePromotionPO(
                 rs.getInt("id"),
                 rs.getString("name"),
                 WebsitePromotionType.getById(rs.getInt("type")),
@@ -83,6 +93,8 @@ public class WebsitePromotionDataServiceImpl implements WebsitePromotionDataServ
                 rs.getInt("areaid"),
                 rs.getString("memberlevel")
         );
+        po.markClean();
+        return po;
     }
 
 }
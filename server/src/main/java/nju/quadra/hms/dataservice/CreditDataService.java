@@ -17,6 +17,15 @@ public interface CreditDataService {
      */
     ArrayList<CreditRecordPO> get(String username) throws Exception;
 
+    /**
+     * 获得用户全部信用记录变化量之和，该值与信用记录同时维护，不需要读取全部信用记录
+     *
+     * @param username 用户名
+     * @return 信用记录变化量之和，没有信用记录时为 0
+     * @throws Exception 数据库访问异常
+     */
+    double getTotalDiff(String username) throws Exception;
+
     /**
      * 在数据库中插入CreditRecordPO对象
      *
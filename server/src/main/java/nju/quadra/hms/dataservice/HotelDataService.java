@@ -4,6 +4,7 @@ import nju.quadra.hms.po.AreaPO;
 import nju.quadra.hms.po.HotelPO;
 
 import java.util.ArrayList;
+import java.util.Collection;
 
 /**
  * 负责酒店信息管理的数据层服务
@@ -26,6 +27,15 @@ public interface HotelDataService {
      */
     HotelPO getById(int id) throws Exception;
 
+    /**
+     * 根据一组酒店ID一次性查找并获得HotelPO对象
+     *
+     * @param ids 酒店编号集合
+     * @return 酒店信息实例化对象的集合，不存在的编号不包含在内
+     * @throws Exception 数据库访问异常
+     */
+    ArrayList<HotelPO> getByIds(Collection<Integer> ids) throws Exception;
+
     /**
      * 根据商圈ID查找并获得HotelPO对象
      *
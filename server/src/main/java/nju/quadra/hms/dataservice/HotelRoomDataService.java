@@ -3,6 +3,7 @@ package nju.quadra.hms.dataservice;
 import nju.quadra.hms.po.HotelRoomPO;
 
 import java.util.ArrayList;
+import java.util.Collection;
 
 /**
  * 负责客房信息管理的数据层服务
@@ -34,6 +35,15 @@ public interface HotelRoomDataService {
      */
     HotelRoomPO getById(int roomId) throws Exception;
 
+    /**
+     * 根据一组客房编号一次性查找并获得客房
+     *
+     * @param roomIds 客房编号集合
+     * @return 客房信息实例化对象集合，不存在的编号不包含在内
+     * @throws Exception 数据库访问异常
+     */
+    ArrayList<HotelRoomPO> getByIds(Collection<Integer> roomIds) throws Exception;
+
     /**
      * 在数据库中删除HotelRoomPO对象
      *
@@ -1,8 +1,10 @@
 package nju.quadra.hms.dataservice;
 
+import nju.quadra.hms.model.CreditAction;
 import nju.quadra.hms.model.OrderState;
 import nju.quadra.hms.po.OrderPO;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 
 /**
@@ -36,6 +38,25 @@ public interface OrderDataService {
      */
     ArrayList<OrderPO> getByState(OrderState state) throws Exception;
 
+    /**
+     * 分页获得符合条件的订单，顺序与 getByCustomer 相同，即按入住日期、订单编号从大到小
+     *
+     * @param query     查询条件
+     * @param afterDate 上一页最后一个订单的入住日期，第一页为 null
+     * @param afterId   上一页最后一个订单的编号
+     * @param limit     最多返回的订单数量
+     * @return 订单实例化对象集合
+     * @throws Exception 数据库访问异常
+     */
+    ArrayList<OrderPO> query(OrderQuery query, LocalDate afterDate, int afterId, int limit) throws Exception;
+
+    /**
+     * @param query 查询条件
+     * @return 符合条件的订单数量
+     * @throws Exception 数据库访问异常
+     */
+    int count(OrderQuery query) throws Exception;
+
     /**
      * 获得对应订单编号订单信息
      *
@@ -68,4 +89,16 @@ public interface OrderDataService {
      * @throws Exception 数据库访问异常
      */
     void delete(OrderPO po) throws Exception;
+
+    /**
+     * 在同一事务中将入住日期早于 date 且仍未入住的订单标记为异常，
+     * 并为每个订单插入一条信用记录，信用变化为订单价格乘以 creditRate
+     *
+     * @param date       当前日期
+     * @param action     信用记录动作
+     * @param creditRate 信用变化比例
+     * @return 被标记为异常的订单实例化对象集合
+     * @throws Exception 数据库访问异常
+     */
+    ArrayList<OrderPO> markDelayed(LocalDate date, CreditAction action, double creditRate) throws Exception;
 }
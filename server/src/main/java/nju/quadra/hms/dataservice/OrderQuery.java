@@ -0,0 +1,138 @@
+package nju.quadra.hms.dataservice;
+
+import nju.quadra.hms.model.OrderState;
+import nju.quadra.hms.po.OrderPO;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 订单查询条件，各条件之间为"且"的关系，未设置的条件不限
+ * 用法：new OrderQuery().hotelId(1).states(EnumSet.of(OrderState.BOOKED)).endFrom(today)
+ */
+public class OrderQuery {
+
+    private String username;
+    private int hotelId;
+    private int roomId;
+    private EnumSet<OrderState> states;
+    private LocalDate startFrom, startTo;
+    private LocalDate endFrom, endTo;
+
+    /**
+     * @param username 客户用户名，为 null 时不限
+     */
+    public OrderQuery username(String username) {
+        this.username = username;
+        return this;
+    }
+
+    /**
+     * @param hotelId 酒店编号，不大于 0 时不限
+     */
+    public OrderQuery hotelId(int hotelId) {
+        this.hotelId = hotelId;
+        return this;
+    }
+
+    /**
+     * @param roomId 客房类型编号，不大于 0 时不限
+     */
+    public OrderQuery roomId(int roomId) {
+        this.roomId = roomId;
+        return this;
+    }
+
+    /**
+     * @param states 允许的订单状态，为 null 时不限，为空集合时没有订单符合条件
+     */
+    public OrderQuery states(Collection<OrderState> states) {
+        this.states = states == null ? null : states.isEmpty() ? EnumSet.noneOf(OrderState.class) : EnumSet.copyOf(states);
+        return this;
+    }
+
+    /**
+     * @param date 入住日期不早于该日期，为 null 时不限
+     */
+    public OrderQuery startFrom(LocalDate date) {
+        this.startFrom = date;
+        return this;
+    }
+
+    /**
+     * @param date 入住日期不晚于该日期，为 null 时不限
+     */
+    public OrderQuery startTo(LocalDate date) {
+        this.startTo = date;
+        return this;
+    }
+
+    /**
+     * @param date 离开日期不早于该日期，为 null 时不限
+     */
+    public OrderQuery endFrom(LocalDate date) {
+        this.endFrom = date;
+        return this;
+    }
+
+    /**
+     * @param date 离开日期不晚于该日期，为 null 时不限
+     */
+    public OrderQuery endTo(LocalDate date) {
+        this.endTo = date;
+        return this;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getHotelId() {
+        return hotelId;
+    }
+
+    public int getRoomId() {
+        return roomId;
+    }
+
+    /**
+     * @return 允许的订单状态，不限时为 null
+     */
+    public Set<OrderState> getStates() {
+        return states == null ? null : Collections.unmodifiableSet(states);
+    }
+
+    public LocalDate getStartFrom() {
+        return startFrom;
+    }
+
+    public LocalDate getStartTo() {
+        return startTo;
+    }
+
+    public LocalDate getEndFrom() {
+        return endFrom;
+    }
+
+    public LocalDate getEndTo() {
+        return endTo;
+    }
+
+    /**
+     * 判断订单是否符合全部条件，与数据库查询的结果一致
+     */
+    public boolean matches(OrderPO po) {
+        return (username == null || username.equals(po.getUsername()))
+                && (hotelId <= 0 || po.getHotelId() == hotelId)
+                && (roomId <= 0 || po.getRoomId() == roomId)
+                && (states == null || states.contains(po.getState()))
+                && (startFrom == null || po.getStartDate().compareTo(startFrom) >= 0)
+                && (startTo == null || po.getStartDate().compareTo(startTo) <= 0)
+                && (endFrom == null || po.getEndDate().compareTo(endFrom) >= 0)
+                && (endTo == null || po.getEndDate().compareTo(endTo) <= 0);
+    }
+
+}
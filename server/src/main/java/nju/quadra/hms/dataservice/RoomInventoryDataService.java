@@ -0,0 +1,51 @@
+package nju.quadra.hms.dataservice;
+
+import nju.quadra.hms.po.OrderPO;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+
+/**
+ * 负责客房库存台账（每间客房每晚已预订数量）的数据层服务
+ */
+public interface RoomInventoryDataService {
+    /**
+     * 获得某客房自某日起每晚的已预订数量
+     *
+     * @param roomId 客房编号
+     * @param from   起始日期（含）
+     * @return 日期到已预订数量的映射，没有预订的日期不包含在内
+     * @throws Exception 数据库访问异常
+     */
+    HashMap<LocalDate, Integer> get(int roomId, LocalDate from) throws Exception;
+
+    /**
+     * 调整某客房在 [start, end) 每晚的已预订数量
+     *
+     * @param roomId 客房编号
+     * @param start  起始日期（含）
+     * @param end    结束日期（不含）
+     * @param diff   数量变化，预订为正，释放为负
+     * @throws Exception 数据库访问异常
+     */
+    void adjust(int roomId, LocalDate start, LocalDate end, int diff) throws Exception;
+
+    /**
+     * 在同一事务中检查订单入住期间该客房每晚的剩余数量，足够时添加订单并占用客房
+     * 检查期间锁定相关的台账记录，同一客房的并发预订依次执行
+     *
+     * @param po    订单
+     * @param total 客房总数量
+     * @return 剩余数量足够并已添加订单时返回 true，否则不做任何修改并返回 false
+     * @throws Exception 数据库访问异常
+     */
+    boolean reserve(OrderPO po, int total) throws Exception;
+
+    /**
+     * 删除某客房的全部台账记录
+     *
+     * @param roomId 客房编号
+     * @throws Exception 数据库访问异常
+     */
+    void delete(int roomId) throws Exception;
+}
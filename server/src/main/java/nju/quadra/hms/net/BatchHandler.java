@@ -0,0 +1,150 @@
+package nju.quadra.hms.net;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import nju.quadra.hms.model.LoginSession;
+import nju.quadra.hms.util.JsonCodec;
+import nju.quadra.hms.util.Logger;
+import nju.quadra.hms.util.MethodStats;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 批量远程调用
+ * 请求路径为 /batch/会话ID，请求内容为 [{"class": "HotelBL", "method": "getDetail", "params": [...]}, ...]，
+ * 响应为按相同顺序排列的 [{"result": ...} 或 {"error": "..."}, ...]。
+ * 相邻的只读调用并行执行，修改数据的调用在此前的调用全部完成后单独执行，因此修改与读取的先后顺序与请求中一致
+ */
+class BatchHandler implements HttpHandler {
+
+    static final int MAX_CALLS = 50;
+
+    private final RpcRegistry registry;
+    private final ExecutorService executor;
+
+    BatchHandler(RpcRegistry registry, ExecutorService executor) {
+        this.registry = registry;
+        this.executor = executor;
+    }
+
+    @Override
+    public void handle(HttpExchange httpExchange) throws IOException {
+        String[] paths = httpExchange.getRequestURI().getPath().split("/");
+        LoginSession session = paths.length < 3 ? null : SessionManager.get(paths[2]);
+        JsonArray calls;
+        try (Reader reader = new InputStreamReader(httpExchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            JsonElement json = new JsonParser().parse(reader);
+            calls = json.isJsonArray() ? json.getAsJsonArray() : null;
+        } catch (RuntimeException e) {
+            calls = null;
+        }
+        if (session == null || calls == null || calls.size() > MAX_CALLS) {
+            HttpQueryHandler.respond(httpExchange, null, "Invalid request");
+            return;
+        }
+
+        Call[] results = new Call[calls.size()];
+        ArrayList<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new Call(calls.get(i));
+            Call call = results[i];
+            if (call.method == null) {
+                continue;
+            }
+            if (!call.method.isReadOnly()) {
+                await(running);
+                call.run(session);
+            } else if (i + 1 < results.length) {
+                running.add(executor.submit(() -> call.run(session)));
+            } else {
+                // 最后一个调用在当前线程中执行
+                call.run(session);
+            }
+        }
+        await(running);
+
+        httpExchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        httpExchange.sendResponseHeaders(200, 0);
+        JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(httpExchange.getResponseBody(), StandardCharsets.UTF_8)));
+        writer.beginArray();
+        for (Call call : results) {
+            writer.beginObject();
+            if (call.error != null) {
+                writer.name("error").value(call.error);
+            } else {
+                writer.name("result");
+                JsonCodec.gson().toJson(call.result, call.method.getReturnType(), writer);
+            }
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.close();
+    }
+
+    private static void await(ArrayList<Future<?>> running) {
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                // 调用中的异常已记录在 Call 中
+                Logger.log(e);
+            }
+        }
+        running.clear();
+    }
+
+    /**
+     * 批量调用中的一个调用
+     */
+    private class Call {
+        private final RpcRegistry.RpcMethod method;
+        private final JsonElement params;
+        private volatile Object result;
+        private volatile String error;
+
+        private Call(JsonElement json) {
+            RpcRegistry.RpcMethod method = null;
+            JsonElement params = null;
+            if (json.isJsonObject()) {
+                JsonObject object = json.getAsJsonObject();
+                JsonElement className = object.get("class"), methodName = object.get("method");
+                if (className != null && className.isJsonPrimitive() && methodName != null && methodName.isJsonPrimitive()) {
+                    method = registry.get(className.getAsString(), methodName.getAsString());
+                }
+                params = object.get("params");
+            }
+            this.method = method;
+            this.params = params;
+            if (method == null) {
+                error = "Invalid request";
+            }
+        }
+
+        private void run(LoginSession session) {
+            MethodStats stats = method.getStats();
+            long start = stats.begin();
+            try {
+                result = method.invoke(session, method.parseParams(params));
+            } catch (Throwable e) {
+                Logger.log(e);
+                error = "Server exception: " + e.getClass().getSimpleName();
+            } finally {
+                stats.end(start, error == null);
+            }
+        }
+    }
+
+}
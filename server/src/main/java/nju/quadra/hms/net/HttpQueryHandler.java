@@ -1,24 +1,28 @@
 package nju.quadra.hms.net;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import nju.quadra.hms.model.LoginSession;
+import nju.quadra.hms.util.JsonCodec;
 import nju.quadra.hms.util.Logger;
+import nju.quadra.hms.util.MethodStats;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
-import java.util.Arrays;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 
 class HttpQueryHandler implements HttpHandler {
 
+    private final RpcRegistry registry;
+
+    HttpQueryHandler(RpcRegistry registry) {
+        this.registry = registry;
+    }
+
     /**
      * 处理 HTTP 请求的方法
      * @param httpExchange HTTP 上下文
@@ -27,59 +31,70 @@ class HttpQueryHandler implements HttpHandler {
     @Override
     public void handle(HttpExchange httpExchange) throws IOException {
         String[] paths = httpExchange.getRequestURI().getPath().split("/");
-        String result;
-        if (paths.length < 4 || !SessionManager.has(paths[3])) {
-            result = "Invalid request";
+        RpcRegistry.RpcMethod method = paths.length < 4 ? null : registry.get(paths[1], paths[2]);
+        if (method == null) {
+            respond(httpExchange, null, "Invalid request");
+            return;
+        }
+        // 统计从解析请求到写出响应的耗时
+        MethodStats stats = method.getStats();
+        long start = stats.begin();
+        boolean success = false;
+        try {
+            success = process(httpExchange, method, SessionManager.get(paths[3]));
+        } finally {
+            stats.end(start, success);
+        }
+    }
+
+    /**
+     * 调用业务逻辑方法并写出响应
+     * @return 调用是否成功
+     */
+    private boolean process(HttpExchange httpExchange, RpcRegistry.RpcMethod method, LoginSession session) throws IOException {
+        Object result;
+        String error = null;
+        if (session == null) {
+            result = null;
+            error = "Invalid request";
         } else {
             // Debug
-            // Logger.log("D", "Received HTTP query: /" + paths[1] + "/" + paths[2]);
+            // Logger.log("D", "Received HTTP query: " + httpExchange.getRequestURI().getPath());
 
             try {
-                // get class and method
-                Class<?> bl = Class.forName("nju.quadra.hms.bl." + paths[1]);
-                Method method = Arrays.stream(bl.getMethods()).filter(m -> m.getName().toLowerCase().equals(paths[2].toLowerCase())).findFirst().get();
-
-                // get HTTP request payload
-                InputStream is = httpExchange.getRequestBody();
-                ByteArrayOutputStream os = new ByteArrayOutputStream();
-                byte[] buf = new byte[is.available()];
-                is.read(buf);
-                os.write(buf);
-                String payload = os.toString("UTF-8");
-                os.close();
-                is.close();
-
-                // process parameters
-                int paramCount = method.getParameterCount();
-                Object[] params = new Object[paramCount];
-                Parameter[] requiredParams = method.getParameters();
-                JsonElement jsonParams = new JsonParser().parse(payload);
-                if (jsonParams.isJsonArray()) {
-                    JsonArray paramsArray = jsonParams.getAsJsonArray();
-                    for (int i = 0; i < paramsArray.size(); i++) {
-                        if (i >= paramCount) break;
-                        params[i] = new Gson().fromJson(paramsArray.get(i), requiredParams[i].getType());
-                    }
+                // parse HTTP request payload
+                JsonElement jsonParams;
+                try (Reader reader = new InputStreamReader(httpExchange.getRequestBody(), StandardCharsets.UTF_8)) {
+                    jsonParams = new JsonParser().parse(reader);
                 }
 
                 // invoke method
-                try {
-                    result = new Gson().toJson(method.invoke(bl.getConstructor(LoginSession.class).newInstance(SessionManager.get(paths[3])), params));
-                } catch (NoSuchMethodException e) {
-                    result = new Gson().toJson(method.invoke(bl.newInstance(), params));
-                }
+                result = method.invoke(session, method.parseParams(jsonParams));
             } catch (Throwable e) {
                 Logger.log(e);
-                result = "Server exception: " + e.getClass().getSimpleName();
+                result = null;
+                error = "Server exception: " + e.getClass().getSimpleName();
             }
         }
+        respond(httpExchange, result, error);
+        return error == null;
+    }
 
-        byte[] response = result.getBytes("UTF-8");
+    static void respond(HttpExchange httpExchange, Object result, String error) throws IOException {
         httpExchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-        httpExchange.sendResponseHeaders(200, response.length);
-        OutputStream os = httpExchange.getResponseBody();
-        os.write(response);
-        os.close();
+        if (error != null) {
+            byte[] response = error.getBytes("UTF-8");
+            httpExchange.sendResponseHeaders(200, response.length);
+            OutputStream os = httpExchange.getResponseBody();
+            os.write(response);
+            os.close();
+        } else {
+            // 长度未知，以分块方式直接将结果编码到响应中
+            httpExchange.sendResponseHeaders(200, 0);
+            OutputStream os = httpExchange.getResponseBody();
+            JsonCodec.toJson(result, os);
+            os.close();
+        }
     }
 
 }
@@ -1,6 +1,7 @@
 package nju.quadra.hms.net;
 
 import com.sun.net.httpserver.HttpServer;
+import nju.quadra.hms.util.ServerConfig;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -24,14 +25,28 @@ public class HttpService {
      * @throws IOException when the HTTP server failed to start
      */
     public void start() throws IOException {
+        // build RPC dispatch table
+        RpcRegistry registry;
+        try {
+            registry = RpcRegistry.build();
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Failed to build RPC dispatch table", e);
+        }
+        // start session reaper
+        ServerConfig config = ServerConfig.getConfig();
+        SessionManager.start(config.getSessionIdleTimeout(), config.getSessionMaxAge(), config.getMaxSessions());
         // create thread pool
         ExecutorService executor = Executors.newCachedThreadPool();
         // setup HTTP server
+        // 响应头与分块内容分多次写出，开启 Nagle 算法时会与客户端的延迟确认相互等待约 40ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
         httpServer = HttpServer.create(new InetSocketAddress(this.port), 0);
         httpServer.setExecutor(executor);
         httpServer.createContext("/AuthService/login", new UserLoginHandler());
         httpServer.createContext("/AuthService/register", new UserRegisterHandler());
-        httpServer.createContext("/", new HttpQueryHandler());
+        httpServer.createContext("/batch", new BatchHandler(registry, executor));
+        httpServer.createContext("/metrics", new MetricsHandler());
+        httpServer.createContext("/", new HttpQueryHandler(registry));
         httpServer.start();
     }
 
@@ -42,5 +57,13 @@ public class HttpService {
         if (httpServer != null) {
             httpServer.stop(0);
         }
+        SessionManager.stop();
+    }
+
+    /**
+     * @return 当前有效的登录会话数量
+     */
+    public static int getActiveSessionCount() {
+        return SessionManager.getActiveCount();
     }
 }
@@ -0,0 +1,127 @@
+package nju.quadra.hms.net;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import nju.quadra.hms.data.cache.EntityCache;
+import nju.quadra.hms.data.mysql.MySQLManager;
+import nju.quadra.hms.util.LatencyHistogram;
+import nju.quadra.hms.util.Metrics;
+import nju.quadra.hms.util.MethodStats;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 以 Prometheus 文本格式输出服务器运行统计
+ * 包括各业务逻辑方法与数据层方法的调用次数、失败次数、正在执行的调用数与耗时分位数，
+ * 以及实体缓存、数据库连接池与登录会话的状态
+ */
+class MetricsHandler implements HttpHandler {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    @Override
+    public void handle(HttpExchange httpExchange) throws IOException {
+        byte[] response = render().getBytes(StandardCharsets.UTF_8);
+        httpExchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        httpExchange.sendResponseHeaders(200, response.length);
+        OutputStream os = httpExchange.getResponseBody();
+        os.write(response);
+        os.close();
+    }
+
+    static String render() {
+        StringBuilder sb = new StringBuilder();
+        appendMethods(sb, "hms_rpc", "business logic call", "method", Metrics.getRpcStats());
+        appendMethods(sb, "hms_data", "data service call", "method", Metrics.getDataStats());
+
+        Collection<EntityCache<?, ?>> caches = EntityCache.getCaches();
+        appendHeader(sb, "hms_entity_cache_size", "gauge", "Number of entries in the entity cache");
+        for (EntityCache<?, ?> cache : caches) {
+            appendSample(sb, "hms_entity_cache_size", "cache", cache.getName(), null, cache.size());
+        }
+        appendHeader(sb, "hms_entity_cache_hits_total", "counter", "Entity cache hits");
+        for (EntityCache<?, ?> cache : caches) {
+            appendSample(sb, "hms_entity_cache_hits_total", "cache", cache.getName(), null, cache.getHits());
+        }
+        appendHeader(sb, "hms_entity_cache_misses_total", "counter", "Entity cache misses");
+        for (EntityCache<?, ?> cache : caches) {
+            appendSample(sb, "hms_entity_cache_misses_total", "cache", cache.getName(), null, cache.getMisses());
+        }
+        appendHeader(sb, "hms_entity_cache_evictions_total", "counter", "Entity cache entries evicted by size or expiry");
+        for (EntityCache<?, ?> cache : caches) {
+            appendSample(sb, "hms_entity_cache_evictions_total", "cache", cache.getName(), null, cache.getEvictions());
+        }
+
+        appendHeader(sb, "hms_db_pool_active", "gauge", "Database connections in use");
+        appendSample(sb, "hms_db_pool_active", null, null, null, MySQLManager.getActiveCount());
+        appendHeader(sb, "hms_db_pool_idle", "gauge", "Idle database connections");
+        appendSample(sb, "hms_db_pool_idle", null, null, null, MySQLManager.getIdleCount());
+        appendHeader(sb, "hms_db_pool_waiting", "gauge", "Threads waiting for a database connection");
+        appendSample(sb, "hms_db_pool_waiting", null, null, null, MySQLManager.getWaitingCount());
+        appendHeader(sb, "hms_sessions_active", "gauge", "Active login sessions");
+        appendSample(sb, "hms_sessions_active", null, null, null, SessionManager.getActiveCount());
+        return sb.toString();
+    }
+
+    private static void appendMethods(StringBuilder sb, String prefix, String what, String label, List<MethodStats> stats) {
+        appendHeader(sb, prefix + "_requests_total", "counter", "Number of " + what + "s");
+        for (MethodStats method : stats) {
+            appendSample(sb, prefix + "_requests_total", label, method.getName(), null, method.getCalls());
+        }
+        appendHeader(sb, prefix + "_errors_total", "counter", "Number of failed " + what + "s");
+        for (MethodStats method : stats) {
+            appendSample(sb, prefix + "_errors_total", label, method.getName(), null, method.getErrors());
+        }
+        appendHeader(sb, prefix + "_in_flight", "gauge", "Number of " + what + "s in progress");
+        for (MethodStats method : stats) {
+            appendSample(sb, prefix + "_in_flight", label, method.getName(), null, method.getInFlight());
+        }
+        appendHeader(sb, prefix + "_duration_seconds", "summary", "Latency of " + what + "s since server start");
+        StringBuilder max = new StringBuilder();
+        for (MethodStats method : stats) {
+            LatencyHistogram.Snapshot latency = method.getLatency();
+            for (double quantile : QUANTILES) {
+                appendSample(sb, prefix + "_duration_seconds", label, method.getName(), String.valueOf(quantile),
+                        latency.getQuantile(quantile) / NANOS_PER_SECOND);
+            }
+            appendSample(sb, prefix + "_duration_seconds_sum", label, method.getName(), null, latency.getSum() / NANOS_PER_SECOND);
+            appendSample(sb, prefix + "_duration_seconds_count", label, method.getName(), null, latency.getCount());
+            appendSample(max, prefix + "_duration_seconds_max", label, method.getName(), null, latency.getMax() / NANOS_PER_SECOND);
+        }
+        appendHeader(sb, prefix + "_duration_seconds_max", "gauge", "Maximum latency of " + what + "s since server start");
+        sb.append(max);
+    }
+
+    private static void appendHeader(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void appendSample(StringBuilder sb, String name, String label, String value, String quantile, double sample) {
+        sb.append(name);
+        if (label != null) {
+            sb.append('{').append(label).append("=\"").append(escape(value)).append('"');
+            if (quantile != null) {
+                sb.append(",quantile=\"").append(quantile).append('"');
+            }
+            sb.append('}');
+        }
+        sb.append(' ');
+        if (sample == Math.rint(sample) && Math.abs(sample) < 1e15) {
+            sb.append((long) sample);
+        } else {
+            sb.append(sample);
+        }
+        sb.append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+}
@@ -0,0 +1,176 @@
+package nju.quadra.hms.net;
+
+import nju.quadra.hms.blservice.*;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import nju.quadra.hms.model.LoginSession;
+import nju.quadra.hms.util.JsonCodec;
+import nju.quadra.hms.util.Metrics;
+import nju.quadra.hms.util.MethodStats;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+
+/**
+ * 远程调用分派表
+ * 启动时根据 blservice 接口一次性解析全部可远程调用的方法，之后每次调用只需一次哈希查找
+ */
+class RpcRegistry {
+
+    private static final Class<?>[] SERVICES = {
+            CreditRecordBLService.class,
+            CustomerBLService.class,
+            HotelBLService.class,
+            HotelPromotionBLService.class,
+            HotelRoomBLService.class,
+            OrderBLService.class,
+            UserBLService.class,
+            WebsitePromotionBLService.class
+    };
+
+    /**
+     * 以这些前缀命名的方法只读取数据，批量调用时可以并行执行
+     */
+    private static final String[] READ_ONLY_PREFIXES = {"get", "search", "query"};
+
+    private final HashMap<String, RpcMethod> methods = new HashMap<>();
+
+    private RpcRegistry() {
+    }
+
+    /**
+     * 根据 blservice 接口与 bl 包中的对应实现建立分派表
+     *
+     * @return 分派表
+     * @throws ReflectiveOperationException 找不到接口的实现或实现的构造方法
+     */
+    static RpcRegistry build() throws ReflectiveOperationException {
+        RpcRegistry registry = new RpcRegistry();
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (Class<?> service : SERVICES) {
+            // 与客户端的约定: XXXBLService 由 bl.XXXBL 实现，请求路径为 /XXXBL/method
+            String className = service.getSimpleName().replace("Service", "");
+            Class<?> impl = Class.forName("nju.quadra.hms.bl." + className);
+            if (!service.isAssignableFrom(impl)) {
+                throw new ClassCastException(impl.getName() + " does not implement " + service.getName());
+            }
+            MethodHandle factory = resolveFactory(lookup, impl);
+            for (Method method : service.getMethods()) {
+                MethodHandle invoker = lookup.unreflect(method)
+                        .asSpreader(Object[].class, method.getParameterCount())
+                        .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+                registry.methods.put(key(className, method.getName()),
+                        new RpcMethod(factory, invoker, method.getGenericParameterTypes(), method.getGenericReturnType(),
+                                isReadOnly(method.getName()), Metrics.rpc(className + "/" + method.getName())));
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * 查找远程调用方法，方法名不区分大小写
+     *
+     * @return 远程调用方法，不存在时返回 null
+     */
+    RpcMethod get(String className, String methodName) {
+        return methods.get(key(className, methodName));
+    }
+
+    private static String key(String className, String methodName) {
+        return className + "/" + methodName.toLowerCase();
+    }
+
+    private static boolean isReadOnly(String methodName) {
+        for (String prefix : READ_ONLY_PREFIXES) {
+            if (methodName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 优先使用带登录会话的构造方法，否则使用无参构造方法
+     */
+    private static MethodHandle resolveFactory(MethodHandles.Lookup lookup, Class<?> impl) throws ReflectiveOperationException {
+        MethodHandle factory;
+        try {
+            factory = lookup.findConstructor(impl, MethodType.methodType(void.class, LoginSession.class));
+        } catch (NoSuchMethodException e) {
+            factory = MethodHandles.dropArguments(lookup.findConstructor(impl, MethodType.methodType(void.class)), 0, LoginSession.class);
+        }
+        return factory.asType(MethodType.methodType(Object.class, LoginSession.class));
+    }
+
+    /**
+     * 一个可远程调用的业务逻辑方法
+     */
+    static class RpcMethod {
+        private final MethodHandle factory;
+        private final MethodHandle invoker;
+        private final Type[] parameterTypes;
+        private final Type returnType;
+        private final boolean readOnly;
+        private final MethodStats stats;
+
+        private RpcMethod(MethodHandle factory, MethodHandle invoker, Type[] parameterTypes, Type returnType, boolean readOnly, MethodStats stats) {
+            this.factory = factory;
+            this.invoker = invoker;
+            this.parameterTypes = parameterTypes;
+            this.returnType = returnType;
+            this.readOnly = readOnly;
+            this.stats = stats;
+        }
+
+        /**
+         * 按各参数的泛型类型反序列化参数，多余的参数被忽略，缺少的参数为 null
+         *
+         * @param json 参数数组
+         * @return 参数
+         */
+        Object[] parseParams(JsonElement json) {
+            Object[] params = new Object[parameterTypes.length];
+            if (json != null && json.isJsonArray()) {
+                JsonArray array = json.getAsJsonArray();
+                for (int i = 0; i < array.size() && i < params.length; i++) {
+                    params[i] = JsonCodec.fromJson(array.get(i), parameterTypes[i]);
+                }
+            }
+            return params;
+        }
+
+        /**
+         * @return 返回值的泛型类型，用于序列化
+         */
+        Type getReturnType() {
+            return returnType;
+        }
+
+        /**
+         * @return 方法是否只读取数据
+         */
+        boolean isReadOnly() {
+            return readOnly;
+        }
+
+        /**
+         * @return 该方法的调用统计
+         */
+        MethodStats getStats() {
+            return stats;
+        }
+
+        /**
+         * 以指定会话创建业务逻辑对象并调用方法
+         */
+        Object invoke(LoginSession session, Object[] params) throws Throwable {
+            Object bl = (Object) factory.invokeExact(session);
+            return (Object) invoker.invokeExact(bl, params);
+        }
+    }
+
+}
@@ -2,22 +2,140 @@ package nju.quadra.hms.net;
 
 import nju.quadra.hms.model.LoginSession;
 
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * 登录会话存储
+ * 会话在空闲超时或超过最长存活时间后失效，由后台线程定期清理；会话数量达到上限时淘汰最久未使用的会话
+ */
 class SessionManager {
 
-    private static final HashMap<String, LoginSession> sessions = new HashMap<>();
+    private static final ConcurrentHashMap<String, Entry> sessions = new ConcurrentHashMap<>();
+    private static volatile long idleTimeout = 30 * 60 * 1000;
+    private static volatile long maxAge = 12 * 60 * 60 * 1000;
+    private static volatile int maxSessions = 10000;
+    private static ScheduledExecutorService reaper;
+
+    /**
+     * 启动后台清理线程
+     *
+     * @param idleTimeout 会话空闲超时时间(ms)
+     * @param maxAge      会话最长存活时间(ms)
+     * @param maxSessions 会话数量上限
+     */
+    public static synchronized void start(long idleTimeout, long maxAge, int maxSessions) {
+        SessionManager.idleTimeout = idleTimeout;
+        SessionManager.maxAge = maxAge;
+        SessionManager.maxSessions = Math.max(maxSessions, 1);
+        if (reaper == null) {
+            reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "hms-session-reaper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reaper.scheduleWithFixedDelay(SessionManager::removeExpired, 1, 1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * 停止后台清理线程
+     */
+    public static synchronized void stop() {
+        if (reaper != null) {
+            reaper.shutdownNow();
+            reaper = null;
+        }
+    }
 
     public static void add(LoginSession session) {
-        sessions.put(session.id, session);
+        if (sessions.size() >= maxSessions) {
+            removeExpired();
+            if (sessions.size() >= maxSessions) {
+                removeLeastRecentlyUsed();
+            }
+        }
+        sessions.put(session.id, new Entry(session, System.currentTimeMillis()));
     }
 
+    /**
+     * 获得有效的会话，并刷新其最近访问时间
+     *
+     * @return 会话，不存在或已失效时返回 null
+     */
     public static LoginSession get(String sessid) {
-        return sessions.get(sessid);
+        Entry entry = sessions.get(sessid);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (entry.isExpired(now)) {
+            sessions.remove(sessid, entry);
+            return null;
+        }
+        entry.touch(now);
+        return entry.session;
     }
 
     public static boolean has(String sessid) {
-        return sessions.containsKey(sessid);
+        return get(sessid) != null;
+    }
+
+    /**
+     * @return 当前有效的会话数量
+     */
+    public static int getActiveCount() {
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (Entry entry : sessions.values()) {
+            if (!entry.isExpired(now)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void removeExpired() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    private static void removeLeastRecentlyUsed() {
+        Map.Entry<String, Entry> oldest = null;
+        for (Map.Entry<String, Entry> e : sessions.entrySet()) {
+            if (oldest == null || e.getValue().lastAccess < oldest.getValue().lastAccess) {
+                oldest = e;
+            }
+        }
+        if (oldest != null) {
+            sessions.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private static class Entry {
+        private final LoginSession session;
+        private final long createdAt;
+        private volatile long lastAccess;
+
+        private Entry(LoginSession session, long now) {
+            this.session = session;
+            this.createdAt = now;
+            this.lastAccess = now;
+        }
+
+        private boolean isExpired(long now) {
+            return now - lastAccess > idleTimeout || now - createdAt > maxAge;
+        }
+
+        private void touch(long now) {
+            // 精度到秒即可，避免每次访问都写入
+            if (now - lastAccess > 1000) {
+                lastAccess = now;
+            }
+        }
     }
 
 }
@@ -1,6 +1,5 @@
 package nju.quadra.hms.net;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import com.sun.net.httpserver.HttpExchange;
@@ -10,26 +9,28 @@ import nju.quadra.hms.blservice.UserBLService;
 import nju.quadra.hms.model.LoginResult;
 import nju.quadra.hms.model.LoginSession;
 import nju.quadra.hms.model.ResultMessage;
+import nju.quadra.hms.util.JsonCodec;
 import nju.quadra.hms.util.Logger;
 import nju.quadra.hms.util.PassHash;
 import nju.quadra.hms.vo.UserVO;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 
 class UserLoginHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange httpExchange) throws IOException {
         // get HTTP request payload
-        InputStream is = httpExchange.getRequestBody();
-        byte[] buf = new byte[is.available()];
-        is.read(buf);
-        String payload = new String(buf);
+        JsonElement jsonParams;
+        try (Reader reader = new InputStreamReader(httpExchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            jsonParams = new JsonParser().parse(reader);
+        }
 
         // process parameters
-        JsonElement jsonParams = new JsonParser().parse(payload);
         LoginResult loginResult = null;
         if (jsonParams.isJsonArray()) {
             String username = jsonParams.getAsJsonArray().get(0).getAsString();
@@ -50,7 +51,7 @@ class UserLoginHandler implements HttpHandler {
             }
         }
 
-        String result = new Gson().toJson(loginResult);
+        String result = JsonCodec.toJson(loginResult);
         byte[] response = result.getBytes("UTF-8");
         httpExchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
         httpExchange.sendResponseHeaders(200, response.length);
@@ -1,6 +1,5 @@
 package nju.quadra.hms.net;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import com.sun.net.httpserver.HttpExchange;
@@ -8,31 +7,33 @@ import com.sun.net.httpserver.HttpHandler;
 import nju.quadra.hms.bl.CustomerBL;
 import nju.quadra.hms.blservice.CustomerBLService;
 import nju.quadra.hms.model.ResultMessage;
+import nju.quadra.hms.util.JsonCodec;
 import nju.quadra.hms.vo.UserVO;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 
 class UserRegisterHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange httpExchange) throws IOException {
         // get HTTP request payload
-        InputStream is = httpExchange.getRequestBody();
-        byte[] buf = new byte[is.available()];
-        is.read(buf);
-        String payload = new String(buf);
+        JsonElement jsonParams;
+        try (Reader reader = new InputStreamReader(httpExchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            jsonParams = new JsonParser().parse(reader);
+        }
 
         // process parameters
         String result;
-        JsonElement jsonParams = new JsonParser().parse(payload);
         if (jsonParams.isJsonArray()) {
             try {
-                UserVO vo = new Gson().fromJson(jsonParams.getAsJsonArray().get(0), UserVO.class);
+                UserVO vo = JsonCodec.fromJson(jsonParams.getAsJsonArray().get(0), UserVO.class);
                 CustomerBLService customerBL = new CustomerBL();
                 ResultMessage registerResult = customerBL.register(vo);
-                result = new Gson().toJson(registerResult);
+                result = JsonCodec.toJson(registerResult);
             } catch (Exception e) {
                 result = "Invalid request";
             }
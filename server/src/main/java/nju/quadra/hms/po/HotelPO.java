@@ -1,6 +1,6 @@
 package nju.quadra.hms.po;
 
-public class HotelPO {
+public class HotelPO extends TrackedPO {
     /**
      * 酒店ID
      */
@@ -59,6 +59,7 @@ public class HotelPO {
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     public int getAreaId() {
@@ -67,6 +68,7 @@ public class HotelPO {
 
     public void setAreaId(int areaId) {
         this.areaId = areaId;
+        markDirty("areaId");
     }
 
     public String getAddress() {
@@ -75,6 +77,7 @@ public class HotelPO {
 
     public void setAddress(String address) {
         this.address = address;
+        markDirty("address");
     }
 
     public String getDescription() {
@@ -83,6 +86,7 @@ public class HotelPO {
 
     public void setDescription(String description) {
         this.description = description;
+        markDirty("description");
     }
 
     public String getFacilities() {
@@ -91,6 +95,7 @@ public class HotelPO {
 
     public void setFacilities(String facilities) {
         this.facilities = facilities;
+        markDirty("facilities");
     }
 
     public String getStar() {
@@ -99,6 +104,7 @@ public class HotelPO {
 
     public void setStar(String star) {
         this.star = star;
+        markDirty("star");
     }
 
     public String getStaff() {
@@ -107,5 +113,6 @@ public class HotelPO {
 
     public void setStaff(String staff) {
         this.staff = staff;
+        markDirty("staff");
     }
 }
@@ -4,7 +4,7 @@ import nju.quadra.hms.model.HotelPromotionType;
 
 import java.time.LocalDate;
 
-public class HotelPromotionPO {
+public class HotelPromotionPO extends TrackedPO {
     /**
      * 酒店促销策略ID
      */
@@ -63,6 +63,7 @@ public class HotelPromotionPO {
 
     public void setHotelId(int hotelId) {
         this.hotelId = hotelId;
+        markDirty("hotelid");
     }
 
     public String getName() {
@@ -71,6 +72,7 @@ public class HotelPromotionPO {
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     public HotelPromotionType getType() {
@@ -79,6 +81,7 @@ public class HotelPromotionPO {
 
     public void setType(HotelPromotionType type) {
         this.type = type;
+        markDirty("type");
     }
 
     public LocalDate getStartTime() {
@@ -87,6 +90,7 @@ public class HotelPromotionPO {
 
     public void setStartTime(LocalDate startTime) {
         this.startTime = startTime;
+        markDirty("starttime");
     }
 
     public LocalDate getEndTime() {
@@ -95,6 +99,7 @@ public class HotelPromotionPO {
 
     public void setEndTime(LocalDate endTime) {
         this.endTime = endTime;
+        markDirty("endtime");
     }
 
     public double getPromotion() {
@@ -103,6 +108,7 @@ public class HotelPromotionPO {
 
     public void setPromotion(double promotion) {
         this.promotion = promotion;
+        markDirty("promotion");
     }
 
     public String getCooperation() {
@@ -111,6 +117,7 @@ public class HotelPromotionPO {
 
     public void setCooperation(String cooperation) {
         this.cooperation = cooperation;
+        markDirty("cooperation");
     }
 
 }
@@ -1,6 +1,6 @@
 package nju.quadra.hms.po;
 
-public class HotelRoomPO {
+public class HotelRoomPO extends TrackedPO {
     /**
      * 客房ID
      */
@@ -44,6 +44,7 @@ public class HotelRoomPO {
 
     public void setHotelId(int hotelId) {
         this.hotelId = hotelId;
+        markDirty("hotelid");
     }
 
     public String getName() {
@@ -52,6 +53,7 @@ public class HotelRoomPO {
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     public int getTotal() {
@@ -60,6 +62,7 @@ public class HotelRoomPO {
 
     public void setTotal(int total) {
         this.total = total;
+        markDirty("total");
     }
 
     public double getPrice() {
@@ -68,5 +71,6 @@ public class HotelRoomPO {
 
     public void setPrice(double price) {
         this.price = price;
+        markDirty("price");
     }
 }
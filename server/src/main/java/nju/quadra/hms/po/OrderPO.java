@@ -4,7 +4,7 @@ import nju.quadra.hms.model.OrderState;
 
 import java.time.LocalDate;
 
-public class OrderPO {
+public class OrderPO extends TrackedPO {
     /**
      * 订单ID
      */
@@ -93,6 +93,7 @@ public class OrderPO {
 
     public void setUsername(String username) {
         this.username = username;
+        markDirty("username");
     }
 
     public int getHotelId() {
@@ -101,6 +102,7 @@ public class OrderPO {
 
     public void setHotelId(int hotelId) {
         this.hotelId = hotelId;
+        markDirty("hotelid");
     }
 
     public LocalDate getStartDate() {
@@ -109,6 +111,7 @@ public class OrderPO {
 
     public void setStartDate(LocalDate startDate) {
         this.startDate = startDate;
+        markDirty("startdate");
     }
 
     public LocalDate getEndDate() {
@@ -117,6 +120,7 @@ public class OrderPO {
 
     public void setEndDate(LocalDate endDate) {
         this.endDate = endDate;
+        markDirty("enddate");
     }
 
     public int getRoomId() {
@@ -125,6 +129,7 @@ public class OrderPO {
 
     public void setRoomId(int roomId) {
         this.roomId = roomId;
+        markDirty("roomid");
     }
 
     public int getRoomCount() {
@@ -133,6 +138,7 @@ public class OrderPO {
 
     public void setRoomCount(int roomCount) {
         this.roomCount = roomCount;
+        markDirty("roomcount");
     }
 
     public int getPersonCount() {
@@ -141,6 +147,7 @@ public class OrderPO {
 
     public void setPersonCount(int personCount) {
         this.personCount = personCount;
+        markDirty("personcount");
     }
 
     public String getPersons() {
@@ -149,6 +156,7 @@ public class OrderPO {
 
     public void setPersons(String persons) {
         this.persons = persons;
+        markDirty("persons");
     }
 
     public boolean isHasChildren() {
@@ -157,6 +165,7 @@ public class OrderPO {
 
     public void setHasChildren(boolean hasChildren) {
         this.hasChildren = hasChildren;
+        markDirty("haschildren");
     }
 
     public double getPrice() {
@@ -165,6 +174,7 @@ public class OrderPO {
 
     public void setPrice(double price) {
         this.price = price;
+        markDirty("price");
     }
 
     public OrderState getState() {
@@ -173,6 +183,7 @@ public class OrderPO {
 
     public void setState(OrderState state) {
         this.state = state;
+        markDirty("state");
     }
 
     public int getRank() {
@@ -181,6 +192,7 @@ public class OrderPO {
 
     public void setRank(int rank) {
         this.rank = rank;
+        markDirty("rank");
     }
 
     public String getComment() {
@@ -189,5 +201,6 @@ public class OrderPO {
 
     public void setComment(String comment) {
         this.comment = comment;
+        markDirty("comment");
     }
 }
@@ -0,0 +1,33 @@
+package nju.quadra.hms.po;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 支持脏字段跟踪的持久化对象
+ * 从数据库读出后调用 markClean() 开始跟踪，此后 setter 记录被修改的列，更新时只写入这些列；
+ * 未开始跟踪的对象（例如由 VO 转换而来）更新时写入全部列
+ */
+public abstract class TrackedPO {
+    private transient Set<String> dirtyColumns;
+
+    /**
+     * 标记对象与数据库一致，并开始跟踪修改
+     */
+    public void markClean() {
+        dirtyColumns = new HashSet<>();
+    }
+
+    /**
+     * @return 被修改过的列名，未开始跟踪时返回 null
+     */
+    public Set<String> getDirtyColumns() {
+        return dirtyColumns;
+    }
+
+    protected void markDirty(String column) {
+        if (dirtyColumns != null) {
+            dirtyColumns.add(column);
+        }
+    }
+}
@@ -5,7 +5,7 @@ import nju.quadra.hms.model.UserType;
 
 import java.time.LocalDate;
 
-public class UserPO {
+public class UserPO extends TrackedPO {
     /**
      * 用户名
      */
@@ -64,6 +64,7 @@ public class UserPO {
 
     public void setPassword(String password) {
         this.password = password;
+        markDirty("password");
     }
 
     public String getName() {
@@ -72,6 +73,7 @@ public class UserPO {
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     public String getContact() {
@@ -80,6 +82,7 @@ public class UserPO {
 
     public void setContact(String contact) {
         this.contact = contact;
+        markDirty("contact");
     }
 
     public UserType getType() {
@@ -88,6 +91,7 @@ public class UserPO {
 
     public void setType(UserType type) {
         this.type = type;
+        markDirty("type");
     }
 
     public MemberType getMemberType() {
@@ -96,6 +100,7 @@ public class UserPO {
 
     public void setMemberType(MemberType memberType) {
         this.memberType = memberType;
+        markDirty("membertype");
     }
 
     public LocalDate getBirthday() {
@@ -104,6 +109,7 @@ public class UserPO {
 
     public void setBirthday(LocalDate birthday) {
         this.birthday = birthday;
+        markDirty("birthday");
     }
 
     public String getCompanyName() {
@@ -112,5 +118,6 @@ public class UserPO {
 
     public void setCompanyName(String companyName) {
         this.companyName = companyName;
+        markDirty("companyname");
     }
 }
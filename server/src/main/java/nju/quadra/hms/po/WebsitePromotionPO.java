@@ -4,7 +4,7 @@ import nju.quadra.hms.model.WebsitePromotionType;
 
 import java.time.LocalDate;
 
-public class WebsitePromotionPO implements Comparable<WebsitePromotionPO>{
+public class WebsitePromotionPO extends TrackedPO implements Comparable<WebsitePromotionPO> {
     /**
      * 网站促销策略ID
      */
@@ -63,6 +63,7 @@ public class WebsitePromotionPO implements Comparable<WebsitePromotionPO>{
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     public WebsitePromotionType getType() {
@@ -71,6 +72,7 @@ public class WebsitePromotionPO implements Comparable<WebsitePromotionPO>{
 
     public void setType(WebsitePromotionType type) {
         this.type = type;
+        markDirty("type");
     }
 
     public LocalDate getStartTime() {
@@ -79,6 +81,7 @@ public class WebsitePromotionPO implements Comparable<WebsitePromotionPO>{
 
     public void setStartTime(LocalDate startTime) {
         this.startTime = startTime;
+        markDirty("starttime");
     }
 
     public LocalDate getEndTime() {
@@ -87,6 +90,7 @@ public class WebsitePromotionPO implements Comparable<WebsitePromotionPO>{
 
     public void setEndTime(LocalDate endTime) {
         this.endTime = endTime;
+        markDirty("endtime");
     }
 
     public double getPromotion() {
@@ -95,6 +99,7 @@ public class WebsitePromotionPO implements Comparable<WebsitePromotionPO>{
 
     public void setPromotion(double promotion) {
         this.promotion = promotion;
+        markDirty("promotion");
     }
 
     public int getAreaId() {
@@ -103,6 +108,7 @@ public class WebsitePromotionPO implements Comparable<WebsitePromotionPO>{
 
     public void setAreaId(int areaId) {
         this.areaId = areaId;
+        markDirty("areaid");
     }
 
     public String getMemberLevel() {
@@ -111,6 +117,7 @@ public class WebsitePromotionPO implements Comparable<WebsitePromotionPO>{
 
     public void setMemberLevel(String memberLevel) {
         this.memberLevel = memberLevel;
+        markDirty("memberlevel");
     }
 
     @Override
@@ -1,5 +1,6 @@
 package nju.quadra.hms.ui.serverUI;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -8,6 +9,7 @@ import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleButton;
 import javafx.stage.Stage;
+import nju.quadra.hms.bl.DelayedOrderSweeper;
 import nju.quadra.hms.data.mysql.MySQLManager;
 import nju.quadra.hms.net.HttpService;
 import nju.quadra.hms.util.Logger;
@@ -39,8 +41,12 @@ public class ServerMainView extends Stage {
             System.exit(0);
         });
 
-        Logger.init(textLogs.textProperty());
+        Logger.init(text -> Platform.runLater(() -> {
+            textLogs.setText(text);
+            textLogs.positionCaret(text.length());
+        }));
         ServerConfig config = ServerConfig.getConfig();
+        Logger.configure(config);
         editHost.setText(config.getDbHost());
         editDb.setText(config.getDbName());
         editUser.setText(config.getDbUser());
@@ -55,18 +61,24 @@ public class ServerMainView extends Stage {
                 config.setDbPass(editPass.getText());
                 // start
                 try {
-                    MySQLManager.getConnection();
+                    if (!ServerConfig.BACKEND_MEMORY.equals(config.getDataBackend())) {
+                        MySQLManager.getConnection().close();
+                    }
                     config.setPort(Integer.parseInt(editPort.getText()));
                     httpService = new HttpService(config.getPort());
                     httpService.start();
+                    DelayedOrderSweeper.start(config.getSweepInterval());
                     Logger.log("I", "服务已启动");
                 } catch (Exception e) {
                     Logger.log(e);
+                    MySQLManager.shutdown();
                     btnStartStop.setSelected(false);
                 }
             } else {
                 // stop
+                DelayedOrderSweeper.stop();
                 httpService.stop();
+                MySQLManager.shutdown();
                 Logger.log("I", "服务已停止");
             }
         });
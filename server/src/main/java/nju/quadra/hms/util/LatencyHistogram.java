@@ -0,0 +1,125 @@
+package nju.quadra.hms.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟直方图
+ * 与 HdrHistogram 相同按对数-线性划分区间：每个 2 的幂次区间再等分为 16 个子区间，相对误差不超过 1/16；
+ * 记录时只对一个计数器原子加一，不加锁，可以在处理请求的线程中直接调用
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时(ns)
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(indexOf(nanos));
+        sum.add(nanos);
+        if (nanos > max.get()) {
+            max.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    /**
+     * @return 当前数据的快照
+     */
+    public Snapshot snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        return new Snapshot(snapshot, count, sum.sum(), max.get());
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * @return 区间内的最大值
+     */
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * 直方图在某一时刻的数据
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return 耗时总和(ns)
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * @return 最大耗时(ns)
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * @param quantile 分位数，0 到 1 之间
+         * @return 不小于该比例记录的耗时上界(ns)，没有记录时为 0
+         */
+        public long getQuantile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i), max);
+                }
+            }
+            return max;
+        }
+    }
+
+}
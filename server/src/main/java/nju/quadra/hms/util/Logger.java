@@ -1,28 +1,478 @@
 package nju.quadra.hms.util;
 
-import javafx.beans.property.StringProperty;
-
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
+/**
+ * 服务器日志
+ * 记录日志的线程只将日志事件放入无锁环形缓冲区，由后台线程统一格式化，写入按大小滚动的日志文件，
+ * 并定时将最近若干行推送给服务器界面；缓冲区已满时丢弃新的日志并计数，因此记录日志不会阻塞处理请求的线程
+ */
 public class Logger {
 
-    private static StringProperty target;
+    /**
+     * 日志级别，与日志中的类型字母对应
+     */
+    public enum Level {
+        DEBUG("D"), INFO("I"), WARN("W"), ERROR("E");
+
+        private final String type;
+
+        Level(String type) {
+            this.type = type;
+        }
+
+        public String getType() {
+            return type;
+        }
 
-    public static void init(StringProperty property) {
-        target = property;
+        /**
+         * @return 类型字母对应的级别，无法识别时为 INFO
+         */
+        public static Level of(String type) {
+            for (Level level : values()) {
+                if (level.type.equals(type)) {
+                    return level;
+                }
+            }
+            return INFO;
+        }
     }
 
-    public static void log(String type, String message) {
-        String logText = "[" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("uu/MM/dd HH:mm:ss.SSS")) + "] ";
-        logText += type + ": " + message + System.getProperty("line.separator");
-        if (target != null) {
-            target.set(target.get() + logText);
+    /**
+     * 环形缓冲区大小，必须是 2 的幂
+     */
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * 界面刷新的最短间隔(ms)
+     */
+    private static final long VIEW_REFRESH_INTERVAL = 100;
+    /**
+     * 缓冲区为空时后台线程的最长等待时间(ms)
+     */
+    private static final long IDLE_WAIT = 50;
+    private static final long SHUTDOWN_FLUSH_TIMEOUT = 1000;
+    private static final String FILE_NAME = "server.log";
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("uu/MM/dd HH:mm:ss.SSS");
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final AtomicReferenceArray<Event> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+    /**
+     * 下一个写入位置，由记录日志的线程竞争递增
+     */
+    private static final AtomicLong tail = new AtomicLong();
+    /**
+     * 下一个读取位置，只由后台线程修改
+     */
+    private static volatile long head = 0;
+    /**
+     * 已写出到日志文件的位置
+     */
+    private static volatile long written = 0;
+    /**
+     * 后台线程完成的处理轮数
+     */
+    private static volatile long passes = 0;
+    private static final LongAdder dropped = new LongAdder();
+    private static volatile boolean idle = false;
+
+    private static volatile Level minLevel = Level.INFO;
+    private static volatile int viewLines = 500;
+    private static volatile FileConfig fileConfig;
+    private static volatile Consumer<String> view;
+
+    private static final Thread writer = startWriter();
+
+    private Logger() {
+    }
+
+    /**
+     * 设置显示最近日志的界面
+     *
+     * @param listener 在后台线程中接收最近若干行日志的文本，需自行切换到界面线程
+     */
+    public static void init(Consumer<String> listener) {
+        view = listener;
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * 按服务器配置设置日志级别、日志文件与界面显示的行数
+     */
+    public static void configure(ServerConfig config) {
+        String dir = config.getLogDir();
+        configure(Level.of(config.getLogLevel()), config.getLogViewLines(),
+                dir == null || dir.isEmpty() ? null : new File(dir), config.getLogFileSize(), config.getLogFileCount());
+    }
+
+    /**
+     * @param dir 日志文件所在目录，为 null 时不写入文件
+     */
+    static void configure(Level level, int lines, File dir, long fileSize, int fileCount) {
+        minLevel = level;
+        viewLines = Math.max(1, lines);
+        fileConfig = dir == null ? null : new FileConfig(dir, fileSize, Math.max(1, fileCount));
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * 等待此前记录的日志全部写出
+     *
+     * @param timeout 最长等待时间(ms)
+     * @return 是否已全部写出
+     */
+    static boolean flush(long timeout) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        long target = tail.get();
+        long pass = -1;
+        // 写出全部日志后再等待完整的一轮处理，使此前被丢弃的日志数量也已写出
+        while (pass < 0 || passes < pass + 2) {
+            if (pass < 0 && written >= target) {
+                pass = passes;
+                continue;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
         }
+        return true;
+    }
+
+    /**
+     * @return 该级别的日志是否会被记录，可用于避免构造不会记录的日志内容
+     */
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(minLevel) >= 0;
+    }
+
+    public static void log(String type, String message) {
+        log(Level.of(type), message, null);
+    }
+
+    /**
+     * 记录带有结构化字段的日志，字段以 key=value 的形式附加在消息之后
+     *
+     * @param fields 交替给出的字段名与字段值，字段值应为不可变对象
+     */
+    public static void log(String type, String message, Object... fields) {
+        log(Level.of(type), message, null, fields);
     }
 
     public static void log(Throwable e) {
-        log("E", e.getClass().getSimpleName() + "/" + e.getLocalizedMessage());
+        log(Level.ERROR, e.getClass().getSimpleName() + "/" + e.getLocalizedMessage(), e);
+    }
+
+    private static void log(Level level, String message, Throwable error, Object... fields) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        Event event = new Event(System.currentTimeMillis(), level, message, fields, error);
+        long position;
+        do {
+            position = tail.get();
+            if (position - head >= BUFFER_SIZE) {
+                dropped.increment();
+                return;
+            }
+        } while (!tail.compareAndSet(position, position + 1));
+        buffer.set((int) position & (BUFFER_SIZE - 1), event);
+        if (idle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private static Thread startWriter() {
+        Thread thread = new Thread(Logger::run, "hms-logger");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(SHUTDOWN_FLUSH_TIMEOUT), "hms-logger-shutdown"));
+        return thread;
+    }
+
+    private static void run() {
+        ArrayDeque<String> recent = new ArrayDeque<>();
+        RollingFile file = null;
+        boolean viewDirty = false;
+        long lastRefresh = 0;
+        while (true) {
+            file = reopen(file);
+            int count = 0;
+            Event event;
+            while ((event = take()) != null) {
+                // 读取事件之后再检查配置，保证配置修改之后记录的日志写入新的文件
+                file = reopen(file);
+                write(event, recent, file);
+                count++;
+            }
+            long lost = dropped.sumThenReset();
+            if (lost > 0) {
+                write(new Event(System.currentTimeMillis(), Level.WARN, "日志缓冲区已满，丢弃了 " + lost + " 条日志", null, null), recent, file);
+                count++;
+            }
+            if (count > 0) {
+                viewDirty = true;
+                if (file != null) {
+                    file.flush();
+                }
+                written = head;
+            }
+
+            long now = System.currentTimeMillis();
+            Consumer<String> listener = view;
+            if (viewDirty && listener != null && now - lastRefresh >= VIEW_REFRESH_INTERVAL) {
+                try {
+                    listener.accept(String.join("", recent));
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+                viewDirty = false;
+                lastRefresh = now;
+            }
+
+            passes++;
+            if (count == 0) {
+                idle = true;
+                if (buffer.get((int) head & (BUFFER_SIZE - 1)) == null) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(viewDirty ? VIEW_REFRESH_INTERVAL : IDLE_WAIT));
+                }
+                idle = false;
+            }
+        }
+    }
+
+    /**
+     * 日志文件配置被修改后关闭原来的文件并打开新的文件
+     */
+    private static RollingFile reopen(RollingFile file) {
+        FileConfig config = fileConfig;
+        if (file == null ? config == null : file.config == config) {
+            return file;
+        }
+        if (file != null) {
+            file.close();
+        }
+        return config == null ? null : new RollingFile(config);
+    }
+
+    /**
+     * @return 缓冲区中的下一个日志事件，没有已写入的事件时为 null
+     */
+    private static Event take() {
+        int index = (int) head & (BUFFER_SIZE - 1);
+        Event event = buffer.get(index);
+        if (event != null) {
+            buffer.set(index, null);
+            head = head + 1;
+        }
+        return event;
+    }
+
+    private static void write(Event event, ArrayDeque<String> recent, RollingFile file) {
+        String line = event.format();
+        recent.addLast(line);
+        while (recent.size() > viewLines) {
+            recent.removeFirst();
+        }
+        if (file != null) {
+            file.write(line);
+            if (event.error != null) {
+                StringWriter trace = new StringWriter();
+                event.error.printStackTrace(new PrintWriter(trace));
+                file.write(trace.toString());
+            }
+        }
+    }
+
+    private static final class Event {
+        private final long time;
+        private final Level level;
+        private final String message;
+        private final Object[] fields;
+        private final Throwable error;
+
+        private Event(long time, Level level, String message, Object[] fields, Throwable error) {
+            this.time = time;
+            this.level = level;
+            this.message = message;
+            this.fields = fields;
+            this.error = error;
+        }
+
+        private String format() {
+            StringBuilder sb = new StringBuilder(64);
+            sb.append('[').append(LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault()).format(TIME_FORMAT)).append("] ");
+            sb.append(level.type).append(": ").append(message);
+            if (fields != null) {
+                for (int i = 0; i + 1 < fields.length; i += 2) {
+                    sb.append(' ').append(fields[i]).append('=');
+                    appendValue(sb, String.valueOf(fields[i + 1]));
+                }
+            }
+            return sb.append(LINE_SEPARATOR).toString();
+        }
+
+        /**
+         * 含有空白、引号或等号的字段值加引号输出
+         */
+        private static void appendValue(StringBuilder sb, String value) {
+            boolean quote = value.isEmpty();
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = Character.isWhitespace(c) || c == '"' || c == '=';
+            }
+            if (!quote) {
+                sb.append(value);
+                return;
+            }
+            sb.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    sb.append('\\').append(c);
+                } else if (c == '\n') {
+                    sb.append("\\n");
+                } else if (c == '\r') {
+                    sb.append("\\r");
+                } else {
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+    }
+
+    private static final class FileConfig {
+        private final File dir;
+        private final long maxSize;
+        private final int count;
+
+        private FileConfig(File dir, long maxSize, int count) {
+            this.dir = dir;
+            this.maxSize = maxSize;
+            this.count = count;
+        }
+    }
+
+    /**
+     * 按大小滚动的日志文件，server.log 写满后依次改名为 server.log.1、server.log.2……，超出保留数量的文件被删除
+     */
+    private static final class RollingFile {
+        private final FileConfig config;
+        private BufferedWriter out;
+        private long size;
+
+        private RollingFile(FileConfig config) {
+            this.config = config;
+            open();
+        }
+
+        private void write(String text) {
+            if (out == null) {
+                return;
+            }
+            try {
+                int length = text.getBytes(StandardCharsets.UTF_8).length;
+                if (config.maxSize > 0 && size > 0 && size + length > config.maxSize) {
+                    roll();
+                    if (out == null) {
+                        return;
+                    }
+                }
+                out.write(text);
+                size += length;
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        private void flush() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.flush();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        private void close() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            out = null;
+        }
+
+        private void open() {
+            try {
+                if (!config.dir.isDirectory() && !config.dir.mkdirs()) {
+                    throw new IOException("Cannot create log directory " + config.dir);
+                }
+                File file = fileOf(0);
+                size = file.length();
+                out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        private void roll() throws IOException {
+            out.close();
+            out = null;
+            File oldest = fileOf(config.count - 1);
+            if (oldest.exists() && !oldest.delete()) {
+                throw new IOException("Cannot delete log file " + oldest);
+            }
+            for (int i = config.count - 2; i >= 0; i--) {
+                File file = fileOf(i);
+                if (file.exists() && !file.renameTo(fileOf(i + 1))) {
+                    throw new IOException("Cannot rename log file " + file);
+                }
+            }
+            open();
+        }
+
+        private File fileOf(int index) {
+            return new File(config.dir, index == 0 ? FILE_NAME : FILE_NAME + "." + index);
+        }
+
+        /**
+         * 日志文件无法写入时不再写入文件，错误输出到标准错误流以免再次进入日志
+         */
+        private void fail(IOException e) {
+            e.printStackTrace();
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+                out = null;
+            }
+        }
     }
 
 }
@@ -0,0 +1,65 @@
+package nju.quadra.hms.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个方法的调用统计：调用次数、失败次数、正在执行的调用数与耗时分布
+ */
+public final class MethodStats {
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    MethodStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 开始一次调用
+     *
+     * @return 开始时间，调用结束时传给 end()
+     */
+    public long begin() {
+        inFlight.increment();
+        return System.nanoTime();
+    }
+
+    /**
+     * 结束一次调用
+     *
+     * @param start   begin() 返回的开始时间
+     * @param success 调用是否成功
+     */
+    public void end(long start, boolean success) {
+        latency.record(System.nanoTime() - start);
+        inFlight.decrement();
+        calls.increment();
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency.snapshot();
+    }
+
+}
@@ -0,0 +1,56 @@
+package nju.quadra.hms.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 服务器运行统计
+ * 分别按方法统计远程调用的业务逻辑方法与数据层方法，统计对象在首次使用时创建，调用者应保存并重复使用
+ */
+public final class Metrics {
+
+    private static final ConcurrentHashMap<String, MethodStats> rpc = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, MethodStats> data = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * @param method 方法名，例如 HotelBL/search
+     * @return 远程调用的业务逻辑方法的统计
+     */
+    public static MethodStats rpc(String method) {
+        return rpc.computeIfAbsent(method, MethodStats::new);
+    }
+
+    /**
+     * @param method 方法名，例如 OrderDataServiceImpl.getByHotel
+     * @return 数据层方法的统计
+     */
+    public static MethodStats data(String method) {
+        return data.computeIfAbsent(method, MethodStats::new);
+    }
+
+    /**
+     * @return 全部业务逻辑方法的统计，按方法名排序
+     */
+    public static List<MethodStats> getRpcStats() {
+        return sorted(rpc);
+    }
+
+    /**
+     * @return 全部数据层方法的统计，按方法名排序
+     */
+    public static List<MethodStats> getDataStats() {
+        return sorted(data);
+    }
+
+    private static List<MethodStats> sorted(ConcurrentHashMap<String, MethodStats> stats) {
+        ArrayList<MethodStats> result = new ArrayList<>(stats.values());
+        result.sort(Comparator.comparing(MethodStats::getName));
+        return result;
+    }
+
+}
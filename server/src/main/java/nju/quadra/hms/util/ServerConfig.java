@@ -8,11 +8,30 @@ import java.io.IOException;
 
 public class ServerConfig {
 
+    public static final String BACKEND_MYSQL = "mysql";
+    public static final String BACKEND_MEMORY = "memory";
+
     private int port = 8081;
+    private String dataBackend = BACKEND_MYSQL;
     private String dbHost = "localhost";
     private String dbUser = "root";
     private String dbPass = "";
     private String dbName = "hms";
+    private int dbPoolSize = 10;
+    private long dbPoolMaxWait = 5000;
+    private long dbPoolIdleTimeout = 600000;
+    private long dbPoolLeakThreshold = 30000;
+    private long sweepInterval = 10;
+    private long sessionIdleTimeout = 1800000;
+    private long sessionMaxAge = 43200000;
+    private int maxSessions = 10000;
+    private int entityCacheSize = 10000;
+    private long entityCacheTtl = 300000;
+    private String logLevel = "I";
+    private String logDir = "logs";
+    private long logFileSize = 10485760;
+    private int logFileCount = 5;
+    private int logViewLines = 500;
 
     private ServerConfig() {
     }
@@ -26,6 +45,18 @@ public class ServerConfig {
         saveToFile();
     }
 
+    /**
+     * @return 数据层实现，BACKEND_MYSQL 或 BACKEND_MEMORY
+     */
+    public String getDataBackend() {
+        return dataBackend;
+    }
+
+    public void setDataBackend(String dataBackend) {
+        this.dataBackend = dataBackend;
+        saveToFile();
+    }
+
     public String getDbHost() {
         return dbHost;
     }
@@ -62,6 +93,186 @@ public class ServerConfig {
         saveToFile();
     }
 
+    /**
+     * @return 数据库连接池最大连接数
+     */
+    public int getDbPoolSize() {
+        return dbPoolSize;
+    }
+
+    public void setDbPoolSize(int dbPoolSize) {
+        this.dbPoolSize = dbPoolSize;
+        saveToFile();
+    }
+
+    /**
+     * @return 连接池已满时获取连接的最长等待时间(ms)
+     */
+    public long getDbPoolMaxWait() {
+        return dbPoolMaxWait;
+    }
+
+    public void setDbPoolMaxWait(long dbPoolMaxWait) {
+        this.dbPoolMaxWait = dbPoolMaxWait;
+        saveToFile();
+    }
+
+    /**
+     * @return 空闲连接被淘汰前的最长空闲时间(ms)
+     */
+    public long getDbPoolIdleTimeout() {
+        return dbPoolIdleTimeout;
+    }
+
+    public void setDbPoolIdleTimeout(long dbPoolIdleTimeout) {
+        this.dbPoolIdleTimeout = dbPoolIdleTimeout;
+        saveToFile();
+    }
+
+    /**
+     * @return 连接被借出超过该时间(ms)未归还时报告疑似泄漏，0 为不检测
+     */
+    public long getDbPoolLeakThreshold() {
+        return dbPoolLeakThreshold;
+    }
+
+    public void setDbPoolLeakThreshold(long dbPoolLeakThreshold) {
+        this.dbPoolLeakThreshold = dbPoolLeakThreshold;
+        saveToFile();
+    }
+
+    /**
+     * @return 后台检查异常订单的间隔(分钟)
+     */
+    public long getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(long sweepInterval) {
+        this.sweepInterval = sweepInterval;
+        saveToFile();
+    }
+
+    /**
+     * @return 登录会话空闲超时时间(ms)
+     */
+    public long getSessionIdleTimeout() {
+        return sessionIdleTimeout;
+    }
+
+    public void setSessionIdleTimeout(long sessionIdleTimeout) {
+        this.sessionIdleTimeout = sessionIdleTimeout;
+        saveToFile();
+    }
+
+    /**
+     * @return 登录会话最长存活时间(ms)
+     */
+    public long getSessionMaxAge() {
+        return sessionMaxAge;
+    }
+
+    public void setSessionMaxAge(long sessionMaxAge) {
+        this.sessionMaxAge = sessionMaxAge;
+        saveToFile();
+    }
+
+    /**
+     * @return 同时保存的登录会话数量上限
+     */
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+        saveToFile();
+    }
+
+    /**
+     * @return 酒店、客房与用户实体缓存各自的缓存项数量上限，0 为不使用缓存
+     */
+    public int getEntityCacheSize() {
+        return entityCacheSize;
+    }
+
+    public void setEntityCacheSize(int entityCacheSize) {
+        this.entityCacheSize = entityCacheSize;
+        saveToFile();
+    }
+
+    /**
+     * @return 实体缓存项的存活时间(ms)
+     */
+    public long getEntityCacheTtl() {
+        return entityCacheTtl;
+    }
+
+    public void setEntityCacheTtl(long entityCacheTtl) {
+        this.entityCacheTtl = entityCacheTtl;
+        saveToFile();
+    }
+
+    /**
+     * @return 记录日志的最低级别，D、I、W 或 E
+     */
+    public String getLogLevel() {
+        return logLevel;
+    }
+
+    public void setLogLevel(String logLevel) {
+        this.logLevel = logLevel;
+        saveToFile();
+    }
+
+    /**
+     * @return 日志文件所在目录，为空时不写入文件
+     */
+    public String getLogDir() {
+        return logDir;
+    }
+
+    public void setLogDir(String logDir) {
+        this.logDir = logDir;
+        saveToFile();
+    }
+
+    /**
+     * @return 单个日志文件的大小上限(字节)，超过后滚动到新文件
+     */
+    public long getLogFileSize() {
+        return logFileSize;
+    }
+
+    public void setLogFileSize(long logFileSize) {
+        this.logFileSize = logFileSize;
+        saveToFile();
+    }
+
+    /**
+     * @return 保留的日志文件数量，包括正在写入的文件
+     */
+    public int getLogFileCount() {
+        return logFileCount;
+    }
+
+    public void setLogFileCount(int logFileCount) {
+        this.logFileCount = logFileCount;
+        saveToFile();
+    }
+
+    /**
+     * @return 服务器界面显示的最近日志行数
+     */
+    public int getLogViewLines() {
+        return logViewLines;
+    }
+
+    public void setLogViewLines(int logViewLines) {
+        this.logViewLines = logViewLines;
+        saveToFile();
+    }
+
     private static ServerConfig config;
     private static final String configFile = "server_config.json";
 
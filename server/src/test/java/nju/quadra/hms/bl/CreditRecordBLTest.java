@@ -50,6 +50,7 @@ public class CreditRecordBLTest {
         credits = creditBL.get("TEST_customer");
         assertEquals(10 * CreditRecordBL.RECHARGE_RATE, credits.get(0).diff, 0.01);
         assertEquals(creditBefore + 10 * CreditRecordBL.RECHARGE_RATE, credits.get(0).creditResult, 0.01);
+        assertEquals(credits.get(0).creditResult, creditBL.getBalance("TEST_customer"), 0.01);
     }
 
     @Test
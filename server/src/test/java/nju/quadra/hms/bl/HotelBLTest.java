@@ -1,7 +1,12 @@
 package nju.quadra.hms.bl;
 
 import nju.quadra.hms.blservice.HotelBLService;
+import nju.quadra.hms.model.HotelSort;
 import nju.quadra.hms.model.ResultMessage;
+import nju.quadra.hms.vo.HotelPageVO;
+import nju.quadra.hms.vo.HotelQueryVO;
+import nju.quadra.hms.vo.HotelSearchVO;
+import nju.quadra.hms.vo.HotelSummaryVO;
 import nju.quadra.hms.vo.HotelVO;
 
 import org.junit.Before;
@@ -23,7 +28,7 @@ public class HotelBLTest {
     }
 
     @Test
-    public void test1_clean() {
+    public void test01_clean() {
         ArrayList<HotelVO> voarr = hotelBL.getByArea(123456);
         for (HotelVO vo: voarr) {
             hotelBL.delete(vo.id);
@@ -31,7 +36,7 @@ public class HotelBLTest {
     }
     
     @Test
-    public void test2_Add() {
+    public void test02_Add() {
         HotelVO vo1 = new HotelVO(0, "南京抵抗军会议大酒店", 123456, "玄武区中山陵四方城2号",
                 "城中山林花园酒店", "各类客房, 大小会议室", "四星级", "");
         HotelVO vo2 = new HotelVO(0, "布达佩斯大饭店", 123456, "二战时候的布达佩斯（大概？）",
@@ -44,7 +49,7 @@ public class HotelBLTest {
     }
 
     @Test
-    public void test3_GetAll() {
+    public void test03_GetAll() {
     	 ArrayList<HotelVO> voarr = hotelBL.getByArea(123456);
          assertEquals(3, voarr.size());
          assertEquals("南京抵抗军会议大酒店", voarr.get(0).name);
@@ -52,7 +57,7 @@ public class HotelBLTest {
     }
 
     @Test
-    public void test4_Search() {
+    public void test04_Search() {
     	ArrayList<HotelVO> voarr = hotelBL.getByArea(123456);
     	assertEquals("南京抵抗军会议大酒店", voarr.get(0).name);
         assertEquals(123456, voarr.get(0).areaId);
@@ -60,7 +65,7 @@ public class HotelBLTest {
     }
 
     @Test
-    public void test5_GetDetail() {
+    public void test05_GetDetail() {
     	ArrayList<HotelVO> voarr = hotelBL.getByArea(123456);
     	HotelVO vo = voarr.get(0);
     	assertEquals("南京抵抗军会议大酒店", vo.name);
@@ -68,7 +73,47 @@ public class HotelBLTest {
     }
     
     @Test
-    public void test6_Modify() {
+    public void test06_SearchSummary() {
+        ArrayList<HotelSummaryVO> voarr = hotelBL.searchSummary(123456, "");
+        assertEquals(3, voarr.size());
+        assertEquals("南京抵抗军会议大酒店", voarr.get(0).name);
+        assertEquals(0, voarr.get(0).rankCount);
+        assertEquals(0.0, voarr.get(0).averageRank, 0);
+        assertFalse(voarr.get(0).hasOrdered());
+        HotelSearchVO detail = hotelBL.getSearchDetail(voarr.get(0).id, "");
+        assertEquals("南京抵抗军会议大酒店", detail.name);
+        assertEquals(0, detail.ranks.size());
+    }
+
+    @Test
+    public void test07_Keyword() {
+        HotelQueryVO query = new HotelQueryVO(0, "布达佩斯", null, 0, 5, false, HotelSort.DEFAULT, 0, 10);
+        HotelPageVO page = hotelBL.query(query, "");
+        assertTrue(page.hotels.stream().anyMatch(vo -> vo.name.equals("布达佩斯大饭店")));
+        query.keyword = "会议室";
+        query.areaId = 123456;
+        page = hotelBL.query(query, "");
+        assertEquals(1, page.total);
+        assertEquals("南京抵抗军会议大酒店", page.hotels.get(0).name);
+    }
+
+    @Test
+    public void test08_Query() {
+        HotelQueryVO query = new HotelQueryVO(123456, "大饭店", null, 0, 5, false, HotelSort.DEFAULT, 0, 1);
+        HotelPageVO page = hotelBL.query(query, "");
+        assertEquals(2, page.total);
+        assertEquals(1, page.hotels.size());
+        assertEquals("布达佩斯大饭店", page.hotels.get(0).name);
+        query.cursor = page.nextCursor;
+        page = hotelBL.query(query, "");
+        assertEquals("南京金陵大饭店", page.hotels.get(0).name);
+        assertEquals(-1, page.nextCursor);
+        query.orderedOnly = true;
+        assertEquals(0, hotelBL.query(query, "").total);
+    }
+
+    @Test
+    public void test09_Modify() {
     	ArrayList<HotelVO> voarr = hotelBL.getByArea(123456);
     	HotelVO vo = voarr.get(0);
         vo.name = "金陵会议大酒店";
@@ -76,7 +121,7 @@ public class HotelBLTest {
     }
     
     @Test
-    public void test7_Delete() {
+    public void test10_Delete() {
     	ArrayList<HotelVO> voarr = hotelBL.getByArea(123456);
     	for (HotelVO vo: voarr) {
     	    assertEquals(ResultMessage.RESULT_SUCCESS, hotelBL.delete(vo.id).result);
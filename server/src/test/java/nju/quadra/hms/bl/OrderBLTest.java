@@ -72,7 +72,8 @@ public class OrderBLTest {
             e.printStackTrace();
             fail();
         }
-        // get orders (abnormal order should be auto updated)
+        // run the sweeper (abnormal order should be updated)
+        assertTrue(DelayedOrderSweeper.sweep() >= 1);
         ArrayList<OrderDetailVO> orders = orderBL.getByCustomer("TEST_customer");
         assertEquals(2, orders.size());
         assertEquals(OrderState.DELAYED, orders.get(1).state);
@@ -0,0 +1,130 @@
+package nju.quadra.hms.bl;
+
+import nju.quadra.hms.data.DataServiceFactory;
+import nju.quadra.hms.data.memory.MemoryDataServiceProvider;
+import nju.quadra.hms.model.OrderState;
+import nju.quadra.hms.po.OrderPO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RoomInventoryTest {
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS = 200;
+    private static final int HOTEL_ID = 1000000;
+    /**
+     * 台账在 RoomInventory 中静态缓存，使用不会与其他测试重复的客房编号
+     */
+    private static final int[] ROOM_IDS = {1000001, 1000002, 1000003};
+
+    private MemoryDataServiceProvider provider;
+
+    @Before
+    public void init() {
+        provider = new MemoryDataServiceProvider();
+        DataServiceFactory.setProvider(provider);
+    }
+
+    @After
+    public void clean() throws Exception {
+        for (int roomId : ROOM_IDS) {
+            RoomInventory.remove(roomId);
+        }
+        DataServiceFactory.setProvider(null);
+    }
+
+    @Test
+    public void testLastRoom() throws Exception {
+        LocalDate start = LocalDate.now().plusDays(1);
+        int success = 0;
+        for (Future<Boolean> result : runConcurrently(THREADS, i -> createOrder(ROOM_IDS[0], start, start.plusDays(2), 1), 1)) {
+            if (result.get()) {
+                success++;
+            }
+        }
+        assertEquals(1, success);
+        assertEquals(1, provider.getOrderDataService().getByHotel(HOTEL_ID).size());
+        assertEquals(0, RoomInventory.getAvailable(ROOM_IDS[0], 1, start, start.plusDays(2)));
+    }
+
+    @Test
+    public void testNoOverbooking() throws Exception {
+        final int total = 10;
+        LocalDate today = LocalDate.now();
+        List<Future<Boolean>> results = runConcurrently(THREADS * ATTEMPTS, i -> {
+            Random random = new Random(i);
+            LocalDate start = today.plusDays(1 + random.nextInt(10));
+            return createOrder(ROOM_IDS[random.nextInt(ROOM_IDS.length)], start, start.plusDays(1 + random.nextInt(4)), 1 + random.nextInt(3));
+        }, total);
+        int success = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                success++;
+            }
+        }
+
+        ArrayList<OrderPO> orders = provider.getOrderDataService().getByHotel(HOTEL_ID);
+        assertEquals(success, orders.size());
+        HashMap<Integer, HashMap<LocalDate, Integer>> booked = new HashMap<>();
+        for (OrderPO po : orders) {
+            HashMap<LocalDate, Integer> nights = booked.computeIfAbsent(po.getRoomId(), k -> new HashMap<>());
+            for (LocalDate night = po.getStartDate(); night.isBefore(po.getEndDate()); night = night.plusDays(1)) {
+                nights.merge(night, po.getRoomCount(), Integer::sum);
+            }
+        }
+        for (int roomId : ROOM_IDS) {
+            HashMap<LocalDate, Integer> nights = booked.getOrDefault(roomId, new HashMap<>());
+            for (LocalDate night = today.plusDays(1); night.isBefore(today.plusDays(15)); night = night.plusDays(1)) {
+                int count = nights.getOrDefault(night, 0);
+                assertTrue("客房 " + roomId + " 在 " + night + " 超订", count <= total);
+                // 台账与订单一致
+                assertEquals(total - count, RoomInventory.getAvailable(roomId, total, night, night.plusDays(1)));
+                assertEquals(count, (int) provider.getRoomInventoryDataService().get(roomId, night).getOrDefault(night, 0));
+            }
+        }
+    }
+
+    private List<Future<Boolean>> runConcurrently(int count, OrderFactory factory, int total) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        ArrayList<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                OrderPO po = factory.create(i);
+                Callable<Boolean> task = () -> {
+                    ready.await();
+                    return RoomInventory.reserve(po, total);
+                };
+                results.add(executor.submit(task));
+            }
+            ready.countDown();
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        return results;
+    }
+
+    private static OrderPO createOrder(int roomId, LocalDate start, LocalDate end, int roomCount) {
+        return new OrderPO(0, "user", HOTEL_ID, start, end, roomId, roomCount, 1, "[\"张三\"]", false, 100, OrderState.BOOKED, 0, "");
+    }
+
+    private interface OrderFactory {
+        OrderPO create(int i);
+    }
+
+}
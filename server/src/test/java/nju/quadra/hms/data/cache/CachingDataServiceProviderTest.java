@@ -0,0 +1,71 @@
+package nju.quadra.hms.data.cache;
+
+import nju.quadra.hms.data.memory.MemoryDataServiceProvider;
+import nju.quadra.hms.dataservice.HotelDataService;
+import nju.quadra.hms.dataservice.HotelRoomDataService;
+import nju.quadra.hms.po.HotelPO;
+import nju.quadra.hms.po.HotelRoomPO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CachingDataServiceProviderTest {
+    private HotelDataService hotelDataService;
+    private HotelRoomDataService hotelRoomDataService;
+
+    @Before
+    public void init() throws Exception {
+        CachingDataServiceProvider provider = new CachingDataServiceProvider(new MemoryDataServiceProvider(), 2, 60000);
+        hotelDataService = provider.getHotelDataService();
+        hotelRoomDataService = provider.getHotelRoomDataService();
+        hotelDataService.insert(new HotelPO(0, "酒店", 1, "地址", "简介", "设施", "三星级", "staff1"));
+        for (int i = 1; i <= 3; i++) {
+            hotelRoomDataService.insert(new HotelRoomPO(0, 1, "客房" + i, 10, 100 * i));
+        }
+    }
+
+    @Test
+    public void testReadThrough() throws Exception {
+        EntityCache<?, ?> cache = cacheNamed("hotel");
+        HotelPO po = hotelDataService.getById(1);
+        po.setName("修改但未保存");
+        assertEquals("酒店", hotelDataService.getById(1).getName());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertNull(hotelDataService.getById(2));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        HotelPO po = hotelDataService.getByStaff("staff1");
+        hotelDataService.getById(1);
+        po.setStaff("staff2");
+        hotelDataService.update(po);
+        assertNull(hotelDataService.getByStaff("staff1"));
+        assertEquals(1, hotelDataService.getByStaff("staff2").getId());
+        assertEquals("staff2", hotelDataService.getById(1).getStaff());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        EntityCache<?, ?> cache = cacheNamed("hotelRoom");
+        assertEquals(3, hotelRoomDataService.getByIds(Arrays.asList(1, 2, 3)).size());
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(3, hotelRoomDataService.getByIds(Arrays.asList(1, 2, 3)).size());
+        assertEquals(2, cache.getHits());
+
+        HotelRoomPO room = hotelRoomDataService.getById(3);
+        room.setPrice(50);
+        hotelRoomDataService.update(room);
+        assertEquals(50, hotelRoomDataService.getById(3).getPrice(), 0);
+    }
+
+    private static EntityCache<?, ?> cacheNamed(String name) {
+        return EntityCache.getCaches().stream().filter(cache -> cache.getName().equals(name)).findFirst().get();
+    }
+}
@@ -0,0 +1,128 @@
+package nju.quadra.hms.data.memory;
+
+import nju.quadra.hms.dataservice.CreditDataService;
+import nju.quadra.hms.dataservice.HotelDataService;
+import nju.quadra.hms.dataservice.OrderDataService;
+import nju.quadra.hms.dataservice.OrderQuery;
+import nju.quadra.hms.model.CreditAction;
+import nju.quadra.hms.model.OrderState;
+import nju.quadra.hms.po.HotelPO;
+import nju.quadra.hms.po.OrderPO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class MemoryDataServiceProviderTest {
+    private OrderDataService orderDataService;
+    private HotelDataService hotelDataService;
+    private CreditDataService creditDataService;
+
+    @Before
+    public void init() throws Exception {
+        MemoryDataServiceProvider provider = new MemoryDataServiceProvider();
+        orderDataService = provider.getOrderDataService();
+        hotelDataService = provider.getHotelDataService();
+        creditDataService = provider.getCreditDataService();
+        LocalDate today = LocalDate.now();
+        orderDataService.insert(createOrder("user1", 1, today.minusDays(2), OrderState.BOOKED));
+        orderDataService.insert(createOrder("user1", 2, today.plusDays(1), OrderState.BOOKED));
+        orderDataService.insert(createOrder("user2", 1, today.minusDays(1), OrderState.FINISHED));
+    }
+
+    @Test
+    public void testIndexes() throws Exception {
+        ArrayList<OrderPO> orders = orderDataService.getByCustomer("user1");
+        assertEquals(2, orders.size());
+        assertEquals(2, orders.get(0).getId());
+        assertEquals(1, orders.get(1).getId());
+        assertEquals(2, orderDataService.getByHotel(1).size());
+        assertEquals(1, orderDataService.getByState(OrderState.FINISHED).size());
+        assertEquals(0, orderDataService.getByCustomer("user3").size());
+    }
+
+    @Test
+    public void testPage() throws Exception {
+        LocalDate today = LocalDate.now();
+        orderDataService.insert(createOrder("user1", 2, today.minusDays(2), OrderState.BOOKED));
+        OrderQuery user1 = new OrderQuery().username("user1");
+        ArrayList<OrderPO> page = orderDataService.query(user1, null, 0, 2);
+        assertEquals(2, page.size());
+        assertEquals(2, page.get(0).getId());
+        assertEquals(4, page.get(1).getId());
+        OrderPO last = page.get(1);
+        page = orderDataService.query(user1, last.getStartDate(), last.getId(), 2);
+        assertEquals(1, page.size());
+        assertEquals(1, page.get(0).getId());
+        assertEquals(0, orderDataService.query(user1, today.minusDays(2), 1, 2).size());
+        assertEquals(1, orderDataService.query(new OrderQuery().hotelId(1), today.minusDays(1), 3, 10).size());
+        assertEquals(3, orderDataService.count(user1));
+        assertEquals(2, orderDataService.count(new OrderQuery().hotelId(2)));
+        assertEquals(3, orderDataService.count(new OrderQuery().states(EnumSet.of(OrderState.BOOKED))));
+        assertEquals(0, orderDataService.count(new OrderQuery().states(EnumSet.of(OrderState.UNDO))));
+    }
+
+    @Test
+    public void testQuery() throws Exception {
+        LocalDate today = LocalDate.now();
+        assertEquals(3, orderDataService.count(new OrderQuery()));
+        OrderQuery query = new OrderQuery().hotelId(1).states(EnumSet.of(OrderState.BOOKED, OrderState.FINISHED));
+        assertEquals(2, orderDataService.count(query));
+        query.endFrom(today);
+        ArrayList<OrderPO> orders = orderDataService.query(query, null, 0, 10);
+        assertEquals(1, orders.size());
+        assertEquals(3, orders.get(0).getId());
+        assertEquals(0, orderDataService.count(query.startTo(today.minusDays(2))));
+        assertEquals(1, orderDataService.count(new OrderQuery().states(EnumSet.of(OrderState.FINISHED, OrderState.UNDO)).roomId(1)));
+        assertEquals(0, orderDataService.count(new OrderQuery().states(EnumSet.noneOf(OrderState.class))));
+        assertEquals(0, orderDataService.count(new OrderQuery().username("user2").hotelId(2)));
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        OrderPO po = orderDataService.getById(1);
+        po.setState(OrderState.UNDO);
+        assertEquals(OrderState.BOOKED, orderDataService.getById(1).getState());
+        orderDataService.update(po);
+        assertEquals(OrderState.UNDO, orderDataService.getById(1).getState());
+        assertEquals(1, orderDataService.getByState(OrderState.BOOKED).size());
+        assertEquals(1, orderDataService.getByState(OrderState.UNDO).size());
+
+        HotelPO hotel = new HotelPO(0, "酒店", 1, "地址", "简介", "设施", "三星级", "staff1");
+        hotelDataService.insert(hotel);
+        hotel = hotelDataService.getByStaff("staff1");
+        hotel.setStaff("staff2");
+        hotel.setAreaId(2);
+        hotelDataService.update(hotel);
+        assertNull(hotelDataService.getByStaff("staff1"));
+        assertEquals(hotel.getId(), hotelDataService.getByStaff("staff2").getId());
+        assertEquals(0, hotelDataService.getByArea(1).size());
+        assertEquals(1, hotelDataService.getByArea(2).size());
+    }
+
+    @Test(expected = Exception.class)
+    public void testUpdateNotFound() throws Exception {
+        orderDataService.update(createOrder("user1", 1, LocalDate.now(), OrderState.BOOKED));
+    }
+
+    @Test
+    public void testMarkDelayed() throws Exception {
+        ArrayList<OrderPO> delayed = orderDataService.markDelayed(LocalDate.now(), CreditAction.ORDER_DELAYED, -1.0);
+        assertEquals(1, delayed.size());
+        assertEquals(1, delayed.get(0).getId());
+        assertEquals(OrderState.DELAYED, orderDataService.getById(1).getState());
+        assertEquals(1, creditDataService.get("user1").size());
+        assertEquals(-100.0, creditDataService.get("user1").get(0).getDiff(), 0.0);
+        assertEquals(-100.0, creditDataService.getTotalDiff("user1"), 0.0);
+        assertEquals(0.0, creditDataService.getTotalDiff("user2"), 0.0);
+        assertEquals(0, orderDataService.markDelayed(LocalDate.now(), CreditAction.ORDER_DELAYED, -1.0).size());
+    }
+
+    private static OrderPO createOrder(String username, int hotelId, LocalDate startDate, OrderState state) {
+        return new OrderPO(0, username, hotelId, startDate, startDate.plusDays(1), 1, 1, 1, "[\"张三\"]", false, 100.0, state, 0, null);
+    }
+}
@@ -1,24 +1,88 @@
 package nju.quadra.hms.net;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import nju.quadra.hms.data.DataServiceFactory;
+import nju.quadra.hms.data.memory.MemoryDataServiceProvider;
+import nju.quadra.hms.model.LoginSession;
+import nju.quadra.hms.model.MemberType;
+import nju.quadra.hms.model.ResultMessage;
+import nju.quadra.hms.model.UserType;
+import nju.quadra.hms.po.UserPO;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.Random;
 
 import static org.junit.Assert.*;
 
 public class HttpServiceTest {
+    private int port;
 
     @Test
     public void test() {
+        HttpService httpService = start();
+        httpService.stop();
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        HttpService httpService = start();
+        try {
+            // 会话无效的调用计为失败
+            assertEquals("Invalid request", get("/HotelBL/getDetail/invalid"));
+            String metrics = get("/metrics");
+            assertTrue(metrics.contains("# TYPE hms_rpc_requests_total counter"));
+            assertTrue(metrics.contains("hms_rpc_errors_total{method=\"HotelBL/getDetail\"} "));
+            assertTrue(metrics.contains("hms_rpc_duration_seconds{method=\"HotelBL/getDetail\",quantile=\"0.99\"} "));
+            assertTrue(metrics.contains("hms_rpc_in_flight{method=\"HotelBL/getDetail\"} 0"));
+            assertTrue(metrics.contains("# TYPE hms_data_duration_seconds summary"));
+        } finally {
+            httpService.stop();
+        }
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        MemoryDataServiceProvider provider = new MemoryDataServiceProvider();
+        provider.getUserDataService().insert(new UserPO("TEST_batch", "", "测试客户", "123", UserType.CUSTOMER, MemberType.NONE, null, ""));
+        DataServiceFactory.setProvider(provider);
+        SessionManager.add(new LoginSession("TEST_batch_session", "TEST_batch", UserType.CUSTOMER));
+        HttpService httpService = start();
+        try {
+            assertEquals("Invalid request", post("/batch/invalid", "[]"));
+            String request = "[{\"class\": \"UserBL\", \"method\": \"get\", \"params\": [\"TEST_batch\"]},"
+                    + "{\"class\": \"UserBL\", \"method\": \"modifyBasicInfo\", \"params\": [{\"username\": \"TEST_batch\", \"name\": \"新名字\", \"contact\": \"456\", \"type\": \"CUSTOMER\"}]},"
+                    + "{\"class\": \"UserBL\", \"method\": \"get\", \"params\": [\"TEST_batch\"]},"
+                    + "{\"class\": \"UserBL\", \"method\": \"noSuchMethod\", \"params\": []}]";
+            JsonArray results = new JsonParser().parse(post("/batch/TEST_batch_session", request)).getAsJsonArray();
+            assertEquals(4, results.size());
+            assertEquals("测试客户", results.get(0).getAsJsonObject().getAsJsonObject("result").get("name").getAsString());
+            assertEquals(ResultMessage.RESULT_SUCCESS, results.get(1).getAsJsonObject().getAsJsonObject("result").get("result").getAsInt());
+            // 修改之后的调用读取到修改后的数据
+            assertEquals("新名字", results.get(2).getAsJsonObject().getAsJsonObject("result").get("name").getAsString());
+            assertEquals("Invalid request", results.get(3).getAsJsonObject().get("error").getAsString());
+        } finally {
+            httpService.stop();
+            DataServiceFactory.setProvider(null);
+        }
+    }
+
+    private HttpService start() {
         int failedCount = 0;
         HttpService httpService;
         while (true) {
-            int port = new Random().nextInt(55536) + 10000;
+            port = new Random().nextInt(55536) + 10000;
             httpService = new HttpService(port);
             try {
                 httpService.start();
-                break;
+                return httpService;
             } catch (IOException e) {
                 failedCount++;
                 if (failedCount > 10) {
@@ -26,7 +90,32 @@ public class HttpServiceTest {
                 }
             }
         }
-        httpService.stop();
+    }
+
+    private String get(String path) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        return read(conn);
+    }
+
+    private String post(String path, String payload) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        conn.setDoOutput(true);
+        try (OutputStream os = conn.getOutputStream()) {
+            os.write(payload.getBytes(StandardCharsets.UTF_8));
+        }
+        return read(conn);
+    }
+
+    private static String read(HttpURLConnection conn) throws IOException {
+        try (InputStream is = conn.getInputStream()) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = is.read(buffer)) > 0) {
+                os.write(buffer, 0, length);
+            }
+            return new String(os.toByteArray(), StandardCharsets.UTF_8);
+        }
     }
 
 }
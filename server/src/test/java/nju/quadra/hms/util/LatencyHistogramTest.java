@@ -0,0 +1,55 @@
+package nju.quadra.hms.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().getQuantile(0.5));
+
+        Random random = new Random(1);
+        long[] values = new long[100000];
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            // 1µs 到约 1s 之间按对数均匀分布
+            values[i] = (long) Math.pow(10, 3 + random.nextDouble() * 6);
+            sum += values[i];
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(values.length, snapshot.getCount());
+        assertEquals(sum, snapshot.getSum());
+        assertEquals(values[values.length - 1], snapshot.getMax());
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            long exact = values[(int) Math.ceil(quantile * values.length) - 1];
+            long estimate = snapshot.getQuantile(quantile);
+            // 取区间上界，不小于准确值且相对误差不超过 1/16
+            assertTrue(estimate >= exact);
+            assertTrue(estimate - exact <= exact / 16);
+        }
+        assertEquals(snapshot.getMax(), snapshot.getQuantile(1.0));
+    }
+
+    @Test
+    public void testSmallValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 10; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(11, snapshot.getCount());
+        assertEquals(4, snapshot.getQuantile(0.5));
+        assertEquals(9, snapshot.getMax());
+    }
+
+}
@@ -0,0 +1,141 @@
+package nju.quadra.hms.util;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class LoggerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void clean() {
+        assertTrue(Logger.flush(5000));
+        Logger.init(null);
+        Logger.configure(Logger.Level.INFO, 500, null, 0, 1);
+    }
+
+    @Test
+    public void testFields() throws Exception {
+        File dir = folder.newFolder();
+        Logger.configure(Logger.Level.INFO, 500, dir, 0, 1);
+        Logger.log("I", "用户已登录", "user", "test", "ip", "10.0.0.1", "agent", "a \"b\"");
+        Logger.log("D", "不会记录");
+        Logger.log(new IllegalStateException("错误"));
+        assertTrue(Logger.flush(5000));
+
+        List<String> lines = readLines(new File(dir, "server.log"));
+        assertTrue(lines.get(0).endsWith("] I: 用户已登录 user=test ip=10.0.0.1 agent=\"a \\\"b\\\"\""));
+        assertTrue(lines.get(1).endsWith("] E: IllegalStateException/错误"));
+        // 文件中还包括异常的调用栈
+        assertTrue(lines.get(2).startsWith("java.lang.IllegalStateException"));
+        for (String line : lines) {
+            assertFalse(line.contains("不会记录"));
+        }
+    }
+
+    @Test
+    public void testRolling() throws Exception {
+        File dir = folder.newFolder();
+        Logger.configure(Logger.Level.INFO, 500, dir, 1000, 3);
+        for (int i = 0; i < 200; i++) {
+            Logger.log("I", "line " + i);
+        }
+        assertTrue(Logger.flush(5000));
+
+        assertTrue(new File(dir, "server.log").exists());
+        assertTrue(new File(dir, "server.log.1").exists());
+        assertTrue(new File(dir, "server.log.2").exists());
+        assertFalse(new File(dir, "server.log.3").exists());
+        assertTrue(new File(dir, "server.log.1").length() <= 1000);
+        List<String> lines = readLines(new File(dir, "server.log"));
+        assertTrue(lines.get(lines.size() - 1).endsWith("line 199"));
+    }
+
+    @Test
+    public void testRollingMultibyte() throws Exception {
+        File dir = folder.newFolder();
+        Logger.configure(Logger.Level.INFO, 500, dir, 1000, 3);
+        // 中文字符在 UTF-8 中占 3 字节，滚动按字节数而非字符数计算
+        for (int i = 0; i < 100; i++) {
+            Logger.log("I", "订单已创建 " + i);
+        }
+        assertTrue(Logger.flush(5000));
+
+        assertTrue(new File(dir, "server.log.1").exists());
+        assertTrue(new File(dir, "server.log.1").length() <= 1000);
+        assertTrue(new File(dir, "server.log.2").length() <= 1000);
+    }
+
+    @Test
+    public void testView() throws Exception {
+        AtomicReference<String> text = new AtomicReference<>("");
+        Logger.configure(Logger.Level.INFO, 5, null, 0, 1);
+        Logger.init(text::set);
+        for (int i = 0; i < 20; i++) {
+            Logger.log("I", "line " + i);
+        }
+        assertTrue(Logger.flush(5000));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!text.get().contains("line 19") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        String[] lines = text.get().split(System.lineSeparator());
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].endsWith("line 15"));
+        assertTrue(lines[4].endsWith("line 19"));
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final int threads = 16, count = 10000;
+        File dir = folder.newFolder();
+        Logger.configure(Logger.Level.INFO, 500, dir, 0, 1);
+        ArrayList<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < count; i++) {
+                    Logger.log("I", "message", "thread", thread, "i", i);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(Logger.flush(5000));
+
+        // 缓冲区已满时丢弃的日志被计数，写出与丢弃的数量之和等于记录的数量
+        Pattern droppedPattern = Pattern.compile("丢弃了 (\\d+) 条日志");
+        long logged = 0, dropped = 0;
+        for (String line : readLines(new File(dir, "server.log"))) {
+            Matcher matcher = droppedPattern.matcher(line);
+            if (matcher.find()) {
+                dropped += Long.parseLong(matcher.group(1));
+            } else if (line.contains("] I: message thread=")) {
+                logged++;
+            }
+        }
+        assertEquals((long) threads * count, logged + dropped);
+    }
+
+    private static List<String> readLines(File file) throws Exception {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+
+}